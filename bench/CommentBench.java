@@ -0,0 +1,37 @@
+import java.io.StringReader;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Times the Lexer on comment-heavy code, about 31.7M characters in 200k
+    blocks. Each block has an indented comment line, a statement with a
+    comment after it and two blank lines. The code is read once as a String
+    and once through a StringReader, and the best of 15 runs is printed.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -cp out CommentBench
+ */
+public class CommentBench {
+    public static void main(String[] args) throws Exception {
+        StringBuilder code = new StringBuilder("BEGIN CODE\nINT x = 0\n");
+        for (int i = 0; i < 200000; i++) {
+            code.append("        # ---------------------------------------------------------------- step ").append(i).append('\n');
+            code.append("        x = x + 1        # increment the counter by one for this step\n");
+            code.append("\n\n");
+        }
+        code.append("END CODE\n");
+        String source = code.toString();
+        System.out.printf("%d characters%n", source.length());
+
+        for (boolean reader : new boolean[]{false, true}) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 15; round++) {
+                long start = System.nanoTime();
+                Lexer lexer = reader ? new Lexer(new StringReader(source)) : new Lexer(source);
+                while (lexer.getToken().getTokenType() != TokenType.ENDOFFILE);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%-20s %.1f ms%n", reader ? "Lexer(StringReader)" : "Lexer(String)", best / 1e6);
+        }
+    }
+}
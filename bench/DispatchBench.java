@@ -0,0 +1,78 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import Analysis.Interpreter;
+import Analysis.Optimization.PassManager;
+import Analysis.ParseTree.ProgramNode;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.Parser;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Times how fast the Interpreter and Semantic walk the tree: a nested
+    WHILE loop of 3M iterations at -O0, so the passes do not change what
+    runs, and the semantic check of big200k. Each is run 12 times, the
+    first 4 are warm-up and the best and median of the rest are printed.
+    Start it a few times, the numbers move between JVMs.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -cp out DispatchBench
+ */
+public class DispatchBench {
+    private static final String LOOP = "BEGIN CODE\n"
+        + "INT a = 0, b = 1, c = 2, i = 0, j = 0\n"
+        + "BOOL t = \"TRUE\"\n"
+        + "WHILE (i < 3000)\n"
+        + "BEGIN WHILE\n"
+        + "j = 0\n"
+        + "WHILE (j < 1000)\n"
+        + "BEGIN WHILE\n"
+        + "a = (a + b * c - j) % 1000\n"
+        + "b = (b + a) % 7 + 1\n"
+        + "j = j + 1\n"
+        + "END WHILE\n"
+        + "i = i + 1\n"
+        + "END WHILE\n"
+        + "DISPLAY: a & \" \" & b\n"
+        + "END CODE\n";
+
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long[] run = new long[12];
+        for (int i = 0; i < run.length; i++) {
+            Interpreter interpreter = new Interpreter(new Lexer(LOOP), false, PassManager.forLevel(0));
+            long start = System.nanoTime();
+            interpreter.execute(null);
+            run[i] = System.nanoTime() - start;
+        }
+        ProgramNode program = new Parser(new Lexer(Programs.statements(200000))).parseProgram(TokenType.CODE);
+        long[] check = new long[12];
+        for (int i = 0; i < check.length; i++) {
+            Semantic semantic = new Semantic();
+            long start = System.nanoTime();
+            semantic.analyze(program);
+            check[i] = System.nanoTime() - start;
+        }
+        System.setOut(out);
+        System.out.printf("run loop: best %.0f ms, median %.0f ms%n", best(run), median(run));
+        System.out.printf("semantic big200k: best %.1f ms, median %.1f ms%n", best(check), median(check));
+    }
+
+    private static double best(long[] times) {
+        return warm(times)[0] / 1e6;
+    }
+
+    private static double median(long[] times) {
+        long[] warm = warm(times);
+        return warm[warm.length / 2] / 1e6;
+    }
+
+    // The times after the first 4 runs, sorted
+    private static long[] warm(long[] times) {
+        long[] warm = Arrays.copyOfRange(times, 4, times.length);
+        Arrays.sort(warm);
+        return warm;
+    }
+}
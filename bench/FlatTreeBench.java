@@ -0,0 +1,60 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import Analysis.Interpreter;
+import Analysis.Optimization.PassManager;
+import Analysis.ParseTree.FlatTree;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.Parser;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Measures the heap an object AST and a FlatTree keep after parsing a
+    generated program of 500k statements, then times parse, check and run
+    of 200k statements. The FlatTree is never optimized, so the object AST
+    runs at -O0 too. Run one JVM per tree so the heap numbers do not mix.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -Xmx2g -cp out FlatTreeBench object
+        java -Xmx2g -cp out FlatTreeBench flat
+ */
+public class FlatTreeBench {
+    public static void main(String[] args) throws Exception {
+        boolean flat = args.length > 0 && args[0].equals("flat");
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 500000;
+        String name = flat ? "FlatTree" : "object AST";
+
+        String code = Programs.statements(count);
+        long before = usedHeap();
+        Object tree;
+        if (flat)
+            tree = new Parser(new Lexer(code)).parseFlatProgram();
+        else
+            tree = new Parser(new Lexer(code)).parseProgram(TokenType.CODE);
+        long retained = usedHeap() - before;
+        System.out.printf("%s: %d statements, %.0f MB retained (%.0f B/statement)%s%n", name, count,
+            retained / 1e6, retained / (double) count, flat ? ", " + ((FlatTree) tree).size() + " nodes" : "");
+        tree = null;
+
+        // The program's DISPLAY output is thrown away while the runs are timed
+        String run = Programs.statements(200000);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 6; round++) {
+            long start = System.nanoTime();
+            new Interpreter(new Lexer(run), flat, PassManager.forLevel(0)).execute(null);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.setOut(out);
+        System.out.printf("%s: parse, check and run of 200000 statements, best %.2f s%n", name, best / 1e9);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,33 @@
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Times the Lexer on 100k DISPLAY lines that hold every kind of literal,
+    about 1.4M tokens. Only the constructor and getToken() are used, so the
+    same file also runs against older Lexers for a before and after.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -cp out LexBench
+ */
+public class LexBench {
+    public static void main(String[] args) throws Exception {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 100000; i++)
+            code.append("DISPLAY: ").append(i).append(" & 1.25 & 'c' & \"TRUE\" & \"str\" & [#]\n");
+        String source = code.toString();
+
+        long best = Long.MAX_VALUE;
+        int tokens = 0;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            Lexer lexer = new Lexer(source);
+            tokens = 0;
+            while (lexer.getToken().getTokenType() != TokenType.ENDOFFILE)
+                tokens++;
+            long time = System.nanoTime() - start;
+            best = Math.min(best, time);
+            System.out.printf("round %d: %.1f ms%n", round, time / 1e6);
+        }
+        System.out.printf("%d tokens, best %.1f ms%n", tokens, best / 1e6);
+    }
+}
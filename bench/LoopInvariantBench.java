@@ -0,0 +1,76 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import Analysis.Interpreter;
+import Analysis.Optimization.ConstantFolding;
+import Analysis.Optimization.LoopInvariantMotion;
+import Analysis.Optimization.PassManager;
+import Analysis.SyntaxAnalyzer.Lexer;
+
+/*
+    Times a nested WHILE loop of 3M inner iterations in which n * 3,
+    n - 1 + 1, b * c and (n + b) * 2 do not change, with ConstantFolding
+    alone and with LoopInvariantMotion after it, best of 20 each. The same is
+    done for a loop with nothing to hoist, which should not change.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -cp out LoopInvariantBench
+ */
+public class LoopInvariantBench {
+    private static final String INVARIANT = "BEGIN CODE\n"
+        + "INT a = 0, b = 7, c = 3, n = 1000, i = 0, j = 0, s = 0\n"
+        + "WHILE (i < n * 3)\n"
+        + "BEGIN WHILE\n"
+        + "j = 0\n"
+        + "WHILE (j < n - 1 + 1)\n"
+        + "BEGIN WHILE\n"
+        + "a = (a + b * c - i * c + (n + b) * 2) % 1000\n"
+        + "s = s + i * b + c\n"
+        + "j = j + 1\n"
+        + "END WHILE\n"
+        + "i = i + 1\n"
+        + "END WHILE\n"
+        + "DISPLAY: a & \" \" & s\n"
+        + "END CODE\n";
+
+    private static final String PLAIN = "BEGIN CODE\n"
+        + "INT a = 0, b = 1, c = 2, i = 0, j = 0\n"
+        + "WHILE (i < 3000)\n"
+        + "BEGIN WHILE\n"
+        + "j = 0\n"
+        + "WHILE (j < 1000)\n"
+        + "BEGIN WHILE\n"
+        + "a = (a + b * c - j) % 1000\n"
+        + "b = (b + a) % 7 + 1\n"
+        + "j = j + 1\n"
+        + "END WHILE\n"
+        + "i = i + 1\n"
+        + "END WHILE\n"
+        + "DISPLAY: a & \" \" & b\n"
+        + "END CODE\n";
+
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+        for (String[] program : new String[][]{{"invariant", INVARIANT}, {"nothing to hoist", PLAIN}}) {
+            // The two are run in turns so both get the same JIT warm-up
+            long folded = Long.MAX_VALUE;
+            long hoisted = Long.MAX_VALUE;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (int round = 0; round < 20; round++) {
+                folded = Math.min(folded, time(program[1], false));
+                hoisted = Math.min(hoisted, time(program[1], true));
+            }
+            System.setOut(out);
+            System.out.printf("%s: folding only %.0f ms, with LoopInvariantMotion %.0f ms%n", program[0], folded / 1e6, hoisted / 1e6);
+        }
+    }
+
+    private static long time(String code, boolean hoist) throws Exception {
+        PassManager passes = new PassManager().add("ConstantFolding", semantic -> new ConstantFolding());
+        if (hoist)
+            passes.add("LoopInvariantMotion", LoopInvariantMotion::new);
+        Interpreter interpreter = new Interpreter(new Lexer(code), false, passes);
+        long start = System.nanoTime();
+        interpreter.execute(null);
+        return System.nanoTime() - start;
+    }
+}
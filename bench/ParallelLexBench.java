@@ -0,0 +1,43 @@
+import java.util.concurrent.ForkJoinPool;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.ParallelLexer;
+
+/*
+    Compares Lexer.tokenize() with the ParallelLexer on a program of about
+    46M characters. The ParallelLexer runs on 1, 2 and 4 threads, and on
+    one thread per processor when there are more. On a machine with one
+    processor this only shows the cost of splitting and joining the chunks.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -Xmx4g -cp out ParallelLexBench
+ */
+public class ParallelLexBench {
+    public static void main(String[] args) throws Exception {
+        String code = Programs.statements(1300000);
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d characters, %d processors%n", code.length(), processors);
+
+        long best = Long.MAX_VALUE;
+        int tokens = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            tokens = new Lexer(code).tokenize().size();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("sequential Lexer.tokenize()  %.0f ms, %d tokens%n", best / 1e6, tokens);
+
+        int[] threadCounts = processors > 4 ? new int[]{1, 2, 4, processors} : new int[]{1, 2, 4};
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelLexer lexer = new ParallelLexer(pool);
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                tokens = lexer.tokenize(code).size();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            pool.shutdown();
+            System.out.printf("ParallelLexer, %d threads     %.0f ms, %d tokens%n", threads, best / 1e6, tokens);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.Parser;
+import Analysis.SyntaxAnalyzer.PipelinedLexer;
+
+/*
+    Times the front end, lexing and parsing into a FlatTree, with the serial
+    Lexer and with the PipelinedLexer on the generated 200k-statement
+    program. With one processor the two threads cannot overlap, so the
+    pipelined numbers only show its overhead there.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -cp out PipelineBench
+ */
+public class PipelineBench {
+    public static void main(String[] args) throws Exception {
+        String code = Programs.statements(200000);
+        System.out.printf("%d characters, %d processors%n", code.length(), Runtime.getRuntime().availableProcessors());
+
+        for (int round = 0; round < 8; round++) {
+            long start = System.nanoTime();
+            new Parser(new Lexer(code)).parseFlatProgram();
+            long serial = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            try (PipelinedLexer lexer = new PipelinedLexer(code)) {
+                new Parser(lexer).parseFlatProgram();
+            }
+            long pipelined = System.nanoTime() - start;
+
+            System.out.printf("round %d: serial %.0f ms (%.1f MB/s), pipelined %.0f ms (%.1f MB/s)%n", round,
+                serial / 1e6, code.length() / (serial / 1e3), pipelined / 1e6, code.length() / (pipelined / 1e3));
+        }
+    }
+}
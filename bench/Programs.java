@@ -0,0 +1,47 @@
+/*
+    Generates the programs the benchmarks run on, so no input file has to
+    be kept next to them. statements(200000) is the program the benchmarks
+    call big200k, a mix of assignments, DISPLAY, IF/ELSE and WHILE.
+    branchy(20000) is about 15M characters of IF statements whose blocks
+    never run, each with the same 20 assignments.
+    Example below:
+        String code = Programs.statements(200000);
+ */
+public class Programs {
+    public static String statements(int count) {
+        StringBuilder code = new StringBuilder("BEGIN CODE\nINT a = 1, b = 2, c = 3\n");
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0:
+                    code.append("a = b * ").append(i % 97).append(" + (c - 4) % 7\n");
+                    break;
+                case 1:
+                    code.append("DISPLAY: a & \"x\" & $\n");
+                    break;
+                case 2:
+                    code.append("IF (a > ").append(i % 13).append(")\nBEGIN IF\nb = b + 1\nEND IF\nELSE\nBEGIN IF\nc = -c\nEND IF\n");
+                    break;
+                case 3:
+                    code.append("WHILE (a < 3)\nBEGIN WHILE\na = a + 1\nEND WHILE\n");
+                    break;
+                default:
+                    code.append("c = a + b + c + ").append(i % 31).append("\n");
+            }
+        }
+        return code.append("END CODE\n").toString();
+    }
+
+    public static String branchy(int count) {
+        StringBuilder code = new StringBuilder("BEGIN CODE\nINT a = 1, b = 2, c = 3, i = 0\n");
+        for (int i = 0; i < count; i++) {
+            code.append("IF (a > 100)\nBEGIN IF\n");
+            for (int k = 0; k < 20; k++) {
+                code.append("    b = b * (c + ").append(k).append(") - a % ").append(k + 1).append('\n');
+                if (k % 5 == 0)
+                    code.append("    DISPLAY: b & \" \" & c\n");
+            }
+            code.append("END IF\nELSE\nBEGIN IF\n    c = c + 1\nEND IF\n");
+        }
+        return code.append("DISPLAY: c\nEND CODE\n").toString();
+    }
+}
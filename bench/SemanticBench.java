@@ -0,0 +1,43 @@
+import java.util.concurrent.ForkJoinPool;
+import Analysis.ParseTree.ProgramNode;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.Parser;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Times the semantic check of big200k and branchy, sequential and on a
+    ForkJoinPool of 2 and 4 threads, best of 7. With one processor this
+    only shows what splitting the statements costs.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -cp out SemanticBench
+ */
+public class SemanticBench {
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d processors%n", Runtime.getRuntime().availableProcessors());
+        measure("big200k", Programs.statements(200000));
+        measure("branchy", Programs.branchy(20000));
+    }
+
+    private static void measure(String name, String code) throws Exception {
+        ProgramNode program = new Parser(new Lexer(code)).parseProgram(TokenType.CODE);
+        for (int threads : new int[]{1, 2, 4}) {
+            // One thread means the sequential analyze(ProgramNode)
+            ForkJoinPool pool = threads == 1 ? null : new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 7; round++) {
+                Semantic semantic = new Semantic();
+                long start = System.nanoTime();
+                if (pool == null)
+                    semantic.analyze(program);
+                else
+                    semantic.analyze(program, pool);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            if (pool != null)
+                pool.shutdown();
+            System.out.printf("%s %s: %.1f ms%n", name, pool == null ? "sequential" : threads + " threads", best / 1e6);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import Analysis.ParseTree.Expression.ExpressionFactory;
+import Analysis.ParseTree.ProgramNode;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.Parser;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Measures the heap an object AST keeps with and without an
+    ExpressionFactory, on big200k and on branchy (20k IF statements), and
+    prints how many expression nodes the factory shared. Run one JVM per
+    mode so the heap numbers do not mix.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -Xmx2g -cp out SharingBench plain
+        java -Xmx2g -cp out SharingBench shared
+ */
+public class SharingBench {
+    public static void main(String[] args) throws Exception {
+        boolean shared = args.length > 0 && args[0].equals("shared");
+        measure("big200k", Programs.statements(200000), shared);
+        measure("branchy", Programs.branchy(20000), shared);
+    }
+
+    private static void measure(String name, String code, boolean shared) throws Exception {
+        for (int round = 0; round < 4; round++) {
+            long before = usedHeap();
+            long start = System.nanoTime();
+            Parser parser = new Parser(new Lexer(code));
+            ExpressionFactory factory = shared ? new ExpressionFactory() : null;
+            parser.setExpressionFactory(factory);
+            ProgramNode program = parser.parseProgram(TokenType.CODE);
+            long time = System.nanoTime() - start;
+            // Only the tree is kept, the factory's table is not part of the AST
+            parser = null;
+            String table = factory == null ? "" : factory.toString();
+            factory = null;
+            long retained = usedHeap() - before;
+            System.out.printf("%s %s: parse %.0f ms, AST heap %.0f MB (%d statements)%n", name, shared ? "shared" : "plain",
+                time / 1e6, retained / 1e6, program.getStatements().size());
+            if (round == 3)
+                System.out.println(table);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.List;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.Token;
+import Analysis.SyntaxAnalyzer.TokenBuffer;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Measures the heap the tokens of big200k take, kept as a List<Token>
+    from getToken() or as the TokenBuffer of Lexer.tokenize(), and prints
+    the bytes per token. The list part only uses the Lexer constructor
+    and getToken(), so it also runs against older Lexers for a before and
+    after. Run one JVM per mode so the heap numbers do not mix.
+    Example below:
+        javac -d out $(find src bench -name "*.java")
+        java -Xmx2g -cp out TokenMemoryBench list
+        java -Xmx2g -cp out TokenMemoryBench buffer
+ */
+public class TokenMemoryBench {
+    public static void main(String[] args) throws Exception {
+        boolean buffer = args.length > 0 && args[0].equals("buffer");
+        String code = Programs.statements(200000);
+        for (int round = 0; round < 3; round++) {
+            long before = usedHeap();
+            int count;
+            Object tokens;
+            if (buffer) {
+                TokenBuffer tokenBuffer = new Lexer(code).tokenize();
+                count = tokenBuffer.size();
+                tokens = tokenBuffer;
+            } else {
+                List<Token> tokenList = new ArrayList<>();
+                Lexer lexer = new Lexer(code);
+                Token token;
+                do {
+                    token = lexer.getToken();
+                    tokenList.add(token);
+                } while (token.getTokenType() != TokenType.ENDOFFILE);
+                count = tokenList.size();
+                tokens = tokenList;
+            }
+            long retained = usedHeap() - before;
+            System.out.printf("%s: %d tokens, %.0f MB, %.1f bytes per token%n", buffer ? "TokenBuffer" : "List<Token>",
+                count, retained / 1e6, retained / (double) count);
+            // Keeps the tokens until they are measured
+            if (tokens.hashCode() == 42)
+                System.out.println();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,417 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import Analysis.Interpreter;
+import Analysis.Optimization.PassManager;
+import Analysis.SyntaxAnalyzer.Lexer;
+
+/*
+    Runs random programs at -O0, -O1 and -O2 and checks that they print the
+    same output and end with the same error, so a pass that changes what a
+    program does is found. The programs have copies and dead stores, IF /
+    ELSE IF / ELSE, WHILE loops that count and add up (with SCAN bounds
+    near the largest and smallest int), WHILE ("TRUE") left by a division
+    by zero, / and % by values that can be 0, and variables without a
+    value. The first program that differs is printed with its SCAN input
+    and the two results, and the check exits with 1.
+    Each program comes from its seed, so one that failed can be run again
+    alone with the seed it was printed with.
+    Without -XX:-OmitStackTraceInFastThrow the JIT throws an exception that
+    was thrown often without its message, which is then seen as a
+    difference.
+    Example below:
+        javac -d out $(find src check -name "*.java")
+        java -XX:-OmitStackTraceInFastThrow -cp out DifferentialCheck 20000
+        java -XX:-OmitStackTraceInFastThrow -cp out DifferentialCheck 1 4711
+ */
+public class DifferentialCheck {
+    // The variables a statement can assign, p, q and j are only read
+    private static final String[] ASSIGNED = {"a", "b", "c", "d", "k"};
+    private static final String[] READ = {"a", "b", "c", "d", "k", "p", "q", "j"};
+    private static final String[] COMPARISONS = {"<", ">", "==", "<>", "<=", ">="};
+    // A counting loop is not written when it would go around more than this
+    private static final int MAX_ROUNDS = 5000;
+    private static final int TIMEOUT_SECONDS = 20;
+
+    private final Random random;
+    private final StringBuilder code = new StringBuilder();
+    // A counting loop inside another one could go around MAX_ROUNDS * MAX_ROUNDS times
+    private boolean counting;
+    private int p;
+    private int q;
+
+    private DifferentialCheck(long seed) {
+        random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = Integer.parseInt(args[0]);
+        long first = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int errors = 0;
+        for (long seed = first; seed < first + count; seed++) {
+            DifferentialCheck program = new DifferentialCheck(seed);
+            String code = program.program();
+            String input = program.p + "," + program.q + "\n";
+            String expected = run(code, input, 0);
+            for (int level = 1; level <= 2; level++) {
+                String actual = run(code, input, level);
+                if (!actual.equals(expected)) {
+                    System.out.println("Seed " + seed + " differs at -O" + level + ", input " + input + code);
+                    System.out.println("-O0: " + expected);
+                    System.out.println("-O" + level + ": " + actual);
+                    System.exit(1);
+                }
+            }
+            if (expected.contains("|"))
+                errors++;
+        }
+        System.out.println(count + " programs are the same at -O0, -O1 and -O2, " + errors + " of them end with an error");
+    }
+
+    /*
+        The output of the program, and after a | the exception it ended with.
+        It runs on its own thread, so a pass that makes a loop never end is
+        reported after TIMEOUT_SECONDS instead of hanging the check. The
+        programs are written so that they always end at -O0.
+     */
+    private static String run(String code, String input, int level) throws InterruptedException {
+        PrintStream out = System.out;
+        InputStream in = System.in;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        FutureTask<String> task = new FutureTask<>(() -> {
+            try {
+                new Interpreter(new Lexer(code), false, PassManager.forLevel(level)).execute(null);
+                return "";
+            } catch (Exception e) {
+                return "|" + e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+        });
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        String error;
+        try {
+            error = task.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            error = "|did not end within " + TIMEOUT_SECONDS + " seconds";
+        } catch (ExecutionException e) {
+            error = "|" + e.getCause();
+        } finally {
+            System.setOut(out);
+            System.setIn(in);
+        }
+        // A variable without a value prints its placeholder, whose hash code changes from run to run
+        return (output + error).replaceAll("java\\.lang\\.Object@[0-9a-f]+", "Object");
+    }
+
+    private String program() {
+        p = bound();
+        // Mostly near p, so loops from p to q with small steps can be written, sometimes far away for the big steps
+        if (random.nextInt(4) == 0)
+            q = bound();
+        else
+            q = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (long) p + random.nextInt(6001) - 3000));
+        code.append("BEGIN CODE\n");
+        code.append("INT a = ").append(random.nextInt(5)).append(", b = ").append(random.nextBoolean() ? "a" : "2")
+            .append(", c").append(random.nextInt(5) > 0 ? " = b" : "").append(", d = ").append(random.nextBoolean() ? "c" : "3")
+            .append(", k = 4, p, q, j, u, i0, i1, i2, i3, n0, n1, n2, n3\n");
+        code.append("FLOAT f = 1.5\n");
+        code.append("BOOL s = \"TRUE\", t").append(random.nextBoolean() ? " = s" : "").append("\n");
+        code.append("SCAN: p, q\n");
+        code.append(random.nextInt(4) == 0 ? "j = q * 1\n" : "j = q\n");
+        block(0, 3 + random.nextInt(8));
+        code.append("DISPLAY: a & \";\" & b & \";\" & c & \";\" & d & \";\" & k\n");
+        return code.append("END CODE\n").toString();
+    }
+
+    // A SCAN value, most of them near 0, some near the largest or smallest int and some anywhere
+    private int bound() {
+        switch (random.nextInt(5)) {
+            case 0:
+                return Integer.MAX_VALUE - random.nextInt(3000);
+            case 4:
+                return random.nextInt();
+            case 1:
+                return Integer.MIN_VALUE + random.nextInt(3000);
+            default:
+                return random.nextInt(200) - 100;
+        }
+    }
+
+    private void block(int depth, int statements) {
+        for (int i = 0; i < statements; i++) {
+            switch (random.nextInt(depth > 1 ? 7 : 11)) {
+                case 0:
+                case 1:
+                    code.append(assigned()).append(" = ").append(read()).append("\n");
+                    break;
+                case 2:
+                    code.append(assigned()).append(" = ").append(expression(0)).append("\n");
+                    break;
+                case 3:
+                    code.append(assigned()).append(" = ").append(assigned()).append(" = ")
+                        .append(random.nextBoolean() ? read() : expression(0)).append("\n");
+                    break;
+                case 4:
+                    code.append("DISPLAY: ").append(read()).append(" & \" \" & ").append(expression(0)).append(" & \";\"\n");
+                    break;
+                case 5:
+                    code.append("t = ").append(random.nextBoolean() ? "s" : condition()).append("\n");
+                    break;
+                case 6:
+                    if (counting)
+                        code.append(assigned()).append(" = ").append(expression(0)).append("\n");
+                    else
+                        counting(depth);
+                    break;
+                case 7:
+                    conditional(depth);
+                    break;
+                case 8: {
+                    String counter = "n" + depth;
+                    code.append(counter).append(" = 0\nWHILE (").append(counter).append(" < ").append(random.nextInt(4)).append(")\nBEGIN WHILE\n");
+                    block(depth + 1, 1 + random.nextInt(3));
+                    code.append(counter).append(" = ").append(counter).append(" + 1\nEND WHILE\n");
+                    break;
+                }
+                case 9: {
+                    // Only the division by zero on the third time around ends it, and with it the program
+                    if (random.nextInt(4) > 0) {
+                        code.append("DISPLAY: t & \";\"\n");
+                        break;
+                    }
+                    String counter = "n" + depth;
+                    code.append(counter).append(" = 0\nWHILE (\"TRUE\")\nBEGIN WHILE\n");
+                    block(depth + 1, 1 + random.nextInt(2));
+                    code.append(counter).append(" = ").append(counter).append(" + 1\n")
+                        .append(assigned()).append(" = 10 / (3 - ").append(counter).append(")\nEND WHILE\n");
+                    break;
+                }
+                default:
+                    code.append("DISPLAY: t & \";\"\n");
+            }
+        }
+    }
+
+    private void conditional(int depth) {
+        code.append("IF (").append(condition()).append(")\nBEGIN IF\n");
+        block(depth + 1, 1 + random.nextInt(3));
+        code.append("END IF\n");
+        // An ELSE IF without an ELSE fails in the Interpreter when no condition holds, so it always gets one
+        boolean elseIf = random.nextBoolean();
+        if (elseIf) {
+            code.append("ELSE IF (").append(condition()).append(")\nBEGIN IF\n");
+            block(depth + 1, 1 + random.nextInt(2));
+            code.append("END IF\n");
+        }
+        if (elseIf || random.nextInt(3) > 0) {
+            code.append("ELSE\nBEGIN IF\n");
+            block(depth + 1, 1 + random.nextInt(2));
+            code.append("END IF\n");
+        }
+    }
+
+    /*
+        A loop that counts i<depth> from a start to a bound, like the ones
+        LoopIdiomRecognition replaces. Its start and bound only depend on
+        p and q, so how many times it goes around is found here first, and
+        a loop that would go around too often is not written.
+        Example below:
+            i0 = p
+            WHILE (i0 < q)
+            BEGIN WHILE
+            a = a + i0
+            i0 = i0 + 3
+            END WHILE
+     */
+    private void counting(int depth) {
+        String counter = "i" + depth;
+        for (int attempt = 0; attempt < 10; attempt++) {
+            int step = step();
+            String comparison = random.nextInt(6) == 0 ? "<>" : step > 0 ? (random.nextBoolean() ? "<" : "<=") : (random.nextBoolean() ? ">" : ">=");
+            if (random.nextInt(10) == 0)
+                comparison = COMPARISONS[random.nextInt(COMPARISONS.length)];
+            int start = random.nextInt(3) == 0 ? p + random.nextInt(5) - 2 : p;
+            int end = random.nextInt(3) == 0 ? q + random.nextInt(5) - 2 : q;
+            if (random.nextInt(4) == 0) {
+                // Close to the largest or smallest int, where one more step would wrap around
+                if (random.nextBoolean())
+                    end = step > 0 ? Integer.MAX_VALUE - random.nextInt(step) : Integer.MIN_VALUE + random.nextInt(-step);
+                if (random.nextBoolean())
+                    start = random.nextInt();
+            }
+            if (rounds(start, end, step, comparison) > MAX_ROUNDS)
+                continue;
+
+            String from = start != p ? String.valueOf(start) : random.nextInt(4) == 0 ? "p * 1" : "p";
+            String to = end != q ? String.valueOf(end) : new String[]{"q", "j", String.valueOf(q)}[random.nextInt(3)];
+            code.append(counter).append(" = ").append(from).append("\n");
+            code.append("WHILE (").append(random.nextInt(4) == 0 ? to + " " + flip(comparison) + " " + counter : counter + " " + comparison + " " + to)
+                .append(")\nBEGIN WHILE\n");
+            int statements = random.nextInt(4);
+            int increment = random.nextInt(statements + 1);
+            counting = true;
+            for (int i = 0; i <= statements; i++) {
+                if (i == increment) {
+                    int form = random.nextInt(10);
+                    code.append(counter).append(form < 6 ? " = " + counter + " + " + step
+                        : form < 8 ? " = " + step + " + " + counter : " = " + counter + " - " + -(long) step).append("\n");
+                }
+                if (i < statements)
+                    accumulation(depth, counter);
+            }
+            counting = false;
+            code.append("END WHILE\nDISPLAY: ").append(counter).append(" & \";\"\n");
+            return;
+        }
+    }
+
+    private void accumulation(int depth, String counter) {
+        String sum = assigned();
+        switch (random.nextInt(12)) {
+            case 0:
+            case 1:
+            case 2:
+            case 3:
+                code.append(sum).append(" = ").append(sum).append(" + ").append(term(counter)).append("\n");
+                break;
+            case 4:
+            case 5:
+                code.append(sum).append(" = ").append(term(counter)).append(" + ").append(sum).append("\n");
+                break;
+            case 6:
+            case 7:
+                code.append(sum).append(" = ").append(sum).append(" - ").append(term(counter)).append("\n");
+                break;
+            case 8:
+                code.append(sum).append(" = ").append(sum).append(" * 2\n");
+                break;
+            case 9:
+                code.append("DISPLAY: ").append(sum).append(" & \";\"\n");
+                break;
+            default:
+                // Anything else, so the loop is not always one that can be replaced
+                if (depth < 2)
+                    block(depth + 1, 1);
+                else
+                    code.append(sum).append(" = ").append(sum).append(" + ").append(sum).append("\n");
+        }
+    }
+
+    private String term(String counter) {
+        switch (random.nextInt(8)) {
+            case 0:
+            case 1:
+                return counter;
+            case 2:
+                return String.valueOf(bound());
+            case 3:
+                return random.nextInt(15) == 0 ? "u" : "q";
+            case 4:
+                return random.nextInt(20) == 0 ? "f" : "k";
+            case 5:
+                return "(" + counter + ")";
+            default:
+                return String.valueOf(random.nextInt(7));
+        }
+    }
+
+    private int step() {
+        switch (random.nextInt(10)) {
+            case 0:
+                return random.nextBoolean() ? 100000 + random.nextInt(1000000) : -100000 - random.nextInt(1000000);
+            case 1:
+                return random.nextBoolean() ? 1 + random.nextInt(Integer.MAX_VALUE) : -1 - random.nextInt(Integer.MAX_VALUE);
+            case 2:
+            case 3:
+                return -1 - random.nextInt(9);
+            default:
+                return 1 + random.nextInt(9);
+        }
+    }
+
+    // How many times the loop goes around, with ints that wrap like the Interpreter's, or more than MAX_ROUNDS
+    private static int rounds(int counter, int end, int step, String comparison) {
+        int rounds = 0;
+        while (compare(counter, comparison, end) && rounds <= MAX_ROUNDS) {
+            counter += step;
+            rounds++;
+        }
+        return rounds;
+    }
+
+    private static boolean compare(int left, String comparison, int right) {
+        switch (comparison) {
+            case "<":
+                return left < right;
+            case "<=":
+                return left <= right;
+            case ">":
+                return left > right;
+            case ">=":
+                return left >= right;
+            case "<>":
+                return left != right;
+            default:
+                return left == right;
+        }
+    }
+
+    // The comparison with its two sides swapped
+    private static String flip(String comparison) {
+        switch (comparison) {
+            case "<":
+                return ">";
+            case "<=":
+                return ">=";
+            case ">":
+                return "<";
+            case ">=":
+                return "<=";
+            default:
+                return comparison;
+        }
+    }
+
+    private String condition() {
+        return expression(1) + " " + COMPARISONS[random.nextInt(COMPARISONS.length)] + " " + expression(1);
+    }
+
+    private String expression(int depth) {
+        if (depth > 2 || random.nextInt(3) == 0)
+            return leaf();
+        String operator = new String[]{"+", "-", "*", "+", "-", "/", "%"}[random.nextInt(7)];
+        // Most / and % are by a literal, so fewer programs stop at a division by zero
+        boolean literal = random.nextInt(operator.equals("/") || operator.equals("%") ? 5 : 3) > 1;
+        String right = literal ? String.valueOf(1 + random.nextInt(4)) : expression(depth + 1);
+        String expression = expression(depth + 1) + " " + operator + " " + right;
+        return depth > 0 && random.nextBoolean() ? "(" + expression + ")" : expression;
+    }
+
+    private String leaf() {
+        int kind = random.nextInt(10);
+        if (kind < 3)
+            return String.valueOf(random.nextInt(9));
+        if (kind == 3 && random.nextInt(40) == 0)
+            return "f";
+        return read();
+    }
+
+    private String assigned() {
+        return ASSIGNED[random.nextInt(ASSIGNED.length)];
+    }
+
+    // u has no value, it is read rarely so few programs stop at it
+    private String read() {
+        return random.nextInt(60) == 0 ? "u" : READ[random.nextInt(READ.length)];
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import Analysis.SyntaxAnalyzer.Lexer;
+import Analysis.SyntaxAnalyzer.ParallelLexer;
+import Analysis.SyntaxAnalyzer.Token;
+import Analysis.SyntaxAnalyzer.TokenBuffer;
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Edits programs into code the Lexer cannot read and back, and checks
+    after each edit that TokenBuffer.edit() has the same tokens as a
+    Lexer that reads the whole code, and so does Lexer.tokenize(). The
+    edits add words like "int", numbers that are too big, quotes that are
+    not closed and tokens too long for the length a TokenBuffer keeps,
+    then the same edit is undone, so the buffer has to go back to the
+    tokens it started with. A big program with the same errors is also
+    read by the ParallelLexer, which has to give the same tokens.
+    The first edit that differs is printed with the code and the check
+    exits with 1.
+    Example below:
+        javac -d out $(find src check -name "*.java")
+        java -cp out TokenBufferCheck 2000
+        java -cp out TokenBufferCheck 1 4711
+ */
+public class TokenBufferCheck {
+    private static final String PROGRAM =
+            "BEGIN CODE\n" +
+            "INT a = 1, b = 2\n" +
+            "CHAR c = 'x'\n" +
+            "IF (a > 0)\n" +
+            "BEGIN IF\n" +
+            "    a = b + 1 # a comment\n" +
+            "END IF\n" +
+            "DISPLAY: a & \" \" & c & [#]\n" +
+            "END CODE\n";
+    // The text an edit puts in, most of it cannot be read by the Lexer
+    private static final String[] INSERTED = {
+            "int ", "99999999999", "Int x = 1\n", "\"", "'", "INT", "@", "[", "1.2.3", "\n", " ", "b",
+            // Tokens too long for the length the TokenBuffer keeps for each token
+            "x".repeat(300), "9".repeat(300), "\"" + "s".repeat(300) + "\"", "\"" + "s".repeat(300)
+    };
+
+    public static void main(String[] args) throws Exception {
+        int count = Integer.parseInt(args[0]);
+        long first = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int edits = 0;
+        for (long seed = first; seed < first + count; seed++) {
+            Random random = new Random(seed);
+            String code = PROGRAM;
+            TokenBuffer tokens = new Lexer(code).tokenize();
+            for (int i = 0; i < 4; i++) {
+                int offset = random.nextInt(code.length() + 1);
+                int removedLength = Math.min(random.nextInt(3), code.length() - offset);
+                String removed = code.substring(offset, offset + removedLength);
+                String inserted = INSERTED[random.nextInt(INSERTED.length)];
+
+                String edited = code.substring(0, offset) + inserted + code.substring(offset + removedLength);
+                tokens.edit(edited, offset, removedLength, inserted);
+                check(tokens, edited, "Seed " + seed + " edit " + i + " inserts \"" + inserted + "\" at " + offset);
+
+                // And back to the code before the edit
+                tokens.edit(code, offset, inserted.length(), removed);
+                check(tokens, code, "Seed " + seed + " edit " + i + " undoes \"" + inserted + "\" at " + offset);
+                edits += 2;
+
+                // The next edit starts from the code with the errors in it
+                if (random.nextBoolean()) {
+                    tokens.edit(edited, offset, removedLength, inserted);
+                    code = edited;
+                    edits++;
+                }
+            }
+        }
+        checkParallel();
+        System.out.println(edits + " edits are the same as the Lexer, and the ParallelLexer is the same too");
+    }
+
+    // A program of several chunks, each with errors in it.
+    private static void checkParallel() throws Exception {
+        StringBuilder code = new StringBuilder("BEGIN CODE\nINT a = 1\n");
+        while (code.length() < 4 * 65536) {
+            code.append("Int x = 1\n");
+            code.append("a = 99999999999 + a\n");
+            code.append("DISPLAY: a & \"text\n");
+        }
+        code.append("END CODE\n");
+        TokenBuffer tokens = new ParallelLexer(new ForkJoinPool(4)).tokenize(code);
+        check(tokens, code.toString(), "ParallelLexer");
+    }
+
+    private static void check(TokenBuffer tokens, String code, String edit) {
+        List<String> expected = read(code);
+        check(new Lexer(code).tokenize(), expected, code, "Lexer.tokenize()");
+        check(tokens, expected, code, edit);
+    }
+
+    private static void check(TokenBuffer tokens, List<String> expected, String code, String edit) {
+        if (tokens.size() != expected.size())
+            fail(edit, code, "has " + tokens.size() + " tokens instead of " + expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            String actual = describe(tokens.getToken(i), tokens.getStart(i), tokens.getLength(i), tokens.getLine(i), tokens.getColumn(i));
+            if (!actual.equals(expected.get(i)))
+                fail(edit, code, "token " + i + " is " + actual + " instead of " + expected.get(i));
+        }
+    }
+
+    // The tokens read straight from a Lexer, without a TokenBuffer, a word it cannot read is an ERROR token.
+    private static List<String> read(String code) {
+        Lexer lexer = new Lexer(code);
+        List<String> tokens = new ArrayList<>();
+        while (true) {
+            Token token;
+            try {
+                token = lexer.getToken();
+            } catch (Exception e) {
+                token = new Token(TokenType.ERROR, "", e.getMessage());
+            }
+            tokens.add(describe(token, lexer.getTokenStart(), lexer.getTokenLength(), lexer.getLine(), lexer.getColumn()));
+            if (token.getTokenType() == TokenType.ENDOFFILE)
+                return tokens;
+        }
+    }
+
+    private static String describe(Token token, int start, int length, int line, int column) {
+        return token.getTokenType() + " '" + token.getCode() + "' " + Objects.toString(token.getValue())
+                + " at " + start + "+" + length + " (line " + line + ", column " + column + ")";
+    }
+
+    private static void fail(String edit, String code, String difference) {
+        System.out.println(edit + ", the buffer " + difference + "\n" + code);
+        System.exit(1);
+    }
+}
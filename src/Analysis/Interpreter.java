@@ -1,230 +1,607 @@
-package Analysis;
-import Analysis.ParseTree.*;
-import Analysis.ParseTree.Expression.ExpressionNode;
-import Analysis.ParseTree.Expression.BinNode;
-import Analysis.ParseTree.Expression.UnaryNode;
-import Analysis.ParseTree.Expression.ParenthesisNode;
-import Analysis.ParseTree.Expression.IdentifierNode;
-import Analysis.ParseTree.Expression.LiteralNode;
-import Analysis.ParseTree.Statement.*;
-import Analysis.TokenDataTypes.TokenType;
-import Analysis.SymbolTable.VariableTable;
-import java.util.List;
-import Analysis.SyntaxAnalyzer.*;
-import java.util.Map;
-//OK NA
-public class Interpreter {
-    private VariableTable variableTable;
-    private ProgramNode program;
-
-    public Interpreter(String code) throws Exception{
-        Lexer lex = new Lexer(code);
-
-        Parser parser = new Parser(lex);
-        Semantic semantic = new Semantic();
-
-        TokenType tokenType = TokenType.CODE; // Assuming your program starts with CODE token
-        program = parser.parseProgram(tokenType);
-
-        semantic.analyze(program);
-        variableTable = new VariableTable();
-
-    }
-
-    public void execute(ProgramNode statementBlock) {
-        ProgramNode prog = statementBlock == null ? program : statementBlock;
-
-        for (StatementNode stmt : prog.getStatements()) {
-            if (stmt instanceof VariableDeclarationNode)
-                runVariableDeclaration((VariableDeclarationNode) stmt);
-            else if (stmt instanceof AssignmentNode)
-                runAssignment((AssignmentNode) stmt);
-            else if (stmt instanceof DisplayNode)
-                runDisplay((DisplayNode) stmt);
-            else if (stmt instanceof ScanNode)
-                runScan((ScanNode) stmt);
-            else if (stmt instanceof ConditionalNode)
-                runCondition((ConditionalNode) stmt);
-            else if (stmt instanceof LoopNode)
-                runLoop((LoopNode) stmt);
-        }
-    }
-
-    private void runVariableDeclaration(VariableDeclarationNode statement) {
-        // Loop through the map of variables
-        for (Map.Entry<String, ExpressionNode> entry : statement.getVariables().entrySet()) {
-            // Get the variable name
-            String identifier = entry.getKey();
-
-            // Set default value to null
-            Object value = null;
-
-            // If the variable value is not null (e.g., INT a = 5)
-            if (entry.getValue() != null) {
-                value = runExpression(entry.getValue());
-            }
-
-            // Add variable to table of variables
-            variableTable.addVariable(identifier, Grammar.getDataType(statement.getDataTypeToken().getTokenType()), value);
-        }
-    }
-    private void runAssignment(AssignmentNode statement) {
-        Object value = null;
-        for (String identifier : statement.getIdentifiers()) {
-            value = runExpression(statement.getExpression());
-            variableTable.addValue(identifier, value);
-        }
-    }
-
-    private void runDisplay(DisplayNode statement) {
-        StringBuilder result = new StringBuilder();
-        for (ExpressionNode expression : statement.getExpressions())
-            result.append(runExpression(expression));
-
-        System.out.print(result.toString());
-    }
-
-    private void runScan(ScanNode stmt) {
-        List<String> values = null;
-        List<String> identifiers = stmt.getIdentifiers();
-        String inputted = "";
-
-        System.out.print("");
-        inputted = new java.util.Scanner(System.in).nextLine();
-        values = java.util.Arrays.asList(inputted.replace(" ", "").split(","));
-
-        if (values.size() != identifiers.size())
-            throw new RuntimeException("Incomplete/Missing inputs.");
-
-        Object value;
-        int index = 0;
-        for (String val : values) {
-            value = Grammar.convertValue(val);
-
-            if (!Grammar.matchDataType(variableTable.getType(identifiers.get(index)), Grammar.getDataType(value)))
-                throw new RuntimeException("Data Type Mismatch " + Grammar.getDataType(value) + " to \"" + identifiers.get(index) + "\".");
-
-            variableTable.addValue(identifiers.get(index), value);
-            index++;
-        }
-    }
-
-    private void runCondition(ConditionalNode statement) {
-        boolean displayed = false;
-        int index = 0;
-
-        for (ExpressionNode expression : statement.getExpressions()) {
-            if (expression != null) {
-                if ((boolean) runExpression(expression)) {
-                    displayed = true;
-                    execute(statement.getStmt().get(index));
-                    break;
-                }
-            } else
-
-                break;
-
-            List<Token> tokens = statement.getTokens();
-            if (tokens.size() > 0 && tokens.get(tokens.size() - 1).getTokenType() == TokenType.ELSE) {
-                index++;
-            }
-
-        }
-
-        if (statement.getExpressions().get(index) == null)
-
-            if (!displayed)
-                execute(statement.getStmt().get(index));
-    }
-
-    private void runLoop(LoopNode statement) {
-        while ((boolean) runExpression(statement.getExpression()))
-            execute(statement.getStatement());
-    }
-
-    private Object runExpression(ExpressionNode expression) {
-        if (expression instanceof BinNode)
-            return checkBinaryExpression((BinNode) expression);
-        else if (expression instanceof UnaryNode)
-            return checkUnaryExpression((UnaryNode) expression);
-        else if (expression instanceof ParenthesisNode)
-            return runExpression(((ParenthesisNode) expression).getExpression());
-        else if (expression instanceof IdentifierNode)
-            return checkIdentifierExpression((IdentifierNode) expression);
-        else if (expression instanceof LiteralNode)
-            return ((LiteralNode) expression).getLiteral();
-        else
-            throw new RuntimeException("Unknown expression.");
-    }
-
-    private Object checkBinaryExpression(BinNode expression) {
-        Object left = runExpression(expression.getLeftHandSide());
-        Object right = runExpression(expression.getRightHandSide());
-        Object binResult;
-
-        switch (expression.getTokenOperator().getTokenType()) {
-            case PLUS:
-                binResult = (int) left + (int) right;
-                return binResult;
-            case MINUS:
-                binResult = (int) left - (int) right;
-                return binResult;
-            case STAR:
-                binResult = (int) left * (int) right;
-                return binResult;
-            case SLASH:
-                binResult = (int) left / (int) right;
-                return binResult;
-            case MODULO:
-                binResult = (int) left % (int) right;
-                return binResult;
-            case LESSTHAN:
-                binResult = (int) left < (int) right;
-                return binResult;
-            case GREATERTHAN:
-                binResult = (int) left > (int) right;
-                return binResult;
-            case LESSEQUAL:
-                binResult = (int) left <= (int) right;
-                return binResult;
-            case GREATEREQUAL:
-                binResult = (int) left >= (int) right;
-                return binResult;
-            case EQUALTO:
-                binResult = (int) left == (int) right;
-                return binResult;
-            case NOTEQUAL:
-                binResult = (int) left != (int) right;
-                return binResult;
-            case AND:
-                binResult = (boolean) left && (boolean) right;
-                return binResult;
-            case OR:
-                binResult = (boolean) left || (boolean) right;
-                return binResult;
-            default:
-                throw new RuntimeException("Unknown operator.");
-        }
-    }
-
-    private Object checkUnaryExpression(UnaryNode expression) {
-        Object unaryValue = runExpression(expression.getExpression());
-        if (expression.getTokenOperator().getTokenType() == TokenType.MINUS)
-            return -(int) unaryValue;
-        else if (expression.getTokenOperator().getTokenType() == TokenType.NOT)
-            return !((String) unaryValue).contains("TRUE") ? true : false;
-        else
-            return unaryValue;
-    }
-
-    private Object checkIdentifierExpression(IdentifierNode expression) {
-        if (variableTable.getValue(expression.getName()) == null)
-            throw new RuntimeException("Variable '" + expression.getName() + "' is null.");
-
-        Object result = variableTable.getValue(expression.getName());
-
-        if (result instanceof Boolean)
-            return ((boolean) result) ? "TRUE" : "FALSE";
-        return result;
-    }
-}
+package Analysis;
+import Analysis.Optimization.PassManager;
+import Analysis.ParseTree.*;
+import Analysis.ParseTree.Expression.ExpressionNode;
+import Analysis.ParseTree.Expression.ExpressionVisitor;
+import Analysis.ParseTree.Expression.BinNode;
+import Analysis.ParseTree.Expression.UnaryNode;
+import Analysis.ParseTree.Expression.ParenthesisNode;
+import Analysis.ParseTree.Expression.IdentifierNode;
+import Analysis.ParseTree.Expression.LiteralNode;
+import Analysis.ParseTree.Statement.*;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import Analysis.SyntaxAnalyzer.*;
+//OK NA
+public class Interpreter {
+    /*
+        The values of the variables by the slot the Semantic gave them, so a
+        variable is read with the slot written in its IdentifierNode. A
+        variable that is declared without a value holds a placeholder
+        object, and null means it was not declared yet.
+     */
+    private Object[] values;
+    private ProgramNode program;
+    // The program when it was parsed into a FlatTree instead, see Interpreter(TokenStream, boolean)
+    private FlatTree tree;
+    private boolean hasDisplay;
+    // Gives the slots and their Data Types, in lazy() it also checks the blocks that were skipped
+    private Semantic semantic;
+    // Used to parse the blocks that were skipped, see lazy()
+    private Parser parser;
+    // The errors of the blocks that could not be parsed, they are not parsed again
+    private Map<LazyProgramNode, String> blockErrors;
+
+    public Interpreter(String code) throws Exception{
+        this(new Lexer(code));
+    }
+
+    /*
+        Use this one to run code from a Reader or a memory mapped file,
+        example: new Interpreter(new Lexer(channel, 0, channel.size(), charset))
+        or with new PipelinedLexer(...) to lex on another thread while parsing.
+     */
+    /*
+        All the syntax and semantic errors of the code are found before it
+        stops, the message of the exception has one error per line. It is an
+        Exception when there is a syntax error and a RuntimeException when
+        there are only semantic errors.
+     */
+    public Interpreter(TokenStream lex) throws Exception{
+        this(lex, false);
+    }
+
+    /*
+        With flatTree the program is kept in a FlatTree instead of ASTNode
+        objects, it runs the same but takes a lot less memory for big
+        programs.
+     */
+    public Interpreter(TokenStream lex, boolean flatTree) throws Exception{
+        this(lex, flatTree, PassManager.forLevel(PassManager.DEFAULT_LEVEL));
+    }
+
+    /*
+        Runs the optimizations of passes on the program after it was
+        checked, like PassManager.forLevel(1) for -O1. The passes can be
+        asked for their times after, see PassManager.getReport().
+     */
+    public Interpreter(TokenStream lex, boolean flatTree, PassManager passes) throws Exception{
+        Diagnostics diagnostics = new Diagnostics();
+        Parser parser = new Parser(lex, diagnostics);
+        semantic = new Semantic(diagnostics);
+
+        TokenType tokenType = TokenType.CODE; // Assuming your program starts with CODE token
+        try {
+            if (flatTree)
+                tree = parser.parseFlatProgram();
+            else
+                program = parser.parseProgram(tokenType);
+        } finally {
+            lex.close();
+        }
+        boolean hasSyntaxError = diagnostics.hasErrors();
+
+        // The statements without syntax errors are still checked so their errors come out too
+        if (flatTree)
+            semantic.analyze(tree);
+        else if (ForkJoinPool.getCommonPoolParallelism() > 1)
+            semantic.analyze(program, ForkJoinPool.commonPool());
+        else
+            semantic.analyze(program);
+        if (hasSyntaxError)
+            throw new Exception(diagnostics.toString());
+        if (diagnostics.hasErrors())
+            throw new RuntimeException(diagnostics.toString());
+        hasDisplay = parser.hasDisplay();
+        // The FlatTree is run as it was parsed, only the ASTNode program is optimized
+        if (program != null)
+            passes.run(program, semantic);
+        // After the optimizations, they can add temporaries
+        values = new Object[semantic.getSlotCount()];
+
+    }
+
+    // Used by stream() and lazy(), the variables are added while the program runs.
+    private Interpreter() {
+        values = new Object[16];
+    }
+
+    /*
+        Runs the program while it is parsed: each statement of the program
+        is parsed, checked against the variables declared before it and run
+        right away, then thrown away. The first DISPLAY output comes out
+        without waiting for the rest of the file, and only one statement is
+        in memory at a time, an IF or WHILE with its blocks.
+        After the first error nothing runs anymore, but the rest of the
+        program is still parsed and checked so all the errors come out, in
+        the order of their lines. The exceptions are the same as for the
+        constructor, and an error while running (like a bad SCAN input) is
+        thrown when there is no syntax or semantic error to report. The
+        statements before the error have already run.
+        Example below:
+            Interpreter program = Interpreter.stream(new Lexer(channel, 0, channel.size(), charset));
+     */
+    public static Interpreter stream(TokenStream lex) throws Exception {
+        Interpreter interpreter = new Interpreter();
+        Diagnostics diagnostics = new Diagnostics();
+        Parser parser = new Parser(lex, diagnostics);
+        Semantic semantic = new Semantic(diagnostics);
+        interpreter.semantic = semantic;
+        // The semantic errors, the other diagnostics are syntax errors
+        int[] semanticErrors = new int[1];
+        RuntimeException[] failure = new RuntimeException[1];
+
+        try {
+            parser.parseProgram(statement -> {
+                int errors = diagnostics.size();
+                semantic.analyze(statement);
+                semanticErrors[0] += diagnostics.size() - errors;
+
+                if (diagnostics.hasErrors() || failure[0] != null)
+                    return;
+                try {
+                    interpreter.runStatement(statement);
+                } catch (RuntimeException e) {
+                    // Not given to the Parser, it would take it for a syntax error
+                    failure[0] = e;
+                }
+            });
+        } finally {
+            lex.close();
+        }
+        interpreter.hasDisplay = parser.hasDisplay();
+
+        if (diagnostics.size() > semanticErrors[0])
+            throw new Exception(diagnostics.toString());
+        if (diagnostics.hasErrors())
+            throw new RuntimeException(diagnostics.toString());
+        if (failure[0] != null)
+            throw failure[0];
+        return interpreter;
+    }
+
+    /*
+        Lazy mode: the blocks of IF and WHILE are only checked for their
+        BEGIN and END at the start, each block is parsed and checked the
+        first time it runs. A program with big blocks that rarely run
+        starts faster and keeps only the blocks that ran in memory.
+        The errors inside a block are found when it first runs, then the
+        execute() stops with a RuntimeException that has all of them.
+        Example below:
+            Interpreter program = Interpreter.lazy(code);
+            program.execute(null);
+     */
+    public static Interpreter lazy(CharSequence code) throws Exception {
+        Interpreter interpreter = new Interpreter();
+        Diagnostics diagnostics = new Diagnostics();
+        interpreter.parser = new Parser(code, diagnostics);
+        interpreter.semantic = new Semantic(diagnostics);
+        interpreter.blockErrors = new HashMap<>();
+
+        interpreter.program = interpreter.parser.parseProgram(TokenType.CODE);
+        boolean hasSyntaxError = diagnostics.hasErrors();
+        interpreter.semantic.analyze(interpreter.program);
+        if (hasSyntaxError)
+            throw new Exception(diagnostics.toString());
+        if (diagnostics.hasErrors())
+            throw new RuntimeException(diagnostics.toString());
+        interpreter.hasDisplay = interpreter.parser.hasDisplay();
+        return interpreter;
+    }
+
+    // Returns true if the program has at least one DISPLAY statement.
+    public boolean hasDisplay() {
+        return hasDisplay;
+    }
+
+    public void execute(ProgramNode statementBlock) {
+        if (statementBlock == null && tree != null) {
+            for (int i = 0; i < tree.getStatementCount(); i++)
+                runStatement(tree, tree.getStatement(i));
+            return;
+        }
+        ProgramNode prog = statementBlock == null ? program : statementBlock;
+        // The program was already run by stream()
+        if (prog == null)
+            return;
+        if (!prog.isParsed())
+            parseBlock((LazyProgramNode) prog);
+
+        for (StatementNode stmt : prog.getStatements())
+            runStatement(stmt);
+    }
+
+    // Parses and checks a block in lazy mode the first time it runs.
+    private void parseBlock(LazyProgramNode block) {
+        if (blockErrors.containsKey(block))
+            throw new RuntimeException(blockErrors.get(block));
+        Diagnostics diagnostics = parser.getDiagnostics();
+        int errors = diagnostics.size();
+        ProgramNode parsed = parser.parseLazyBlock(block);
+        semantic.analyze(parsed);
+
+        if (diagnostics.size() > errors) {
+            StringBuilder message = new StringBuilder();
+            for (Diagnostics.Diagnostic error : diagnostics.getErrors().subList(errors, diagnostics.size())) {
+                if (message.length() > 0)
+                    message.append('\n');
+                message.append(error.getMessage());
+            }
+            blockErrors.put(block, message.toString());
+            throw new RuntimeException(message.toString());
+        }
+        block.setStatements(parsed.getStatements());
+    }
+
+    private void runStatement(StatementNode stmt) {
+        stmt.accept(statementRunner);
+    }
+
+    // Calls the run method of the kind of the statement, see StatementVisitor
+    private final StatementVisitor<Void> statementRunner = new StatementVisitor<>() {
+        @Override
+        public Void visitVariableDeclaration(VariableDeclarationNode statement) {
+            runVariableDeclaration(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(AssignmentNode statement) {
+            runAssignment(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitDisplay(DisplayNode statement) {
+            runDisplay(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitScan(ScanNode statement) {
+            runScan(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitCondition(ConditionalNode statement) {
+            runCondition(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitLoop(LoopNode statement) {
+            runLoop(statement);
+            return null;
+        }
+    };
+
+    private void runVariableDeclaration(VariableDeclarationNode statement) {
+        // Loop through the declared variables
+        for (int i = 0; i < statement.getIdentifiers().size(); i++) {
+            // Get the variable slot
+            int slot = statement.getSlots()[i];
+
+            // Set default value to null
+            Object value = null;
+
+            // If the variable value is not null (e.g., INT a = 5)
+            if (statement.getValues().get(i) != null) {
+                value = runExpression(statement.getValues().get(i));
+            }
+
+            // Add variable to the values of the variables
+            declareVariable(slot, value);
+        }
+    }
+    /*
+        The value is found once and given to all the variables of a chained
+        assignment, so in a = b = a + 1 both get the old a plus 1.
+     */
+    private void runAssignment(AssignmentNode statement) {
+        Object value = runExpression(statement.getExpression());
+        for (int slot : statement.getSlots())
+            values[slot] = value;
+    }
+
+    // Gives the variable its first value, or the placeholder object when it has none.
+    private void declareVariable(int slot, Object value) {
+        if (slot >= values.length)
+            values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+        values[slot] = value != null ? value : new Object();
+    }
+
+    private void runDisplay(DisplayNode statement) {
+        StringBuilder result = new StringBuilder();
+        for (ExpressionNode expression : statement.getExpressions())
+            result.append(runExpression(expression));
+
+        System.out.print(result.toString());
+    }
+
+    private void runScan(ScanNode stmt) {
+        runScan(stmt.getIdentifiers(), stmt.getSlots());
+    }
+
+    private void runScan(List<String> identifiers, int[] slots) {
+        List<String> values = null;
+        String inputted = "";
+
+        System.out.print("");
+        inputted = new java.util.Scanner(System.in).nextLine();
+        values = java.util.Arrays.asList(inputted.replace(" ", "").split(","));
+
+        if (values.size() != identifiers.size())
+            throw new RuntimeException("Incomplete/Missing inputs.");
+
+        Object value;
+        int index = 0;
+        for (String val : values) {
+            value = Grammar.convertValue(val);
+
+            if (!Grammar.matchDataType(semantic.getSlotType(slots[index]), Grammar.getDataType(value)))
+                throw new RuntimeException("Data Type Mismatch " + Grammar.getDataType(value) + " to \"" + identifiers.get(index) + "\".");
+
+            this.values[slots[index]] = value;
+            index++;
+        }
+    }
+
+    private void runCondition(ConditionalNode statement) {
+        boolean displayed = false;
+        int index = 0;
+
+        for (ExpressionNode expression : statement.getExpressions()) {
+            if (expression != null) {
+                if ((boolean) runExpression(expression)) {
+                    displayed = true;
+                    execute(statement.getStmt().get(index));
+                    break;
+                }
+            } else
+
+                break;
+
+            List<Token> tokens = statement.getTokens();
+            if (tokens.size() > 0 && tokens.get(tokens.size() - 1).getTokenType() == TokenType.ELSE) {
+                index++;
+            }
+
+        }
+
+        if (statement.getExpressions().get(index) == null)
+
+            if (!displayed)
+                execute(statement.getStmt().get(index));
+    }
+
+    private void runLoop(LoopNode statement) {
+        while ((boolean) runExpression(statement.getExpression()))
+            execute(statement.getStatement());
+    }
+
+    /*
+        The expressions are the hottest part of a running program, so they
+        are not dispatched with accept(): one call site that sees all five
+        kinds of nodes cannot be inlined by the JIT and it was 10 to 20%
+        slower on a loop. The node classes are final, so each instanceof
+        below is one compare of the class, the common kinds first. The work
+        for each kind is still in the expressionRunner.
+     */
+    private Object runExpression(ExpressionNode expression) {
+        if (expression instanceof BinNode)
+            return expressionRunner.visitBinary((BinNode) expression);
+        else if (expression instanceof IdentifierNode)
+            return expressionRunner.visitIdentifier((IdentifierNode) expression);
+        else if (expression instanceof LiteralNode)
+            return expressionRunner.visitLiteral((LiteralNode) expression);
+        else if (expression instanceof UnaryNode)
+            return expressionRunner.visitUnary((UnaryNode) expression);
+        else
+            return expressionRunner.visitParenthesis((ParenthesisNode) expression);
+    }
+
+    // Finds the value of each kind of expression, see ExpressionVisitor.
+    private final ExpressionVisitor<Object> expressionRunner = new ExpressionVisitor<>() {
+        @Override
+        public Object visitBinary(BinNode expression) {
+            Object left = runExpression(expression.getLeftHandSide());
+            Object right = runExpression(expression.getRightHandSide());
+            return applyBinaryOperator(expression.getTokenOperator().getTokenType(), left, right);
+        }
+
+        @Override
+        public Object visitUnary(UnaryNode expression) {
+            return applyUnaryOperator(expression.getTokenOperator().getTokenType(), runExpression(expression.getExpression()));
+        }
+
+        @Override
+        public Object visitParenthesis(ParenthesisNode expression) {
+            return runExpression(expression.getExpression());
+        }
+
+        @Override
+        public Object visitIdentifier(IdentifierNode expression) {
+            return readVariable(expression.getSlot(), expression.getName());
+        }
+
+        @Override
+        public Object visitLiteral(LiteralNode expression) {
+            return expression.getLiteral();
+        }
+    };
+
+    /*
+        The operators work the same for the Interpreter and for the
+        ConstantFolding, that finds the value of an expression made only of
+        literals before the program runs. That way a folded value is always
+        the one the Interpreter would find.
+     */
+    public static Object applyBinaryOperator(TokenType operator, Object left, Object right) {
+        Object binResult;
+
+        switch (operator) {
+            case PLUS:
+                binResult = (int) left + (int) right;
+                return binResult;
+            case MINUS:
+                binResult = (int) left - (int) right;
+                return binResult;
+            case STAR:
+                binResult = (int) left * (int) right;
+                return binResult;
+            case SLASH:
+                binResult = (int) left / (int) right;
+                return binResult;
+            case MODULO:
+                binResult = (int) left % (int) right;
+                return binResult;
+            case SHIFTLEFT:
+                binResult = (int) left << (int) right;
+                return binResult;
+            case LESSTHAN:
+                binResult = (int) left < (int) right;
+                return binResult;
+            case GREATERTHAN:
+                binResult = (int) left > (int) right;
+                return binResult;
+            case LESSEQUAL:
+                binResult = (int) left <= (int) right;
+                return binResult;
+            case GREATEREQUAL:
+                binResult = (int) left >= (int) right;
+                return binResult;
+            case EQUALTO:
+                binResult = (int) left == (int) right;
+                return binResult;
+            case NOTEQUAL:
+                binResult = (int) left != (int) right;
+                return binResult;
+            case AND:
+                binResult = (boolean) left && (boolean) right;
+                return binResult;
+            case OR:
+                binResult = (boolean) left || (boolean) right;
+                return binResult;
+            default:
+                throw new RuntimeException("Unknown operator.");
+        }
+    }
+
+    public static Object applyUnaryOperator(TokenType operator, Object unaryValue) {
+        if (operator == TokenType.MINUS)
+            return -(int) unaryValue;
+        else if (operator == TokenType.NOT)
+            return !((String) unaryValue).contains("TRUE") ? true : false;
+        else
+            return unaryValue;
+    }
+
+    private Object readVariable(int slot, String name) {
+        Object result = slot >= 0 && slot < values.length ? values[slot] : null;
+        if (result == null)
+            throw new RuntimeException("Variable '" + name + "' is null.");
+
+        if (result instanceof Boolean)
+            return ((boolean) result) ? "TRUE" : "FALSE";
+        return result;
+    }
+
+    /*
+        The same as the methods above for a program kept in a FlatTree,
+        the nodes are read with the FlatTree methods instead of the getters
+        of the ASTNode classes.
+     */
+    private void runBlock(FlatTree tree, int block) {
+        for (int i = 0; i < tree.getCount(block); i++)
+            runStatement(tree, tree.getItem(block, i));
+    }
+
+    private void runStatement(FlatTree tree, int statement) {
+        switch (tree.getKind(statement)) {
+            case VARIABLE_DECLARATION:
+                for (int i = 0; i < tree.getCount(statement); i++) {
+                    int value = tree.getValue(statement, i);
+                    declareVariable(semantic.getSlot(tree.getItem(statement, i)),
+                            value != FlatTree.NONE ? runExpression(tree, value) : null);
+                }
+                break;
+            case ASSIGNMENT:
+                Object value = runExpression(tree, tree.getExpression(statement));
+                for (int i = 0; i < tree.getCount(statement); i++)
+                    values[semantic.getSlot(tree.getItem(statement, i))] = value;
+                break;
+            case DISPLAY:
+                StringBuilder result = new StringBuilder();
+                for (int i = 0; i < tree.getCount(statement); i++)
+                    result.append(runExpression(tree, tree.getItem(statement, i)));
+                System.out.print(result.toString());
+                break;
+            case SCAN:
+                List<String> identifiers = new ArrayList<>();
+                int[] slots = new int[tree.getCount(statement)];
+                for (int i = 0; i < slots.length; i++) {
+                    identifiers.add(tree.getItemName(statement, i));
+                    slots[i] = semantic.getSlot(tree.getItem(statement, i));
+                }
+                runScan(identifiers, slots);
+                break;
+            case CONDITION:
+                runCondition(tree, statement);
+                break;
+            case LOOP:
+                while ((boolean) runExpression(tree, tree.getCondition(statement)))
+                    runBlock(tree, tree.getBlock(statement));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void runCondition(FlatTree tree, int statement) {
+        boolean displayed = false;
+        int index = 0;
+        // The same as the last token being an ELSE in runCondition(ConditionalNode)
+        boolean hasElse = tree.getCount(statement) > 1;
+
+        for (int i = 0; i < tree.getCount(statement); i++) {
+            int condition = tree.getCondition(statement, i);
+            if (condition == FlatTree.NONE)
+                break;
+            if ((boolean) runExpression(tree, condition)) {
+                displayed = true;
+                runBlock(tree, tree.getBlock(statement, index));
+                break;
+            }
+            if (hasElse)
+                index++;
+        }
+
+        if (tree.getCondition(statement, index) == FlatTree.NONE && !displayed)
+            runBlock(tree, tree.getBlock(statement, index));
+    }
+
+    private Object runExpression(FlatTree tree, int expression) {
+        switch (tree.getKind(expression)) {
+            case BINARY:
+                Object left = runExpression(tree, tree.getLeft(expression));
+                Object right = runExpression(tree, tree.getRight(expression));
+                return applyBinaryOperator(tree.getOperator(expression), left, right);
+            case UNARY:
+                return applyUnaryOperator(tree.getOperator(expression), runExpression(tree, tree.getOperand(expression)));
+            case PARENTHESIS:
+                return runExpression(tree, tree.getOperand(expression));
+            case IDENTIFIER:
+                return readVariable(semantic.getSlot(tree.getSymbol(expression)), tree.getName(expression));
+            case LITERAL:
+                return tree.getLiteral(expression);
+            default:
+                throw new RuntimeException("Unknown expression.");
+        }
+    }
+}
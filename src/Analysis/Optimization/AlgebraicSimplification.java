@@ -0,0 +1,365 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Rewrites the expressions with rules that give the same value with less
+    work (algebraic simplification and strength reduction). Each rule looks
+    at one BinNode, UnaryNode or ParenthesisNode after what is inside it
+    was rewritten, and the rules are tried again on what a rule gives back.
+    Example below, a is an INT variable with a value:
+        a * 1 + 0       becomes  a
+        (a * 8) - 0     becomes  a << 3
+        -(-a) % 1       becomes  0
+    The Interpreter casts each operand of + - * / % to int, so a * 1 fails
+    when a is a FLOAT, a BOOL or a variable without value, and a alone
+    does not. A rule that takes an operator out only does it when the
+    operand surely gives an int (or a BOOL value for AND and OR), and a
+    rule that drops an operand only when it also can never fail, see
+    IntValues. NOT NOT b is left as it is: NOT casts its operand to a
+    String and the inner NOT gives a Boolean, so it always fails.
+    A new rule is added with addRule(), getHits() tells how many times
+    each rule was used.
+ */
+public class AlgebraicSimplification implements PassManager.Pass {
+    /*
+        One rewrite of an expression. It returns the expression that takes
+        its place, or null when it does not match. It can ask the pass
+        what it knows about an operand with givesInt(), isSafeInt(),
+        givesBool() and isSame().
+     */
+    public interface Rule {
+        String getName();
+
+        ExpressionNode apply(ExpressionNode expression, AlgebraicSimplification pass);
+    }
+
+    private final IntValues ints;
+    private final ValueNumbers numbers = new ValueNumbers();
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, Integer> hits = new LinkedHashMap<>();
+    // The INT variables that surely hold an int at the statement being rewritten
+    private BitSet initialized;
+
+    public AlgebraicSimplification(Semantic semantic) {
+        this.ints = new IntValues(semantic);
+        addRule(FLATTEN_PARENTHESES);
+        addRule(ADD_ZERO);
+        addRule(MULTIPLY_BY_ONE);
+        addRule(MULTIPLY_BY_ZERO);
+        addRule(MODULO_BY_ONE);
+        addRule(SUBTRACT_ITSELF);
+        addRule(DOUBLE_NEGATION);
+        addRule(UNARY_PLUS);
+        addRule(BOOLEAN_IDENTITY);
+        addRule(MULTIPLY_BY_POWER_OF_TWO);
+    }
+
+    // The rules are tried in the order they were added.
+    public void addRule(Rule rule) {
+        rules.add(rule);
+        hits.putIfAbsent(rule.getName(), 0);
+    }
+
+    // Number of times each rule rewrote an expression, by the name of the rule.
+    public Map<String, Integer> getHits() {
+        return Collections.unmodifiableMap(hits);
+    }
+
+    public void optimize(ProgramNode program) {
+        optimize(program, new BitSet());
+    }
+
+    private void optimize(ProgramNode block, BitSet initialized) {
+        Nodes.rewrite(block, (statement, result) -> {
+            // The condition of a WHILE is found with what holds each time around the loop
+            BitSet state = ints.innerState(statement, initialized);
+            this.initialized = state;
+            statement = Nodes.rewriteExpressions(statement, this::rewrite);
+            for (ProgramNode inner : Nodes.blocks(statement))
+                optimize(inner, (BitSet) state.clone());
+            ints.initialize(statement, initialized);
+            result.add(statement);
+        });
+    }
+
+    private ExpressionNode rewrite(ExpressionNode expression) {
+        if (Nodes.operands(expression).isEmpty())
+            return expression;
+        return simplify(Nodes.rewriteOperands(expression, this::rewrite));
+    }
+
+    // Tries the rules until none of them matches anymore.
+    private ExpressionNode simplify(ExpressionNode expression) {
+        boolean changed = true;
+        while (changed && !Nodes.operands(expression).isEmpty()) {
+            changed = false;
+            for (Rule rule : rules) {
+                ExpressionNode result = rule.apply(expression, this);
+                // The Semantic gave a + b the Data Type of a, so 0 + f with f FLOAT is INT and f is not
+                if (result != null && result.getDataType() != expression.getDataType()
+                        && result.getDataType() != null && expression.getDataType() != null)
+                    result = null;
+                if (result != null) {
+                    hits.merge(rule.getName(), 1, Integer::sum);
+                    expression = result;
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return expression;
+    }
+
+    /*
+        True when the expression gives an int each time it does not fail,
+        so an operator that casts it to int can be taken out. A + - * / %
+        or a - in front always does, since the cast is inside them.
+     */
+    public boolean givesInt(ExpressionNode expression) {
+        if (expression instanceof BinNode) {
+            switch (((BinNode) expression).getTokenOperator().getTokenType()) {
+                case PLUS:
+                case MINUS:
+                case STAR:
+                case SLASH:
+                case MODULO:
+                case SHIFTLEFT:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        if (expression instanceof UnaryNode) {
+            TokenType operator = ((UnaryNode) expression).getTokenOperator().getTokenType();
+            return operator == TokenType.MINUS || (operator == TokenType.PLUS && givesInt(((UnaryNode) expression).getExpression()));
+        }
+        return ints.isInt(expression, initialized, null);
+    }
+
+    // True when the expression gives an int and can never fail, so it can be taken out without running it.
+    public boolean isSafeInt(ExpressionNode expression) {
+        return ints.isInt(expression, initialized, null);
+    }
+
+    /*
+        True when the expression gives a Boolean each time it does not
+        fail. A BOOL variable is read as "TRUE" or "FALSE", so it does not.
+     */
+    public boolean givesBool(ExpressionNode expression) {
+        if (expression instanceof LiteralNode)
+            return ((LiteralNode) expression).getLiteral() instanceof Boolean;
+        if (expression instanceof UnaryNode)
+            return ((UnaryNode) expression).getTokenOperator().getTokenType() == TokenType.NOT;
+        if (!(expression instanceof BinNode))
+            return false;
+        switch (((BinNode) expression).getTokenOperator().getTokenType()) {
+            case LESSTHAN:
+            case GREATERTHAN:
+            case LESSEQUAL:
+            case GREATEREQUAL:
+            case EQUALTO:
+            case NOTEQUAL:
+            case AND:
+            case OR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // True when both expressions are written the same way, see ValueNumbers.
+    public boolean isSame(ExpressionNode left, ExpressionNode right) {
+        return numbers.of(left) == numbers.of(right);
+    }
+
+    /*
+        The rules below. The Interpreter finds the left operand before the
+        right one and only then applies the operator, so a literal on the
+        left can be dropped the same way as one on the right.
+     */
+
+    // (a) becomes a, the tree already has the order the operators run in.
+    public static final Rule FLATTEN_PARENTHESES = new Rule() {
+        @Override
+        public String getName() {
+            return "flatten parentheses";
+        }
+
+        @Override
+        public ExpressionNode apply(ExpressionNode expression, AlgebraicSimplification pass) {
+            return expression instanceof ParenthesisNode ? ((ParenthesisNode) expression).getExpression() : null;
+        }
+    };
+
+    // a + 0, 0 + a and a - 0 become a.
+    public static final Rule ADD_ZERO = new BinaryRule("add zero") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if ((operator == TokenType.PLUS || operator == TokenType.MINUS) && isInt(right, 0) && pass.givesInt(left))
+                return left;
+            if (operator == TokenType.PLUS && isInt(left, 0) && pass.givesInt(right))
+                return right;
+            return null;
+        }
+    };
+
+    // a * 1, 1 * a and a / 1 become a.
+    public static final Rule MULTIPLY_BY_ONE = new BinaryRule("multiply by one") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if ((operator == TokenType.STAR || operator == TokenType.SLASH) && isInt(right, 1) && pass.givesInt(left))
+                return left;
+            if (operator == TokenType.STAR && isInt(left, 1) && pass.givesInt(right))
+                return right;
+            return null;
+        }
+    };
+
+    // a * 0 and 0 * a become 0.
+    public static final Rule MULTIPLY_BY_ZERO = new BinaryRule("multiply by zero") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if (operator == TokenType.STAR && ((isInt(right, 0) && pass.isSafeInt(left)) || (isInt(left, 0) && pass.isSafeInt(right))))
+                return Nodes.literal(expression, 0);
+            return null;
+        }
+    };
+
+    // a % 1 and a % -1 become 0.
+    public static final Rule MODULO_BY_ONE = new BinaryRule("modulo by one") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if (operator == TokenType.MODULO && (isInt(right, 1) || isInt(right, -1)) && pass.isSafeInt(left))
+                return Nodes.literal(expression, 0);
+            return null;
+        }
+    };
+
+    // a - a becomes 0.
+    public static final Rule SUBTRACT_ITSELF = new BinaryRule("subtract itself") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if (operator == TokenType.MINUS && pass.isSafeInt(left) && pass.isSame(left, right))
+                return Nodes.literal(expression, 0);
+            return null;
+        }
+    };
+
+    // --a becomes a, the int that wraps around is the same for Integer.MIN_VALUE.
+    public static final Rule DOUBLE_NEGATION = new Rule() {
+        @Override
+        public String getName() {
+            return "double negation";
+        }
+
+        @Override
+        public ExpressionNode apply(ExpressionNode expression, AlgebraicSimplification pass) {
+            if (!isUnary(expression, TokenType.MINUS) || !isUnary(((UnaryNode) expression).getExpression(), TokenType.MINUS))
+                return null;
+            ExpressionNode operand = ((UnaryNode) ((UnaryNode) expression).getExpression()).getExpression();
+            return pass.givesInt(operand) ? operand : null;
+        }
+    };
+
+    // +a becomes a, the Interpreter gives back the operand of + as it is.
+    public static final Rule UNARY_PLUS = new Rule() {
+        @Override
+        public String getName() {
+            return "unary plus";
+        }
+
+        @Override
+        public ExpressionNode apply(ExpressionNode expression, AlgebraicSimplification pass) {
+            return isUnary(expression, TokenType.PLUS) ? ((UnaryNode) expression).getExpression() : null;
+        }
+    };
+
+    // a AND TRUE, TRUE AND a, a OR FALSE and FALSE OR a become a.
+    public static final Rule BOOLEAN_IDENTITY = new BinaryRule("boolean identity") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if (operator != TokenType.AND && operator != TokenType.OR)
+                return null;
+            Boolean identity = operator == TokenType.AND;
+            if (isLiteral(right, identity) && pass.givesBool(left))
+                return left;
+            if (isLiteral(left, identity) && pass.givesBool(right))
+                return right;
+            return null;
+        }
+    };
+
+    /*
+        a * 8 and 8 * a become a << 3. A shift left wraps around the same
+        way as the multiplication, and it casts a to int the same way, so
+        it fails the same way too. a / 8 is not a >> 3 when a is negative
+        (-1 / 8 is 0 and -1 >> 3 is -1), so a division is left as it is.
+     */
+    public static final Rule MULTIPLY_BY_POWER_OF_TWO = new BinaryRule("multiply by power of two") {
+        @Override
+        ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass) {
+            if (operator != TokenType.STAR)
+                return null;
+            if (isPowerOfTwo(right))
+                return Nodes.shiftLeft(expression, left, Integer.numberOfTrailingZeros((int) ((LiteralNode) right).getLiteral()));
+            if (isPowerOfTwo(left))
+                return Nodes.shiftLeft(expression, right, Integer.numberOfTrailingZeros((int) ((LiteralNode) left).getLiteral()));
+            return null;
+        }
+
+        // 1 is left to the multiply by one rule
+        private boolean isPowerOfTwo(ExpressionNode expression) {
+            if (!(expression instanceof LiteralNode) || !(((LiteralNode) expression).getLiteral() instanceof Integer))
+                return false;
+            int value = (int) ((LiteralNode) expression).getLiteral();
+            return value > 1 && Integer.bitCount(value) == 1;
+        }
+    };
+
+    // A rule for a BinNode, it gets the operator and both operands.
+    private abstract static class BinaryRule implements Rule {
+        private final String name;
+
+        BinaryRule(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public ExpressionNode apply(ExpressionNode expression, AlgebraicSimplification pass) {
+            if (!(expression instanceof BinNode))
+                return null;
+            BinNode binary = (BinNode) expression;
+            return apply(binary, binary.getTokenOperator().getTokenType(), binary.getLeftHandSide(), binary.getRightHandSide(), pass);
+        }
+
+        abstract ExpressionNode apply(BinNode expression, TokenType operator, ExpressionNode left, ExpressionNode right, AlgebraicSimplification pass);
+    }
+
+    private static boolean isInt(ExpressionNode expression, int value) {
+        return isLiteral(expression, value);
+    }
+
+    private static boolean isLiteral(ExpressionNode expression, Object value) {
+        return expression instanceof LiteralNode && value.equals(((LiteralNode) expression).getLiteral());
+    }
+
+    private static boolean isUnary(ExpressionNode expression, TokenType operator) {
+        return expression instanceof UnaryNode && ((UnaryNode) expression).getTokenOperator().getTokenType() == operator;
+    }
+}
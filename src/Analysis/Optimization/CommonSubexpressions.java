@@ -0,0 +1,243 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.DataType;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Finds an expression that is written more than once in a basic block,
+    the statements that run one after the other without an IF or WHILE in
+    between, and finds its value only once into a temporary (common
+    subexpression elimination). Expressions are the same when they are
+    written the same way, see ValueNumbers.
+    Example below:
+        DISPLAY: (a + b) * c & " " & (a + b) * c + 1
+        d = (a + b) * c - d
+    becomes
+        $t7 = (a + b) * c
+        DISPLAY: $t7 & " " & $t7 + 1
+        d = $t7 - d
+    An assignment or a SCAN of a variable ends the temporaries that read
+    it, the next time the expression is written it is found again. A
+    temporary is only added when it saves more than it costs. The
+    first condition of an IF is in the block before the IF, the conditions
+    of ELSE IF and WHILE are not since they do not always run there.
+    Like for LoopInvariantMotion the temporary is found before the
+    statement, so only expressions that surely give an int and can never
+    fail get one, see IntValues.
+    It needs the Semantic that checked the program, the temporaries get
+    their slots from it, so make the values of the Interpreter after.
+ */
+public class CommonSubexpressions implements PassManager.Pass {
+    private final Semantic semantic;
+    private final IntValues ints;
+    private final ValueNumbers numbers = new ValueNumbers();
+    private int temporaries;
+    private int reusedExpressions;
+
+    public CommonSubexpressions(Semantic semantic) {
+        this.semantic = semantic;
+        this.ints = new IntValues(semantic);
+    }
+
+    public void optimize(ProgramNode program) {
+        optimize(program, new BitSet());
+    }
+
+    // Number of temporaries that were added, one for each expression that is found once now.
+    public int getTemporaries() {
+        return temporaries;
+    }
+
+    // Number of times an expression was read from a temporary instead of being found again.
+    public int getReusedExpressions() {
+        return reusedExpressions;
+    }
+
+    /*
+        Splits the statements into basic blocks at each IF and WHILE. The
+        slots in initialized surely hold an int, see IntValues.
+     */
+    private void optimize(ProgramNode block, BitSet initialized) {
+        List<StatementNode> statements = block.getStatements();
+        List<StatementNode> result = new ArrayList<>(statements.size());
+        int start = 0;
+        for (int i = 0; i < statements.size(); i++) {
+            StatementNode statement = statements.get(i);
+            if (Nodes.blocks(statement).isEmpty())
+                continue;
+            // The first condition of an IF is found before any of its arms
+            ConditionalNode condition = statement instanceof ConditionalNode ? (ConditionalNode) statement : null;
+            ConditionalNode rewritten = new BasicBlock(statements.subList(start, i), condition).rewrite(initialized, result);
+            if (rewritten != null)
+                statement = rewritten;
+            for (ProgramNode inner : Nodes.blocks(statement))
+                optimize(inner, ints.innerState(statement, initialized));
+            ints.initialize(statement, initialized);
+            result.add(statement);
+            start = i + 1;
+        }
+        new BasicBlock(statements.subList(start, statements.size()), null).rewrite(initialized, result);
+        statements.clear();
+        statements.addAll(result);
+    }
+
+    // An expression of the basic block and the number of times it is written while its variables stay the same.
+    private static final class Group {
+        private final BitSet reads = new BitSet();
+        private final int operators;
+        private int count = 1;
+        private boolean seen;
+        private IdentifierNode temporary;
+
+        Group(ExpressionNode expression) {
+            IntValues.reads(expression, reads);
+            operators = operators(expression);
+        }
+
+        /*
+            Storing and reading the temporary costs about as much as one
+            operator, so a + b written twice stays as it is, written three
+            times or (a + b) * c written twice gets a temporary.
+         */
+        boolean isShared() {
+            return (count - 1) * operators >= 2;
+        }
+
+        private static int operators(ExpressionNode expression) {
+            int operators = expression instanceof BinNode || expression instanceof UnaryNode ? 1 : 0;
+            for (ExpressionNode operand : Nodes.operands(expression))
+                operators += operators(operand);
+            return operators;
+        }
+    }
+
+    /*
+        The expressions are gone through twice in the same order. The
+        first time counts how many times each one is written, the second
+        time replaces the ones that are worth it by their temporary, see
+        Group.isShared().
+        Each time an expression could get a temporary its Group is kept in
+        visits, so the second time knows which Group it is at.
+     */
+    private final class BasicBlock {
+        private final List<StatementNode> statements;
+        private final ConditionalNode condition;
+        private final List<Group> visits = new ArrayList<>();
+        private Iterator<Group> next;
+
+        BasicBlock(List<StatementNode> statements, ConditionalNode condition) {
+            this.statements = statements;
+            this.condition = condition;
+        }
+
+        // Adds the statements with their temporaries to result, returns the IF with its new condition.
+        ConditionalNode rewrite(BitSet initialized, List<StatementNode> result) {
+            count((BitSet) initialized.clone());
+            next = visits.iterator();
+            for (StatementNode statement : statements) {
+                List<StatementNode> stores = new ArrayList<>();
+                StatementNode rewritten = rewrite(statement, initialized, stores);
+                result.addAll(stores);
+                result.add(rewritten);
+                ints.initialize(statement, initialized);
+            }
+            if (condition == null)
+                return null;
+            List<StatementNode> stores = new ArrayList<>();
+            List<ExpressionNode> conditions = new ArrayList<>(condition.getExpressions());
+            conditions.set(0, rewrite(conditions.get(0), initialized, stores, condition));
+            result.addAll(stores);
+            return (ConditionalNode) Nodes.condition(condition, condition.getTokens(), conditions, condition.getStmt());
+        }
+
+        private void count(BitSet initialized) {
+            Map<Integer, Group> available = new HashMap<>();
+            for (StatementNode statement : statements) {
+                for (ExpressionNode expression : Nodes.expressions(statement))
+                    count(expression, initialized, available);
+                // The groups that read a variable the statement changes are done
+                BitSet written = new BitSet();
+                written(statement, written);
+                available.values().removeIf(group -> group.reads.intersects(written));
+                ints.initialize(statement, initialized);
+            }
+            if (condition != null)
+                count(condition.getExpressions().get(0), initialized, available);
+        }
+
+        private void count(ExpressionNode expression, BitSet initialized, Map<Integer, Group> available) {
+            if (Nodes.operands(expression).isEmpty())
+                return;
+            if (isCandidate(expression, initialized)) {
+                Group group = available.get(numbers.of(expression));
+                if (group != null) {
+                    // It is read from the temporary, what is inside it is not found again
+                    group.count++;
+                    visits.add(group);
+                    return;
+                }
+                group = new Group(expression);
+                available.put(numbers.of(expression), group);
+                visits.add(group);
+            }
+            for (ExpressionNode operand : Nodes.operands(expression))
+                count(operand, initialized, available);
+        }
+
+        // The statements of a basic block are not an IF or WHILE, so all their expressions are rewritten.
+        private StatementNode rewrite(StatementNode statement, BitSet initialized, List<StatementNode> stores) {
+            return Nodes.rewriteExpressions(statement, expression -> rewrite(expression, initialized, stores, statement));
+        }
+
+        private ExpressionNode rewrite(ExpressionNode expression, BitSet initialized, List<StatementNode> stores, StatementNode statement) {
+            if (Nodes.operands(expression).isEmpty())
+                return expression;
+            if (isCandidate(expression, initialized)) {
+                Group group = next.next();
+                if (!group.isShared()) {
+                    // Counting did not look inside it when it was written again
+                    if (group.seen)
+                        return expression;
+                    group.seen = true;
+                } else {
+                    if (group.temporary != null) {
+                        reusedExpressions++;
+                        return group.temporary;
+                    }
+                    // The stores of the expressions inside it come first
+                    ExpressionNode value = rewriteInside(expression, initialized, stores, statement);
+                    group.temporary = Nodes.temporary(expression, semantic.addTemporary(DataType.Int), DataType.Int);
+                    stores.add(Nodes.store(group.temporary, value, statement));
+                    initialized.set(group.temporary.getSlot());
+                    temporaries++;
+                    return group.temporary;
+                }
+            }
+            return rewriteInside(expression, initialized, stores, statement);
+        }
+
+        private ExpressionNode rewriteInside(ExpressionNode expression, BitSet initialized, List<StatementNode> stores, StatementNode statement) {
+            return Nodes.rewriteOperands(expression, operand -> rewrite(operand, initialized, stores, statement));
+        }
+
+        // A parenthesis has the number of what is inside it, so only that one is counted.
+        private boolean isCandidate(ExpressionNode expression, BitSet initialized) {
+            return (expression instanceof BinNode || expression instanceof UnaryNode) && ints.isInt(expression, initialized, null);
+        }
+    }
+
+    // Sets the slots the statement assigns, scans or declares.
+    private static void written(StatementNode statement, BitSet written) {
+        for (int slot : Nodes.slots(statement))
+            written.set(slot);
+    }
+}
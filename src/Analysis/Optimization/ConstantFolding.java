@@ -0,0 +1,197 @@
+package Analysis.Optimization;
+
+import Analysis.Interpreter;
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Token;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Finds the value of the expressions made only of literals before the
+    program runs, and takes out the IF arms and WHILE loops that can never
+    run. It is done on a program that has no syntax or semantic error,
+    after the Semantic gave it its Data Types and slots.
+    Example below:
+        a = (2 + 3) * 4          becomes  a = 20
+        IF (1 > 2)
+        BEGIN IF
+            DISPLAY: a
+        END IF                   is taken out
+        WHILE (3 < 1) ...        is taken out
+        IF (1 < 2) BEGIN IF ... END IF ELSE BEGIN IF ... END IF
+                                 becomes the statements of the first block
+    The value is found with the operators of the Interpreter, so it is the
+    same value the program would print. An expression that would fail
+    while running, like 1 / 0 or NOT 5, is left as it is so it still fails
+    in the same place. A condition is only constant when its value is a
+    BOOL literal.
+    The statements of a block are changed in their list, the expression
+    nodes are never changed since the Parser shares them (see
+    ExpressionFactory), a folded expression is a new node.
+    The blocks of a LazyProgramNode that were not parsed yet are skipped.
+ */
+public class ConstantFolding implements PassManager.Pass {
+    // The folded version of each expression node, a shared node is only folded once
+    private final Map<ExpressionNode, ExpressionNode> folded = new IdentityHashMap<>();
+    private int foldedExpressions;
+    private int removedBranches;
+    private int removedLoops;
+
+    public void optimize(ProgramNode program) {
+        Nodes.rewrite(program, this::optimize);
+    }
+
+    // Number of expressions that were replaced by a literal.
+    public int getFoldedExpressions() {
+        return foldedExpressions;
+    }
+
+    // Number of IF arms that were taken out, an arm that became the only one counts too.
+    public int getRemovedBranches() {
+        return removedBranches;
+    }
+
+    // Number of WHILE loops that were taken out.
+    public int getRemovedLoops() {
+        return removedLoops;
+    }
+
+    // Adds the statement as it is after folding, or the statements it became, to the list.
+    private void optimize(StatementNode statement, List<StatementNode> result) {
+        statement = Nodes.rewriteExpressions(statement, this::fold);
+        if (statement instanceof LoopNode && isConstant(((LoopNode) statement).getExpression(), false)) {
+            removedLoops++;
+            return;
+        }
+        for (ProgramNode block : Nodes.blocks(statement))
+            optimize(block);
+        if (statement instanceof ConditionalNode)
+            optimizeCondition((ConditionalNode) statement, result);
+        else
+            result.add(statement);
+    }
+
+    /*
+        An arm with a false condition is taken out, an arm with a true
+        condition becomes the ELSE and the arms after it are taken out.
+        When only the ELSE is left its statements take the place of the IF.
+        Example below:
+            IF (1 > 2) ... ELSE IF (a > 0) ... ELSE IF (TRUE) ... ELSE ...
+        becomes
+            IF (a > 0) ... ELSE ...          (the block of the TRUE arm)
+        An IF with more than one arm and no ELSE fails in the Interpreter
+        when none of its conditions is true, see Interpreter.runCondition(),
+        and the error has the number of arms. Its arms are only taken out
+        when one of them is always true, so it can not fail anymore.
+     */
+    private void optimizeCondition(ConditionalNode statement, List<StatementNode> result) {
+        List<ExpressionNode> conditions = statement.getExpressions();
+        List<Token> tokens = statement.getTokens();
+        List<ProgramNode> blocks = statement.getStmt();
+
+        List<Token> keptTokens = new ArrayList<>();
+        List<ExpressionNode> keptConditions = new ArrayList<>();
+        List<ProgramNode> keptBlocks = new ArrayList<>();
+        boolean hasElse = false;
+        for (int i = 0; i < conditions.size() && !hasElse; i++) {
+            ExpressionNode condition = conditions.get(i);
+            if (isConstant(condition, false))
+                continue;
+            hasElse = condition == null || isConstant(condition, true);
+            // The first arm that is kept takes the IF token, the others keep their ELSE
+            keptTokens.add(keptTokens.isEmpty() ? tokens.get(0) : tokens.get(i));
+            keptConditions.add(hasElse ? null : condition);
+            keptBlocks.add(blocks.get(i));
+        }
+
+        if (!hasElse && conditions.size() > 1) {
+            result.add(statement);
+            return;
+        }
+        removedBranches += conditions.size() - keptConditions.size();
+        if (keptConditions.isEmpty())
+            return;
+        if (hasElse && keptConditions.size() == 1) {
+            removedBranches++;
+            result.addAll(keptBlocks.get(0).getStatements());
+            return;
+        }
+        result.add(Nodes.condition(statement, keptTokens, keptConditions, keptBlocks));
+    }
+
+    // Returns the expression with its constant parts replaced by literals.
+    private ExpressionNode fold(ExpressionNode expression) {
+        if (Nodes.operands(expression).isEmpty())
+            return expression;
+        ExpressionNode result = folded.get(expression);
+        if (result == null) {
+            result = Nodes.rewriteOperands(expression, this::fold).accept(folder);
+            folded.put(expression, result);
+        }
+        return result;
+    }
+
+    /*
+        Gives the literal in the place of an expression whose operands were
+        folded already, or the expression when it is not constant.
+     */
+    private final ExpressionVisitor<ExpressionNode> folder = new ExpressionVisitor<>() {
+        @Override
+        public ExpressionNode visitBinary(BinNode expression) {
+            if (expression.getLeftHandSide() instanceof LiteralNode && expression.getRightHandSide() instanceof LiteralNode) {
+                try {
+                    Object value = Interpreter.applyBinaryOperator(expression.getTokenOperator().getTokenType(),
+                            ((LiteralNode) expression.getLeftHandSide()).getLiteral(), ((LiteralNode) expression.getRightHandSide()).getLiteral());
+                    return literal(expression, value);
+                } catch (RuntimeException e) {
+                    // It fails while running too, so it is not folded
+                }
+            }
+            return expression;
+        }
+
+        @Override
+        public ExpressionNode visitUnary(UnaryNode expression) {
+            if (expression.getExpression() instanceof LiteralNode) {
+                try {
+                    Object value = Interpreter.applyUnaryOperator(expression.getTokenOperator().getTokenType(),
+                            ((LiteralNode) expression.getExpression()).getLiteral());
+                    return literal(expression, value);
+                } catch (RuntimeException e) {
+                    // It fails while running too, so it is not folded
+                }
+            }
+            return expression;
+        }
+
+        @Override
+        public ExpressionNode visitParenthesis(ParenthesisNode expression) {
+            if (expression.getExpression() instanceof LiteralNode)
+                return literal(expression, ((LiteralNode) expression.getExpression()).getLiteral());
+            return expression;
+        }
+
+        @Override
+        public ExpressionNode visitIdentifier(IdentifierNode expression) {
+            return expression;
+        }
+
+        @Override
+        public ExpressionNode visitLiteral(LiteralNode expression) {
+            return expression;
+        }
+    };
+
+    private LiteralNode literal(ExpressionNode expression, Object value) {
+        foldedExpressions++;
+        return Nodes.literal(expression, value);
+    }
+
+    private static boolean isConstant(ExpressionNode condition, boolean value) {
+        return condition instanceof LiteralNode && Boolean.valueOf(value).equals(((LiteralNode) condition).getLiteral());
+    }
+}
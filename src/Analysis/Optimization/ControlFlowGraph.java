@@ -0,0 +1,280 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.ExpressionNode;
+import Analysis.ParseTree.Expression.LiteralNode;
+import Analysis.ParseTree.Statement.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    The blocks of statements of a program and the ways the program can go
+    from one to the other (control flow graph). A block is statements that
+    always run one after the other, it can end with the condition of an IF
+    arm or of a WHILE, then it goes to one block when the condition is
+    true and to another when it is false.
+    Example below:
+        a = 1                   block 0: a = 1, (a > 0)     -> 3 or 4
+        IF (a > 0)              block 3: DISPLAY: a         -> 2
+        BEGIN IF                block 4: (a < 0)            -> 5 or 6
+            DISPLAY: a          block 5: a = 0              -> 2
+        END IF                  block 6:                    -> 1
+        ELSE IF (a < 0)         block 2: b = a              -> 1
+        BEGIN IF
+            a = 0
+        END IF
+        b = a
+    Block 0 is where the program starts and block 1 where it ends. An IF
+    with more than one arm and no ELSE fails when no condition is true,
+    see Interpreter.runCondition(), so that way goes to the end. A BOOL
+    literal condition only goes the way it is always taken, the blocks
+    that can not be reached are still in the graph, see isReachable().
+    A program with blocks of a LazyProgramNode that were not parsed yet is
+    not complete, a pass should leave it as it is.
+ */
+public class ControlFlowGraph {
+    public static final class Block {
+        private final int index;
+        private final List<StatementNode> statements = new ArrayList<>();
+        // The condition that ends the block, null when it just goes to the next one
+        private ExpressionNode condition;
+        // A block goes to at most two others, and most have one or two before them
+        private final List<Block> successors = new ArrayList<>(2);
+        private final List<Block> predecessors = new ArrayList<>(2);
+        private boolean reachable;
+        // Made once, the passes ask for them for every block again and again
+        private final List<StatementNode> statementView = Collections.unmodifiableList(statements);
+        private final List<Block> successorView = Collections.unmodifiableList(successors);
+        private final List<Block> predecessorView = Collections.unmodifiableList(predecessors);
+
+        private Block(int index) {
+            this.index = index;
+        }
+
+        // The number of the block, from 0 to getBlocks().size() - 1.
+        public int getIndex() {
+            return index;
+        }
+
+        // The statements that are not an IF or WHILE, in the order they run.
+        public List<StatementNode> getStatements() {
+            return statementView;
+        }
+
+        public ExpressionNode getCondition() {
+            return condition;
+        }
+
+        public List<Block> getSuccessors() {
+            return successorView;
+        }
+
+        public List<Block> getPredecessors() {
+            return predecessorView;
+        }
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final Block entry;
+    private final Block exit;
+    // The block of each statement, an IF is in the block of its first condition and a WHILE in the block of its condition
+    private final Map<StatementNode, Block> statementBlocks = new IdentityHashMap<>();
+    // The block that ends with each condition of an IF or with the condition of a WHILE, in the order of the conditions
+    private final Map<StatementNode, List<Block>> conditionBlocks = new IdentityHashMap<>();
+    private boolean complete = true;
+    private final Builder builder = new Builder();
+
+    public ControlFlowGraph(ProgramNode program) {
+        entry = newBlock();
+        exit = newBlock();
+        link(build(program, entry), exit);
+        markReachable();
+    }
+
+    public List<Block> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public Block getEntry() {
+        return entry;
+    }
+
+    public Block getExit() {
+        return exit;
+    }
+
+    // False when a block of a LazyProgramNode was not parsed yet, its statements are not in the graph.
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Block getBlock(StatementNode statement) {
+        return statementBlocks.get(statement);
+    }
+
+    // The block that ends with the condition of the arm of an IF, or of a WHILE with arm 0.
+    public Block getConditionBlock(StatementNode statement, int arm) {
+        return conditionBlocks.get(statement).get(arm);
+    }
+
+    // True when the program can get to the block from where it starts.
+    public boolean isReachable(Block block) {
+        return block.reachable;
+    }
+
+    /*
+        The blocks that can be reached, a block comes before the blocks it
+        goes to unless it is the end of a loop (reverse postorder). The
+        passes that go forward through the graph see the most of it this way.
+     */
+    public List<Block> getReversePostorder() {
+        List<Block> order = new ArrayList<>(blocks.size());
+        boolean[] visited = new boolean[blocks.size()];
+        // Each entry is a block and the index of the next successor to visit, with no recursion for long programs
+        Block[] stack = new Block[blocks.size()];
+        int[] next = new int[blocks.size()];
+        int size = 0;
+        stack[size++] = entry;
+        visited[entry.index] = true;
+        while (size > 0) {
+            Block block = stack[size - 1];
+            if (next[size - 1] < block.successors.size()) {
+                Block successor = block.successors.get(next[size - 1]++);
+                if (!visited[successor.index]) {
+                    visited[successor.index] = true;
+                    next[size] = 0;
+                    stack[size++] = successor;
+                }
+            } else {
+                size--;
+                order.add(block);
+            }
+        }
+        Collections.reverse(order);
+        return order;
+    }
+
+    // Adds the statements of the block to the graph from current, returns the block where the program goes on after them.
+    private Block build(ProgramNode block, Block current) {
+        if (!block.isParsed())
+            complete = false;
+        for (StatementNode statement : block.getStatements()) {
+            builder.current = current;
+            current = statement.accept(builder);
+        }
+        return current;
+    }
+
+    /*
+        Adds a statement of each kind to the graph from current, returns
+        the block where the program goes on after it. An IF or WHILE builds
+        its blocks with it again, so current is read before that.
+     */
+    private final class Builder implements StatementVisitor<Block> {
+        private Block current;
+
+        @Override
+        public Block visitVariableDeclaration(VariableDeclarationNode statement) {
+            return add(statement);
+        }
+
+        @Override
+        public Block visitAssignment(AssignmentNode statement) {
+            return add(statement);
+        }
+
+        @Override
+        public Block visitDisplay(DisplayNode statement) {
+            return add(statement);
+        }
+
+        @Override
+        public Block visitScan(ScanNode statement) {
+            return add(statement);
+        }
+
+        @Override
+        public Block visitCondition(ConditionalNode statement) {
+            return buildCondition(statement, current);
+        }
+
+        @Override
+        public Block visitLoop(LoopNode statement) {
+            return buildLoop(statement, current);
+        }
+
+        private Block add(StatementNode statement) {
+            current.statements.add(statement);
+            statementBlocks.put(statement, current);
+            return current;
+        }
+    }
+
+    private Block buildCondition(ConditionalNode statement, Block current) {
+        List<ExpressionNode> conditions = statement.getExpressions();
+        List<Block> tests = new ArrayList<>(conditions.size());
+        Block join = newBlock();
+        statementBlocks.put(statement, current);
+        conditionBlocks.put(statement, tests);
+        // The block the program is in when the conditions before were false
+        Block test = current;
+        for (int i = 0; i < conditions.size(); i++) {
+            ExpressionNode condition = conditions.get(i);
+            if (condition == null) {
+                link(build(statement.getStmt().get(i), test), join);
+                return join;
+            }
+            test.condition = condition;
+            tests.add(test);
+            Block arm = newBlock();
+            if (!isConstant(condition, false))
+                link(test, arm);
+            link(build(statement.getStmt().get(i), arm), join);
+            Block next = newBlock();
+            if (!isConstant(condition, true))
+                link(test, next);
+            test = next;
+        }
+        link(test, conditions.size() > 1 ? exit : join);
+        return join;
+    }
+
+    private Block buildLoop(LoopNode statement, Block current) {
+        Block header = newBlock();
+        link(current, header);
+        header.condition = statement.getExpression();
+        statementBlocks.put(statement, header);
+        conditionBlocks.put(statement, List.of(header));
+        Block body = newBlock();
+        if (!isConstant(statement.getExpression(), false))
+            link(header, body);
+        link(build(statement.getStatement(), body), header);
+        Block after = newBlock();
+        if (!isConstant(statement.getExpression(), true))
+            link(header, after);
+        return after;
+    }
+
+    private Block newBlock() {
+        Block block = new Block(blocks.size());
+        blocks.add(block);
+        return block;
+    }
+
+    private static void link(Block from, Block to) {
+        from.successors.add(to);
+        to.predecessors.add(from);
+    }
+
+    private void markReachable() {
+        for (Block block : getReversePostorder())
+            block.reachable = true;
+    }
+
+    private static boolean isConstant(ExpressionNode condition, boolean value) {
+        return condition instanceof LiteralNode && Boolean.valueOf(value).equals(((LiteralNode) condition).getLiteral());
+    }
+}
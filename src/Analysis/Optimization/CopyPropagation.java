@@ -0,0 +1,99 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import java.util.List;
+
+/*
+    Reads a variable that was copied from another one from the variable
+    it was copied from, while that one still holds the same value (copy
+    propagation). Then the copy is often not read anymore and
+    DeadCodeElimination takes it out.
+    Example below:
+        b = a + 1               b = a + 1
+        c = b           ->      c = b
+        DISPLAY: c * 2          DISPLAY: b * 2
+    The value read is the same object, a BOOL variable is read as "TRUE"
+    or "FALSE" from both and a variable without value has the same
+    placeholder. The copy runs before any place that reads it, so when
+    reading the first variable fails the copy already failed there.
+    Which variable holds the value is found with the SsaForm.
+    It needs the Semantic that checked the program for its slots.
+ */
+public class CopyPropagation implements PassManager.Pass {
+    private final Semantic semantic;
+    private int propagatedCopies;
+
+    public CopyPropagation(Semantic semantic) {
+        this.semantic = semantic;
+    }
+
+    public void optimize(ProgramNode program) {
+        ControlFlowGraph graph = new ControlFlowGraph(program);
+        if (!graph.isComplete())
+            return;
+        rewrite(program, new SsaForm(graph, semantic.getSlotCount()));
+    }
+
+    // Number of variables that are read from the variable they were copied from.
+    public int getPropagatedCopies() {
+        return propagatedCopies;
+    }
+
+    private void rewrite(ProgramNode block, SsaForm ssa) {
+        List<StatementNode> statements = block.getStatements();
+        for (int i = 0; i < statements.size(); i++) {
+            StatementNode statement = statements.get(i);
+            if (Nodes.blocks(statement).isEmpty()) {
+                IdentifierNode[] copies = ssa.getCopies(statement);
+                if (copies != null)
+                    statements.set(i, Nodes.rewriteExpressions(statement, new Copies(copies)::rewrite));
+                continue;
+            }
+            statements.set(i, Nodes.rewriteExpressions(statement, new Conditions(statement, ssa)::rewrite));
+            for (ProgramNode inner : Nodes.blocks(statement))
+                rewrite(inner, ssa);
+        }
+    }
+
+    // Goes through the variables in the same order as SsaForm.getCopies() has them.
+    private final class Copies {
+        private final IdentifierNode[] copies;
+        private int next;
+
+        Copies(IdentifierNode[] copies) {
+            this.copies = copies;
+        }
+
+        ExpressionNode rewrite(ExpressionNode expression) {
+            if (!(expression instanceof IdentifierNode))
+                return Nodes.rewriteOperands(expression, this::rewrite);
+            if (((IdentifierNode) expression).getSlot() < 0)
+                return expression;
+            IdentifierNode copy = copies[next++];
+            if (copy == null)
+                return expression;
+            propagatedCopies++;
+            return Nodes.variable(expression, copy);
+        }
+    }
+
+    // Goes through the conditions of an IF or WHILE, each one with the copies of the block it ends.
+    private final class Conditions {
+        private final StatementNode statement;
+        private final SsaForm ssa;
+        private int arm;
+
+        Conditions(StatementNode statement, SsaForm ssa) {
+            this.statement = statement;
+            this.ssa = ssa;
+        }
+
+        ExpressionNode rewrite(ExpressionNode condition) {
+            IdentifierNode[] copies = ssa.getConditionCopies(ssa.getGraph().getConditionBlock(statement, arm++));
+            return copies == null ? condition : new Copies(copies).rewrite(condition);
+        }
+    }
+}
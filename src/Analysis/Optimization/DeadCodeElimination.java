@@ -0,0 +1,254 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Takes out the statements whose work is never seen (dead code
+    elimination):
+    - an assignment whose value is never read, because the variable gets
+      another value first or is not read anymore after it,
+    - a variable of a declaration that is never read with the value it
+      was declared with, the whole declaration when none of them is,
+    - the statements the program can never get to, like the ones after a
+      WHILE (TRUE) loop.
+    Example below, c is not read anywhere:
+        INT a = 0, c = 1            INT c ... is taken out
+        a = 5                       the first value of a is never read
+        c = a * 2                   taken out
+        DISPLAY: a
+    A value is needed when a DISPLAY or a condition reads it, or when it is
+    read to find a value that is needed, see SsaForm.getInputs(). An
+    expression that could fail, like a / b or a variable without value in
+    a + 1, is always kept so the program still fails in the same place,
+    and a SCAN is always kept since it reads the input.
+    The IF and WHILE statements are kept, a loop that does nothing could
+    still run forever.
+    It needs the Semantic that checked the program for its slots. The slots
+    of the variables that were taken out are still there, see
+    SlotCompaction.
+ */
+public class DeadCodeElimination implements PassManager.Pass {
+    private final Semantic semantic;
+    private final IntValues ints;
+    private int removedStores;
+    private int removedVariables;
+    private int unreachableStatements;
+
+    public DeadCodeElimination(Semantic semantic) {
+        this.semantic = semantic;
+        this.ints = new IntValues(semantic);
+    }
+
+    public void optimize(ProgramNode program) {
+        ControlFlowGraph graph = new ControlFlowGraph(program);
+        if (!graph.isComplete())
+            return;
+        SsaForm ssa = new SsaForm(graph, semantic.getSlotCount());
+        Liveness liveness = new Liveness(ssa);
+        liveness.findEssential(program, new BitSet());
+        liveness.findNeeded();
+        liveness.remove(program);
+    }
+
+    // Number of assignments that were taken out because their value is never read.
+    public int getRemovedStores() {
+        return removedStores;
+    }
+
+    // Number of variables that were taken out of a declaration, a declaration with no variables left is taken out too.
+    public int getRemovedVariables() {
+        return removedVariables;
+    }
+
+    // Number of statements that were taken out because the program can never get to them, IF and WHILE count as one.
+    public int getUnreachableStatements() {
+        return unreachableStatements;
+    }
+
+    // The values that are needed, found from the statements that must run as they are.
+    private final class Liveness {
+        private final SsaForm ssa;
+        private final ControlFlowGraph graph;
+        private final BitSet needed = new BitSet();
+        private final Deque<Integer> work = new ArrayDeque<>();
+        // The statements and the variables of declarations that are kept even when their value is not needed
+        private final Map<StatementNode, boolean[]> essential = new IdentityHashMap<>();
+
+        Liveness(SsaForm ssa) {
+            this.ssa = ssa;
+            this.graph = ssa.getGraph();
+        }
+
+        /*
+            Goes through the statements in the order they run, like the
+            other passes, to know which INT variables surely hold an int
+            (see IntValues), and finds the statements that must run.
+         */
+        void findEssential(ProgramNode block, BitSet initialized) {
+            for (StatementNode statement : block.getStatements()) {
+                if (!graph.isReachable(graph.getBlock(statement)))
+                    continue;
+                statement.accept(new Essential(initialized));
+                for (ProgramNode inner : Nodes.blocks(statement))
+                    findEssential(inner, ints.innerState(statement, initialized));
+                ints.initialize(statement, initialized);
+            }
+        }
+
+        // What each kind of statement needs to run as it is, with the INT variables that surely hold an int before it.
+        private final class Essential implements StatementVisitor<Void> {
+            private final BitSet initialized;
+
+            Essential(BitSet initialized) {
+                this.initialized = initialized;
+            }
+
+            // Each value is found after the variables before it got theirs
+            @Override
+            public Void visitVariableDeclaration(VariableDeclarationNode statement) {
+                int[] values = ssa.getDefinitions(statement);
+                boolean[] kept = new boolean[values.length];
+                BitSet state = (BitSet) initialized.clone();
+                for (int i = 0; i < values.length; i++) {
+                    ExpressionNode value = statement.getValues().get(i);
+                    int[] inputs = ssa.getInputs(values[i]);
+                    if (value != null && !isSafe(value, inputs, state)) {
+                        kept[i] = true;
+                        need(inputs);
+                    }
+                    state.set(statement.getSlots()[i], value != null && ints.isInt(value, state, null));
+                }
+                essential.put(statement, kept);
+                return null;
+            }
+
+            @Override
+            public Void visitAssignment(AssignmentNode statement) {
+                if (!isSafe(statement.getExpression(), ssa.getUses(statement), initialized)) {
+                    essential.put(statement, new boolean[]{true});
+                    need(ssa.getUses(statement));
+                }
+                return null;
+            }
+
+            @Override
+            public Void visitDisplay(DisplayNode statement) {
+                need(ssa.getUses(statement));
+                return null;
+            }
+
+            @Override
+            public Void visitScan(ScanNode statement) {
+                essential.put(statement, new boolean[]{true});
+                return null;
+            }
+
+            @Override
+            public Void visitCondition(ConditionalNode statement) {
+                List<ExpressionNode> conditions = statement.getExpressions();
+                for (int arm = 0; arm < conditions.size(); arm++) {
+                    if (conditions.get(arm) != null)
+                        need(ssa.getConditionUses(graph.getConditionBlock(statement, arm)));
+                }
+                return null;
+            }
+
+            @Override
+            public Void visitLoop(LoopNode statement) {
+                need(ssa.getConditionUses(graph.getConditionBlock(statement, 0)));
+                return null;
+            }
+        }
+
+        // Adds the values a needed value is found from until there are no new ones.
+        void findNeeded() {
+            while (!work.isEmpty())
+                need(ssa.getInputs(work.pop()));
+        }
+
+        private void need(int[] values) {
+            for (int value : values) {
+                if (!needed.get(value)) {
+                    needed.set(value);
+                    work.push(value);
+                }
+            }
+        }
+
+        void remove(ProgramNode block) {
+            Nodes.rewrite(block, (statement, result) -> {
+                if (!graph.isReachable(graph.getBlock(statement))) {
+                    unreachableStatements++;
+                    return;
+                }
+                for (ProgramNode inner : Nodes.blocks(statement))
+                    remove(inner);
+                if (statement instanceof AssignmentNode && essential.get(statement) == null && !isNeeded(ssa.getDefinitions(statement))) {
+                    removedStores++;
+                    return;
+                }
+                if (statement instanceof VariableDeclarationNode) {
+                    boolean[] kept = essential.get(statement).clone();
+                    int[] values = ssa.getDefinitions(statement);
+                    for (int i = 0; i < kept.length; i++) {
+                        kept[i] |= needed.get(values[i]);
+                        if (!kept[i])
+                            removedVariables++;
+                    }
+                    statement = Nodes.declaration((VariableDeclarationNode) statement, kept);
+                    if (statement == null)
+                        return;
+                }
+                result.add(statement);
+            });
+        }
+
+        private boolean isNeeded(int[] values) {
+            for (int value : values) {
+                if (needed.get(value))
+                    return true;
+            }
+            return false;
+        }
+
+        /*
+            True when finding the expression can never fail, so it does not
+            have to run when its value is not needed: a literal, a variable
+            that surely has a value, an int found with IntValues, or a
+            comparison of two of those ints.
+         */
+        private boolean isSafe(ExpressionNode expression, int[] inputs, BitSet initialized) {
+            while (expression instanceof ParenthesisNode)
+                expression = ((ParenthesisNode) expression).getExpression();
+            if (expression instanceof LiteralNode)
+                return true;
+            if (expression instanceof IdentifierNode)
+                return ssa.isDefined(inputs[0]);
+            if (ints.isInt(expression, initialized, null))
+                return true;
+            if (!(expression instanceof BinNode))
+                return false;
+            BinNode binary = (BinNode) expression;
+            switch (binary.getTokenOperator().getTokenType()) {
+                case LESSTHAN:
+                case GREATERTHAN:
+                case LESSEQUAL:
+                case GREATEREQUAL:
+                case EQUALTO:
+                case NOTEQUAL:
+                    return ints.isInt(binary.getLeftHandSide(), initialized, null) && ints.isInt(binary.getRightHandSide(), initialized, null);
+                default:
+                    return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.DataType;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.BitSet;
+
+/*
+    Finds the expressions that surely give an int and can never fail, the
+    ones a pass can put in a temporary and find at another time than the
+    program would. A variable without value holds a placeholder object and
+    a BOOL variable is read as "TRUE" or "FALSE", so the only variables it
+    counts on are INT variables that surely got an int before.
+    The slots of those variables are kept in a BitSet (initialized) that
+    a pass updates with initialize() while it goes through the statements
+    in the order they run.
+    Example below:
+        INT a = 1, b, c
+        c = a + 1       <- a + 1 is an int, c too after this
+        b = c / 0       <- c / 0 fails, b is not
+ */
+final class IntValues {
+    private final Semantic semantic;
+
+    IntValues(Semantic semantic) {
+        this.semantic = semantic;
+    }
+
+    /*
+        Marks the slots that surely hold an int after the statement. An
+        assignment like c = u copies the placeholder of u, so c only holds
+        an int when its value surely is one. A statement that fails stops
+        the program, so there is no after for it.
+     */
+    void initialize(StatementNode statement, BitSet initialized) {
+        statement.accept(new Initializer(initialized));
+    }
+
+    void initialize(ProgramNode block, BitSet initialized) {
+        for (StatementNode statement : block.getStatements())
+            initialize(statement, initialized);
+    }
+
+    // What initialize() does for each kind of statement.
+    private final class Initializer implements StatementVisitor<Void> {
+        private final BitSet initialized;
+
+        Initializer(BitSet initialized) {
+            this.initialized = initialized;
+        }
+
+        @Override
+        public Void visitVariableDeclaration(VariableDeclarationNode statement) {
+            for (int i = 0; i < statement.getSlots().length; i++) {
+                ExpressionNode value = statement.getValues().get(i);
+                initialized.set(statement.getSlots()[i], value != null && isInt(value, initialized, null));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(AssignmentNode statement) {
+            boolean isInt = isInt(statement.getExpression(), initialized, null);
+            for (int slot : statement.getSlots())
+                initialized.set(slot, isInt);
+            return null;
+        }
+
+        @Override
+        public Void visitDisplay(DisplayNode statement) {
+            return null;
+        }
+
+        // SCAN checks that the input has the Data Type of the variable
+        @Override
+        public Void visitScan(ScanNode statement) {
+            for (int slot : statement.getSlots())
+                initialized.set(slot);
+            return null;
+        }
+
+        // Any of the arms can run, or none of them
+        @Override
+        public Void visitCondition(ConditionalNode statement) {
+            BitSet after = (BitSet) initialized.clone();
+            for (ProgramNode arm : statement.getStmt()) {
+                BitSet state = (BitSet) initialized.clone();
+                initialize(arm, state);
+                after.and(state);
+            }
+            initialized.and(after);
+            return null;
+        }
+
+        @Override
+        public Void visitLoop(LoopNode statement) {
+            initialized.and(loopState(statement, initialized));
+            return null;
+        }
+    }
+
+    /*
+        The slots that surely hold an int where the conditions of the
+        statement are found and where each of its blocks starts, a new
+        BitSet. For a WHILE it is its loopState(), for the others the same
+        as initialized.
+     */
+    BitSet innerState(StatementNode statement, BitSet initialized) {
+        return statement instanceof LoopNode ? loopState((LoopNode) statement, initialized) : (BitSet) initialized.clone();
+    }
+
+    /*
+        The slots that surely hold an int each time the condition of the
+        loop is checked, so also at the start of its block and after it.
+        It starts with the ones before the loop and takes out the ones the
+        block loses, until a time around the loop loses no more.
+        Example below, a stays an int and c does not:
+            WHILE (i < 10)
+            BEGIN WHILE
+                a = a + 1
+                c = u
+            END WHILE
+     */
+    BitSet loopState(LoopNode loop, BitSet initialized) {
+        BitSet state = (BitSet) initialized.clone();
+        while (true) {
+            BitSet after = (BitSet) state.clone();
+            initialize(loop.getStatement(), after);
+            after.and(state);
+            if (after.equals(state))
+                return state;
+            state = after;
+        }
+    }
+
+    // Sets (or clears) the slots that are assigned, scanned or declared in the block and the blocks inside it.
+    static void assigned(ProgramNode block, BitSet slots, boolean value) {
+        Nodes.forEach(block, statement -> {
+            for (int slot : Nodes.slots(statement))
+                slots.set(slot, value);
+        });
+    }
+
+    /*
+        True when the expression always gives an int without failing: INT
+        variables in initialized that are not in excluded, INT literals,
+        and + - * with a / or % only by a literal that is not 0. A << of
+        AlgebraicSimplification shifts by a literal, so it is like *.
+     */
+    boolean isInt(ExpressionNode expression, BitSet initialized, BitSet excluded) {
+        if (expression instanceof LiteralNode)
+            return ((LiteralNode) expression).getLiteral() instanceof Integer;
+        if (expression instanceof IdentifierNode) {
+            int slot = ((IdentifierNode) expression).getSlot();
+            return slot >= 0 && semantic.getSlotType(slot) == DataType.Int
+                    && initialized.get(slot) && (excluded == null || !excluded.get(slot));
+        }
+        if (expression instanceof ParenthesisNode)
+            return isInt(((ParenthesisNode) expression).getExpression(), initialized, excluded);
+        if (expression instanceof UnaryNode) {
+            TokenType operator = ((UnaryNode) expression).getTokenOperator().getTokenType();
+            return (operator == TokenType.MINUS || operator == TokenType.PLUS)
+                    && isInt(((UnaryNode) expression).getExpression(), initialized, excluded);
+        }
+        BinNode binary = (BinNode) expression;
+        switch (binary.getTokenOperator().getTokenType()) {
+            case PLUS:
+            case MINUS:
+            case STAR:
+            case SHIFTLEFT:
+                return isInt(binary.getLeftHandSide(), initialized, excluded) && isInt(binary.getRightHandSide(), initialized, excluded);
+            case SLASH:
+            case MODULO:
+                return isInt(binary.getLeftHandSide(), initialized, excluded) && binary.getRightHandSide() instanceof LiteralNode
+                        && isInt(binary.getRightHandSide(), initialized, excluded)
+                        && (int) ((LiteralNode) binary.getRightHandSide()).getLiteral() != 0;
+            default:
+                return false;
+        }
+    }
+
+    // Sets the slots of the variables the expression reads.
+    static void reads(ExpressionNode expression, BitSet slots) {
+        Nodes.forEachVariable(expression, variable -> {
+            if (variable.getSlot() >= 0)
+                slots.set(variable.getSlot());
+        });
+    }
+
+    // A lone variable or literal is not worth a temporary.
+    static boolean hasOperator(ExpressionNode expression) {
+        while (expression instanceof ParenthesisNode)
+            expression = ((ParenthesisNode) expression).getExpression();
+        return expression instanceof BinNode || expression instanceof UnaryNode;
+    }
+}
@@ -0,0 +1,534 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.DataType;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Replaces a WHILE that only counts and adds up with the assignments of
+    the values it ends with (loop idiom recognition), so the Interpreter
+    does not go around it millions of times.
+    Example below, i is 0 before the loop:
+        WHILE (i < 1000000)                 s = s + 1783293664
+        BEGIN WHILE                 ->      c = c + 3000000
+            s = s + i                       t = t + 1000000 * k
+            c = c + 3                       i = 1000000
+            t = t + k
+            i = i + 1
+        END WHILE
+    The loop is replaced when:
+    - its condition compares one variable i with <, <=, >, >= or <> to an
+      INT literal or to a variable that is not assigned in the loop,
+    - the block changes i once, with i = i + c or i = i - c where c is an
+      INT literal,
+    - every other statement of the block is s = s + e, s = e + s or
+      s = s - e for its own variable s, where e is an INT literal, i, or
+      a variable that is not assigned in the loop.
+    When i and the bound have known values, the number of times around the
+    loop is found here, like above. A value is known when the variable was
+    given an INT literal before, in the same block or in a block around
+    it, and nothing that runs in between can change it. i never goes past
+    the largest or smallest int on the way, a loop that needs it to wrap
+    around is left as it is. The sums are found with long and given as
+    int, so they wrap around the same way the + and - of the Interpreter
+    do on each time around.
+    Otherwise the number of times is found when the program runs, in an
+    IF that still runs the loop as it was when i would wrap around or the
+    loop does not run at all, see guarded().
+    s and a variable read with e have to surely hold an int (see
+    IntValues) when the loop runs at least once, otherwise s + e would
+    fail on the first time and the loop is left as it is too.
+    It needs the Semantic that checked the program for the Data Types of
+    the slots.
+ */
+public class LoopIdiomRecognition implements PassManager.Pass {
+    private final Semantic semantic;
+    private final IntValues ints;
+    private int replacedLoops;
+
+    public LoopIdiomRecognition(Semantic semantic) {
+        this.semantic = semantic;
+        this.ints = new IntValues(semantic);
+    }
+
+    public void optimize(ProgramNode program) {
+        optimize(program, new BitSet(), new HashMap<>());
+    }
+
+    // Number of loops that were replaced with their assignments.
+    public int getReplacedLoops() {
+        return replacedLoops;
+    }
+
+    /*
+        Goes through the statements in the order they run, with the INT
+        variables that surely hold an int (initialized) and the ones whose
+        value is known (values, by slot).
+     */
+    private void optimize(ProgramNode block, BitSet initialized, Map<Integer, Integer> values) {
+        Nodes.rewrite(block, (statement, result) -> {
+            List<StatementNode> replacement = statement instanceof LoopNode ? new Idiom((LoopNode) statement, initialized, values).replace() : null;
+            if (replacement != null) {
+                replacedLoops++;
+                for (StatementNode assignment : replacement) {
+                    result.add(assignment);
+                    ints.initialize(assignment, initialized);
+                    remember(assignment, values);
+                }
+                return;
+            }
+            for (ProgramNode inner : Nodes.blocks(statement)) {
+                Map<Integer, Integer> known = new HashMap<>(values);
+                // The block of a loop runs again with the values it changed
+                if (statement instanceof LoopNode)
+                    forget(inner, known);
+                optimize(inner, ints.innerState(statement, initialized), known);
+            }
+            result.add(statement);
+            ints.initialize(statement, initialized);
+            remember(statement, values);
+        });
+    }
+
+    // Keeps the INT literals the statement gives its variables and forgets the other values it changes.
+    private void remember(StatementNode statement, Map<Integer, Integer> values) {
+        for (ProgramNode block : Nodes.blocks(statement))
+            forget(block, values);
+        int[] slots = Nodes.slots(statement);
+        List<ExpressionNode> given = Nodes.values(statement);
+        for (int i = 0; i < slots.length; i++)
+            remember(slots[i], given.get(i), values);
+    }
+
+    private void remember(int slot, ExpressionNode value, Map<Integer, Integer> values) {
+        Integer literal = intLiteral(value);
+        if (literal != null && semantic.getSlotType(slot) == DataType.Int)
+            values.put(slot, literal);
+        else
+            values.remove(slot);
+    }
+
+    private static void forget(ProgramNode block, Map<Integer, Integer> values) {
+        BitSet assigned = new BitSet();
+        IntValues.assigned(block, assigned, true);
+        for (int slot = assigned.nextSetBit(0); slot >= 0; slot = assigned.nextSetBit(slot + 1))
+            values.remove(slot);
+    }
+
+    private static ExpressionNode strip(ExpressionNode expression) {
+        while (expression instanceof ParenthesisNode)
+            expression = ((ParenthesisNode) expression).getExpression();
+        return expression;
+    }
+
+    private static Integer intLiteral(ExpressionNode expression) {
+        expression = strip(expression);
+        if (expression instanceof LiteralNode && ((LiteralNode) expression).getLiteral() instanceof Integer)
+            return (Integer) ((LiteralNode) expression).getLiteral();
+        return null;
+    }
+
+    private static int slot(ExpressionNode expression) {
+        expression = strip(expression);
+        return expression instanceof IdentifierNode ? ((IdentifierNode) expression).getSlot() : -1;
+    }
+
+    // One loop that may be an idiom, with what is known where it starts.
+    private final class Idiom {
+        private final LoopNode loop;
+        private final BitSet initialized;
+        private final Map<Integer, Integer> values;
+        private final BitSet assigned = new BitSet();
+        // The variable the condition counts with, its step and the statement that takes it
+        private int counter = -1;
+        private long step;
+        private AssignmentNode update;
+        // The counter in the condition, new INT nodes are made at its place
+        private ExpressionNode counterSide;
+
+        Idiom(LoopNode loop, BitSet initialized, Map<Integer, Integer> values) {
+            this.loop = loop;
+            this.initialized = initialized;
+            this.values = values;
+        }
+
+        // The statements that give the values the loop ends with, null when it is not an idiom.
+        List<StatementNode> replace() {
+            ProgramNode block = loop.getStatement();
+            if (!block.isParsed())
+                return null;
+            for (StatementNode statement : block.getStatements()) {
+                if (!(statement instanceof AssignmentNode) || ((AssignmentNode) statement).getSlots().length != 1)
+                    return null;
+                int slot = ((AssignmentNode) statement).getSlots()[0];
+                // Each variable is changed by one statement
+                if (assigned.get(slot))
+                    return null;
+                assigned.set(slot);
+            }
+            ExpressionNode condition = strip(loop.getExpression());
+            if (!(condition instanceof BinNode))
+                return null;
+            BinNode comparison = (BinNode) condition;
+            // The side that the block changes is the counter, the other side is the bound
+            boolean counterOnLeft = slot(comparison.getLeftHandSide()) >= 0 && assigned.get(slot(comparison.getLeftHandSide()));
+            counterSide = counterOnLeft ? comparison.getLeftHandSide() : comparison.getRightHandSide();
+            ExpressionNode boundSide = counterOnLeft ? comparison.getRightHandSide() : comparison.getLeftHandSide();
+            counter = slot(counterSide);
+            if (counter < 0 || !assigned.get(counter) || !findUpdate(block))
+                return null;
+            TokenType operator = comparison.getTokenOperator().getTokenType();
+            // bound > i is the same as i < bound
+            if (!counterOnLeft)
+                operator = operator == TokenType.LESSTHAN ? TokenType.GREATERTHAN
+                        : operator == TokenType.LESSEQUAL ? TokenType.GREATEREQUAL
+                        : operator == TokenType.GREATERTHAN ? TokenType.LESSTHAN
+                        : operator == TokenType.GREATEREQUAL ? TokenType.LESSEQUAL : operator;
+            Long bound = invariantValue(boundSide);
+            if (bound == null || !values.containsKey(counter))
+                return guarded(operator, boundSide);
+
+            long count = count(operator, values.get(counter), bound);
+            if (count < 0)
+                return null;
+            List<StatementNode> replacement = new ArrayList<>();
+            boolean afterUpdate = false;
+            for (StatementNode statement : block.getStatements()) {
+                if (statement == update) {
+                    afterUpdate = true;
+                    continue;
+                }
+                StatementNode sum = accumulate((AssignmentNode) statement, count, afterUpdate);
+                if (sum == null)
+                    return null;
+                // The loop that never runs changes nothing
+                if (count > 0)
+                    replacement.add(sum);
+            }
+            if (count > 0)
+                replacement.add(Nodes.assignment(update, Nodes.literal(update.getExpression(), (int) (values.get(counter) + count * step))));
+            return replacement;
+        }
+
+        // Finds i = i + c or i = i - c for the counter.
+        private boolean findUpdate(ProgramNode block) {
+            for (StatementNode statement : block.getStatements()) {
+                AssignmentNode assignment = (AssignmentNode) statement;
+                if (assignment.getSlots()[0] != counter)
+                    continue;
+                update = assignment;
+                ExpressionNode expression = strip(assignment.getExpression());
+                if (!(expression instanceof BinNode))
+                    return false;
+                BinNode binary = (BinNode) expression;
+                Integer left = intLiteral(binary.getLeftHandSide());
+                Integer right = intLiteral(binary.getRightHandSide());
+                switch (binary.getTokenOperator().getTokenType()) {
+                    case PLUS:
+                        if (slot(binary.getLeftHandSide()) == counter && right != null)
+                            step = right;
+                        else if (slot(binary.getRightHandSide()) == counter && left != null)
+                            step = left;
+                        break;
+                    case MINUS:
+                        if (slot(binary.getLeftHandSide()) == counter && right != null)
+                            step = -(long) right;
+                        break;
+                    default:
+                        break;
+                }
+                return step != 0;
+            }
+            return false;
+        }
+
+        /*
+            The number of times the condition i operator bound is true, or
+            -1 when it is always true or only stops after the counter wraps
+            around.
+         */
+        private long count(TokenType operator, long start, long bound) {
+            switch (operator) {
+                case LESSTHAN:
+                    return countUp(start, bound);
+                case LESSEQUAL:
+                    return countUp(start, bound + 1);
+                case GREATERTHAN:
+                    return countDown(start, bound);
+                case GREATEREQUAL:
+                    return countDown(start, bound - 1);
+                case NOTEQUAL:
+                    if (start == bound)
+                        return 0;
+                    if ((bound - start) % step != 0 || (bound - start) / step < 0)
+                        return -1;
+                    return (bound - start) / step;
+                default:
+                    return -1;
+            }
+        }
+
+        // While counter < bound.
+        private long countUp(long start, long bound) {
+            if (start >= bound)
+                return 0;
+            if (step < 0)
+                return -1;
+            long count = (bound - start + step - 1) / step;
+            return start + count * step > Integer.MAX_VALUE ? -1 : count;
+        }
+
+        // While counter > bound.
+        private long countDown(long start, long bound) {
+            if (start <= bound)
+                return 0;
+            if (step > 0)
+                return -1;
+            long count = (start - bound - step - 1) / -step;
+            return start + count * step < Integer.MIN_VALUE ? -1 : count;
+        }
+
+        /*
+            For a counter or a bound that is only known when the program
+            runs. The loop is put in an IF that finds out when it runs if
+            the closed form gives the same values:
+                IF (i < n AND n - i >= 0 AND n - i <= 2147483646 AND n <= 2147483646)
+                BEGIN IF
+                    $t = (n - i + 1) / 2        <- the times around the loop
+                    s = s + $t * k
+                    i = i + $t * 2
+                END IF
+                ELSE
+                BEGIN IF
+                    the loop as it was
+                END IF
+            This is for i = i + 2. n - i >= 0 is false when n - i wraps
+            around, n - i + 1 must not wrap around either, and the last
+            condition is false when i would wrap around on the last time,
+            so then the loop runs as it was. It also runs as it was when it
+            does not go around at all.
+         */
+        private List<StatementNode> guarded(TokenType operator, ExpressionNode boundSide) {
+            Integer literal = intLiteral(boundSide);
+            int boundSlot = slot(boundSide);
+            if (!isInt(counter) || literal == null && (boundSlot < 0 || assigned.get(boundSlot) || !isInt(boundSlot)))
+                return null;
+            boolean up = step > 0;
+            long distance = Math.abs(step);
+            // The loop also runs when i is the bound for <= and >=
+            long inclusive;
+            switch (operator) {
+                case LESSTHAN:
+                case LESSEQUAL:
+                    if (!up)
+                        return null;
+                    inclusive = operator == TokenType.LESSEQUAL ? 1 : 0;
+                    break;
+                case GREATERTHAN:
+                case GREATEREQUAL:
+                    if (up)
+                        return null;
+                    inclusive = operator == TokenType.GREATEREQUAL ? 1 : 0;
+                    break;
+                case NOTEQUAL:
+                    inclusive = 0;
+                    break;
+                default:
+                    return null;
+            }
+            ExpressionNode counterNode = strip(counterSide);
+            ExpressionNode boundNode = strip(boundSide);
+            // i < n (or i > n when it counts down) makes the loop run at least once
+            List<ExpressionNode> checks = new ArrayList<>();
+            TokenType runs = up ? (inclusive == 1 ? TokenType.LESSEQUAL : TokenType.LESSTHAN)
+                    : (inclusive == 1 ? TokenType.GREATEREQUAL : TokenType.GREATERTHAN);
+            checks.add(compare(runs, counterNode, boundNode));
+            // How far i is from the bound, it wraps around to a negative number when it is too far
+            ExpressionNode difference = up ? arithmetic(TokenType.MINUS, boundNode, counterNode) : arithmetic(TokenType.MINUS, counterNode, boundNode);
+            checks.add(compare(TokenType.GREATEREQUAL, difference, literal(0)));
+            long round = distance - 1 + inclusive;
+            if (round > 0)
+                checks.add(compare(TokenType.LESSEQUAL, difference, literal((int) (Integer.MAX_VALUE - round))));
+            if (operator == TokenType.NOTEQUAL) {
+                // i has to stop on the bound, not step over it
+                if (distance > 1)
+                    checks.add(compare(TokenType.EQUALTO, arithmetic(TokenType.MODULO, difference, literal((int) distance)), literal(0)));
+            } else if (round > 0) {
+                // i goes at most distance - 1 + inclusive past the bound, it cannot wrap around on the way
+                long limit = up ? Integer.MAX_VALUE - round : Integer.MIN_VALUE + round;
+                if (literal != null) {
+                    if (up ? literal > limit : literal < limit)
+                        return null;
+                } else {
+                    checks.add(compare(up ? TokenType.LESSEQUAL : TokenType.GREATEREQUAL, boundNode, literal((int) limit)));
+                }
+            }
+            ExpressionNode guard = checks.get(0);
+            for (int i = 1; i < checks.size(); i++)
+                guard = Nodes.binary(counterSide, TokenType.AND, guard, checks.get(i), DataType.Bool);
+
+            // The number of times around the loop, it is at least 1 and fits in an int
+            ExpressionNode times = round > 0 ? arithmetic(TokenType.PLUS, difference, literal((int) round)) : difference;
+            if (distance > 1)
+                times = arithmetic(TokenType.SLASH, times, literal((int) distance));
+            IdentifierNode count = Nodes.temporary(counterSide, semantic.addTemporary(DataType.Int), DataType.Int);
+            List<StatementNode> statements = new ArrayList<>();
+            statements.add(Nodes.store(count, times, loop));
+            boolean afterUpdate = false;
+            for (StatementNode statement : loop.getStatement().getStatements()) {
+                if (statement == update) {
+                    afterUpdate = true;
+                    continue;
+                }
+                StatementNode sum = accumulate((AssignmentNode) statement, count, afterUpdate);
+                if (sum == null)
+                    return null;
+                statements.add(sum);
+            }
+            statements.add(Nodes.assignment(update, arithmetic(TokenType.PLUS, Nodes.variable(counterSide, (IdentifierNode) counterNode),
+                    times(count, literal((int) step)))));
+
+            ProgramNode closedForm = Nodes.block(loop.getStatement(), statements);
+            ProgramNode asItWas = Nodes.block(loop.getStatement(), List.of(loop));
+            return List.of(Nodes.ifElse(loop, guard, closedForm, asItWas));
+        }
+
+        // The value of an INT literal or of a known variable the loop does not change, null for any other.
+        private Long invariantValue(ExpressionNode expression) {
+            Integer literal = intLiteral(expression);
+            if (literal != null)
+                return (long) literal;
+            int slot = slot(expression);
+            if (slot < 0 || assigned.get(slot) || !values.containsKey(slot))
+                return null;
+            return (long) values.get(slot);
+        }
+
+        /*
+            The statement that adds up what s = s + e adds in all the times
+            around the loop, null when it is not one. e is read before the
+            update of the counter, or after it when afterUpdate.
+         */
+        private StatementNode accumulate(AssignmentNode statement, long count, boolean afterUpdate) {
+            BinNode binary = accumulation(statement);
+            if (binary == null)
+                return null;
+            int sum = statement.getSlots()[0];
+            ExpressionNode added = added(binary, sum);
+            // s + e fails on the first time when s or e is not an int
+            if (count > 0 && !isInt(sum))
+                return null;
+
+            ExpressionNode total;
+            if (slot(added) == counter) {
+                // The counter goes start, start + step, ... or one step further on when it is read after the update
+                long first = values.get(counter) + (afterUpdate ? step : 0);
+                long half = count % 2 == 0 ? count / 2 * (count - 1) : (count - 1) / 2 * count;
+                total = Nodes.literal(added, (int) (count * first + step * half));
+            } else {
+                Long value = invariantValue(added);
+                if (value != null) {
+                    total = Nodes.literal(added, (int) (count * value));
+                } else {
+                    int slot = slot(added);
+                    if (slot < 0 || assigned.get(slot) || (count > 0 && !isInt(slot)))
+                        return null;
+                    total = count == 1 ? added : Nodes.multiply(added, Nodes.literal(added, (int) count), added);
+                }
+            }
+            return add(statement, binary, total);
+        }
+
+        /*
+            The same for a number of times that is only known when the
+            program runs, it is in the variable count and is at least 1. The
+            ints wrap around, so count * e is what adding e count times gives
+            and the series of the counter is count * first + step * half
+            with half = count * (count - 1) / 2, found as
+            (count / 2) * (count - 1 + count % 2) so nothing is lost in the /.
+         */
+        private StatementNode accumulate(AssignmentNode statement, IdentifierNode count, boolean afterUpdate) {
+            BinNode binary = accumulation(statement);
+            if (binary == null || !isInt(statement.getSlots()[0]))
+                return null;
+            ExpressionNode added = added(binary, statement.getSlots()[0]);
+            ExpressionNode total;
+            if (slot(added) == counter) {
+                ExpressionNode first = Nodes.variable(added, (IdentifierNode) strip(added));
+                if (afterUpdate)
+                    first = arithmetic(TokenType.PLUS, first, literal((int) step));
+                ExpressionNode half = times(arithmetic(TokenType.SLASH, count, literal(2)), arithmetic(TokenType.PLUS,
+                        arithmetic(TokenType.MINUS, count, literal(1)), arithmetic(TokenType.MODULO, count, literal(2))));
+                total = arithmetic(TokenType.PLUS, times(count, first), times(literal((int) step), half));
+            } else if (intLiteral(added) != null) {
+                total = times(count, literal(intLiteral(added)));
+            } else {
+                int slot = slot(added);
+                if (slot < 0 || assigned.get(slot) || !isInt(slot))
+                    return null;
+                total = times(count, added);
+            }
+            return add(statement, binary, total);
+        }
+
+        // The s + e, e + s or s - e of the statement for its own variable s, null for any other.
+        private BinNode accumulation(AssignmentNode statement) {
+            int sum = statement.getSlots()[0];
+            ExpressionNode expression = strip(statement.getExpression());
+            if (!(expression instanceof BinNode) || sum == counter)
+                return null;
+            BinNode binary = (BinNode) expression;
+            boolean sumOnLeft = slot(binary.getLeftHandSide()) == sum;
+            if (!sumOnLeft && slot(binary.getRightHandSide()) != sum)
+                return null;
+            switch (binary.getTokenOperator().getTokenType()) {
+                case PLUS:
+                    return binary;
+                case MINUS:
+                    return sumOnLeft ? binary : null;
+                default:
+                    return null;
+            }
+        }
+
+        private ExpressionNode added(BinNode binary, int sum) {
+            return slot(binary.getLeftHandSide()) == sum ? binary.getRightHandSide() : binary.getLeftHandSide();
+        }
+
+        // s = s + total in the place of s = s + e, with the operator and the side of s it had.
+        private StatementNode add(AssignmentNode statement, BinNode binary, ExpressionNode total) {
+            boolean sumOnLeft = slot(binary.getLeftHandSide()) == statement.getSlots()[0];
+            ExpressionNode sumNode = sumOnLeft ? binary.getLeftHandSide() : binary.getRightHandSide();
+            return Nodes.assignment(statement, sumOnLeft ? Nodes.binary(binary, sumNode, total) : Nodes.binary(binary, total, sumNode));
+        }
+
+        private boolean isInt(int slot) {
+            return semantic.getSlotType(slot) == DataType.Int && initialized.get(slot);
+        }
+
+        // The new INT nodes are at the place of the counter in the condition.
+        private LiteralNode literal(int value) {
+            return Nodes.literal(counterSide, value);
+        }
+
+        private ExpressionNode arithmetic(TokenType operator, ExpressionNode left, ExpressionNode right) {
+            return Nodes.binary(counterSide, operator, left, right, DataType.Int);
+        }
+
+        private ExpressionNode times(ExpressionNode left, ExpressionNode right) {
+            return Nodes.multiply(counterSide, left, right);
+        }
+
+        private ExpressionNode compare(TokenType operator, ExpressionNode left, ExpressionNode right) {
+            return Nodes.binary(counterSide, operator, left, right, DataType.Bool);
+        }
+    }
+}
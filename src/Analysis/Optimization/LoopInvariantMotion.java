@@ -0,0 +1,135 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.DataType;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Moves the expressions of a WHILE that give the same value on every
+    time around the loop out of it (loop invariant code motion). The value
+    is found once before the loop into a temporary variable, and the loop
+    reads the temporary instead.
+    Example below, n and k are not assigned in the loop:
+        WHILE (i < n * 2)              $t5 = n * 2
+        BEGIN WHILE                    $t6 = k + 1
+            a = a + (k + 1)     ->     WHILE (i < $t5)
+            i = i + 1                  BEGIN WHILE
+        END WHILE                          a = a + $t6
+                                           i = i + 1
+                                       END WHILE
+    An expression is invariant when none of its variables is assigned,
+    scanned or declared anywhere in the loop, the blocks inside it too.
+    The expression is found before the loop even when the loop does not
+    run, or when it was in an IF of the loop that is never taken. So only
+    expressions that can never fail are moved: INT variables that surely
+    have a value where the loop starts, INT literals, and + - * with a /
+    or % only by a literal that is not 0. Then the program prints and
+    fails the same way.
+    The outer loops are done first, so an expression that does not change
+    in two nested loops goes before the outer one, then the inner loops
+    move what does not change in them.
+    It needs the Semantic that checked the program, the temporaries get
+    their slots from it, so make the values of the Interpreter after.
+ */
+public class LoopInvariantMotion implements PassManager.Pass {
+    private final Semantic semantic;
+    private final IntValues ints;
+    private final ValueNumbers numbers = new ValueNumbers();
+    private int hoistedExpressions;
+
+    public LoopInvariantMotion(Semantic semantic) {
+        this.semantic = semantic;
+        this.ints = new IntValues(semantic);
+    }
+
+    public void optimize(ProgramNode program) {
+        optimize(program, new BitSet());
+    }
+
+    // Number of expressions that were moved out of a loop, each one is a temporary.
+    public int getHoistedExpressions() {
+        return hoistedExpressions;
+    }
+
+    /*
+        Goes through the statements in the order they run. The slots in
+        initialized are INT variables that surely hold an int at the
+        statement, and not the placeholder of a variable without value.
+     */
+    private void optimize(ProgramNode block, BitSet initialized) {
+        Nodes.rewrite(block, (statement, result) -> {
+            if (statement instanceof LoopNode)
+                statement = hoist((LoopNode) statement, initialized, result);
+            for (ProgramNode inner : Nodes.blocks(statement))
+                optimize(inner, ints.innerState(statement, initialized));
+            ints.initialize(statement, initialized);
+            result.add(statement);
+        });
+    }
+
+    // Adds a temporary for each invariant expression of the loop to statements and returns the loop that uses them.
+    private LoopNode hoist(LoopNode loop, BitSet initialized, List<StatementNode> statements) {
+        BitSet assigned = new BitSet();
+        IntValues.assigned(loop.getStatement(), assigned, true);
+        Hoisting hoisting = new Hoisting(initialized, assigned, statements, loop);
+        ExpressionNode condition = hoisting.rewrite(loop.getExpression());
+        hoisting.rewrite(loop.getStatement());
+        return (LoopNode) Nodes.loop(loop, condition, loop.getStatement());
+    }
+
+    // The invariant expressions of one loop and the temporaries they got.
+    private final class Hoisting {
+        private final BitSet initialized;
+        private final BitSet assigned;
+        private final List<StatementNode> statements;
+        private final LoopNode loop;
+        // An expression that is written more than once in the loop gets one temporary, by its number
+        private final Map<Integer, IdentifierNode> temporaries = new HashMap<>();
+
+        Hoisting(BitSet initialized, BitSet assigned, List<StatementNode> statements, LoopNode loop) {
+            this.initialized = initialized;
+            this.assigned = assigned;
+            this.statements = statements;
+            this.loop = loop;
+        }
+
+        void rewrite(ProgramNode block) {
+            Nodes.rewrite(block, (statement, result) -> result.add(rewrite(statement)));
+        }
+
+        // The blocks inside the statement are done before its own expressions.
+        StatementNode rewrite(StatementNode statement) {
+            for (ProgramNode inner : Nodes.blocks(statement))
+                rewrite(inner);
+            return Nodes.rewriteExpressions(statement, this::rewrite);
+        }
+
+        // Replaces the biggest invariant parts of the expression by temporaries.
+        ExpressionNode rewrite(ExpressionNode expression) {
+            if (Nodes.operands(expression).isEmpty())
+                return expression;
+            // Invariant when none of its variables is assigned in the loop
+            if (ints.isInt(expression, initialized, assigned) && IntValues.hasOperator(expression))
+                return temporary(expression);
+            return Nodes.rewriteOperands(expression, this::rewrite);
+        }
+
+        private IdentifierNode temporary(ExpressionNode expression) {
+            IdentifierNode temporary = temporaries.get(numbers.of(expression));
+            if (temporary == null) {
+                temporary = Nodes.temporary(expression, semantic.addTemporary(DataType.Int), DataType.Int);
+                temporaries.put(numbers.of(expression), temporary);
+                statements.add(Nodes.store(temporary, expression, loop));
+                initialized.set(temporary.getSlot());
+                hoistedExpressions++;
+            }
+            return temporary;
+        }
+    }
+}
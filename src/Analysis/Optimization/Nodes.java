@@ -0,0 +1,644 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ASTNode;
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Token;
+import Analysis.TokenDataTypes.DataType;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/*
+    Makes the new nodes of the optimization passes. The fields of the
+    nodes are final and an expression can be shared by ExpressionFactory,
+    so a pass never changes a node, it makes a new one in its place. Each
+    method copies what the old node got from the Parser and the Semantic:
+    the position, the Data Type and the slots.
+    Example below, a = 2 * 3 becomes a = 6:
+        Nodes.assignment(statement, Nodes.literal(statement.getExpression(), 6))
+ */
+final class Nodes {
+    private Nodes() {
+    }
+
+    static ExpressionNode binary(BinNode old, ExpressionNode left, ExpressionNode right) {
+        if (left == old.getLeftHandSide() && right == old.getRightHandSide())
+            return old;
+        return expression(old, new BinNode(left, old.getTokenOperator(), right));
+    }
+
+    static ExpressionNode unary(UnaryNode old, ExpressionNode expression) {
+        if (expression == old.getExpression())
+            return old;
+        return expression(old, new UnaryNode(old.getTokenOperator(), expression));
+    }
+
+    static ExpressionNode parenthesis(ParenthesisNode old, ExpressionNode expression) {
+        if (expression == old.getExpression())
+            return old;
+        return expression(old, new ParenthesisNode(old.getOpen(), expression, old.getClose()));
+    }
+
+    // The expression << bits in the place of the multiplication, the operator is only made here.
+    static ExpressionNode shiftLeft(BinNode old, ExpressionNode expression, int bits) {
+        LiteralNode literal = literal(old, bits);
+        literal.setDataType(DataType.Int);
+        return expression(old, new BinNode(expression, new Token(TokenType.SHIFTLEFT, "<<", null), literal));
+    }
+
+    // left * right in the place of old, the operator is only made here.
+    static ExpressionNode multiply(ExpressionNode old, ExpressionNode left, ExpressionNode right) {
+        return expression(old, new BinNode(left, new Token(TokenType.STAR, "*", null), right));
+    }
+
+    // left operator right in the place of old, with the Data Type the operator gives. The operator is only made here.
+    static ExpressionNode binary(ExpressionNode old, TokenType operator, ExpressionNode left, ExpressionNode right, DataType dataType) {
+        BinNode binary = new BinNode(left, new Token(operator, code(operator), null), right);
+        binary.setPosition(old.getLine(), old.getColumn());
+        binary.setDataType(dataType);
+        return binary;
+    }
+
+    // The variable of like read in the place of old, see CopyPropagation.
+    static IdentifierNode variable(ExpressionNode old, IdentifierNode like) {
+        IdentifierNode variable = new IdentifierNode(like.getIdentifierToken(), like.getName(), like.getSymbol());
+        variable.setSlot(like.getSlot());
+        variable.setPosition(old.getLine(), old.getColumn());
+        variable.setDataType(like.getDataType());
+        return variable;
+    }
+
+    // A literal with the value in the place of the expression.
+    static LiteralNode literal(ExpressionNode old, Object value) {
+        Token token = new Token(literalType(value), String.valueOf(value), value);
+        LiteralNode literal = new LiteralNode(token, value);
+        literal.setPosition(old.getLine(), old.getColumn());
+        literal.setDataType(old.getDataType() != null ? old.getDataType() : dataType(value));
+        return literal;
+    }
+
+    static StatementNode declaration(VariableDeclarationNode old, List<ExpressionNode> values) {
+        if (values.equals(old.getValues()))
+            return old;
+        VariableDeclarationNode statement = new VariableDeclarationNode(old.getDataTypeToken(), old.getIdentifiers(), old.getSymbols(), values);
+        statement.setSlots(old.getSlots());
+        return statement(old, statement);
+    }
+
+    // The declaration with only the variables that are kept, null when none is.
+    static StatementNode declaration(VariableDeclarationNode old, boolean[] kept) {
+        List<String> identifiers = new ArrayList<>();
+        List<ExpressionNode> values = new ArrayList<>();
+        int[] symbols = new int[kept.length];
+        int[] slots = new int[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            if (!kept[i])
+                continue;
+            symbols[identifiers.size()] = old.getSymbols()[i];
+            slots[identifiers.size()] = old.getSlots()[i];
+            identifiers.add(old.getIdentifiers().get(i));
+            values.add(old.getValues().get(i));
+        }
+        if (identifiers.size() == kept.length)
+            return old;
+        if (identifiers.isEmpty())
+            return null;
+        VariableDeclarationNode statement = new VariableDeclarationNode(old.getDataTypeToken(), identifiers,
+                Arrays.copyOf(symbols, identifiers.size()), values);
+        statement.setSlots(Arrays.copyOf(slots, identifiers.size()));
+        return statement(old, statement);
+    }
+
+    static StatementNode assignment(AssignmentNode old, ExpressionNode expression) {
+        if (expression == old.getExpression())
+            return old;
+        AssignmentNode statement = new AssignmentNode(old.getIdentifiers(), old.getSymbols(), old.getEqualsTokens(), expression);
+        statement.setSlots(old.getSlots());
+        return statement(old, statement);
+    }
+
+    static StatementNode display(DisplayNode old, List<ExpressionNode> expressions) {
+        if (expressions.equals(old.getExpressions()))
+            return old;
+        return statement(old, new DisplayNode(old.getDisplayToken(), expressions));
+    }
+
+    static StatementNode loop(LoopNode old, ExpressionNode expression, ProgramNode block) {
+        if (expression == old.getExpression() && block == old.getStatement())
+            return old;
+        return statement(old, new LoopNode(old.getLoopToken(), expression, block));
+    }
+
+    static StatementNode condition(ConditionalNode old, List<Token> tokens, List<ExpressionNode> expressions, List<ProgramNode> blocks) {
+        if (tokens.equals(old.getTokens()) && expressions.equals(old.getExpressions()) && blocks.equals(old.getStmt()))
+            return old;
+        return statement(old, new ConditionalNode(tokens, expressions, blocks));
+    }
+
+    /*
+        The variable that keeps the value of an expression for a pass, with
+        the slot from Semantic.addTemporary(). Its name starts with $ so it
+        can not be the name of a variable of the program.
+     */
+    static IdentifierNode temporary(ExpressionNode value, int slot, DataType dataType) {
+        String name = "$t" + slot;
+        IdentifierNode temporary = new IdentifierNode(new Token(TokenType.IDENTIFIER, name, null), name, -1);
+        temporary.setSlot(slot);
+        temporary.setPosition(value.getLine(), value.getColumn());
+        temporary.setDataType(dataType);
+        return temporary;
+    }
+
+    // The statement temporary = value, at the position of the statement it is for.
+    static StatementNode store(IdentifierNode temporary, ExpressionNode value, ASTNode at) {
+        AssignmentNode statement = new AssignmentNode(List.of(temporary.getName()), new int[]{-1},
+                List.of(new Token(TokenType.EQUAL, "=", null)), value);
+        statement.setSlots(new int[]{temporary.getSlot()});
+        return statement(at, statement);
+    }
+
+    /*
+        IF (condition) with the block then, ELSE with the block otherwise,
+        at the position of the statement it is for.
+     */
+    static StatementNode ifElse(ASTNode at, ExpressionNode condition, ProgramNode then, ProgramNode otherwise) {
+        List<Token> tokens = List.of(new Token(TokenType.IF, "IF", null), new Token(TokenType.ELSE, "ELSE", null));
+        return statement(at, new ConditionalNode(tokens, Arrays.asList(condition, null), List.of(then, otherwise)));
+    }
+
+    // A block with the statements, at the position of the old one.
+    static ProgramNode block(ProgramNode old, List<StatementNode> statements) {
+        ProgramNode block = new ProgramNode(new ArrayList<>(statements));
+        block.setPosition(old.getLine(), old.getColumn());
+        return block;
+    }
+
+    /*
+        The parts of the statements and expressions below are found with
+        the StatementVisitor and the ExpressionVisitor, so a pass goes
+        through the program with them and not with an instanceof for each
+        kind of node. A new kind of node has to say what its parts are
+        here, then none of the passes can skip it.
+     */
+
+    /*
+        The expressions of a statement that are not a condition, in the
+        order they are found. The values a declaration does not have are
+        left out.
+     */
+    static List<ExpressionNode> expressions(StatementNode statement) {
+        return statement.accept(EXPRESSIONS);
+    }
+
+    // The conditions of an IF without the one of the ELSE, or the one of a WHILE.
+    static List<ExpressionNode> conditions(StatementNode statement) {
+        return statement.accept(CONDITIONS);
+    }
+
+    // The arms of an IF or the block of a WHILE.
+    static List<ProgramNode> blocks(StatementNode statement) {
+        return statement.accept(BLOCKS);
+    }
+
+    // The slots the statement gives a value, in the order of its getSlots().
+    static int[] slots(StatementNode statement) {
+        return statement.accept(SLOTS);
+    }
+
+    /*
+        The expression each slot of slots() gets, in the same order. It is
+        null when the slot gets no expression, like for a SCAN or a
+        declaration without value.
+     */
+    static List<ExpressionNode> values(StatementNode statement) {
+        return statement.accept(VALUES);
+    }
+
+    // The expressions right inside the expression, left to right.
+    static List<ExpressionNode> operands(ExpressionNode expression) {
+        return expression.accept(OPERANDS);
+    }
+
+    /*
+        Gives each variable the expression reads to action, left to right,
+        the same order the Interpreter reads them in.
+     */
+    static void forEachVariable(ExpressionNode expression, Consumer<IdentifierNode> action) {
+        expression.accept(new VariableWalk(action));
+    }
+
+    /*
+        The statement with each of its expressions, the conditions too,
+        replaced by what rewrite gives for it, in the order they are found.
+        The blocks stay the same, the statement itself when nothing changed.
+        Example below, see ConstantFolding:
+            statement = Nodes.rewriteExpressions(statement, this::fold);
+     */
+    static StatementNode rewriteExpressions(StatementNode statement, UnaryOperator<ExpressionNode> rewrite) {
+        return statement.accept(new StatementVisitor<StatementNode>() {
+            @Override
+            public StatementNode visitVariableDeclaration(VariableDeclarationNode statement) {
+                return declaration(statement, rewrite(statement.getValues(), rewrite));
+            }
+
+            @Override
+            public StatementNode visitAssignment(AssignmentNode statement) {
+                return assignment(statement, rewrite.apply(statement.getExpression()));
+            }
+
+            @Override
+            public StatementNode visitDisplay(DisplayNode statement) {
+                return display(statement, rewrite(statement.getExpressions(), rewrite));
+            }
+
+            @Override
+            public StatementNode visitScan(ScanNode statement) {
+                return statement;
+            }
+
+            @Override
+            public StatementNode visitCondition(ConditionalNode statement) {
+                return condition(statement, statement.getTokens(), rewrite(statement.getExpressions(), rewrite), statement.getStmt());
+            }
+
+            @Override
+            public StatementNode visitLoop(LoopNode statement) {
+                return loop(statement, rewrite.apply(statement.getExpression()), statement.getStatement());
+            }
+        });
+    }
+
+    // The expression with each of its operands replaced by what rewrite gives for it, itself when none changed.
+    static ExpressionNode rewriteOperands(ExpressionNode expression, UnaryOperator<ExpressionNode> rewrite) {
+        return expression.accept(new ExpressionVisitor<ExpressionNode>() {
+            @Override
+            public ExpressionNode visitBinary(BinNode expression) {
+                ExpressionNode left = rewrite.apply(expression.getLeftHandSide());
+                return binary(expression, left, rewrite.apply(expression.getRightHandSide()));
+            }
+
+            @Override
+            public ExpressionNode visitUnary(UnaryNode expression) {
+                return unary(expression, rewrite.apply(expression.getExpression()));
+            }
+
+            @Override
+            public ExpressionNode visitParenthesis(ParenthesisNode expression) {
+                return parenthesis(expression, rewrite.apply(expression.getExpression()));
+            }
+
+            @Override
+            public ExpressionNode visitIdentifier(IdentifierNode expression) {
+                return expression;
+            }
+
+            @Override
+            public ExpressionNode visitLiteral(LiteralNode expression) {
+                return expression;
+            }
+        });
+    }
+
+    /*
+        Puts in the place of each statement of the block the statements
+        rewrite adds to the list for it, none takes the statement out. A
+        block that was not parsed yet is left as it is.
+        Example below, see DeadCodeElimination:
+            Nodes.rewrite(block, (statement, result) -> { ... result.add(statement); });
+     */
+    static void rewrite(ProgramNode block, BiConsumer<StatementNode, List<StatementNode>> rewrite) {
+        if (!block.isParsed())
+            return;
+        List<StatementNode> result = new ArrayList<>(block.getStatements().size());
+        for (StatementNode statement : block.getStatements())
+            rewrite.accept(statement, result);
+        block.getStatements().clear();
+        block.getStatements().addAll(result);
+    }
+
+    /*
+        Gives each statement of the block and of the blocks inside it to
+        action, a statement before the ones of its blocks. Returns false
+        when one of the blocks was not parsed yet, its statements are not
+        there.
+     */
+    static boolean forEach(ProgramNode block, Consumer<StatementNode> action) {
+        boolean parsed = block.isParsed();
+        for (StatementNode statement : block.getStatements()) {
+            action.accept(statement);
+            for (ProgramNode inner : blocks(statement))
+                parsed &= forEach(inner, action);
+        }
+        return parsed;
+    }
+
+    private static List<ExpressionNode> rewrite(List<ExpressionNode> expressions, UnaryOperator<ExpressionNode> rewrite) {
+        List<ExpressionNode> result = new ArrayList<>(expressions.size());
+        for (ExpressionNode expression : expressions)
+            result.add(expression == null ? null : rewrite.apply(expression));
+        return result;
+    }
+
+    private static final StatementVisitor<List<ExpressionNode>> EXPRESSIONS = new StatementVisitor<>() {
+        @Override
+        public List<ExpressionNode> visitVariableDeclaration(VariableDeclarationNode statement) {
+            return withoutNull(statement.getValues());
+        }
+
+        @Override
+        public List<ExpressionNode> visitAssignment(AssignmentNode statement) {
+            return List.of(statement.getExpression());
+        }
+
+        @Override
+        public List<ExpressionNode> visitDisplay(DisplayNode statement) {
+            return statement.getExpressions();
+        }
+
+        @Override
+        public List<ExpressionNode> visitScan(ScanNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitCondition(ConditionalNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitLoop(LoopNode statement) {
+            return List.of();
+        }
+    };
+
+    private static final StatementVisitor<List<ExpressionNode>> CONDITIONS = new StatementVisitor<>() {
+        @Override
+        public List<ExpressionNode> visitVariableDeclaration(VariableDeclarationNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitAssignment(AssignmentNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitDisplay(DisplayNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitScan(ScanNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitCondition(ConditionalNode statement) {
+            return withoutNull(statement.getExpressions());
+        }
+
+        @Override
+        public List<ExpressionNode> visitLoop(LoopNode statement) {
+            return List.of(statement.getExpression());
+        }
+    };
+
+    private static final StatementVisitor<List<ProgramNode>> BLOCKS = new StatementVisitor<>() {
+        @Override
+        public List<ProgramNode> visitVariableDeclaration(VariableDeclarationNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProgramNode> visitAssignment(AssignmentNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProgramNode> visitDisplay(DisplayNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProgramNode> visitScan(ScanNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProgramNode> visitCondition(ConditionalNode statement) {
+            return statement.getStmt();
+        }
+
+        @Override
+        public List<ProgramNode> visitLoop(LoopNode statement) {
+            return List.of(statement.getStatement());
+        }
+    };
+
+    private static final StatementVisitor<int[]> SLOTS = new StatementVisitor<>() {
+        @Override
+        public int[] visitVariableDeclaration(VariableDeclarationNode statement) {
+            return statement.getSlots();
+        }
+
+        @Override
+        public int[] visitAssignment(AssignmentNode statement) {
+            return statement.getSlots();
+        }
+
+        @Override
+        public int[] visitDisplay(DisplayNode statement) {
+            return new int[0];
+        }
+
+        @Override
+        public int[] visitScan(ScanNode statement) {
+            return statement.getSlots();
+        }
+
+        @Override
+        public int[] visitCondition(ConditionalNode statement) {
+            return new int[0];
+        }
+
+        @Override
+        public int[] visitLoop(LoopNode statement) {
+            return new int[0];
+        }
+    };
+
+    private static final StatementVisitor<List<ExpressionNode>> VALUES = new StatementVisitor<>() {
+        @Override
+        public List<ExpressionNode> visitVariableDeclaration(VariableDeclarationNode statement) {
+            return statement.getValues();
+        }
+
+        // Each variable of a, b = 1 gets the same expression
+        @Override
+        public List<ExpressionNode> visitAssignment(AssignmentNode statement) {
+            return Collections.nCopies(statement.getSlots().length, statement.getExpression());
+        }
+
+        @Override
+        public List<ExpressionNode> visitDisplay(DisplayNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitScan(ScanNode statement) {
+            return Collections.nCopies(statement.getSlots().length, null);
+        }
+
+        @Override
+        public List<ExpressionNode> visitCondition(ConditionalNode statement) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitLoop(LoopNode statement) {
+            return List.of();
+        }
+    };
+
+    private static final ExpressionVisitor<List<ExpressionNode>> OPERANDS = new ExpressionVisitor<>() {
+        @Override
+        public List<ExpressionNode> visitBinary(BinNode expression) {
+            return Arrays.asList(expression.getLeftHandSide(), expression.getRightHandSide());
+        }
+
+        @Override
+        public List<ExpressionNode> visitUnary(UnaryNode expression) {
+            return Collections.singletonList(expression.getExpression());
+        }
+
+        @Override
+        public List<ExpressionNode> visitParenthesis(ParenthesisNode expression) {
+            return Collections.singletonList(expression.getExpression());
+        }
+
+        @Override
+        public List<ExpressionNode> visitIdentifier(IdentifierNode expression) {
+            return List.of();
+        }
+
+        @Override
+        public List<ExpressionNode> visitLiteral(LiteralNode expression) {
+            return List.of();
+        }
+    };
+
+    private static final class VariableWalk implements ExpressionVisitor<Void> {
+        private final Consumer<IdentifierNode> action;
+
+        VariableWalk(Consumer<IdentifierNode> action) {
+            this.action = action;
+        }
+
+        @Override
+        public Void visitBinary(BinNode expression) {
+            expression.getLeftHandSide().accept(this);
+            return expression.getRightHandSide().accept(this);
+        }
+
+        @Override
+        public Void visitUnary(UnaryNode expression) {
+            return expression.getExpression().accept(this);
+        }
+
+        @Override
+        public Void visitParenthesis(ParenthesisNode expression) {
+            return expression.getExpression().accept(this);
+        }
+
+        @Override
+        public Void visitIdentifier(IdentifierNode expression) {
+            action.accept(expression);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteral(LiteralNode expression) {
+            return null;
+        }
+    }
+
+    private static List<ExpressionNode> withoutNull(List<ExpressionNode> expressions) {
+        List<ExpressionNode> result = new ArrayList<>(expressions.size());
+        for (ExpressionNode expression : expressions) {
+            if (expression != null)
+                result.add(expression);
+        }
+        return result;
+    }
+
+    private static ExpressionNode expression(ExpressionNode old, ExpressionNode expression) {
+        expression.setPosition(old.getLine(), old.getColumn());
+        expression.setDataType(old.getDataType());
+        return expression;
+    }
+
+    private static <T extends ASTNode> T statement(ASTNode old, T statement) {
+        statement.setPosition(old.getLine(), old.getColumn());
+        return statement;
+    }
+
+    private static String code(TokenType operator) {
+        switch (operator) {
+            case PLUS:
+                return "+";
+            case MINUS:
+                return "-";
+            case STAR:
+                return "*";
+            case SLASH:
+                return "/";
+            case MODULO:
+                return "%";
+            case LESSTHAN:
+                return "<";
+            case LESSEQUAL:
+                return "<=";
+            case GREATERTHAN:
+                return ">";
+            case GREATEREQUAL:
+                return ">=";
+            case EQUALTO:
+                return "==";
+            case NOTEQUAL:
+                return "<>";
+            default:
+                return operator.name();
+        }
+    }
+
+    private static TokenType literalType(Object value) {
+        if (value instanceof Integer)
+            return TokenType.INTLITERAL;
+        if (value instanceof Float)
+            return TokenType.FLOATLITERAL;
+        if (value instanceof Character)
+            return TokenType.CHARLITERAL;
+        if (value instanceof Boolean)
+            return TokenType.BOOLLITERAL;
+        return TokenType.STRINGLITERAL;
+    }
+
+    private static DataType dataType(Object value) {
+        if (value instanceof Integer)
+            return DataType.Int;
+        if (value instanceof Float)
+            return DataType.Float;
+        if (value instanceof Character)
+            return DataType.Char;
+        if (value instanceof Boolean)
+            return DataType.Bool;
+        return DataType.String;
+    }
+}
@@ -0,0 +1,286 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Grammar;
+import Analysis.SyntaxAnalyzer.Semantic;
+import Analysis.TokenDataTypes.DataType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+    Runs the optimizations on the program one after the other, in the
+    order they were added. forLevel() gives the passes of an -O level:
+        -O0     none, the program runs as it was parsed
+        -O1     the passes that only look at one expression or loop at a
+                time: ConstantFolding, AlgebraicSimplification,
+                LoopIdiomRecognition and LoopInvariantMotion
+        -O2     all of them, with the ones that need the ControlFlowGraph
+                and SsaForm, this is what the Interpreter does by default
+    A higher level takes longer before the program starts and makes it run
+    faster, for a big program that runs once -O1 can be done sooner.
+    After each pass the program is checked against the Semantic: every
+    slot is below getSlotCount(), a variable has the Data Type of its slot
+    and an assignment or declaration still gives its variables a value of
+    their Data Type. A pass that breaks it throws a RuntimeException with
+    its name, so a bug in a pass is not found later as a wrong output.
+    The time of each pass and the number of nodes before and after it are
+    kept, see getResults() and getReport().
+    Example below:
+        PassManager passes = PassManager.forLevel(1);
+        passes.add("MyPass", semantic -> new MyPass(semantic));
+        new Interpreter(lexer, false, passes);
+        System.err.print(passes.getReport());
+ */
+public class PassManager {
+    // An optimization that changes the program in place.
+    public interface Pass {
+        void optimize(ProgramNode program);
+    }
+
+    // The time of one pass and the nodes it took out or added.
+    public static final class PassResult {
+        private final String name;
+        private final long nanos;
+        private final int nodesBefore;
+        private final int nodesAfter;
+
+        private PassResult(String name, long nanos, int nodesBefore, int nodesAfter) {
+            this.name = name;
+            this.nanos = nanos;
+            this.nodesBefore = nodesBefore;
+            this.nodesAfter = nodesAfter;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Wall time of the pass, without the check after it.
+        public long getNanos() {
+            return nanos;
+        }
+
+        // Number of statements and expression nodes before the pass, a shared expression counts each time it is used.
+        public int getNodesBefore() {
+            return nodesBefore;
+        }
+
+        public int getNodesAfter() {
+            return nodesAfter;
+        }
+    }
+
+    public static final int DEFAULT_LEVEL = 2;
+
+    private final List<String> names = new ArrayList<>();
+    // Each pass is made when it runs, it needs the Semantic of the program
+    private final List<Function<Semantic, Pass>> passes = new ArrayList<>();
+    private final List<PassResult> results = new ArrayList<>();
+
+    // The passes of -O0 to -O2.
+    public static PassManager forLevel(int level) {
+        if (level < 0 || level > 2)
+            throw new IllegalArgumentException("The optimization level should be 0, 1 or 2, not " + level + ".");
+        PassManager manager = new PassManager();
+        if (level >= 1) {
+            manager.add("ConstantFolding", semantic -> new ConstantFolding());
+            manager.add("AlgebraicSimplification", AlgebraicSimplification::new);
+        }
+        // Copies and dead stores are taken out first so less is moved out of the loops
+        if (level >= 2) {
+            manager.add("CopyPropagation", CopyPropagation::new);
+            manager.add("DeadCodeElimination", DeadCodeElimination::new);
+        }
+        if (level >= 1) {
+            manager.add("LoopIdiomRecognition", LoopIdiomRecognition::new);
+            manager.add("LoopInvariantMotion", LoopInvariantMotion::new);
+        }
+        // SlotCompaction is last, the passes before it can add temporaries
+        if (level >= 2) {
+            manager.add("CommonSubexpressions", CommonSubexpressions::new);
+            manager.add("SlotCompaction", SlotCompaction::new);
+        }
+        return manager;
+    }
+
+    // Adds a pass after the ones already added.
+    public PassManager add(String name, Function<Semantic, Pass> pass) {
+        names.add(name);
+        passes.add(pass);
+        return this;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /*
+        Runs the passes on a program the Semantic checked with no errors.
+        The results of an earlier run are replaced.
+     */
+    public void run(ProgramNode program, Semantic semantic) {
+        results.clear();
+        int nodes = new Checker(semantic, "Semantic").count(program);
+        for (int i = 0; i < passes.size(); i++) {
+            long start = System.nanoTime();
+            passes.get(i).apply(semantic).optimize(program);
+            long nanos = System.nanoTime() - start;
+            int after = new Checker(semantic, names.get(i)).count(program);
+            results.add(new PassResult(names.get(i), nanos, nodes, after));
+            nodes = after;
+        }
+    }
+
+    public List<PassResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /*
+        The results as text, one line for each pass and one for all of them.
+        Example below:
+            ConstantFolding              1.204 ms     5120 ->     4388 nodes (-732)
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        long total = 0;
+        for (PassResult result : results) {
+            line(report, result.getName(), result.getNanos(), result.getNodesBefore(), result.getNodesAfter());
+            total += result.getNanos();
+        }
+        if (!results.isEmpty())
+            line(report, "Total", total, results.get(0).getNodesBefore(), results.get(results.size() - 1).getNodesAfter());
+        return report.toString();
+    }
+
+    private static void line(StringBuilder report, String name, long nanos, int before, int after) {
+        report.append(String.format("%-26s %9.3f ms %8d -> %8d nodes (%+d)%n", name, nanos / 1e6, before, after, after - before));
+    }
+
+    /*
+        Counts the nodes of the program and checks them against the
+        Semantic in the same walk. The blocks of a LazyProgramNode that
+        were not parsed yet are not counted, they have no slots yet.
+     */
+    private static final class Checker implements StatementVisitor<Void> {
+        private final Semantic semantic;
+        private final String pass;
+        private int nodes;
+
+        Checker(Semantic semantic, String pass) {
+            this.semantic = semantic;
+            this.pass = pass;
+        }
+
+        int count(ProgramNode program) {
+            nodes = 0;
+            Nodes.forEach(program, statement -> {
+                nodes++;
+                statement.accept(this);
+            });
+            return nodes;
+        }
+
+        @Override
+        public Void visitVariableDeclaration(VariableDeclarationNode statement) {
+            DataType dataType = Grammar.getDataType(statement.getDataTypeToken().getTokenType());
+            checkSlots(statement, statement.getSlots(), statement.getIdentifiers().size());
+            if (statement.getValues().size() != statement.getSlots().length)
+                fail("a declaration has " + statement.getValues().size() + " values for "
+                        + statement.getSlots().length + " variables", statement);
+            for (int i = 0; i < statement.getSlots().length; i++) {
+                if (semantic.getSlotType(statement.getSlots()[i]) != dataType)
+                    fail("the slot of a " + dataType + " variable has the Data Type "
+                            + semantic.getSlotType(statement.getSlots()[i]), statement);
+                if (statement.getValues().get(i) != null)
+                    checkValue(statement.getValues().get(i), dataType, statement);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(AssignmentNode statement) {
+            checkSlots(statement, statement.getSlots(), statement.getIdentifiers().size());
+            for (int slot : statement.getSlots())
+                checkValue(statement.getExpression(), semantic.getSlotType(slot), statement);
+            return null;
+        }
+
+        @Override
+        public Void visitDisplay(DisplayNode statement) {
+            for (ExpressionNode expression : statement.getExpressions())
+                check(expression, statement);
+            return null;
+        }
+
+        @Override
+        public Void visitScan(ScanNode statement) {
+            checkSlots(statement, statement.getSlots(), statement.getIdentifiers().size());
+            return null;
+        }
+
+        // The arms are checked after it, see count()
+        @Override
+        public Void visitCondition(ConditionalNode statement) {
+            if (statement.getExpressions().size() != statement.getStmt().size())
+                fail("an IF has " + statement.getExpressions().size() + " conditions for "
+                        + statement.getStmt().size() + " blocks", statement);
+            for (ExpressionNode expression : Nodes.conditions(statement))
+                checkCondition(expression, statement);
+            return null;
+        }
+
+        @Override
+        public Void visitLoop(LoopNode statement) {
+            checkCondition(statement.getExpression(), statement);
+            return null;
+        }
+
+        private void checkSlots(StatementNode statement, int[] slots, int variables) {
+            if (slots == null || slots.length != variables)
+                fail("a statement with " + variables + " variables has " + (slots == null ? "no" : slots.length) + " slots", statement);
+            for (int slot : slots) {
+                if (slot < 0 || slot >= semantic.getSlotCount())
+                    fail("slot " + slot + " is not below the slot count " + semantic.getSlotCount(), statement);
+            }
+        }
+
+        private void checkValue(ExpressionNode value, DataType dataType, StatementNode statement) {
+            check(value, statement);
+            if (value.getDataType() != null && !Grammar.matchDataType(dataType, value.getDataType()))
+                fail("a " + value.getDataType() + " value is given to a " + dataType + " variable", statement);
+        }
+
+        private void checkCondition(ExpressionNode condition, StatementNode statement) {
+            check(condition, statement);
+            if (condition.getDataType() != null && condition.getDataType() != DataType.Bool)
+                fail("a condition has the Data Type " + condition.getDataType(), statement);
+        }
+
+        private void check(ExpressionNode expression, StatementNode statement) {
+            if (expression == null)
+                fail("an expression is missing", statement);
+            nodes++;
+            if (expression instanceof IdentifierNode) {
+                IdentifierNode identifier = (IdentifierNode) expression;
+                int slot = identifier.getSlot();
+                // -1 is a variable that was never declared in a DISPLAY, reading it fails when it runs
+                if (slot < -1 || slot >= semantic.getSlotCount())
+                    fail(String.format("the variable \"%s\" has the slot %d, the slot count is %d",
+                            identifier.getName(), slot, semantic.getSlotCount()), statement);
+                if (slot >= 0 && identifier.getDataType() != null && identifier.getDataType() != semantic.getSlotType(slot))
+                    fail(String.format("the variable \"%s\" is %s but its slot is %s",
+                            identifier.getName(), identifier.getDataType(), semantic.getSlotType(slot)), statement);
+            }
+            for (ExpressionNode operand : Nodes.operands(expression))
+                check(operand, statement);
+        }
+
+        private void fail(String problem, StatementNode statement) {
+            throw new RuntimeException(String.format("After %s, %s.", pass, problem) + statement.getPosition());
+        }
+    }
+}
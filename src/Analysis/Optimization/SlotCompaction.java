@@ -0,0 +1,137 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SyntaxAnalyzer.Semantic;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/*
+    Gives the variables that are still in the program the slots from 0
+    again, so the values of the Interpreter only have room for them. The
+    slots of the variables DeadCodeElimination took out, and of the ones
+    that were declared but are never used, are left out.
+    Example below, b was taken out:
+        INT a, c                a is slot 0, c was slot 2 and is slot 1
+        c = a + 1
+    The new slots are written in the nodes the same way the Semantic wrote
+    them, an IdentifierNode that is in the program more than once is only
+    changed once. The Semantic gets the new slots too, so the Data Type of
+    a slot and the slot of a symbol stay right. Run it after the passes that
+    add temporaries, and make the values of the Interpreter after it.
+ */
+public class SlotCompaction implements PassManager.Pass {
+    private final Semantic semantic;
+    private int removedSlots;
+
+    public SlotCompaction(Semantic semantic) {
+        this.semantic = semantic;
+    }
+
+    public void optimize(ProgramNode program) {
+        BitSet used = new BitSet(semantic.getSlotCount());
+        // The blocks that were not parsed yet would get the old slots
+        if (!collect(program, used))
+            return;
+        int count = used.cardinality();
+        if (count == semantic.getSlotCount())
+            return;
+        int[] slots = new int[semantic.getSlotCount()];
+        Arrays.fill(slots, -1);
+        int next = 0;
+        for (int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1))
+            slots[slot] = next++;
+        renumber(program, slots, Collections.newSetFromMap(new IdentityHashMap<>()));
+        semantic.renumberSlots(slots, count);
+        removedSlots = slots.length - count;
+    }
+
+    // Number of slots that were given up.
+    public int getRemovedSlots() {
+        return removedSlots;
+    }
+
+    // Sets the slots the program uses, false when it has a block that was not parsed yet.
+    private static boolean collect(ProgramNode program, BitSet used) {
+        return Nodes.forEach(program, statement -> {
+            for (int slot : Nodes.slots(statement))
+                used.set(slot);
+            for (ExpressionNode expression : Nodes.expressions(statement))
+                IntValues.reads(expression, used);
+            for (ExpressionNode condition : Nodes.conditions(statement))
+                IntValues.reads(condition, used);
+        });
+    }
+
+    private static void renumber(ProgramNode program, int[] slots, Set<IdentifierNode> done) {
+        StatementVisitor<Void> renumbering = new Renumbering(slots);
+        Nodes.forEach(program, statement -> {
+            statement.accept(renumbering);
+            for (ExpressionNode expression : Nodes.expressions(statement))
+                renumber(expression, slots, done);
+            for (ExpressionNode condition : Nodes.conditions(statement))
+                renumber(condition, slots, done);
+        });
+    }
+
+    // Gives each kind of statement that has slots its new ones.
+    private static final class Renumbering implements StatementVisitor<Void> {
+        private final int[] slots;
+
+        Renumbering(int[] slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        public Void visitVariableDeclaration(VariableDeclarationNode statement) {
+            statement.setSlots(renumber(statement.getSlots(), slots));
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(AssignmentNode statement) {
+            statement.setSlots(renumber(statement.getSlots(), slots));
+            return null;
+        }
+
+        @Override
+        public Void visitDisplay(DisplayNode statement) {
+            return null;
+        }
+
+        @Override
+        public Void visitScan(ScanNode statement) {
+            statement.setSlots(renumber(statement.getSlots(), slots));
+            return null;
+        }
+
+        @Override
+        public Void visitCondition(ConditionalNode statement) {
+            return null;
+        }
+
+        @Override
+        public Void visitLoop(LoopNode statement) {
+            return null;
+        }
+    }
+
+    // A new array, the old one can be shared with a node that was replaced.
+    private static int[] renumber(int[] old, int[] slots) {
+        int[] result = new int[old.length];
+        for (int i = 0; i < old.length; i++)
+            result[i] = slots[old[i]];
+        return result;
+    }
+
+    private static void renumber(ExpressionNode expression, int[] slots, Set<IdentifierNode> done) {
+        Nodes.forEachVariable(expression, variable -> {
+            if (variable.getSlot() >= 0 && done.add(variable))
+                variable.setSlot(slots[variable.getSlot()]);
+        });
+    }
+}
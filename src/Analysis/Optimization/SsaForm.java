@@ -0,0 +1,543 @@
+package Analysis.Optimization;
+
+import Analysis.Optimization.ControlFlowGraph.Block;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Gives a number to each value a variable gets (static single
+    assignment form). Each assignment, declaration and SCAN of a variable
+    makes a new value, and where the ways of the program join after an IF
+    or at the condition of a WHILE a phi makes a value that is one of the
+    values it joins. Then each time a variable is read it is known which
+    values it can hold.
+    Example below, the numbers are the values:
+        INT a = 1               a = 1              (value 0)
+        IF (b > 0)
+        BEGIN IF
+            a = 2               a = 2              (value 1)
+        END IF                  a = phi(0, 1)      (value 2)
+        DISPLAY: a              DISPLAY: a         (reads value 2)
+    The program itself is not changed, the values are kept next to it by
+    statement, see getUses() and getDefinitions(). A variable that was not
+    given a value yet has a value with no statement, it is null in the
+    Interpreter and reading it fails, see isDefined().
+    The phis are only made for variables that are read in another block
+    than the one they were given their value in (semi-pruned form), and for
+    the variables that are copied, since CopyPropagation can read them in
+    another block, see getCopies().
+ */
+public class SsaForm {
+    // A value that is one of the values of the blocks before, by the order of getPredecessors(), -1 for one that can not be reached
+    private static final class Phi {
+        private final int slot;
+        private final int[] operands;
+        private int value = -1;
+
+        Phi(int slot, int predecessors) {
+            this.slot = slot;
+            this.operands = new int[predecessors];
+            Arrays.fill(operands, -1);
+        }
+    }
+
+    private static final class Access {
+        private final int[] uses;
+        private final int[] definitions;
+        private final IdentifierNode[] copies;
+
+        Access(int[] uses, int[] definitions, IdentifierNode[] copies) {
+            this.uses = uses;
+            this.definitions = definitions;
+            this.copies = copies;
+        }
+    }
+
+    private final ControlFlowGraph graph;
+    private final int slotCount;
+    // The block that runs right before each block on all the ways to it (immediate dominator), by the index of the blocks
+    private final int[] dominators;
+    private final List<List<Phi>> phis = new ArrayList<>();
+
+    // By value: the slot, the statement or Phi that makes it (null for no value yet), and the values it is found from
+    private int[] valueSlots = new int[64];
+    private Object[] valueDefinitions = new Object[64];
+    private int[][] valueInputs = new int[64][];
+    // The value a copy like a = b was made from, -1 when it is not a copy, and the b it read
+    private int[] valueCopies = new int[64];
+    private IdentifierNode[] copyNodes = new IdentifierNode[64];
+    private int valueCount;
+    private BitSet defined;
+
+    // The values read and given by each statement, one entry so a big program is not looked up three times
+    private final Map<StatementNode, Access> accesses = new IdentityHashMap<>();
+    // The same for the condition that ends each block, by the index of the block
+    private final int[][] conditionUses;
+    private final IdentifierNode[][] conditionCopies;
+
+    // The values each slot has while the blocks are renamed, the last one is the current one
+    private final int[][] stacks;
+    private final int[] stackSizes;
+    private final int[] noValue;
+    // The slots pushed on the stacks, in the order they were pushed, so a block can take its values back
+    private int[] pushed = new int[64];
+    private int pushedSize;
+    private final Reads reads = new Reads();
+
+    public SsaForm(ControlFlowGraph graph, int slotCount) {
+        this.graph = graph;
+        this.slotCount = slotCount;
+        int blockCount = graph.getBlocks().size();
+        dominators = new int[blockCount];
+        conditionUses = new int[blockCount][];
+        conditionCopies = new IdentifierNode[blockCount][];
+        stacks = new int[slotCount][4];
+        stackSizes = new int[slotCount];
+        noValue = new int[slotCount];
+        Arrays.fill(noValue, -1);
+        // Most blocks have no phis, their list is only made for the first one
+        for (int i = 0; i < blockCount; i++)
+            phis.add(Collections.emptyList());
+
+        List<Block> order = graph.getReversePostorder();
+        findDominators(order);
+        placePhis(order);
+        rename(order);
+        findDefined();
+    }
+
+    public ControlFlowGraph getGraph() {
+        return graph;
+    }
+
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    public int getSlot(int value) {
+        return valueSlots[value];
+    }
+
+    /*
+        The values the value is found from: the values read by the
+        expression of its assignment or declaration, or the values a phi
+        joins. A SCAN and a variable with no value yet have none.
+     */
+    public int[] getInputs(int value) {
+        return valueInputs[value];
+    }
+
+    // True when the value is made by a phi.
+    public boolean isPhi(int value) {
+        return valueDefinitions[value] instanceof Phi;
+    }
+
+    // The statement that gives the value, null for a phi or a variable with no value yet.
+    public StatementNode getDefinition(int value) {
+        return valueDefinitions[value] instanceof StatementNode ? (StatementNode) valueDefinitions[value] : null;
+    }
+
+    // False when the variable can still be null with this value, when it was not given one on some way to it.
+    public boolean isDefined(int value) {
+        return defined.get(value);
+    }
+
+    /*
+        The values the statement reads, one for each IdentifierNode in the
+        order the Interpreter finds them, the ones of all its values for a
+        declaration. null when the statement can not be reached.
+     */
+    public int[] getUses(StatementNode statement) {
+        Access access = accesses.get(statement);
+        return access == null ? null : access.uses;
+    }
+
+    // The value the statement gives each of its slots, in the order of getSlots().
+    public int[] getDefinitions(StatementNode statement) {
+        Access access = accesses.get(statement);
+        return access == null ? null : access.definitions;
+    }
+
+    // The values read by the condition that ends the block, null when it has none or can not be reached.
+    public int[] getConditionUses(Block block) {
+        return conditionUses[block.getIndex()];
+    }
+
+    /*
+        For each value of getUses(), a variable that holds the same value
+        at that place because the value was copied from it, or null. When
+        there is a chain of copies it is the first variable of the chain
+        that still holds it, see CopyPropagation.
+        Example below:
+            a = b           <- a is a copy of b
+            c = a           <- uses a, the copy is b
+            b = 5
+            DISPLAY: c      <- uses c, the copy is a (b changed)
+        null when none of the values has one.
+     */
+    public IdentifierNode[] getCopies(StatementNode statement) {
+        Access access = accesses.get(statement);
+        return access == null ? null : access.copies;
+    }
+
+    public IdentifierNode[] getConditionCopies(Block block) {
+        return conditionCopies[block.getIndex()];
+    }
+
+    /*
+        Finds the dominators with the way of Cooper, Harvey and Kennedy: a
+        block takes the closest block both of its predecessors have as
+        dominator, until nothing changes.
+     */
+    private void findDominators(List<Block> order) {
+        int[] position = new int[dominators.length];
+        for (int i = 0; i < order.size(); i++)
+            position[order.get(i).getIndex()] = i;
+        Arrays.fill(dominators, -1);
+        int entry = graph.getEntry().getIndex();
+        dominators[entry] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Block block : order) {
+                if (block.getIndex() == entry)
+                    continue;
+                int dominator = -1;
+                // Indexes, not iterators, they are made again for every block in every round
+                List<Block> predecessors = block.getPredecessors();
+                for (int i = 0; i < predecessors.size(); i++) {
+                    int other = predecessors.get(i).getIndex();
+                    if (dominators[other] == -1)
+                        continue;
+                    if (dominator == -1) {
+                        dominator = other;
+                        continue;
+                    }
+                    while (dominator != other) {
+                        while (position[dominator] > position[other])
+                            dominator = dominators[dominator];
+                        while (position[other] > position[dominator])
+                            other = dominators[other];
+                    }
+                }
+                if (dominators[block.getIndex()] != dominator) {
+                    dominators[block.getIndex()] = dominator;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /*
+        A variable given a value in a block needs a phi in the blocks where
+        that block stops dominating (dominance frontier), and a phi is a
+        new value too, so it goes on from there.
+     */
+    private void placePhis(List<Block> order) {
+        List<List<Block>> frontiers = new ArrayList<>(Collections.nCopies(dominators.length, Collections.emptyList()));
+        for (Block block : order) {
+            if (block.getPredecessors().size() < 2)
+                continue;
+            List<Block> predecessors = block.getPredecessors();
+            for (int i = 0; i < predecessors.size(); i++) {
+                int runner = predecessors.get(i).getIndex();
+                while (dominators[runner] != -1 && runner != dominators[block.getIndex()]) {
+                    List<Block> frontier = frontiers.get(runner);
+                    if (frontier.isEmpty())
+                        frontiers.set(runner, frontier = new ArrayList<>(2));
+                    if (frontier.isEmpty() || frontier.get(frontier.size() - 1) != block)
+                        frontier.add(block);
+                    if (runner == dominators[runner])
+                        break;
+                    runner = dominators[runner];
+                }
+            }
+        }
+
+        // The slots read in a block before it gives them a value and the copied ones, only they need phis
+        BitSet global = new BitSet(slotCount);
+        List<List<Block>> assignedIn = new ArrayList<>();
+        for (int i = 0; i < slotCount; i++)
+            assignedIn.add(new ArrayList<>());
+        BitSet assigned = new BitSet(slotCount);
+        for (Block block : order) {
+            assigned.clear();
+            List<StatementNode> statements = block.getStatements();
+            for (int i = 0; i < statements.size(); i++) {
+                StatementNode statement = statements.get(i);
+                List<ExpressionNode> expressions = Nodes.expressions(statement);
+                for (int j = 0; j < expressions.size(); j++) {
+                    ExpressionNode expression = expressions.get(j);
+                    readBefore(expression, assigned, global);
+                    while (expression instanceof ParenthesisNode)
+                        expression = ((ParenthesisNode) expression).getExpression();
+                    if (expression instanceof IdentifierNode && ((IdentifierNode) expression).getSlot() >= 0)
+                        global.set(((IdentifierNode) expression).getSlot());
+                }
+                for (int slot : Nodes.slots(statement)) {
+                    if (!assigned.get(slot))
+                        assignedIn.get(slot).add(block);
+                    assigned.set(slot);
+                }
+            }
+            if (block.getCondition() != null)
+                readBefore(block.getCondition(), assigned, global);
+        }
+
+        int[] hasPhi = new int[dominators.length];
+        int[] queued = new int[dominators.length];
+        Arrays.fill(hasPhi, -1);
+        Arrays.fill(queued, -1);
+        Deque<Block> work = new ArrayDeque<>();
+        for (int slot = global.nextSetBit(0); slot >= 0; slot = global.nextSetBit(slot + 1)) {
+            for (Block block : assignedIn.get(slot)) {
+                queued[block.getIndex()] = slot;
+                work.add(block);
+            }
+            while (!work.isEmpty()) {
+                for (Block block : frontiers.get(work.poll().getIndex())) {
+                    if (hasPhi[block.getIndex()] == slot)
+                        continue;
+                    hasPhi[block.getIndex()] = slot;
+                    if (phis.get(block.getIndex()).isEmpty())
+                        phis.set(block.getIndex(), new ArrayList<>(2));
+                    phis.get(block.getIndex()).add(new Phi(slot, block.getPredecessors().size()));
+                    if (queued[block.getIndex()] != slot) {
+                        queued[block.getIndex()] = slot;
+                        work.add(block);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void readBefore(ExpressionNode expression, BitSet assigned, BitSet global) {
+        Nodes.forEachVariable(expression, variable -> {
+            if (variable.getSlot() >= 0 && !assigned.get(variable.getSlot()))
+                global.set(variable.getSlot());
+        });
+    }
+
+    /*
+        Goes through the blocks down the tree of dominators, so the current
+        value of each slot is the last one given on the way from the start.
+        It keeps its own stack of blocks so a long program does not run out
+        of the Java stack.
+     */
+    private void rename(List<Block> order) {
+        List<List<Block>> children = new ArrayList<>(Collections.nCopies(dominators.length, Collections.emptyList()));
+        for (Block block : order) {
+            if (block == graph.getEntry())
+                continue;
+            int dominator = dominators[block.getIndex()];
+            if (children.get(dominator).isEmpty())
+                children.set(dominator, new ArrayList<>(2));
+            children.get(dominator).add(block);
+        }
+
+        // A block to go into, or null to take back the values of the last block gone into
+        List<Block> work = new ArrayList<>();
+        // Where the slots pushed by each block start in pushed, for the blocks not taken back yet
+        int[] marks = new int[16];
+        int depth = 0;
+        work.add(graph.getEntry());
+        while (!work.isEmpty()) {
+            Block block = work.remove(work.size() - 1);
+            if (block == null) {
+                int mark = marks[--depth];
+                while (pushedSize > mark)
+                    stackSizes[pushed[--pushedSize]]--;
+                continue;
+            }
+            if (depth == marks.length)
+                marks = Arrays.copyOf(marks, depth * 2);
+            marks[depth++] = pushedSize;
+            rename(block);
+            work.add(null);
+            work.addAll(children.get(block.getIndex()));
+        }
+    }
+
+    private void rename(Block block) {
+        for (Phi phi : phis.get(block.getIndex())) {
+            phi.value = newValue(phi.slot, phi, null, null);
+            push(phi.slot, phi.value);
+        }
+        List<StatementNode> statements = block.getStatements();
+        for (int n = 0; n < statements.size(); n++) {
+            StatementNode statement = statements.get(n);
+            reads.clear();
+            int[] slots = Nodes.slots(statement);
+            List<ExpressionNode> given = Nodes.values(statement);
+            int[] values = new int[slots.length];
+            int[] uses;
+            if (statement instanceof VariableDeclarationNode) {
+                // Each value is found after the variables before it were given theirs
+                for (int i = 0; i < slots.length; i++) {
+                    int start = reads.size;
+                    if (given.get(i) != null)
+                        reads.read(given.get(i));
+                    values[i] = newValue(slots[i], statement, reads.range(start), given.get(i));
+                    push(slots[i], values[i]);
+                }
+                uses = reads.range(0);
+            } else {
+                List<ExpressionNode> expressions = Nodes.expressions(statement);
+                for (int j = 0; j < expressions.size(); j++)
+                    reads.read(expressions.get(j));
+                // Every value of the statement is found from all it reads
+                uses = reads.range(0);
+                for (int i = 0; i < slots.length; i++) {
+                    values[i] = newValue(slots[i], statement, uses, given.get(i));
+                    push(slots[i], values[i]);
+                }
+            }
+            accesses.put(statement, new Access(uses, values, reads.copies()));
+        }
+        if (block.getCondition() != null) {
+            reads.clear();
+            reads.read(block.getCondition());
+            conditionUses[block.getIndex()] = reads.range(0);
+            conditionCopies[block.getIndex()] = reads.copies();
+        }
+        List<Block> successors = block.getSuccessors();
+        for (int j = 0; j < successors.size(); j++) {
+            Block successor = successors.get(j);
+            List<Block> predecessors = successor.getPredecessors();
+            for (int i = 0; i < predecessors.size(); i++) {
+                if (predecessors.get(i) != block)
+                    continue;
+                for (Phi phi : phis.get(successor.getIndex()))
+                    phi.operands[i] = current(phi.slot);
+            }
+        }
+    }
+
+    // The values read by an expression while the blocks are renamed, with the copies that hold them.
+    private final class Reads {
+        private int[] values = new int[4];
+        private IdentifierNode[] copies = new IdentifierNode[4];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        void read(ExpressionNode expression) {
+            Nodes.forEachVariable(expression, variable -> {
+                if (variable.getSlot() >= 0)
+                    add(current(variable.getSlot()));
+            });
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                copies = Arrays.copyOf(copies, size * 2);
+            }
+            // Goes down the chain of copies, the first variable that still holds its value is taken
+            IdentifierNode copy = null;
+            for (int link = value; valueCopies[link] >= 0; link = valueCopies[link]) {
+                if (current(valueSlots[valueCopies[link]]) == valueCopies[link])
+                    copy = copyNodes[link];
+            }
+            values[size] = value;
+            copies[size++] = copy;
+        }
+
+        int[] range(int start) {
+            return Arrays.copyOfRange(values, start, size);
+        }
+
+        // null when no value read has a copy
+        IdentifierNode[] copies() {
+            for (int i = 0; i < size; i++) {
+                if (copies[i] != null)
+                    return Arrays.copyOf(copies, size);
+            }
+            return null;
+        }
+    }
+
+    // The current value of the slot, a value with no statement when it was not given one yet.
+    private int current(int slot) {
+        if (stackSizes[slot] > 0)
+            return stacks[slot][stackSizes[slot] - 1];
+        if (noValue[slot] == -1)
+            noValue[slot] = newValue(slot, null, new int[0], null);
+        return noValue[slot];
+    }
+
+    private void push(int slot, int value) {
+        if (stackSizes[slot] == stacks[slot].length)
+            stacks[slot] = Arrays.copyOf(stacks[slot], stackSizes[slot] * 2);
+        stacks[slot][stackSizes[slot]++] = value;
+        if (pushedSize == pushed.length)
+            pushed = Arrays.copyOf(pushed, pushedSize * 2);
+        pushed[pushedSize++] = slot;
+    }
+
+    // copied is the expression of the value, it is a copy when it is only a variable.
+    private int newValue(int slot, Object definition, int[] inputs, ExpressionNode copied) {
+        if (valueCount == valueSlots.length) {
+            int length = valueCount * 2;
+            valueSlots = Arrays.copyOf(valueSlots, length);
+            valueDefinitions = Arrays.copyOf(valueDefinitions, length);
+            valueInputs = Arrays.copyOf(valueInputs, length);
+            valueCopies = Arrays.copyOf(valueCopies, length);
+            copyNodes = Arrays.copyOf(copyNodes, length);
+        }
+        while (copied instanceof ParenthesisNode)
+            copied = ((ParenthesisNode) copied).getExpression();
+        boolean isCopy = copied instanceof IdentifierNode && ((IdentifierNode) copied).getSlot() >= 0;
+        valueSlots[valueCount] = slot;
+        valueDefinitions[valueCount] = definition;
+        valueInputs[valueCount] = inputs;
+        valueCopies[valueCount] = isCopy ? inputs[0] : -1;
+        copyNodes[valueCount] = isCopy ? (IdentifierNode) copied : null;
+        return valueCount++;
+    }
+
+    /*
+        A value is defined when a statement gives it, a phi only when all
+        the values it joins are. It starts with all of them and takes out
+        the phis until nothing changes, so a loop does not keep itself.
+     */
+    private void findDefined() {
+        for (List<Phi> block : phis) {
+            for (Phi phi : block)
+                valueInputs[phi.value] = Arrays.stream(phi.operands).filter(operand -> operand >= 0).toArray();
+        }
+        defined = new BitSet(valueCount);
+        for (int value = 0; value < valueCount; value++) {
+            if (valueDefinitions[value] != null)
+                defined.set(value);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (List<Phi> block : phis) {
+                for (Phi phi : block) {
+                    if (!defined.get(phi.value))
+                        continue;
+                    for (int operand : valueInputs[phi.value]) {
+                        if (!defined.get(operand)) {
+                            defined.clear(phi.value);
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package Analysis.Optimization;
+
+import Analysis.ParseTree.NodeKind;
+import Analysis.ParseTree.Expression.*;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Gives each expression a number, the same number for expressions that
+    are written the same way (value numbering). The Parser makes a new
+    node for each expression unless it has an ExpressionFactory, so the
+    passes compare expressions by their number and not by their node.
+    A variable is known by its slot, a literal by its type and value, and
+    the parentheses around an expression do not change its number.
+    Example below:
+        (a + b) * 2     a + b * 2     ((a + b)) * 2
+    the first and the third get the same number, the second one does not.
+ */
+final class ValueNumbers {
+    private final Map<List<Object>, Integer> numbers = new HashMap<>();
+    // The number of each node that was seen already
+    private final Map<ExpressionNode, Integer> nodes = new IdentityHashMap<>();
+
+    int of(ExpressionNode expression) {
+        Integer number = nodes.get(expression);
+        if (number == null) {
+            number = numbers.computeIfAbsent(expression.accept(keys), key -> numbers.size());
+            nodes.put(expression, number);
+        }
+        return number;
+    }
+
+    // The key of each kind of expression, from the numbers of what is inside it.
+    private final ExpressionVisitor<List<Object>> keys = new ExpressionVisitor<>() {
+        @Override
+        public List<Object> visitBinary(BinNode expression) {
+            return List.of(NodeKind.BINARY, expression.getTokenOperator().getTokenType(), of(expression.getLeftHandSide()), of(expression.getRightHandSide()));
+        }
+
+        @Override
+        public List<Object> visitUnary(UnaryNode expression) {
+            return List.of(NodeKind.UNARY, expression.getTokenOperator().getTokenType(), of(expression.getExpression()));
+        }
+
+        @Override
+        public List<Object> visitParenthesis(ParenthesisNode expression) {
+            return expression.getExpression().accept(this);
+        }
+
+        @Override
+        public List<Object> visitIdentifier(IdentifierNode expression) {
+            return List.of(NodeKind.IDENTIFIER, expression.getSlot());
+        }
+
+        @Override
+        public List<Object> visitLiteral(LiteralNode expression) {
+            return List.of(NodeKind.LITERAL, expression.getLiteralToken().getTokenType(), expression.getLiteral());
+        }
+    };
+}
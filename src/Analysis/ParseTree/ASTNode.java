@@ -1,10 +1,31 @@
-package Analysis.ParseTree;
-//OK NA
-
-/*
-    Since this is an abstract class it is implemented
-    in its sub-classes which is for example the StatementNode
- */
-public abstract class ASTNode {
-
-}
+package Analysis.ParseTree;
+//OK NA
+
+/*
+    Since this is an abstract class it is implemented
+    in its sub-classes which is for example the StatementNode
+    Every node remembers the line and column in the code where
+    it starts so errors can say where the problem is.
+ */
+public abstract class ASTNode {
+    private int line;
+    private int column;
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public void setPosition(int line, int column) {
+        this.line = line;
+        this.column = column;
+    }
+
+    // Returns the position as text for error messages, example " (line 3, column 5)"
+    public String getPosition() {
+        return line > 0 ? " (line " + line + ", column " + column + ")" : "";
+    }
+}
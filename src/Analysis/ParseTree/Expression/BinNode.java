@@ -1,27 +1,32 @@
-package Analysis.ParseTree.Expression;
-//OK NA
-import Analysis.SyntaxAnalyzer.Token;
-
-public class BinNode extends ExpressionNode {
-    private final ExpressionNode leftHandSide;
-    private final Token tokenOperator;
-    private final ExpressionNode rightHandSide;
-
-    public BinNode(ExpressionNode leftHandSide, Token tokenOperator, ExpressionNode rightHandSide) {
-        this.leftHandSide = leftHandSide;
-        this.tokenOperator = tokenOperator;
-        this.rightHandSide = rightHandSide;
-    }
-
-    public ExpressionNode getLeftHandSide() {
-        return leftHandSide;
-    }
-
-    public Token getTokenOperator() {
-        return tokenOperator;
-    }
-
-    public ExpressionNode getRightHandSide() {
-        return rightHandSide;
-    }
-}
+package Analysis.ParseTree.Expression;
+//OK NA
+import Analysis.SyntaxAnalyzer.Token;
+
+public final class BinNode extends ExpressionNode {
+    private final ExpressionNode leftHandSide;
+    private final Token tokenOperator;
+    private final ExpressionNode rightHandSide;
+
+    public BinNode(ExpressionNode leftHandSide, Token tokenOperator, ExpressionNode rightHandSide) {
+        this.leftHandSide = leftHandSide;
+        this.tokenOperator = tokenOperator;
+        this.rightHandSide = rightHandSide;
+    }
+
+    public ExpressionNode getLeftHandSide() {
+        return leftHandSide;
+    }
+
+    public Token getTokenOperator() {
+        return tokenOperator;
+    }
+
+    public ExpressionNode getRightHandSide() {
+        return rightHandSide;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitBinary(this);
+    }
+}
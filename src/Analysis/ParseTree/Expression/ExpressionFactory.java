@@ -0,0 +1,183 @@
+package Analysis.ParseTree.Expression;
+
+import Analysis.ParseTree.NodeKind;
+import Analysis.SyntaxAnalyzer.Token;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+    Makes the expression nodes for the Parser so that expressions written
+    the same way share one node (hash consing). Generated programs repeat
+    the same expressions many times, like (a + 1) * b, and then each one
+    is only kept once.
+    The children of a node are made first and are already shared, so two
+    nodes are the same when they have the same kind, operator or literal
+    and the very same children.
+    Example below:
+        DISPLAY: (a + 1) * b
+        c = (a + 1) * b
+        d = a + 1
+    makes one node for a, 1, b, a + 1, (a + 1) and (a + 1) * b, the second
+    and third line use the nodes of the first one.
+    A shared node keeps the position where it was first written, so an
+    error in it points to that place. The nodes must not be changed after
+    they are made.
+ */
+public class ExpressionFactory {
+    private static final NodeKind[] KINDS = {
+            NodeKind.BINARY, NodeKind.UNARY, NodeKind.PARENTHESIS, NodeKind.IDENTIFIER, NodeKind.LITERAL
+    };
+
+    private final Map<Key, ExpressionNode> nodes = new HashMap<>();
+    // How many nodes were asked for and how many were new, by the index of the kind in KINDS
+    private final long[] requested = new long[KINDS.length];
+    private final long[] created = new long[KINDS.length];
+
+    public ExpressionNode binary(ExpressionNode left, Token operator, ExpressionNode right, int line, int column) {
+        Key key = new Key(0, operator.getTokenType(), left, right);
+        ExpressionNode node = nodes.get(key);
+        if (node == null)
+            node = add(key, new BinNode(left, operator, right), line, column);
+        requested[0]++;
+        return node;
+    }
+
+    public ExpressionNode unary(Token operator, ExpressionNode expression, int line, int column) {
+        Key key = new Key(1, operator.getTokenType(), expression, null);
+        ExpressionNode node = nodes.get(key);
+        if (node == null)
+            node = add(key, new UnaryNode(operator, expression), line, column);
+        requested[1]++;
+        return node;
+    }
+
+    public ExpressionNode parenthesis(Token open, ExpressionNode expression, Token close, int line, int column) {
+        Key key = new Key(2, null, expression, null);
+        ExpressionNode node = nodes.get(key);
+        if (node == null)
+            node = add(key, new ParenthesisNode(open, expression, close), line, column);
+        requested[2]++;
+        return node;
+    }
+
+    public ExpressionNode identifier(Token identifier, int line, int column) {
+        Key key = new Key(3, null, identifier.getSymbol(), null);
+        ExpressionNode node = nodes.get(key);
+        if (node == null)
+            node = add(key, new IdentifierNode(identifier, identifier.getCode(), identifier.getSymbol()), line, column);
+        requested[3]++;
+        return node;
+    }
+
+    // The literal is kept by the type of its token too, so 1 and 1.0 or 'a' and "a" stay apart.
+    public ExpressionNode literal(Token literal, Object value, int line, int column) {
+        Key key = new Key(4, literal.getTokenType(), value, null);
+        ExpressionNode node = nodes.get(key);
+        if (node == null)
+            node = add(key, new LiteralNode(literal, value), line, column);
+        requested[4]++;
+        return node;
+    }
+
+    // Number of expression nodes the Parser asked for.
+    public long getRequested() {
+        return sum(requested);
+    }
+
+    // Number of nodes that were really made, the others were shared.
+    public long getCreated() {
+        return sum(created);
+    }
+
+    // The part of the requested nodes that were shared instead of made, from 0 to 1.
+    public double getDedupRatio() {
+        long requested = getRequested();
+        return requested == 0 ? 0 : 1 - (double) getCreated() / requested;
+    }
+
+    public long getRequested(NodeKind kind) {
+        return requested[index(kind)];
+    }
+
+    public long getCreated(NodeKind kind) {
+        return created[index(kind)];
+    }
+
+    /*
+        The numbers for each kind of node, example:
+        BINARY 30000 requested, 200 created, 99.3% shared
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < KINDS.length; i++)
+            line(result, KINDS[i].name(), requested[i], created[i]);
+        line(result, "TOTAL", getRequested(), getCreated());
+        return result.toString();
+    }
+
+    private ExpressionNode add(Key key, ExpressionNode node, int line, int column) {
+        node.setPosition(line, column);
+        nodes.put(key, node);
+        created[key.kind]++;
+        return node;
+    }
+
+    private static int index(NodeKind kind) {
+        for (int i = 0; i < KINDS.length; i++) {
+            if (KINDS[i] == kind)
+                return i;
+        }
+        throw new IllegalArgumentException(kind + " is not an expression.");
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (long count : counts)
+            sum += count;
+        return sum;
+    }
+
+    private static void line(StringBuilder result, String name, long requested, long created) {
+        if (result.length() > 0)
+            result.append('\n');
+        double shared = requested == 0 ? 0 : 100.0 * (requested - created) / requested;
+        result.append(name).append(' ').append(requested).append(" requested, ").append(created)
+                .append(" created, ").append(String.format("%.1f", shared)).append("% shared");
+    }
+
+    /*
+        What makes two nodes the same. The children are compared with ==
+        since they are shared already, ExpressionNode does not override
+        equals(). A literal value or a symbol is compared with equals().
+     */
+    private static final class Key {
+        private final int kind;
+        private final Object type;
+        private final Object first;
+        private final Object second;
+        private final int hash;
+
+        Key(int kind, Object type, Object first, Object second) {
+            this.kind = kind;
+            this.type = type;
+            this.first = first;
+            this.second = second;
+            this.hash = Objects.hash(kind, type, first, second);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return kind == key.kind && type == key.type && Objects.equals(first, key.first) && Objects.equals(second, key.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
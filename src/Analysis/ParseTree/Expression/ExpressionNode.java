@@ -1,14 +1,30 @@
-package Analysis.ParseTree.Expression;
-//OK NA
-import Analysis.ParseTree.ASTNode;
-
-/*
-    Since this is an abstract class it is implemented
-    in its sub-classes which is for example the BinNode
-    Also since this extends to ASTNode which means this is its
-    sub-class so all of its sub-classes implementation are inherited
-    also by the ASTNode abstract class.
- */
-public abstract class ExpressionNode extends ASTNode {
-    // Any additional members or methods can be added here if needed
+package Analysis.ParseTree.Expression;
+//OK NA
+import Analysis.ParseTree.ASTNode;
+import Analysis.TokenDataTypes.DataType;
+
+/*
+    Since this is an abstract class it is implemented
+    in its sub-classes which is for example the BinNode
+    Also since this extends to ASTNode which means this is its
+    sub-class so all of its sub-classes implementation are inherited
+    also by the ASTNode abstract class.
+    It is sealed, the five kinds below are all the expressions there are,
+    see ExpressionVisitor.
+ */
+public abstract sealed class ExpressionNode extends ASTNode
+        permits BinNode, UnaryNode, ParenthesisNode, IdentifierNode, LiteralNode {
+    // The Data Type the Semantic found for the expression, null before it is checked
+    private DataType dataType;
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public void setDataType(DataType dataType) {
+        this.dataType = dataType;
+    }
+
+    // Calls the method of the visitor for the kind of this node.
+    public abstract <R> R accept(ExpressionVisitor<R> visitor);
 }
\ No newline at end of file
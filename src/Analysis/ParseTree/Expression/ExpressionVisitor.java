@@ -0,0 +1,22 @@
+package Analysis.ParseTree.Expression;
+
+/*
+    Does something for each kind of expression, like the Semantic that
+    finds the Data Type of an expression or the Interpreter that finds its
+    value. expression.accept(visitor) calls the method of the kind of the
+    node, so no instanceof chain is needed, and since ExpressionNode is
+    sealed the visitor has a method for every kind there is.
+    Example below:
+        DataType dataType = expression.accept(typeChecker);
+ */
+public interface ExpressionVisitor<R> {
+    R visitBinary(BinNode expression);
+
+    R visitUnary(UnaryNode expression);
+
+    R visitParenthesis(ParenthesisNode expression);
+
+    R visitIdentifier(IdentifierNode expression);
+
+    R visitLiteral(LiteralNode expression);
+}
@@ -1,21 +1,43 @@
-package Analysis.ParseTree.Expression;
-//OK NA
-import Analysis.SyntaxAnalyzer.Token;
-
-public class IdentifierNode extends ExpressionNode {
-    private final Token identifierToken;
-    private final String name;
-
-    public IdentifierNode(Token identifierToken, String name) {
-        this.identifierToken = identifierToken;
-        this.name = name;
-    }
-
-    public Token getIdentifierToken() {
-        return identifierToken;
-    }
-
-    public String getName() {
-        return name;
-    }
-}
+package Analysis.ParseTree.Expression;
+//OK NA
+import Analysis.SyntaxAnalyzer.Token;
+
+public final class IdentifierNode extends ExpressionNode {
+    private final Token identifierToken;
+    private final String name;
+    // The symbol of the name from the SymbolInterner
+    private final int symbol;
+    // The slot the Semantic gave the variable, -1 when it is not declared
+    private int slot = -1;
+
+    public IdentifierNode(Token identifierToken, String name, int symbol) {
+        this.identifierToken = identifierToken;
+        this.name = name;
+        this.symbol = symbol;
+    }
+
+    public Token getIdentifierToken() {
+        return identifierToken;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSymbol() {
+        return symbol;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitIdentifier(this);
+    }
+}
@@ -1,28 +1,33 @@
-package Analysis.ParseTree.Expression;
-//OK NA
-import Analysis.SyntaxAnalyzer.*;
-
-
-public class ParenthesisNode extends ExpressionNode {
-    private final Token open;
-    private final ExpressionNode expression;
-    private final Token close;
-
-    public ParenthesisNode(Token open, ExpressionNode expression, Token close) {
-        this.open = open;
-        this.expression = expression;
-        this.close = close;
-    }
-
-    public Token getOpen() {
-        return open;
-    }
-
-    public ExpressionNode getExpression() {
-        return expression;
-    }
-
-    public Token getClose() {
-        return close;
-    }
-}
+package Analysis.ParseTree.Expression;
+//OK NA
+import Analysis.SyntaxAnalyzer.*;
+
+
+public final class ParenthesisNode extends ExpressionNode {
+    private final Token open;
+    private final ExpressionNode expression;
+    private final Token close;
+
+    public ParenthesisNode(Token open, ExpressionNode expression, Token close) {
+        this.open = open;
+        this.expression = expression;
+        this.close = close;
+    }
+
+    public Token getOpen() {
+        return open;
+    }
+
+    public ExpressionNode getExpression() {
+        return expression;
+    }
+
+    public Token getClose() {
+        return close;
+    }
+
+    @Override
+    public <R> R accept(ExpressionVisitor<R> visitor) {
+        return visitor.visitParenthesis(this);
+    }
+}
@@ -1,6 +1,6 @@
-package Analysis.ParseTree;
-//OK NA BUT NEED TO STUDY
-//WALA MAGAMIT NI
-public interface ExpressionNodeInterface {
-
+package Analysis.ParseTree;
+//OK NA BUT NEED TO STUDY
+//WALA MAGAMIT NI
+public interface ExpressionNodeInterface {
+
 }
\ No newline at end of file
@@ -0,0 +1,334 @@
+package Analysis.ParseTree;
+
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.SyntaxAnalyzer.Token;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    A program kept in arrays of numbers instead of one ASTNode object per
+    node, for programs so big that the nodes would fill the memory.
+    A node is an int, the index of the node in the arrays, and the
+    methods below read a node like the getters of the ASTNode classes.
+    Node i is described by kinds[i], operators[i], firsts[i], seconds[i],
+    lines[i] and columns[i], what first and second mean depends on the
+    kind:
+    - BINARY: the left and the right node, operator is the TokenType.
+    - UNARY: the node it applies to and nothing, operator is the TokenType.
+    - PARENTHESIS: the node inside it and nothing.
+    - IDENTIFIER: the symbol of the name and nothing.
+    - LITERAL: the index of the value in the literal pool and nothing.
+    - LOOP: the condition and the PROGRAM node of the block.
+    - The other kinds have a list: first is where the list starts in
+      items and second is its size, see getCount().
+    A literal that is written more than once, like 1, is only kept in the
+    pool once.
+    Example below:
+        a = a + 1
+    is an ASSIGNMENT node with the list [symbol of a, BINARY node], the
+    BINARY node points to an IDENTIFIER node and a LITERAL node.
+    The statements of the program itself are added one by one with
+    addStatement(), so the ASTNode objects of a statement can be thrown
+    away as soon as it is added.
+ */
+public class FlatTree {
+    private static final NodeKind[] NODE_KINDS = NodeKind.values();
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    // A missing node, like the condition of an ELSE or a variable without a value
+    public static final int NONE = -1;
+
+    private final SymbolInterner symbols;
+    private byte[] kinds;
+    private byte[] operators;
+    private int[] firsts;
+    private int[] seconds;
+    private int[] lines;
+    private int[] columns;
+    private int size;
+
+    // The lists of the nodes, one after the other
+    private int[] items;
+    private int itemCount;
+
+    // The statements of the program, in order
+    private int[] statements;
+    private int statementCount;
+
+    private final List<Object> literals;
+    private final Map<Object, Integer> literalIndex;
+
+    public FlatTree(SymbolInterner symbols) {
+        this.symbols = symbols;
+        this.kinds = new byte[256];
+        this.operators = new byte[256];
+        this.firsts = new int[256];
+        this.seconds = new int[256];
+        this.lines = new int[256];
+        this.columns = new int[256];
+        this.items = new int[256];
+        this.statements = new int[64];
+        this.literals = new ArrayList<>();
+        this.literalIndex = new HashMap<>();
+    }
+
+    // Adds a statement at the end of the program.
+    public void addStatement(StatementNode statement) {
+        if (statementCount == statements.length)
+            statements = Arrays.copyOf(statements, Math.max(statementCount * 2, 16));
+        statements[statementCount++] = add(statement);
+    }
+
+    // Makes the arrays as small as the nodes in them, once all the statements are added.
+    public void trimToSize() {
+        kinds = Arrays.copyOf(kinds, size);
+        operators = Arrays.copyOf(operators, size);
+        firsts = Arrays.copyOf(firsts, size);
+        seconds = Arrays.copyOf(seconds, size);
+        lines = Arrays.copyOf(lines, size);
+        columns = Arrays.copyOf(columns, size);
+        items = Arrays.copyOf(items, itemCount);
+        statements = Arrays.copyOf(statements, statementCount);
+    }
+
+    // Number of statements of the program.
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getStatement(int index) {
+        if (index >= statementCount)
+            throw new IndexOutOfBoundsException("Statement " + index + " of " + statementCount);
+        return statements[index];
+    }
+
+    // Number of nodes, including the nodes inside expressions and blocks.
+    public int size() {
+        return size;
+    }
+
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    public NodeKind getKind(int node) {
+        return NODE_KINDS[kinds[node]];
+    }
+
+    // The TokenType of the operator of a BINARY or UNARY node, or the data type of a VARIABLE_DECLARATION.
+    public TokenType getOperator(int node) {
+        return TOKEN_TYPES[operators[node]];
+    }
+
+    // The operator as it is written, like "+" or "AND", for error messages.
+    public String getOperatorCode(int node) {
+        Token token = Token.of(getOperator(node));
+        return token != null ? token.getCode() : getOperator(node).name();
+    }
+
+    public int getLine(int node) {
+        return lines[node];
+    }
+
+    public int getColumn(int node) {
+        return columns[node];
+    }
+
+    // Returns the position as text for error messages, the same as ASTNode.getPosition()
+    public String getPosition(int node) {
+        return lines[node] > 0 ? " (line " + lines[node] + ", column " + columns[node] + ")" : "";
+    }
+
+    public int getLeft(int node) {
+        return firsts[node];
+    }
+
+    public int getRight(int node) {
+        return seconds[node];
+    }
+
+    // The node inside a UNARY or PARENTHESIS node.
+    public int getOperand(int node) {
+        return firsts[node];
+    }
+
+    public int getSymbol(int node) {
+        return firsts[node];
+    }
+
+    public String getName(int node) {
+        return symbols.getName(firsts[node]);
+    }
+
+    public Object getLiteral(int node) {
+        return literals.get(firsts[node]);
+    }
+
+    /*
+        The size of the list of a node:
+        - PROGRAM: its statements, see getItem().
+        - DISPLAY: its expressions, see getItem().
+        - SCAN, ASSIGNMENT and VARIABLE_DECLARATION: its variables, see
+          getItem() for their symbols.
+        - CONDITION: its IF, ELSE IF and ELSE parts, see getCondition()
+          and getBlock().
+     */
+    public int getCount(int node) {
+        return seconds[node];
+    }
+
+    public int getItem(int node, int index) {
+        return items[item(node, index)];
+    }
+
+    public String getItemName(int node, int index) {
+        return symbols.getName(getItem(node, index));
+    }
+
+    // The value of variable i of a VARIABLE_DECLARATION, or NONE.
+    public int getValue(int node, int index) {
+        return items[item(node, index) + seconds[node]];
+    }
+
+    // The expression of an ASSIGNMENT.
+    public int getExpression(int node) {
+        return items[firsts[node] + seconds[node]];
+    }
+
+    // The condition of a LOOP, or of part i of a CONDITION (NONE for the ELSE).
+    public int getCondition(int node) {
+        return firsts[node];
+    }
+
+    public int getCondition(int node, int index) {
+        return items[item(node, index)];
+    }
+
+    // The block of a LOOP, or of part i of a CONDITION.
+    public int getBlock(int node) {
+        return seconds[node];
+    }
+
+    public int getBlock(int node, int index) {
+        return items[item(node, index) + seconds[node]];
+    }
+
+    // Where item i of the node is in items.
+    private int item(int node, int index) {
+        if (index < 0 || index >= seconds[node])
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + seconds[node]);
+        return firsts[node] + index;
+    }
+
+    /*
+        Copies the ASTNode and everything under it into the arrays and
+        returns its node. The nodes under it are added first, so the list
+        of a node can be written in one piece at the end.
+     */
+    private int add(ASTNode node) {
+        if (node == null)
+            return NONE;
+
+        if (node instanceof BinNode) {
+            BinNode binary = (BinNode) node;
+            int left = add(binary.getLeftHandSide());
+            int right = add(binary.getRightHandSide());
+            return node(NodeKind.BINARY, binary.getTokenOperator().getTokenType(), left, right, node);
+        } else if (node instanceof UnaryNode) {
+            UnaryNode unary = (UnaryNode) node;
+            return node(NodeKind.UNARY, unary.getTokenOperator().getTokenType(), add(unary.getExpression()), 0, node);
+        } else if (node instanceof ParenthesisNode) {
+            return node(NodeKind.PARENTHESIS, null, add(((ParenthesisNode) node).getExpression()), 0, node);
+        } else if (node instanceof IdentifierNode) {
+            return node(NodeKind.IDENTIFIER, null, ((IdentifierNode) node).getSymbol(), 0, node);
+        } else if (node instanceof LiteralNode) {
+            return node(NodeKind.LITERAL, null, literal(((LiteralNode) node).getLiteral()), 0, node);
+        } else if (node instanceof VariableDeclarationNode) {
+            VariableDeclarationNode statement = (VariableDeclarationNode) node;
+            int[] values = add(statement.getValues());
+            int start = items(statement.getSymbols());
+            items(values);
+            return node(NodeKind.VARIABLE_DECLARATION, statement.getDataTypeToken().getTokenType(), start, values.length, node);
+        } else if (node instanceof AssignmentNode) {
+            AssignmentNode statement = (AssignmentNode) node;
+            int expression = add(statement.getExpression());
+            int start = items(statement.getSymbols());
+            items(new int[]{expression});
+            return node(NodeKind.ASSIGNMENT, null, start, statement.getSymbols().length, node);
+        } else if (node instanceof DisplayNode) {
+            int[] expressions = add(((DisplayNode) node).getExpressions());
+            return node(NodeKind.DISPLAY, null, items(expressions), expressions.length, node);
+        } else if (node instanceof ScanNode) {
+            int[] variables = ((ScanNode) node).getSymbols();
+            return node(NodeKind.SCAN, null, items(variables), variables.length, node);
+        } else if (node instanceof ConditionalNode) {
+            ConditionalNode statement = (ConditionalNode) node;
+            int[] conditions = add(statement.getExpressions());
+            int[] blocks = add(statement.getStmt());
+            int start = items(conditions);
+            items(blocks);
+            return node(NodeKind.CONDITION, null, start, conditions.length, node);
+        } else if (node instanceof LoopNode) {
+            LoopNode statement = (LoopNode) node;
+            int condition = add(statement.getExpression());
+            return node(NodeKind.LOOP, null, condition, add(statement.getStatement()), node);
+        } else if (node instanceof ProgramNode) {
+            if (!((ProgramNode) node).isParsed())
+                throw new IllegalArgumentException("A lazy block has to be parsed before it is added" + node.getPosition() + ".");
+            int[] block = add(((ProgramNode) node).getStatements());
+            return node(NodeKind.PROGRAM, null, items(block), block.length, node);
+        }
+        throw new IllegalArgumentException("Unknown node " + node.getClass().getSimpleName() + ".");
+    }
+
+    private int[] add(List<? extends ASTNode> nodes) {
+        int[] added = new int[nodes.size()];
+        for (int i = 0; i < added.length; i++)
+            added[i] = add(nodes.get(i));
+        return added;
+    }
+
+    private int node(NodeKind kind, TokenType operator, int first, int second, ASTNode node) {
+        if (size == kinds.length) {
+            int capacity = Math.max(size * 2, 16);
+            kinds = Arrays.copyOf(kinds, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        operators[size] = (byte) (operator == null ? 0 : operator.ordinal());
+        firsts[size] = first;
+        seconds[size] = second;
+        lines[size] = node.getLine();
+        columns[size] = node.getColumn();
+        return size++;
+    }
+
+    // Adds the values at the end of items and returns where they start.
+    private int items(int[] values) {
+        if (itemCount + values.length > items.length)
+            items = Arrays.copyOf(items, Math.max(items.length * 2, itemCount + values.length));
+        System.arraycopy(values, 0, items, itemCount, values.length);
+        itemCount += values.length;
+        return itemCount - values.length;
+    }
+
+    // Keeps the value in the literal pool and returns its index.
+    private int literal(Object value) {
+        Integer index = literalIndex.get(value);
+        if (index == null) {
+            index = literals.size();
+            literals.add(value);
+            literalIndex.put(value, index);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,50 @@
+package Analysis.ParseTree;
+
+import Analysis.ParseTree.Statement.StatementNode;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    The block of an IF or WHILE that the Parser only skipped, in lazy
+    mode. It remembers where the block is in the code so it can be parsed
+    the first time it runs, until then it has no statements.
+    Its position is the one of its BEGIN, and start is where the line of
+    the BEGIN starts in the code.
+    Example below:
+        IF (a > 100)
+        BEGIN IF          <- line 5, start is the index of the 'B'
+            DISPLAY: a
+        END IF
+ */
+public class LazyProgramNode extends ProgramNode {
+    // IF or WHILE
+    private final TokenType blockType;
+    private final int start;
+    private boolean parsed;
+
+    public LazyProgramNode(TokenType blockType, int start) {
+        super(new ArrayList<>());
+        this.blockType = blockType;
+        this.start = start;
+    }
+
+    public TokenType getBlockType() {
+        return blockType;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public boolean isParsed() {
+        return parsed;
+    }
+
+    // Gives the block the statements it got when it was parsed.
+    public void setStatements(List<StatementNode> statements) {
+        getStatements().addAll(statements);
+        parsed = true;
+    }
+}
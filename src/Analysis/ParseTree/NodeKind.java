@@ -0,0 +1,15 @@
+package Analysis.ParseTree;
+
+/*
+    The kind of a node in a FlatTree, one for each ASTNode class.
+    PROGRAM is the block of an IF or WHILE.
+ */
+public enum NodeKind {
+    PROGRAM,
+
+    // Statements
+    VARIABLE_DECLARATION, ASSIGNMENT, DISPLAY, SCAN, CONDITION, LOOP,
+
+    // Expressions
+    BINARY, UNARY, PARENTHESIS, IDENTIFIER, LITERAL
+}
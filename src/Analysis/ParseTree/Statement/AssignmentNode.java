@@ -1,31 +1,53 @@
-package Analysis.ParseTree.Statement;
-//OK NA
-import Analysis.SyntaxAnalyzer.Token;
-import Analysis.ParseTree.Expression.ExpressionNode;
-import java.util.List;
-
-public class AssignmentNode extends StatementNode {
-    /* Used List to handle example x = y = z = 10.
-    Also used if in the future we want to implement "+=", "-="*/
-    private final List<String> identifiers;
-    private final List<Token> equalsTokens;
-    private final ExpressionNode expression;
-
-    public AssignmentNode(List<String> identifiers, List<Token> equalsToken, ExpressionNode expression) {
-        this.identifiers = identifiers;
-        this.equalsTokens = equalsToken;
-        this.expression = expression;
-    }
-
-    public List<String> getIdentifiers() {
-        return identifiers;
-    }
-
-    public List<Token> getEqualsTokens() {
-        return equalsTokens;
-    }
-
-    public ExpressionNode getExpression() {
-        return expression;
-    }
-}
+package Analysis.ParseTree.Statement;
+//OK NA
+import Analysis.SyntaxAnalyzer.Token;
+import Analysis.ParseTree.Expression.ExpressionNode;
+import java.util.List;
+
+public final class AssignmentNode extends StatementNode {
+    /* Used List to handle example x = y = z = 10.
+    Also used if in the future we want to implement "+=", "-="*/
+    private final List<String> identifiers;
+    // symbols[i] is the symbol of identifiers.get(i)
+    private final int[] symbols;
+    // slots[i] is the slot the Semantic gave identifiers.get(i), see Semantic.getSlot()
+    private int[] slots;
+    private final List<Token> equalsTokens;
+    private final ExpressionNode expression;
+
+    public AssignmentNode(List<String> identifiers, int[] symbols, List<Token> equalsToken, ExpressionNode expression) {
+        this.identifiers = identifiers;
+        this.symbols = symbols;
+        this.equalsTokens = equalsToken;
+        this.expression = expression;
+    }
+
+    public List<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    public int[] getSymbols() {
+        return symbols;
+    }
+
+    public int[] getSlots() {
+        return slots;
+    }
+
+    public void setSlots(int[] slots) {
+        this.slots = slots;
+    }
+
+    public List<Token> getEqualsTokens() {
+        return equalsTokens;
+    }
+
+    public ExpressionNode getExpression() {
+        return expression;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitAssignment(this);
+    }
+}
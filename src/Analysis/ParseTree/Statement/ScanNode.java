@@ -1,27 +1,49 @@
-package Analysis.ParseTree.Statement;
-//OK NA
-import Analysis.SyntaxAnalyzer.Token;
-import java.util.List;
-
-public class ScanNode extends StatementNode {
-    private final Token scanToken;
-    /*  This uses List type so that
-        we can do multiple scanning.
-        Example below:
-            SCAN: x, y
-     */
-    private final List<String> identifiers;
-
-    public ScanNode(Token scanToken, List<String> identifiers) {
-        this.scanToken = scanToken;
-        this.identifiers = identifiers;
-    }
-
-    public Token getScanToken() {
-        return scanToken;
-    }
-
-    public List<String> getIdentifiers() {
-        return identifiers;
-    }
-}
+package Analysis.ParseTree.Statement;
+//OK NA
+import Analysis.SyntaxAnalyzer.Token;
+import java.util.List;
+
+public final class ScanNode extends StatementNode {
+    private final Token scanToken;
+    /*  This uses List type so that
+        we can do multiple scanning.
+        Example below:
+            SCAN: x, y
+     */
+    private final List<String> identifiers;
+    // symbols[i] is the symbol of identifiers.get(i)
+    private final int[] symbols;
+    // slots[i] is the slot the Semantic gave identifiers.get(i), see Semantic.getSlot()
+    private int[] slots;
+
+    public ScanNode(Token scanToken, List<String> identifiers, int[] symbols) {
+        this.scanToken = scanToken;
+        this.identifiers = identifiers;
+        this.symbols = symbols;
+    }
+
+    public Token getScanToken() {
+        return scanToken;
+    }
+
+    public List<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    public int[] getSymbols() {
+        return symbols;
+    }
+
+    public int[] getSlots() {
+        return slots;
+    }
+
+    public void setSlots(int[] slots) {
+        this.slots = slots;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitScan(this);
+    }
+}
@@ -1,13 +1,18 @@
-package Analysis.ParseTree.Statement;
-//OK NA
-import Analysis.ParseTree.ASTNode;
-/*
-    Since this is an abstract class it is implemented
-    in its sub-classes which is for example the AssignmentNode
-    Also since this extends to ASTNode which means this is its
-    sub-class so all of its sub-classes implementation are inherited
-    also by the ASTNode abstract class.
- */
-public abstract class StatementNode extends ASTNode {
-
-}
+package Analysis.ParseTree.Statement;
+//OK NA
+import Analysis.ParseTree.ASTNode;
+/*
+    Since this is an abstract class it is implemented
+    in its sub-classes which is for example the AssignmentNode
+    Also since this extends to ASTNode which means this is its
+    sub-class so all of its sub-classes implementation are inherited
+    also by the ASTNode abstract class.
+    It is sealed, the six kinds below are all the statements there are,
+    see StatementVisitor.
+ */
+public abstract sealed class StatementNode extends ASTNode
+        permits VariableDeclarationNode, AssignmentNode, DisplayNode, ScanNode, ConditionalNode, LoopNode {
+
+    // Calls the method of the visitor for the kind of this node.
+    public abstract <R> R accept(StatementVisitor<R> visitor);
+}
@@ -0,0 +1,22 @@
+package Analysis.ParseTree.Statement;
+
+/*
+    Does something for each kind of statement, the same as
+    ExpressionVisitor does for expressions. statement.accept(visitor) calls
+    the method of the kind of the node.
+    Example below:
+        statement.accept(runner);
+ */
+public interface StatementVisitor<R> {
+    R visitVariableDeclaration(VariableDeclarationNode statement);
+
+    R visitAssignment(AssignmentNode statement);
+
+    R visitDisplay(DisplayNode statement);
+
+    R visitScan(ScanNode statement);
+
+    R visitCondition(ConditionalNode statement);
+
+    R visitLoop(LoopNode statement);
+}
@@ -1,34 +1,65 @@
-package Analysis.ParseTree.Statement;
-//OK NA
-import Analysis.SyntaxAnalyzer.Token;
-import Analysis.ParseTree.Expression.ExpressionNode;
-import java.util.Map;
-
-public class VariableDeclarationNode extends StatementNode {
-    private final Token TokenType;
-    /*
-        The String is the key which is the variable name
-        while the ExpressionNode is the value which is the
-        initialized value of the variable.
-        Example below:
-        INT x = 5
-        x = key / String
-        5 = value / initialized value
-     */
-    private final Map<String, ExpressionNode> variables;
-
-
-    public VariableDeclarationNode(Token TokenType, Map<String, ExpressionNode> variables) {
-        this.TokenType = TokenType;
-        this.variables = variables;
-    }
-    //Returns the TokenType, which represents the data type of the variables.
-    public Token getDataTypeToken() {
-        return TokenType;
-    }
-
-    //Returns the variables map, which contains the variable names and their initialization values.
-    public Map<String, ExpressionNode> getVariables() {
-        return variables;
-    }
-}
\ No newline at end of file
+package Analysis.ParseTree.Statement;
+//OK NA
+import Analysis.SyntaxAnalyzer.Token;
+import Analysis.ParseTree.Expression.ExpressionNode;
+import java.util.List;
+
+public final class VariableDeclarationNode extends StatementNode {
+    private final Token TokenType;
+    /*
+        The three are kept in the same order as they are written.
+        identifiers is the variable name, symbols is its symbol from the
+        SymbolInterner and values is the initialized value of the variable
+        or null if it is not initialized.
+        Example below:
+        INT x = 5, y
+        identifiers = [x, y]
+        values = [5, null]
+     */
+    private final List<String> identifiers;
+    private final int[] symbols;
+    private final List<ExpressionNode> values;
+    // The slots the Semantic gave the variables, in the same order
+    private int[] slots;
+
+
+    public VariableDeclarationNode(Token TokenType, List<String> identifiers, int[] symbols, List<ExpressionNode> values) {
+        this.TokenType = TokenType;
+        this.identifiers = identifiers;
+        this.symbols = symbols;
+        this.values = values;
+    }
+    //Returns the TokenType, which represents the data type of the variables.
+    public Token getDataTypeToken() {
+        return TokenType;
+    }
+
+    //Returns the variable names in the order they are declared.
+    public List<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    //Returns the symbols of the variables, symbols[i] belongs to getIdentifiers().get(i).
+    public int[] getSymbols() {
+        return symbols;
+    }
+
+    //Returns the initialization values, null if the variable is not initialized.
+    public List<ExpressionNode> getValues() {
+        return values;
+    }
+
+    //Returns the slots of the variables, null before the Semantic checked the declaration.
+    public int[] getSlots() {
+        return slots;
+    }
+
+    public void setSlots(int[] slots) {
+        this.slots = slots;
+    }
+
+    @Override
+    public <R> R accept(StatementVisitor<R> visitor) {
+        return visitor.visitVariableDeclaration(this);
+    }
+}
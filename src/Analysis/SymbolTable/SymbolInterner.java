@@ -0,0 +1,122 @@
+package Analysis.SymbolTable;
+
+import java.util.Arrays;
+
+/*
+    This gives every distinct identifier name a small number (the symbol).
+    The Lexer interns each identifier once, and from then on the Parser,
+    Semantic and Interpreter use the symbol instead of comparing or hashing
+    the String again. The same name always gets the same symbol and the
+    symbols are handed out in order, 0, 1, 2, ...
+    Example below:
+        INT abc, xyz
+        abc = xyz
+    "abc" is symbol 0 and "xyz" is symbol 1 everywhere in the program.
+ */
+public class SymbolInterner {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Open addressing hash table, each slot holds (symbol + 1) or 0 if empty
+    private int[] slots;
+    private String[] names;
+    private int[] hashes;
+    private int size;
+
+    public SymbolInterner() {
+        slots = new int[INITIAL_CAPACITY];
+        names = new String[INITIAL_CAPACITY / 2];
+        hashes = new int[INITIAL_CAPACITY / 2];
+    }
+
+    /*
+        Returns the symbol of the characters code[start, end). The String
+        for the name is only created the first time the name is seen.
+     */
+    public int intern(CharSequence code, int start, int end) {
+        int hash = hash(code, start, end);
+        int mask = slots.length - 1;
+        int index = mix(hash) & mask;
+
+        while (slots[index] != 0) {
+            int symbol = slots[index] - 1;
+            if (hashes[symbol] == hash && sameName(names[symbol], code, start, end))
+                return symbol;
+            index = (index + 1) & mask;
+        }
+
+        int symbol = size++;
+        if (symbol == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        names[symbol] = code.subSequence(start, end).toString();
+        hashes[symbol] = hash;
+        slots[index] = symbol + 1;
+
+        // Keep the table at most half full so probing stays short
+        if (size * 2 > slots.length)
+            rehash();
+        return symbol;
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    // Returns the symbol of the name or -1 if it was never interned.
+    public int lookup(String name) {
+        int hash = hash(name, 0, name.length());
+        int mask = slots.length - 1;
+        int index = mix(hash) & mask;
+
+        while (slots[index] != 0) {
+            int symbol = slots[index] - 1;
+            if (hashes[symbol] == hash && names[symbol].equals(name))
+                return symbol;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String getName(int symbol) {
+        return names[symbol];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int symbol = 0; symbol < size; symbol++) {
+            int index = mix(hashes[symbol]) & mask;
+            while (newSlots[index] != 0)
+                index = (index + 1) & mask;
+            newSlots[index] = symbol + 1;
+        }
+        slots = newSlots;
+    }
+
+    // Same value as String.hashCode() so it can be computed without a String
+    private static int hash(CharSequence code, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + code.charAt(i);
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean sameName(String name, CharSequence code, int start, int end) {
+        if (name.length() != end - start)
+            return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != code.charAt(start + i))
+                return false;
+        }
+        return true;
+    }
+}
@@ -1,70 +1,68 @@
-package Analysis.SymbolTable;
-//OK NA
-/*String floatPattern = "^(?:\\+|\\-)?\\d*\\.\\d+$";
-        String intPattern = "^(?:\\+|\\-)?\\d+$";
-        String charPattern = "^'(?:\\[[\\[\\]\\&\\$\\#']\\])'|'[\\[\\]\\&\\$\\#']'$";
-        String boolPattern = "^\"TRUE\"$|^\"FALSE\"$";*/
-import Analysis.TokenDataTypes.DataType;
-import java.util.HashMap;
-import java.util.Map;
-
-public class VariableTable {
-    /*
-        Object ang gigamit diri so that we can do pass
-        by reference or referencing a value. Example is a = b
-     */
-    private Map<String, Map.Entry<DataType, Object>> variableTable;
-
-    public VariableTable() {
-        variableTable = new HashMap<>();
-    }
-
-    public void addVariable(String identifier, DataType dataType, Object val) {
-        // Ensure val is not null, using a placeholder object if necessary
-        // Variables are created as object so that it can hold references to objects of any class.
-        Object valueToStore = val != null ? val : new Object(); // Placeholder object
-
-        // Create a Map.Entry directly using Map.entry and add it to the variableTable
-        variableTable.put(identifier, Map.entry(dataType, valueToStore));
-    }
-
-public void addIdentifier(String identifier, DataType dataType) {
-    // Ensure variableTable is initialized, creating it as a HashMap if null
-    if (this.variableTable == null) {
-        this.variableTable = new HashMap<>();
-    }
-
-    // Check for duplicate identifier and throw exception if found
-    if (this.variableTable.containsKey(identifier)) {
-        throw new IllegalArgumentException("Identifier has been declared already.");
-    }
-
-    // Use a placeholder object instead of null
-    Object placeholder = new Object();
-
-    // Create a Map.Entry directly using Map.entry and add it to the variableTable
-    this.variableTable.put(identifier, Map.entry(dataType, placeholder));
-}
-
-
-    public void addValue(String identifier, Object val) {
-        Map.Entry<DataType, Object> entry = variableTable.get(identifier);
-        if (entry != null) {
-            variableTable.put(identifier, Map.entry(entry.getKey(), val));
-        }
-    }
-
-    public DataType getType(String identifier) {
-        Map.Entry<DataType, Object> entry = variableTable.get(identifier);
-        return entry != null ? entry.getKey() : null;
-    }
-
-    public Object getValue(String identifier) {
-        Map.Entry<DataType, Object> entry = variableTable.get(identifier);
-        return entry != null ? entry.getValue() : null;
-    }
-
-    public boolean exists(String identifier) {
-        return variableTable.containsKey(identifier);
-    }
-}
\ No newline at end of file
+package Analysis.SymbolTable;
+//OK NA
+import Analysis.TokenDataTypes.DataType;
+import java.util.Arrays;
+
+public class VariableTable {
+    /*
+        The variables are stored by their symbol from the SymbolInterner,
+        so types[symbol] and values[symbol] belong to the same variable.
+        Object ang gigamit diri so that we can do pass
+        by reference or referencing a value. Example is a = b
+     */
+    private DataType[] types;
+    private Object[] values;
+
+    public VariableTable() {
+        types = new DataType[16];
+        values = new Object[16];
+    }
+
+    public void addVariable(int symbol, DataType dataType, Object val) {
+        // Ensure val is not null, using a placeholder object if necessary
+        // Variables are created as object so that it can hold references to objects of any class.
+        Object valueToStore = val != null ? val : new Object(); // Placeholder object
+
+        ensureCapacity(symbol);
+        types[symbol] = dataType;
+        values[symbol] = valueToStore;
+    }
+
+    public void addIdentifier(int symbol, DataType dataType) {
+        // Check for duplicate identifier and throw exception if found
+        if (exists(symbol)) {
+            throw new IllegalArgumentException("Identifier has been declared already.");
+        }
+
+        // Use a placeholder object instead of null
+        ensureCapacity(symbol);
+        types[symbol] = dataType;
+        values[symbol] = new Object();
+    }
+
+    public void addValue(int symbol, Object val) {
+        if (exists(symbol)) {
+            values[symbol] = val;
+        }
+    }
+
+    public DataType getType(int symbol) {
+        return exists(symbol) ? types[symbol] : null;
+    }
+
+    public Object getValue(int symbol) {
+        return exists(symbol) ? values[symbol] : null;
+    }
+
+    public boolean exists(int symbol) {
+        return symbol >= 0 && symbol < types.length && types[symbol] != null;
+    }
+
+    private void ensureCapacity(int symbol) {
+        if (symbol >= types.length) {
+            int capacity = Math.max(symbol + 1, types.length * 2);
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+}
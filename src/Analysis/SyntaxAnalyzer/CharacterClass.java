@@ -0,0 +1,75 @@
+package Analysis.SyntaxAnalyzer;
+
+/*
+    Lookup tables for the ASCII characters the Lexer cares about.
+    Each character has a set of bit flags so that the Lexer can ask
+    "is this a digit?" or "can this be escaped?" with a single array
+    read instead of compiling a regular expression for every literal.
+    Characters outside ASCII fall back to the Character class so the
+    behavior stays the same as before.
+ */
+final class CharacterClass {
+    static final int DIGIT = 1;
+    static final int LETTER = 1 << 1;
+    static final int WHITESPACE = 1 << 2;
+    // Characters allowed inside an escape code like [[] or [#]
+    static final int ESCAPABLE = 1 << 3;
+    // Characters that cannot be written directly inside a CHAR literal
+    static final int CHAR_RESERVED = 1 << 4;
+    static final int SIGN = 1 << 5;
+
+    private static final byte[] FLAGS = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++)
+            FLAGS[c] |= DIGIT;
+        for (char c = 'A'; c <= 'Z'; c++)
+            FLAGS[c] |= LETTER;
+        for (char c = 'a'; c <= 'z'; c++)
+            FLAGS[c] |= LETTER;
+        // Same set of characters as Character.isWhitespace() for ASCII
+        for (char c : new char[]{' ', '\t', '\n', '\u000B', '\f', '\r', '\u001C', '\u001D', '\u001E', '\u001F'})
+            FLAGS[c] |= WHITESPACE;
+        for (char c : new char[]{'[', ']', '&', '$', '#'})
+            FLAGS[c] |= ESCAPABLE | CHAR_RESERVED;
+        FLAGS['\''] |= CHAR_RESERVED;
+        FLAGS['+'] |= SIGN;
+        FLAGS['-'] |= SIGN;
+    }
+
+    private CharacterClass() {
+    }
+
+    static boolean is(char c, int flag) {
+        return c < 128 && (FLAGS[c] & flag) != 0;
+    }
+
+    /*
+        The Lexer and Grammar only accept ASCII digits inside literals
+        (the same as \d in the old regular expressions), so this is
+        the one to use when validating.
+     */
+    static boolean isAsciiDigit(char c) {
+        return is(c, DIGIT);
+    }
+
+    /*
+        These three keep the old Character.isXXX() behavior for
+        characters outside of ASCII.
+     */
+    static boolean isDigit(char c) {
+        return c < 128 ? (FLAGS[c] & DIGIT) != 0 : Character.isDigit(c);
+    }
+
+    static boolean isLetter(char c) {
+        return c < 128 ? (FLAGS[c] & LETTER) != 0 : Character.isLetter(c);
+    }
+
+    static boolean isWhitespace(char c) {
+        return c < 128 ? (FLAGS[c] & WHITESPACE) != 0 : Character.isWhitespace(c);
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return c == '_' || isLetter(c) || isDigit(c);
+    }
+}
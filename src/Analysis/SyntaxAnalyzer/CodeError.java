@@ -0,0 +1,43 @@
+package Analysis.SyntaxAnalyzer;
+
+/*
+    An error at a place in the code, thrown by the Parser and Semantic.
+    The message ends with the position, like the other errors:
+        Variable "a" does not exist. (line 4, column 9)
+    The text and the position are also kept apart, so the Diagnostics can
+    move the error to another line without reading the message again,
+    see IncrementalFrontEnd.
+ */
+public class CodeError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String text;
+    private final int line;
+    private final int column;
+
+    // A line of 0 means the position is not known, then the message is only the text.
+    public CodeError(String text, int line, int column) {
+        super(text + position(line, column));
+        this.text = text;
+        this.line = line;
+        this.column = column;
+    }
+
+    // The message without the position
+    public String getText() {
+        return text;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    // The position as text for error messages, the same as ASTNode.getPosition()
+    static String position(int line, int column) {
+        return line > 0 ? " (line " + line + ", column " + column + ")" : "";
+    }
+}
@@ -0,0 +1,120 @@
+package Analysis.SyntaxAnalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/*
+    Collects the errors found while parsing and checking a program, so
+    all of them can be reported at once instead of stopping at the first
+    one. The Parser and Semantic can share one Diagnostics so the syntax
+    and semantic errors come out together, in the order they were found.
+    The message of an error already ends with its position, like
+    "Invalid syntax. (line 4, column 1)". For a CodeError the text and
+    the position are kept apart, so the error can be moved to another
+    line, see Diagnostic.moveLines().
+ */
+public class Diagnostics {
+    private final List<Diagnostic> errors = new ArrayList<>();
+
+    /*
+        Adds an error. The same error at the same place is only added once,
+        that happens when an error inside an IF or WHILE block stops the
+        block and then the statement around it.
+     */
+    public void report(String message, int line, int column) {
+        report(new Diagnostic(message, 0, 0, line, column));
+    }
+
+    /*
+        Adds the error of the exception at the line and column. The message
+        of a CodeError can have the position of a part of the statement,
+        like a variable in it, that position is kept with the error.
+     */
+    public void report(Exception e, int line, int column) {
+        if (e instanceof CodeError) {
+            CodeError error = (CodeError) e;
+            report(new Diagnostic(error.getText(), error.getLine(), error.getColumn(), line, column));
+        } else
+            report(e.getMessage(), line, column);
+    }
+
+    // Adds an error of another Diagnostics.
+    void report(Diagnostic error) {
+        if (!errors.isEmpty()) {
+            Diagnostic last = errors.get(errors.size() - 1);
+            if (last.line == error.line && last.column == error.column && Objects.equals(last.getMessage(), error.getMessage()))
+                return;
+        }
+        errors.add(error);
+    }
+
+    // Removes all the errors, when the Diagnostics is used again.
+    void clear() {
+        errors.clear();
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    public int size() {
+        return errors.size();
+    }
+
+    public List<Diagnostic> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // All the messages, one per line.
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Diagnostic error : errors) {
+            if (result.length() > 0)
+                result.append('\n');
+            result.append(error.getMessage());
+        }
+        return result.toString();
+    }
+
+    public static class Diagnostic {
+        // The message without its position, the whole message when messageLine is 0
+        private final String text;
+        private final int messageLine;
+        private final int messageColumn;
+        private final int line;
+        private final int column;
+
+        Diagnostic(String text, int messageLine, int messageColumn, int line, int column) {
+            this.text = text;
+            this.messageLine = messageLine;
+            this.messageColumn = messageColumn;
+            this.line = line;
+            this.column = column;
+        }
+
+        public String getMessage() {
+            return messageLine > 0 ? text + CodeError.position(messageLine, messageColumn) : text;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        // The same error lineDelta lines further, with the position in its message moved too.
+        Diagnostic moveLines(int lineDelta) {
+            return new Diagnostic(text, messageLine > 0 ? messageLine + lineDelta : 0, messageColumn, line + lineDelta, column);
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+}
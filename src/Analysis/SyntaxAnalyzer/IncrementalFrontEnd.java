@@ -0,0 +1,389 @@
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.ParseTree.ASTNode;
+import Analysis.ParseTree.ProgramNode;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Keeps a program parsed and checked while it is being edited, like in
+    an editor. After an edit only the smallest IF or WHILE block around it
+    is parsed again, its new statements take the place of the old ones in
+    the same ProgramNode, and only they are checked again.
+    Example below, the edit is on line 6:
+        BEGIN CODE
+        INT a = 1
+        WHILE (a < 10)
+        BEGIN WHILE
+            IF (a > 5)
+            BEGIN IF      <- lines 6 to 8 are parsed again
+                DISPLAY: a
+            END IF
+            a = a + 1
+        END WHILE
+        END CODE
+    A block is only used when the edit is between its BEGIN and END lines
+    and it still ends at the same END token after the edit, the one that
+    starts at the same place in the code. Otherwise the block around it
+    is tried, and the whole program is parsed again when the edit is not
+    inside any block, like a change to a declaration.
+    The type of a variable only comes from its declaration, so the checks
+    of the other statements cannot change unless a declaration changes.
+    When the block had or has a declaration in it, all the statements are
+    checked again.
+    When the edit adds or removes lines, the positions of the nodes after
+    the block are moved, nothing is parsed or checked again for that.
+ */
+public class IncrementalFrontEnd {
+    private String code;
+    private final SymbolInterner symbols;
+    private Parser parser;
+    private Semantic semantic;
+    // The Diagnostics the Semantic writes to, it is emptied after each check
+    private Diagnostics semanticErrors;
+    private ProgramNode program;
+    // The END of each block
+    private Map<ProgramNode, Parser.BlockEnd> blockEnds;
+    private List<Diagnostics.Diagnostic> syntaxErrors;
+    private List<Diagnostics.Diagnostic> checkErrors;
+    // A variable is declared after other statements or inside a block, then everything is checked again
+    private boolean lateDeclarations;
+
+    // The code has to use "\n" line endings, a '\r' is dropped.
+    public IncrementalFrontEnd(CharSequence code) {
+        this.code = code.toString().replace("\r", "");
+        this.symbols = new SymbolInterner();
+        parseAll();
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public ProgramNode getProgram() {
+        return program;
+    }
+
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    // The syntax errors and then the semantic errors, like a run of the Parser and Semantic on the code.
+    public Diagnostics getDiagnostics() {
+        Diagnostics diagnostics = new Diagnostics();
+        for (Diagnostics.Diagnostic error : syntaxErrors)
+            diagnostics.report(error);
+        for (Diagnostics.Diagnostic error : checkErrors)
+            diagnostics.report(error);
+        return diagnostics;
+    }
+
+    /*
+        Replaces removedLength characters at offset with insertedText and
+        updates the program. Returns the ProgramNode that was parsed again,
+        a block or the whole program.
+     */
+    public ProgramNode edit(int offset, int removedLength, CharSequence insertedText) {
+        for (int i = 0; i < insertedText.length(); i++) {
+            if (insertedText.charAt(i) == '\r')
+                throw new IllegalArgumentException("The inserted text has to use \"\\n\" line endings.");
+        }
+        if (offset < 0 || removedLength < 0 || offset + removedLength > code.length())
+            throw new IndexOutOfBoundsException("Edit at " + offset + " of " + removedLength + " characters, the code has " + code.length() + ".");
+
+        // The lines of the edit in the old code
+        int firstLine = lineAt(offset);
+        int lastLine = firstLine + newlines(code, offset, offset + removedLength);
+        int lineDelta = newlines(insertedText, 0, insertedText.length()) - (lastLine - firstLine);
+        int startDelta = insertedText.length() - removedLength;
+        code = code.substring(0, offset) + insertedText + code.substring(offset + removedLength);
+
+        // The blocks around the edit, the smallest one last
+        List<ProgramNode> blocks = new ArrayList<>();
+        List<TokenType> blockTypes = new ArrayList<>();
+        findBlocks(program, firstLine, lastLine, blocks, blockTypes);
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            if (reparse(blocks.get(i), blockTypes.get(i), offset + removedLength, lineDelta, startDelta))
+                return blocks.get(i);
+        }
+        parseAll();
+        return program;
+    }
+
+    private void parseAll() {
+        Diagnostics diagnostics = new Diagnostics();
+        blockEnds = new HashMap<>();
+        try {
+            parser = new Parser(new Lexer(SourceBuffer.wrap(code), symbols), diagnostics);
+            parser.recordBlockEnds(blockEnds);
+            program = parser.parseProgram(TokenType.CODE);
+        } catch (Exception e) {
+            // parseProgram(CODE) adds its errors to the diagnostics instead
+            throw new IllegalStateException(e);
+        }
+        syntaxErrors = new ArrayList<>(diagnostics.getErrors());
+        lateDeclarations = false;
+        boolean canDeclare = true;
+        for (StatementNode statement : program.getStatements()) {
+            if (statement instanceof VariableDeclarationNode) {
+                if (!canDeclare)
+                    lateDeclarations = true;
+            } else {
+                canDeclare = false;
+                if (hasDeclaration(statement))
+                    lateDeclarations = true;
+            }
+        }
+        checkAll();
+    }
+
+    private void checkAll() {
+        semanticErrors = new Diagnostics();
+        semantic = new Semantic(semanticErrors);
+        semantic.analyze(program);
+        checkErrors = new ArrayList<>(semanticErrors.getErrors());
+        semanticErrors.clear();
+    }
+
+    /*
+        Parses the block again from the line of its BEGIN. Returns false and
+        changes nothing when the block does not end at the same END token
+        anymore or cannot be parsed on its own. The edit ended at editEnd in
+        the old code and added lineDelta lines and startDelta characters.
+     */
+    private boolean reparse(ProgramNode block, TokenType blockType, int editEnd, int lineDelta, int startDelta) {
+        int beginLine = block.getLine();
+        Parser.BlockEnd oldEnd = blockEnds.get(block);
+        int endLine = oldEnd.line;
+        if (oldEnd.start < editEnd || !isOnlyWords(beginLine, "BEGIN", blockType.name()))
+            return false;
+
+        Diagnostics diagnostics = new Diagnostics();
+        Map<ProgramNode, Parser.BlockEnd> newEnds = new HashMap<>();
+        ProgramNode parsed;
+        try {
+            Parser blockParser = parser.blockParser(code, lineStart(beginLine), beginLine, diagnostics);
+            blockParser.recordBlockEnds(newEnds);
+            parsed = blockParser.parseProgram(blockType);
+        } catch (Exception e) {
+            return false;
+        }
+        /*
+            The parsing has to stop at the same END token, so the block took
+            the same tokens as a parse of the whole program would. A line
+            of the Lexer can also be behind the real line of the code, like
+            after a text with a missing closing quote, then the block is
+            not used either.
+         */
+        Parser.BlockEnd newEnd = newEnds.remove(parsed);
+        if (newEnd.start != oldEnd.start + startDelta || newEnd.line != endLine + lineDelta
+                || lineAt(newEnd.start) != newEnd.line || !isOnlyWords(newEnd.line, "END", blockType.name()))
+            return false;
+
+        // Everything after the block moves by the lines and characters that were added or removed
+        removeBlockEnds(block.getStatements());
+        if (lineDelta != 0)
+            moveLines(program, endLine, lineDelta);
+        for (Map.Entry<ProgramNode, Parser.BlockEnd> end : blockEnds.entrySet()) {
+            if (end.getValue().start >= editEnd)
+                end.setValue(end.getValue().moved(lineDelta, startDelta));
+        }
+        blockEnds.putAll(newEnds);
+        blockEnds.put(block, newEnd);
+
+        boolean declarations = lateDeclarations || hasDeclaration(block) || hasDeclaration(parsed);
+        lateDeclarations |= hasDeclaration(parsed);
+        block.getStatements().clear();
+        block.getStatements().addAll(parsed.getStatements());
+
+        replaceErrors(syntaxErrors, beginLine, endLine, lineDelta, diagnostics.getErrors());
+        if (declarations) {
+            checkAll();
+        } else {
+            semantic.analyze(block);
+            replaceErrors(checkErrors, beginLine, endLine, lineDelta, semanticErrors.getErrors());
+            semanticErrors.clear();
+        }
+        return true;
+    }
+
+    /*
+        Finds the blocks that have the lines [firstLine, lastLine] between
+        their BEGIN and END lines, from the biggest to the smallest.
+     */
+    private void findBlocks(ProgramNode block, int firstLine, int lastLine, List<ProgramNode> blocks, List<TokenType> blockTypes) {
+        StatementNode statement = statementAt(block.getStatements(), firstLine);
+        List<ProgramNode> inner = new ArrayList<>();
+        TokenType innerType = null;
+        if (statement instanceof ConditionalNode) {
+            inner = ((ConditionalNode) statement).getStmt();
+            innerType = TokenType.IF;
+        } else if (statement instanceof LoopNode) {
+            inner.add(((LoopNode) statement).getStatement());
+            innerType = TokenType.WHILE;
+        }
+
+        for (ProgramNode child : inner) {
+            Parser.BlockEnd end = blockEnds.get(child);
+            if (end != null && child.getLine() < firstLine && lastLine < end.line) {
+                blocks.add(child);
+                blockTypes.add(innerType);
+                findBlocks(child, firstLine, lastLine, blocks, blockTypes);
+                return;
+            }
+        }
+    }
+
+    // The last statement that starts at or before the line, or null.
+    private static StatementNode statementAt(List<StatementNode> statements, int line) {
+        int low = 0;
+        int high = statements.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (statements.get(middle).getLine() <= line)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low == 0 ? null : statements.get(low - 1);
+    }
+
+    /*
+        Takes out the errors of the lines [firstLine, lastLine], moves the
+        errors after them by lineDelta lines and puts the new errors where
+        the old ones were.
+     */
+    private static void replaceErrors(List<Diagnostics.Diagnostic> errors, int firstLine, int lastLine, int lineDelta,
+                                      List<Diagnostics.Diagnostic> newErrors) {
+        int index = -1;
+        for (int i = errors.size() - 1; i >= 0; i--) {
+            Diagnostics.Diagnostic error = errors.get(i);
+            if (error.getLine() > lastLine) {
+                if (lineDelta != 0)
+                    errors.set(i, error.moveLines(lineDelta));
+            } else if (error.getLine() >= firstLine) {
+                errors.remove(i);
+                index = i;
+            }
+        }
+        if (index < 0) {
+            index = 0;
+            while (index < errors.size() && errors.get(index).getLine() < firstLine)
+                index++;
+        }
+        errors.addAll(index, newErrors);
+    }
+
+    // Moves the nodes after the line by lineDelta lines.
+    private void moveLines(ASTNode node, int afterLine, int lineDelta) {
+        if (node == null)
+            return;
+        if (node.getLine() > afterLine)
+            node.setPosition(node.getLine() + lineDelta, node.getColumn());
+
+        if (node instanceof ProgramNode) {
+            for (StatementNode statement : ((ProgramNode) node).getStatements())
+                moveLines(statement, afterLine, lineDelta);
+        } else if (node instanceof VariableDeclarationNode) {
+            for (ExpressionNode value : ((VariableDeclarationNode) node).getValues())
+                moveLines(value, afterLine, lineDelta);
+        } else if (node instanceof AssignmentNode) {
+            moveLines(((AssignmentNode) node).getExpression(), afterLine, lineDelta);
+        } else if (node instanceof DisplayNode) {
+            for (ExpressionNode expression : ((DisplayNode) node).getExpressions())
+                moveLines(expression, afterLine, lineDelta);
+        } else if (node instanceof ConditionalNode) {
+            for (ExpressionNode condition : ((ConditionalNode) node).getExpressions())
+                moveLines(condition, afterLine, lineDelta);
+            for (ProgramNode block : ((ConditionalNode) node).getStmt())
+                moveLines(block, afterLine, lineDelta);
+        } else if (node instanceof LoopNode) {
+            moveLines(((LoopNode) node).getExpression(), afterLine, lineDelta);
+            moveLines(((LoopNode) node).getStatement(), afterLine, lineDelta);
+        } else if (node instanceof BinNode) {
+            moveLines(((BinNode) node).getLeftHandSide(), afterLine, lineDelta);
+            moveLines(((BinNode) node).getRightHandSide(), afterLine, lineDelta);
+        } else if (node instanceof UnaryNode) {
+            moveLines(((UnaryNode) node).getExpression(), afterLine, lineDelta);
+        } else if (node instanceof ParenthesisNode) {
+            moveLines(((ParenthesisNode) node).getExpression(), afterLine, lineDelta);
+        }
+    }
+
+    // Forgets the ENDs of the blocks inside the statements, when they are replaced.
+    private void removeBlockEnds(List<StatementNode> statements) {
+        for (StatementNode statement : statements) {
+            for (ProgramNode block : blocksOf(statement)) {
+                blockEnds.remove(block);
+                removeBlockEnds(block.getStatements());
+            }
+        }
+    }
+
+    private static boolean hasDeclaration(ASTNode node) {
+        if (node instanceof VariableDeclarationNode)
+            return true;
+        if (node instanceof ProgramNode) {
+            for (StatementNode statement : ((ProgramNode) node).getStatements()) {
+                if (hasDeclaration(statement))
+                    return true;
+            }
+        } else if (node instanceof StatementNode) {
+            for (ProgramNode block : blocksOf((StatementNode) node)) {
+                if (hasDeclaration(block))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<ProgramNode> blocksOf(StatementNode statement) {
+        List<ProgramNode> blocks = new ArrayList<>();
+        if (statement instanceof ConditionalNode)
+            blocks.addAll(((ConditionalNode) statement).getStmt());
+        else if (statement instanceof LoopNode)
+            blocks.add(((LoopNode) statement).getStatement());
+        return blocks;
+    }
+
+    /*
+        Checks that the line only has the two words, like BEGIN IF. The
+        errors of the lines of the block are replaced, so a statement on the
+        same line as the BEGIN or END, before or after it, needs the block
+        around it to be parsed again.
+     */
+    private boolean isOnlyWords(int line, String first, String second) {
+        int start = lineStart(line);
+        int end = code.indexOf('\n', start);
+        String[] words = code.substring(start, end < 0 ? code.length() : end).trim().split("\\s+");
+        return words.length == 2 && words[0].equals(first) && words[1].equals(second);
+    }
+
+    // The line of the offset, from 1.
+    private int lineAt(int offset) {
+        return 1 + newlines(code, 0, offset);
+    }
+
+    // Where the line starts in the code, lines are counted from 1.
+    private int lineStart(int line) {
+        int start = 0;
+        for (int i = 1; i < line; i++)
+            start = code.indexOf('\n', start) + 1;
+        return start;
+    }
+
+    private static int newlines(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n')
+                count++;
+        }
+        return count;
+    }
+}
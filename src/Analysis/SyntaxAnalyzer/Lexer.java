@@ -1,256 +1,370 @@
-package Analysis.SyntaxAnalyzer;
-
-import Analysis.TokenDataTypes.TokenType;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class Lexer {
-    private final String code;
-    private int position; // Current position in the source code
-
-    public Lexer(String code) {
-        this.code = code;
-        this.position = 0;
-    }
-
-    private char current() {
-        return peek(0);
-    } // Returns the current character
-
-    private char lookAhead() {
-        return peek(1);
-    } // Returns the next character
-
-    private char peek(int offset) {
-        int index = position + offset;
-        if (index >= code.length())
-            return '\0';   // Returns null character if end of code is reached
-        return code.charAt(index); // Returns the character at the current position + offset
-    }
-
-    private void next(int offset) {
-        position += offset;
-    }
-
-    private void newLine() {
-        next(1);   // Moves the position forward by 1
-    }
-
-    public Token getToken() throws Exception {
-        // Main method to get the next token from the source code
-        while (position < code.length()) {
-            // Handles different types of tokens based on the current character
-            if (Character.isLetter(current()))
-                return getKeywordOrDataTypeOrIdentifierToken();
-
-            if (Character.isDigit(current()))
-                return getNumberLiteralToken();
-
-            switch (current()) {
-                case ' ':
-                case '\t':
-                    next(1);
-                    continue;
-                case '\n':
-                    Token newLineToken = new Token(TokenType.NEWLINE, "\n", null);
-                    newLine();
-                    return newLineToken;
-                case '_':
-                    return getKeywordOrDataTypeOrIdentifierToken();
-                case '\'':
-                    return getCharacterLiteralToken();
-                case '\"':
-                    return getBooleanOrStringLiteralToken();
-                case '.':
-                    return getNumberLiteralToken();
-                case '#':
-                    while (current() != '\n' && current() != '\0')
-                        next(1);
-                    continue;
-                case '*':
-                    next(1);
-                    return new Token(TokenType.STAR, "*", null);
-                case '/':
-                    next(1);
-                    return new Token(TokenType.SLASH, "/", null);
-                case '%':
-                    next(1);
-                    return new Token(TokenType.MODULO, "%", null);
-                case '+':
-                    next(1);
-                    return new Token(TokenType.PLUS, "+", null);
-                case '-':
-                    next(1);
-                    return new Token(TokenType.MINUS, "-", null);
-                case '>':
-                    if (lookAhead() == '=') {
-                        next(2);
-                        return new Token(TokenType.GREATEREQUAL, ">=", null);
-                    }
-                    next(1);
-                    return new Token(TokenType.GREATERTHAN, ">", null);
-                case '<':
-                    if (lookAhead() == '=') {
-                        next(2);
-                        return new Token(TokenType.LESSEQUAL, "<=", null);
-                    } else if (lookAhead() == '>') {
-                        next(2);
-                        return new Token(TokenType.NOTEQUAL, "<>", null);
-                    }
-                    next(1);
-                    return new Token(TokenType.LESSTHAN, "<", null);
-                case '=':
-                    if (lookAhead() == '=') {
-                        next(2);
-                        return new Token(TokenType.EQUALTO, "==", null);
-                    }
-                    next(1);
-                    return new Token(TokenType.EQUAL, "=", null);
-                case '$':
-                    next(1);
-                    return new Token(TokenType.DOLLAR, "$", null);
-                case '&':
-                    next(1);
-                    return new Token(TokenType.AMPERSAND, "&", null);
-                case '[':
-                    return getEscapeCodeToken();
-                case '(':
-                    next(1);
-                    return new Token(TokenType.OPENPARENTHESIS, "(", null);
-                case ')':
-                    next(1);
-                    return new Token(TokenType.CLOSEPARENTHESIS, ")", null);
-                case ',':
-                    next(1);
-                    return new Token(TokenType.COMMA, ",", null);
-                case ':':
-                    next(1);
-                    return new Token(TokenType.COLON, ":", null);
-                default:
-                    next(1);
-                    return new Token(TokenType.ERROR, Character.toString(current()), "Unknown symbol");
-            }
-        }
-        return new Token(TokenType.ENDOFFILE, "\0", null);
-    }
-    
-    private Token getKeywordOrDataTypeOrIdentifierToken() throws Exception {
-        // Handles identifiers, keywords, and data types
-        int start = position;
-
-        while (Character.isLetter(current()) || current() == '_' || Character.isDigit(current()))
-            next(1);
-    
-        int length = position - start;
-        String text = code.substring(start, start + length);
-    
-        return Grammar.getWordToken(text);
-    }
-    
-    private Token getCharacterLiteralToken() {
-        // Handles character literals
-        int start = position;
-
-        next(1);
-        while (current() != '\'' && !Character.isWhitespace(lookAhead()))
-            next(1);
-        next(1);
-    
-        String charPattern = "^'(?:\\[\\[\\]\\&\\$#']\\])'|'[^\\[\\]\\&\\$#']'$";
-        Pattern charRegex = Pattern.compile(charPattern);
-    
-        int length = position - start;
-        String text = code.substring(start, start + length);
-        Object value = null;
-    
-        Matcher matcher = charRegex.matcher(text);
-        if (matcher.matches()) {
-            value = text.charAt(text.length() / 2);
-            return new Token(TokenType.CHARLITERAL, text, value);
-        }
-        return new Token(TokenType.ERROR, text, "Lexical Error: Invalid CHAR literal '" + text + "'.");
-    }
-    private Token getBooleanOrStringLiteralToken() {
-        // Handles boolean and string literals
-        int start = position;
-
-        next(1);
-        while (current() != '\"' && !Character.isWhitespace(lookAhead()))
-            next(1);
-        next(1);
-    
-        String boolPattern = "^\"TRUE\"$|^\"FALSE\"$";
-        String stringPattern = "^\"[^\"]*\"$";
-        Pattern boolRegex = Pattern.compile(boolPattern);
-        Pattern stringRegex = Pattern.compile(stringPattern);
-    
-        int length = position - start;
-        String text = code.substring(start, start + length);
-    
-        Matcher boolMatcher = boolRegex.matcher(text);
-        Matcher stringMatcher = stringRegex.matcher(text);
-    
-        if (boolMatcher.matches())
-            return new Token(TokenType.BOOLLITERAL, text, text.equals("\"TRUE\""));
-        else if (stringMatcher.matches())
-            return new Token(TokenType.STRINGLITERAL, text, text.substring(1, text.length() - 1));
-        else {
-            String errorMessage = text.contains("TRUE") || text.contains("FALSE") ? "Lexical Error: Invalid BOOL literal '" + text + "'" : "Lexical Error: Invalid STRING literal '" + text + "'";
-            return new Token(TokenType.ERROR, text, errorMessage);
-        }
-    }
-      
-    private Token getNumberLiteralToken() {
-        // Handles number literals (integer and float)
-        boolean isFloat = current() == '.';
-    
-        int start = position;
-
-        while (Character.isDigit(current()) || current() == '.')
-            next(1);
-    
-        int length = position - start;
-        String text = code.substring(start, start + length);
-    
-        String floatPattern = "\\d*\\.\\d+";
-        String intPattern = "\\d+";
-        Pattern floatRegex = Pattern.compile(floatPattern);
-        Pattern intRegex = Pattern.compile(intPattern);
-    
-        Object val = null;
-    
-        Matcher floatMatcher = floatRegex.matcher(text);
-        Matcher intMatcher = intRegex.matcher(text);
-    
-        if (intMatcher.matches()) {
-            val = Integer.parseInt(text);
-            return new Token(TokenType.INTLITERAL, text, val);
-        } else if (floatMatcher.matches()) {
-            val = Float.parseFloat(text);
-            return new Token(TokenType.FLOATLITERAL, text, val);
-        }
-        return new Token(TokenType.ERROR, text, "Lexical Error: Invalid number literal '" + text + "'.");
-    }
-    private Token getEscapeCodeToken() {
-        // Handles escape codes
-        int start = position;
-
-        while (!Character.isWhitespace(current()))
-            next(1);
-
-        int length = position - start;
-        String text = code.substring(start, start + length);
-        Object val = null;
-
-        String escapeSequencePattern = "^\\[[\\]\\[\\&\\$\\#]\\]$";
-//        String escapeSequencePattern = "\\[\\[\\]\\&\\$#\\]\\]";
-        Pattern escapeRegex = Pattern.compile(escapeSequencePattern);
-
-        Matcher matcher = escapeRegex.matcher(text);
-        if (matcher.matches()) {
-            val = text.charAt(1);
-            return new Token(TokenType.ESCAPE, text, val);
-        }
-        return new Token(TokenType.ERROR, text, "Lexical Error: Invalid escape sequence '" + text + "'.");
-    }
-}
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.TokenDataTypes.TokenType;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+public class Lexer implements TokenStream {
+    private final SourceBuffer code;
+    private int position; // Current position in the source code
+    private int line; // Current line, counted from 1
+    private int lineStart; // Position where the current line starts
+    // Where the last token returned by getToken() starts
+    private int tokenStart;
+    private int tokenLine;
+    private int tokenColumn;
+    private final SymbolInterner symbols; // Gives each identifier its symbol number
+
+    /*
+        The code can be a String or a CharBuffer that is already in memory,
+        a Reader, or a region of a file that is memory mapped. Readers and
+        files are read in fixed size windows so the whole program never has
+        to be in memory at once. Line endings can be "\n" or "\r\n", every
+        '\r' is dropped.
+     */
+    public Lexer(CharSequence code) {
+        this(code, new SymbolInterner());
+    }
+
+    public Lexer(CharSequence code, SymbolInterner symbols) {
+        this(SourceBuffer.of(code), symbols);
+    }
+
+    public Lexer(Reader reader) {
+        this(SourceBuffer.of(reader), new SymbolInterner());
+    }
+
+    public Lexer(FileChannel channel, long position, long size, Charset charset) throws IOException {
+        this(SourceBuffer.of(new MappedSourceReader(channel, position, size, charset)), new SymbolInterner());
+    }
+
+    Lexer(SourceBuffer code, SymbolInterner symbols) {
+        this(code, symbols, 0, 1);
+    }
+
+    // Starts reading at position, which has to be the start of the line.
+    Lexer(SourceBuffer code, SymbolInterner symbols, int position, int line) {
+        this.code = code;
+        this.position = position;
+        this.line = line;
+        this.lineStart = position;
+        this.symbols = symbols;
+    }
+
+    // A new Lexer on the same code and symbols, only for code that is all in memory.
+    Lexer startingAt(int position, int line) {
+        return new Lexer(code, symbols, position, line);
+    }
+
+    @Override
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    @Override
+    public int getLine() {
+        return tokenLine;
+    }
+
+    @Override
+    public int getColumn() {
+        return tokenColumn;
+    }
+
+    // Position of the first character of the last token
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    // Number of characters of the last token
+    public int getTokenLength() {
+        return position - tokenStart;
+    }
+
+    /*
+        Reads all of the tokens at once into a TokenBuffer, including the
+        ENDOFFILE token at the end. A word that cannot be read is kept as
+        an ERROR token, see getTokenOrError().
+     */
+    public TokenBuffer tokenize() {
+        TokenBuffer tokens = new TokenBuffer(symbols);
+        Token token;
+        do {
+            token = getTokenOrError();
+            tokens.add(token, tokenStart, getTokenLength(), tokenLine, tokenColumn);
+        } while (token.getTokenType() != TokenType.ENDOFFILE);
+        tokens.trimToSize();
+        return tokens;
+    }
+
+    private char current() {
+        return peek(0);
+    } // Returns the current character
+
+    private char lookAhead() {
+        return peek(1);
+    } // Returns the next character
+
+    private char peek(int offset) {
+        // Returns the character at the current position + offset, or the null character if end of code is reached
+        return code.charAt(position + offset);
+    }
+
+    private void next(int offset) {
+        position += offset;
+    }
+
+    private void newLine() {
+        next(1);   // Moves the position forward by 1
+        line++;
+        lineStart = position;
+    }
+
+    @Override
+    public Token getToken() throws Exception {
+        Token token = readToken();
+        // Shared tokens like "+" keep no position, getLine() and getColumn() have it
+        if (!token.isShared())
+            token.setPosition(tokenLine, tokenColumn);
+        return token;
+    }
+
+    /*
+        Like getToken(), but a word the Lexer cannot read, like "int" or a
+        number that is too big, becomes an ERROR token with the message of
+        the error, the same token the Parser makes of it. The reading goes
+        on after the word, so a TokenBuffer can hold code with errors in it.
+     */
+    Token getTokenOrError() {
+        try {
+            return getToken();
+        } catch (Exception e) {
+            Token error = new Token(TokenType.ERROR, "", e.getMessage());
+            error.setPosition(tokenLine, tokenColumn);
+            return error;
+        }
+    }
+
+    private Token readToken() throws Exception {
+        // Main method to get the next token from the source code
+        while (true) {
+            // Remember where the token starts
+            tokenStart = position;
+            tokenLine = line;
+            tokenColumn = position - lineStart + 1;
+            if (code.isEnd(position))
+                break;
+            // Nothing before the start of this token is read again
+            code.release(position);
+
+            // Handles different types of tokens based on the current character
+            if (CharacterClass.isLetter(current()))
+                return getKeywordOrDataTypeOrIdentifierToken();
+
+            if (CharacterClass.isDigit(current()))
+                return getNumberLiteralToken();
+
+            switch (current()) {
+                case ' ':
+                case '\t':
+                    position = code.skipBlanks(position);
+                    continue;
+                case '\n':
+                    newLine();
+                    return Token.of(TokenType.NEWLINE);
+                case '_':
+                    return getKeywordOrDataTypeOrIdentifierToken();
+                case '\'':
+                    return getCharacterLiteralToken();
+                case '\"':
+                    return getBooleanOrStringLiteralToken();
+                case '.':
+                    return getNumberLiteralToken();
+                case '#':
+                    position = code.skipComment(position);
+                    continue;
+                case '*':
+                    next(1);
+                    return Token.of(TokenType.STAR);
+                case '/':
+                    next(1);
+                    return Token.of(TokenType.SLASH);
+                case '%':
+                    next(1);
+                    return Token.of(TokenType.MODULO);
+                case '+':
+                    next(1);
+                    return Token.of(TokenType.PLUS);
+                case '-':
+                    next(1);
+                    return Token.of(TokenType.MINUS);
+                case '>':
+                    if (lookAhead() == '=') {
+                        next(2);
+                        return Token.of(TokenType.GREATEREQUAL);
+                    }
+                    next(1);
+                    return Token.of(TokenType.GREATERTHAN);
+                case '<':
+                    if (lookAhead() == '=') {
+                        next(2);
+                        return Token.of(TokenType.LESSEQUAL);
+                    } else if (lookAhead() == '>') {
+                        next(2);
+                        return Token.of(TokenType.NOTEQUAL);
+                    }
+                    next(1);
+                    return Token.of(TokenType.LESSTHAN);
+                case '=':
+                    if (lookAhead() == '=') {
+                        next(2);
+                        return Token.of(TokenType.EQUALTO);
+                    }
+                    next(1);
+                    return Token.of(TokenType.EQUAL);
+                case '$':
+                    next(1);
+                    return Token.of(TokenType.DOLLAR);
+                case '&':
+                    next(1);
+                    return Token.of(TokenType.AMPERSAND);
+                case '[':
+                    return getEscapeCodeToken();
+                case '(':
+                    next(1);
+                    return Token.of(TokenType.OPENPARENTHESIS);
+                case ')':
+                    next(1);
+                    return Token.of(TokenType.CLOSEPARENTHESIS);
+                case ',':
+                    next(1);
+                    return Token.of(TokenType.COMMA);
+                case ':':
+                    next(1);
+                    return Token.of(TokenType.COLON);
+                default:
+                    next(1);
+                    return new Token(TokenType.ERROR, Character.toString(current()), "Unknown symbol");
+            }
+        }
+        return Token.of(TokenType.ENDOFFILE);
+    }
+    
+    private Token getKeywordOrDataTypeOrIdentifierToken() throws Exception {
+        // Handles identifiers, keywords, and data types
+        int start = position;
+
+        while (CharacterClass.isIdentifierPart(current()))
+            next(1);
+
+        return Grammar.getWordToken(code, start, position, symbols);
+    }
+    
+    private Token getCharacterLiteralToken() {
+        // Handles character literals
+        int start = position;
+
+        next(1);
+        while (!code.isEnd(position) && current() != '\'' && !CharacterClass.isWhitespace(lookAhead()))
+            next(1);
+        if (!code.isEnd(position))
+            next(1);
+
+        /*
+            A valid CHAR literal is exactly one character between two
+            apostrophes, and that character cannot be one of the
+            characters that need an escape code ([ ] & $ # ').
+         */
+        String text = code.text(start, position);
+        if (text.length() == 3 && text.charAt(2) == '\''
+                && !CharacterClass.is(text.charAt(1), CharacterClass.CHAR_RESERVED))
+            return new Token(TokenType.CHARLITERAL, text, text.charAt(1));
+        return new Token(TokenType.ERROR, text, "Lexical Error: Invalid CHAR literal '" + text + "'.");
+    }
+    private Token getBooleanOrStringLiteralToken() {
+        // Handles boolean and string literals
+        int start = position;
+
+        next(1);
+        while (!code.isEnd(position) && current() != '\"' && !CharacterClass.isWhitespace(lookAhead()))
+            next(1);
+        if (!code.isEnd(position))
+            next(1);
+
+        String text = code.text(start, position);
+
+        /*
+            The loop above stops at the first closing quote, so the
+            text is a valid STRING as long as it ends with one. "TRUE"
+            and "FALSE" are checked first since they are BOOL literals.
+         */
+        if (text.equals("\"TRUE\"") || text.equals("\"FALSE\""))
+            return new Token(TokenType.BOOLLITERAL, text, text.equals("\"TRUE\""));
+        else if (text.length() >= 2 && text.charAt(text.length() - 1) == '\"')
+            return new Token(TokenType.STRINGLITERAL, text, text.substring(1, text.length() - 1));
+        else {
+            String errorMessage = text.contains("TRUE") || text.contains("FALSE") ? "Lexical Error: Invalid BOOL literal '" + text + "'" : "Lexical Error: Invalid STRING literal '" + text + "'";
+            return new Token(TokenType.ERROR, text, errorMessage);
+        }
+    }
+      
+    private Token getNumberLiteralToken() {
+        // Handles number literals (integer and float)
+        int start = position;
+
+        /*
+            Classifies the literal while reading it. It is an INT when it
+            only has digits and a FLOAT when it has exactly one '.' that is
+            followed by at least one digit. The INT value is computed here
+            so it does not have to be parsed again.
+         */
+        int dots = 0;
+        int digitsAfterDot = 0;
+        boolean ascii = true;
+        long intValue = 0;
+
+        while (CharacterClass.isDigit(current()) || current() == '.') {
+            char c = current();
+            if (c == '.') {
+                dots++;
+                digitsAfterDot = 0;
+            } else if (!CharacterClass.isAsciiDigit(c)) {
+                ascii = false;
+            } else {
+                digitsAfterDot++;
+                if (intValue <= Integer.MAX_VALUE)
+                    intValue = intValue * 10 + (c - '0');
+            }
+            next(1);
+        }
+
+        String text = code.text(start, position);
+
+        if (ascii && dots == 0) {
+            // Out of range values still fail the same way as before
+            if (intValue > Integer.MAX_VALUE)
+                return new Token(TokenType.INTLITERAL, text, Integer.parseInt(text));
+            return new Token(TokenType.INTLITERAL, text, (int) intValue);
+        } else if (ascii && dots == 1 && digitsAfterDot > 0) {
+            return new Token(TokenType.FLOATLITERAL, text, Float.parseFloat(text));
+        }
+        return new Token(TokenType.ERROR, text, "Lexical Error: Invalid number literal '" + text + "'.");
+    }
+    private Token getEscapeCodeToken() {
+        // Handles escape codes
+        int start = position;
+
+        while (!code.isEnd(position) && !CharacterClass.isWhitespace(current()))
+            next(1);
+
+        // An escape code is a single escapable character inside brackets like [#]
+        String text = code.text(start, position);
+        if (text.length() == 3 && text.charAt(2) == ']'
+                && CharacterClass.is(text.charAt(1), CharacterClass.ESCAPABLE))
+            return new Token(TokenType.ESCAPE, text, text.charAt(1));
+        return new Token(TokenType.ERROR, text, "Lexical Error: Invalid escape sequence '" + text + "'.");
+    }
+}
@@ -0,0 +1,71 @@
+package Analysis.SyntaxAnalyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/*
+    Reads a region of a file through memory mapping and decodes it into
+    characters. The region is mapped a piece at a time (MAP_SIZE bytes),
+    so even a very big file does not need to be mapped all at once.
+    A multi-byte character that is cut at the end of a piece is decoded
+    again from the start of the next piece.
+ */
+class MappedSourceReader extends Reader {
+    static final long MAP_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long end;
+    private final CharsetDecoder decoder;
+    private long mapStart;
+    private ByteBuffer bytes;
+    private boolean finished;
+
+    MappedSourceReader(FileChannel channel, long position, long size, Charset charset) throws IOException {
+        this.channel = channel;
+        this.end = position + size;
+        this.decoder = charset.newDecoder();
+        map(position);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        while (out.position() == offset && !finished) {
+            boolean last = mapStart + bytes.limit() == end;
+            CoderResult result = decoder.decode(bytes, out, last);
+            if (result.isError())
+                result.throwException();
+            if (result.isOverflow())
+                break;
+
+            // Everything mapped so far is decoded
+            if (last) {
+                decoder.flush(out);
+                finished = true;
+            } else
+                map(mapStart + bytes.position());
+        }
+
+        int read = out.position() - offset;
+        return read == 0 && finished ? -1 : read;
+    }
+
+    private void map(long start) throws IOException {
+        mapStart = start;
+        bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAP_SIZE, end - start));
+    }
+
+    @Override
+    public void close() {
+        // The channel belongs to whoever created the Lexer
+    }
+}
@@ -0,0 +1,131 @@
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*
+    Reads the tokens of a big program on several threads. The code is cut
+    into chunks at new lines, each chunk is read by its own Lexer on the
+    ForkJoinPool and the chunks are put back together in order. The
+    tokens, positions and symbols are the same as Lexer.tokenize() gives.
+    A chunk can start after a '\n' as long as the '\n' is a NEWLINE token
+    of its own. That is always the case except right after a quote, since
+    a CHAR or STRING literal like '<new line>x takes the '\n' in. So a
+    chunk never starts after a quote and a '\n'.
+    Small programs are read by one Lexer, splitting them costs more than
+    it saves.
+    A word that cannot be read is kept as an ERROR token with its position,
+    like Lexer.tokenize() does, so both report the same errors.
+ */
+public class ParallelLexer {
+    static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    public ParallelLexer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelLexer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public TokenBuffer tokenize(CharSequence code) throws Exception {
+        return tokenize(code, new SymbolInterner());
+    }
+
+    public TokenBuffer tokenize(CharSequence code, SymbolInterner symbols) throws Exception {
+        // The chunks need the positions of the code without '\r', like SourceBuffer gives
+        SourceBuffer source = SourceBuffer.of(withoutCarriageReturns(code));
+        int[] bounds = split(source, pool.getParallelism());
+
+        List<Callable<TokenBuffer>> chunks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            int start = bounds[i];
+            int end = i + 2 == bounds.length ? Integer.MAX_VALUE : bounds[i + 1];
+            chunks.add(() -> tokenize(source, start, end));
+        }
+
+        // Put the chunks together in order, the lines of a chunk count on from the NEWLINE tokens before it
+        TokenBuffer tokens = new TokenBuffer(symbols);
+        for (Future<TokenBuffer> chunk : pool.invokeAll(chunks)) {
+            TokenBuffer chunkTokens;
+            try {
+                chunkTokens = chunk.get();
+            } catch (ExecutionException e) {
+                // The errors in the code are ERROR tokens, only a bug or an Error like OutOfMemoryError gets here
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw e;
+            }
+            tokens.append(chunkTokens);
+        }
+        tokens.trimToSize();
+        return tokens;
+    }
+
+    // Reads the tokens that start in [start, end), the chunk starts at line 1 and has its own symbols.
+    private static TokenBuffer tokenize(SourceBuffer source, int start, int end) {
+        Lexer lexer = new Lexer(source, new SymbolInterner(), start, 1);
+        TokenBuffer tokens = new TokenBuffer(lexer.getSymbols());
+        while (true) {
+            Token token = lexer.getTokenOrError();
+            if (lexer.getTokenStart() >= end)
+                break;
+            tokens.add(token, lexer.getTokenStart(), lexer.getTokenLength(), lexer.getLine(), lexer.getColumn());
+            if (token.getTokenType() == TokenType.ENDOFFILE)
+                break;
+        }
+        return tokens;
+    }
+
+    /*
+        Returns where the chunks start, with the length of the code at the
+        end. There are about 4 chunks per thread so a slow chunk does not
+        keep the other threads waiting.
+     */
+    private static int[] split(SourceBuffer source, int parallelism) {
+        int length = source.length();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (parallelism * 4) + 1);
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int position = chunkSize;
+        while (position < length) {
+            // Move forward to the start of a line that does not follow a quote
+            while (position < length && !(source.charAt(position - 1) == '\n' && !isQuote(source.charAt(position - 2))))
+                position++;
+            if (position >= length)
+                break;
+            bounds.add(position);
+            position += chunkSize;
+        }
+        bounds.add(length);
+
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '\'' || c == '\"';
+    }
+
+    // Drops every '\r', the same way SourceBuffer does.
+    private static CharSequence withoutCarriageReturns(CharSequence code) {
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) == '\r')
+                return code.toString().replace("\r", "");
+        }
+        return code;
+    }
+}
@@ -1,484 +1,1031 @@
-package Analysis.SyntaxAnalyzer;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import Analysis.ParseTree.*;
-import Analysis.ParseTree.Statement.*;
-import Analysis.ParseTree.Expression.*;
-import Analysis.ParseTree.Expression.ExpressionNode;
-import Analysis.TokenDataTypes.*;
-
-public class Parser {
-    private final Lexer lexer;
-    private Token currentToken;
-    private final List<String> variableNames;
-    private boolean canDeclare;
-
-    public Parser(Lexer lexer) throws Exception {
-        this.lexer = lexer;
-        this.currentToken = lexer.getToken();
-        this.variableNames = new ArrayList<>();
-        this.canDeclare = true;
-    }
-
-    public ProgramNode parseProgram(TokenType tokenType) throws Exception {
-        // Skip any leading newlines to find the start of the program
-        while (matchToken(TokenType.NEWLINE))
-            consumeToken(TokenType.NEWLINE);
-
-        // Consume the BEGIN token and the tokenType token to mark the start of the program
-        consumeToken(TokenType.BEGIN);
-        consumeToken(tokenType);
-
-        // Skip any newlines after the program start to find the first statement
-        while (matchToken(TokenType.NEWLINE))
-            consumeToken(TokenType.NEWLINE);
-
-        // Parse all statements until the END token is encountered
-        List<StatementNode> statements = parseStatements();
-
-        // Skip any newlines before the program end to find the END token
-        while (matchToken(TokenType.NEWLINE))
-            consumeToken(TokenType.NEWLINE);
-
-        // Consume the END token and the tokenType token to mark the end of the program
-        consumeToken(TokenType.END);
-        consumeToken(tokenType);
-
-        // Skip any newlines after the program end to find the end of the file or code block
-        while (matchToken(TokenType.NEWLINE))
-            consumeToken(TokenType.NEWLINE);
-
-        // If the tokenType is CODE, consume the ENDOFFILE token to mark the end of the file
-        if (tokenType == TokenType.CODE)
-            consumeToken(TokenType.ENDOFFILE);
-
-        // Return a new ProgramNode containing all parsed statements
-        return new ProgramNode(statements);
-    }
-
-
-    // This function parses statements in the code and returns a list representing them as abstract syntax tree (AST) nodes.
-    private List<StatementNode> parseStatements() throws Exception {
-
-        // Create an empty list to store the parsed statements (represented as AST nodes)
-        List<StatementNode> statementList = new ArrayList<>();
-
-        // Loop continues as long as the current token is not of type END (indicating the end of the program)
-        while (!matchToken(TokenType.END)) {
-
-            // Check for different data type keywords (int, float, char, bool)
-            if (matchToken(TokenType.INT) || matchToken(TokenType.FLOAT) ||
-                    matchToken(TokenType.CHAR) || matchToken(TokenType.BOOL)) {
-
-                // If variable declarations are allowed at this point (based on canDeclare flag)
-                if (canDeclare) {
-                    // Parse the variable declaration statement and add it to the list
-                    statementList.add(parseVariableDeclarationStatement());
-                } else {
-                    // Throw an exception if variable declaration is not allowed here based on current token's line and column
-                    throw new Exception("Invalid syntax.");
-                }
-            } else if (matchToken(TokenType.IDENTIFIER)) {
-                // Set canDeclare to false (since identifiers are typically used in assignments)
-                canDeclare = false;
-                // Parse the assignment statement and add it to the list
-                statementList.add(parseAssignmentStatement());
-            } else if (matchToken(TokenType.DISPLAY)) {
-                // Set canDeclare to false (since display statements don't allow variable declarations before)
-                canDeclare = false;
-                // Parse the display statement and add it to the list
-                statementList.add(parseDisplayStatement());
-            } else if (matchToken(TokenType.SCAN)) {
-                // Set canDeclare to false (similar to display statements)
-                canDeclare = false;
-                // Parse the scan statement and add it to the list
-                statementList.add(parseScanStatement());
-            } else if (matchToken(TokenType.IF)) {
-                // Set canDeclare to false (since if statements don't allow variable declarations before)
-                canDeclare = false;
-                // Parse the if statement and add it to the list
-                statementList.add(parseIfStatement());
-            } else if (matchToken(TokenType.WHILE)) {
-                // Set canDeclare to false (similar to if statements)
-                canDeclare = false;
-                // Parse the while statement and add it to the list
-                statementList.add(parseWhileStatement());
-            } else if (matchToken(TokenType.ENDOFFILE)) {
-                // Throw an exception if the end of file is reached but a missing "End" statement is detected (based on current token's line and column)
-                throw new Exception("Program should end with 'END CODE' line.");
-            } else {
-                // If none of the expected tokens matched, throw an exception with the current token's information (line, column, and code)
-                throw new Exception("Invalid syntax \"" + currentToken.getCode() + "\".");
-            }
-
-            // Keep consuming newline tokens (ignoring empty lines) after a statement is parsed
-            while (matchToken(TokenType.NEWLINE))
-                consumeToken(TokenType.NEWLINE);
-        }
-        // Return the list containing the parsed statements as AST nodes
-        return statementList;
-    }
-
-    private StatementNode parseVariableDeclarationStatement() {
-        try {
-            // Get the data type token and consume it
-            Token dataTypeToken = currentToken;
-            consumeToken(dataTypeToken.getTokenType());
-        
-            // Map to store variables with their expressions
-            Map<String, ExpressionNode> variables = new HashMap<>();
-        
-            // Get the first variable name and expression
-            Pair<String, ExpressionNode> variable = getVariable();
-            variables.put(variable.getFirst(), variable.getSecond());
-            variableNames.add(variable.getFirst());
-        
-            // Process remaining variables separated by commas
-            while (matchToken(TokenType.COMMA)) {
-                consumeToken(TokenType.COMMA);
-                variable = getVariable();
-                variables.put(variable.getFirst(), variable.getSecond());
-                variableNames.add(variable.getFirst());
-            }
-        
-            // Create and return the VariableDeclarationNode
-            return new VariableDeclarationNode(dataTypeToken, variables);
-        } catch (Exception e) {
-            // Handle the exception
-            System.err.println(e.getMessage());// Example of printing the stack trace, replace with appropriate handling
-            // You may also return a default value or throw a different exception if needed
-            return null; // Or throw new RuntimeException("Error parsing variable declaration", e);
-        }
-    }
-
-    private StatementNode parseAssignmentStatement() throws Exception {
-        List<String> identifiers = new ArrayList<>();
-        List<Token> equals = new ArrayList<>();
-
-        Token identifierToken = currentToken;
-        consumeToken(TokenType.IDENTIFIER);
-        Token equalToken = currentToken;
-        consumeToken(TokenType.EQUAL);
-
-        identifiers.add(identifierToken.getCode());
-        equals.add(equalToken);
-
-        ExpressionNode expressionValue = parseExpression();
-
-        while (matchToken(TokenType.EQUAL)) {
-            IdentifierNode idenExpr = (IdentifierNode) expressionValue;
-            equalToken = currentToken;
-            consumeToken(TokenType.EQUAL);
-
-            identifiers.add(idenExpr.getName());
-            equals.add(equalToken);
-
-            expressionValue = parseExpression();
-        }
-
-        return new AssignmentNode(identifiers, equals, expressionValue);
-    }
-
-private StatementNode parseDisplayStatement() throws Exception {
-    // Read and remove the current token
-    Token displayToken = currentToken;
-    consumeToken(TokenType.DISPLAY);
-    consumeToken(TokenType.COLON);
-
-    // List of expressions
-    List<ExpressionNode> expressions = new ArrayList<>();
-
-    // If display starts with '$'
-    // ex. DISPLAY: $ ....
-    if (matchToken(TokenType.DOLLAR)) {
-        expressions.add(new LiteralNode(currentToken, "\n"));
-        consumeToken(TokenType.DOLLAR);
-
-        // While token is & iterate until no & token.
-        while (matchToken(TokenType.AMPERSAND)) {
-            consumeToken(TokenType.AMPERSAND);
-
-            // If newline is next to & throw an error
-            if (matchToken(TokenType.NEWLINE))
-                throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
-
-            // If $ is next to &, create a new Literal Expression with
-            // the value \n
-            if (matchToken(TokenType.DOLLAR)) {
-                expressions.add(new LiteralNode(currentToken, "\n"));
-                consumeToken(TokenType.DOLLAR);
-            }
-            // Else get the expression
-            else
-                expressions.add(parseExpression());
-        }
-
-        // If the token is not newline then throw an error
-        if (!matchToken(TokenType.NEWLINE))
-            throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + TokenType.NEWLINE + "'.");
-
-        // Create the Display Statement
-        return new DisplayNode(displayToken, expressions);
-    }
-    // If display starts with expression
-    // ex. DISPLAY: 6 ....
-    else if (matchToken(TokenType.ESCAPE) || matchToken(TokenType.IDENTIFIER) || matchToken(TokenType.INTLITERAL) || matchToken(TokenType.FLOATLITERAL)
-            || matchToken(TokenType.CHARLITERAL) || matchToken(TokenType.BOOLLITERAL) || matchToken(TokenType.STRINGLITERAL)
-            || matchToken(TokenType.MINUS) || matchToken(TokenType.PLUS) || matchToken(TokenType.NOT)) {
-        expressions.add(parseExpression());
-
-        // While token is & iterate until no & token.
-        while (matchToken(TokenType.AMPERSAND)) {
-            consumeToken(TokenType.AMPERSAND);
-
-            // If newline is next to & throw an error
-            if (matchToken(TokenType.NEWLINE))
-                throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
-
-            // If $ is next to &, create a new Literal Expression with
-            // the value \n
-            if (matchToken(TokenType.DOLLAR)) {
-                expressions.add(new LiteralNode(currentToken, "\n"));
-                consumeToken(TokenType.DOLLAR);
-            }
-            // Else get the expression
-            else
-                expressions.add(parseExpression());
-        }
-
-        // If the token is not newline then throw an error
-        if (!matchToken(TokenType.NEWLINE))
-            throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + TokenType.NEWLINE + "'.");
-
-        // Create the Display Statement
-        return new DisplayNode(displayToken, expressions);
-    }
-    // If display starts with '&'
-    // ex. DISPLAY: & ....
-    else
-    throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
-}
-
-    private StatementNode parseScanStatement() throws Exception {
-        Token scanToken = currentToken;
-        consumeToken(TokenType.SCAN);
-        consumeToken(TokenType.COLON);
-
-        List<String> identifiers = new ArrayList<>();
-        identifiers.add(currentToken.getCode());
-        consumeToken(TokenType.IDENTIFIER);
-
-        while (matchToken(TokenType.COMMA)) {
-            consumeToken(TokenType.COMMA);
-            identifiers.add(currentToken.getCode());
-            consumeToken(TokenType.IDENTIFIER);
-        }
-
-        return new ScanNode(scanToken, identifiers);
-    }
-
-    private StatementNode parseIfStatement() throws Exception {
-        boolean isElse = false;
-        List<ExpressionNode> conditions = new ArrayList<>();
-        List<ProgramNode> statementBlocks = new ArrayList<>();
-        List<Token> tokens = new ArrayList<>();
-
-        tokens.add(currentToken);
-        consumeToken(TokenType.IF);
-        conditions.add(parseConditionExpression());
-        statementBlocks.add(parseProgram(TokenType.IF));
-
-        while (matchToken(TokenType.ELSE)) {
-            if (isElse)
-                throw new Exception("Invalid syntax: " + currentToken.getTokenType());
-
-            tokens.add(currentToken);
-            consumeToken(TokenType.ELSE);
-
-            if (matchToken(TokenType.IF)) {
-                consumeToken(TokenType.IF);
-                conditions.add(parseConditionExpression());
-            } else {
-                conditions.add(null);
-                isElse = true;
-            }
-
-            statementBlocks.add(parseProgram(TokenType.IF));
-        }
-
-        return new ConditionalNode(tokens, conditions, statementBlocks);
-    }
-
-    private StatementNode parseWhileStatement() throws Exception {
-        Token whileToken = currentToken;
-        consumeToken(TokenType.WHILE);
-
-        ExpressionNode condition = parseConditionExpression();
-        ProgramNode statementBlock = parseProgram(TokenType.WHILE);
-
-        return new LoopNode(whileToken, condition, statementBlock);
-    }
-
-    private ExpressionNode parseExpression() throws Exception {
-        ExpressionNode expression;
-
-        if (matchToken(TokenType.ESCAPE)) {
-            Token escapeToken = currentToken;
-            consumeToken(TokenType.ESCAPE);
-            return new LiteralNode(escapeToken, escapeToken.getValue());
-        } else if (matchToken(TokenType.OPENPARENTHESIS)) {
-            expression = parseParenthesisExpression();
-            return expression;
-        } else if (matchToken(TokenType.PLUS) || matchToken(TokenType.MINUS) || matchToken(TokenType.NOT)) {
-            expression = parseUnaryExpression();
-            return expression;
-        } else if (matchToken(TokenType.IDENTIFIER) || matchToken(TokenType.INTLITERAL) || matchToken(TokenType.FLOATLITERAL)
-                || matchToken(TokenType.CHARLITERAL) || matchToken(TokenType.BOOLLITERAL) || matchToken(TokenType.STRINGLITERAL)) {
-            expression = parseBinaryExpression(null);
-            return expression;
-        } else
-            throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
-    }
-
-    private ExpressionNode parseParenthesisExpression() throws Exception {
-        Token openParenthesis = currentToken;
-        consumeToken(TokenType.OPENPARENTHESIS);
-
-        ExpressionNode expression = parseExpression();
-
-        Token closeParenthesis = currentToken;
-        consumeToken(TokenType.CLOSEPARENTHESIS);
-
-        int precedence = Grammar.getBinaryPrecedence(currentToken.getTokenType());
-
-        if (precedence > 0) {
-            ParenthesisNode parenExpr = new ParenthesisNode(openParenthesis, expression, closeParenthesis);
-            return parseBinaryExpression(parenExpr);
-        }
-
-        return new ParenthesisNode(openParenthesis, expression, closeParenthesis);
-    }
-
-    private ExpressionNode parseConditionExpression() throws Exception {
-        Token openParenthesis = currentToken;
-        consumeToken(TokenType.OPENPARENTHESIS);
-
-        ExpressionNode expression = parseExpression();
-
-        Token closeParenthesis = currentToken;
-        consumeToken(TokenType.CLOSEPARENTHESIS);
-
-        return new ParenthesisNode(openParenthesis, expression, closeParenthesis);
-    }
-
-    private ExpressionNode parseUnaryExpression() throws Exception {
-        Token unaryToken = currentToken;
-        consumeToken(unaryToken.getTokenType());
-
-        ExpressionNode expression;
-        if (matchToken(TokenType.OPENPARENTHESIS))
-            expression = parseExpression();
-        else
-            expression = parseTerm();
-
-        UnaryNode unaryExpr = new UnaryNode(unaryToken, expression);
-
-        if (Grammar.getBinaryPrecedence(currentToken.getTokenType()) > 0)
-            return parseBinaryExpression(unaryExpr);
-
-        return unaryExpr;
-    }
-
-    private ExpressionNode parseBinaryExpression(ExpressionNode prevLeft) throws Exception {
-        ExpressionNode left = prevLeft != null ? prevLeft : parseTerm();
-
-        int precedence = Grammar.getBinaryPrecedence(currentToken.getTokenType());
-
-        while (precedence > 0) {
-            Token binaryToken = currentToken;
-            consumeToken(binaryToken.getTokenType());
-
-            ExpressionNode right = parseTerm();
-            int nextPrecedence = Grammar.getBinaryPrecedence(currentToken.getTokenType());
-
-            if (nextPrecedence > precedence)
-                right = parseBinaryExpression(right);
-
-            left = new BinNode(left, binaryToken, right);
-            precedence = Grammar.getBinaryPrecedence(currentToken.getTokenType());
-        }
-
-        return left;
-    }
-
-    private ExpressionNode parseTerm() throws Exception {
-        if (matchToken(TokenType.IDENTIFIER)) {
-            Token identifierToken = currentToken;
-            consumeToken(TokenType.IDENTIFIER);
-            return new IdentifierNode(identifierToken, identifierToken.getCode());
-        } else if (matchToken(TokenType.INTLITERAL) || matchToken(TokenType.FLOATLITERAL) || matchToken(TokenType.CHARLITERAL)
-                || matchToken(TokenType.BOOLLITERAL) || matchToken(TokenType.STRINGLITERAL)) {
-            Token literalToken = currentToken;
-            consumeToken(literalToken.getTokenType());
-            return new LiteralNode(literalToken, literalToken.getValue());
-        } else
-            return parseExpression();
-    }
-
-    private void consumeToken(TokenType tokenType) throws Exception {
-        if (matchToken(tokenType)) {
-            Token prevToken = currentToken;
-            currentToken = lexer.getToken();
-            if (matchToken(TokenType.ERROR)) {
-                if (prevToken.getTokenType() == TokenType.INT || prevToken.getTokenType() == TokenType.FLOAT || prevToken.getTokenType() == TokenType.CHAR || prevToken.getTokenType() == TokenType.BOOL) {
-                    if (currentToken.getValue().toString().contains("Invalid keyword") || currentToken.getValue().toString().contains("Invalid Data Type")) {
-                        currentToken.setTokenType(TokenType.IDENTIFIER);
-                        currentToken.setValue(null);
-                    }
-                } else if (variableNames.contains(currentToken.getCode())) {
-                    currentToken.setTokenType(TokenType.IDENTIFIER);
-                    currentToken.setValue(null);
-                } else
-                    throw new Exception("" +currentToken.getValue() + "");
-            }
-        } else
-            throw new Exception("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + tokenType + "'.");
-    }
-
-    private boolean matchToken(TokenType tokenType) {
-        return currentToken.getTokenType() == tokenType;
-    }
-
-    private Pair<String, ExpressionNode> getVariable() throws Exception {
-        Token identifier = currentToken;
-        consumeToken(TokenType.IDENTIFIER);
-
-        if (matchToken(TokenType.EQUAL)) {
-            consumeToken(TokenType.EQUAL);
-            return new Pair<>(identifier.getCode(), parseExpression());
-        }
-        return new Pair<>(identifier.getCode(), null);
-    }
-
-    public class Pair<F, S> {
-        private final F first;
-        private final S second;
-    
-        public Pair(F first, S second) {
-            this.first = first;
-            this.second = second;
-        }
-    
-        public F getFirst() {
-            return first;
-        }
-    
-        public S getSecond() {
-            return second;
-        }
-    }
-    
-}
+package Analysis.SyntaxAnalyzer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import Analysis.ParseTree.*;
+import Analysis.ParseTree.Statement.*;
+import Analysis.ParseTree.Expression.*;
+import Analysis.ParseTree.Expression.ExpressionNode;
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.TokenDataTypes.*;
+
+public class Parser {
+    private final TokenStream lexer;
+    private final SymbolInterner symbols;
+    private Token currentToken;
+    // Position of currentToken in the code
+    private int currentLine;
+    private int currentColumn;
+    // The symbols of the declared variables
+    private final BitSet variableNames;
+    private boolean canDeclare;
+    private boolean hasDisplay;
+    // The token after currentToken, when peekToken() already read it
+    private Token peekedToken;
+    private int peekedLine;
+    private int peekedColumn;
+    private final Diagnostics diagnostics;
+    // The Lexer in lazy mode, see Parser(CharSequence, Diagnostics), otherwise null
+    private final Lexer source;
+    // The Lexer that gives where the tokens start, in lazy mode or when the block ends are kept, otherwise null
+    private Lexer starts;
+    // Where currentToken and peekedToken start in the code, only kept when starts is set
+    private int currentStart;
+    private int peekedStart;
+    // Makes the expression nodes when it is set, see setExpressionFactory()
+    private ExpressionFactory expressionFactory;
+    // The END of each block that is parsed, only kept when it is set
+    private Map<ProgramNode, BlockEnd> blockEnds;
+
+    /*
+        The tokens can come straight from a Lexer or from a TokenBuffer
+        that was filled before, example: new Parser(lexer.tokenize().reader())
+        The syntax errors are added to the Diagnostics instead of stopping
+        the parsing, see getDiagnostics().
+     */
+    public Parser(TokenStream lexer) throws Exception {
+        this(lexer, new Diagnostics());
+    }
+
+    public Parser(TokenStream lexer, Diagnostics diagnostics) throws Exception {
+        this(lexer, diagnostics, null, new BitSet(), true);
+    }
+
+    /*
+        Lazy mode, for code that is in memory. The block of an IF or WHILE
+        is only checked for its BEGIN and the END that matches it, and is
+        kept as a LazyProgramNode without statements. parseLazyBlock()
+        parses it when it is needed, like the first time it runs. A program
+        with big blocks that rarely run starts a lot faster this way, but
+        the errors inside a block are only found when it is parsed.
+     */
+    public Parser(CharSequence code, Diagnostics diagnostics) throws Exception {
+        this(new Lexer(SourceBuffer.inMemory(code), new SymbolInterner()), diagnostics, true);
+    }
+
+    private Parser(Lexer lexer, Diagnostics diagnostics, boolean lazy) {
+        this(lexer, diagnostics, lazy ? lexer : null, new BitSet(), true);
+    }
+
+    private Parser(TokenStream lexer, Diagnostics diagnostics, Lexer source, BitSet variableNames, boolean canDeclare) {
+        this.lexer = lexer;
+        this.symbols = lexer.getSymbols();
+        this.diagnostics = diagnostics;
+        this.source = source;
+        this.starts = source;
+        this.variableNames = variableNames;
+        this.canDeclare = canDeclare;
+        nextToken();
+    }
+
+    /*
+        The syntax errors found by parseProgram(CODE). The program it returns
+        only has the statements without errors, so it should not be run when
+        there are any.
+     */
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /*
+        With a factory the expressions that are written the same way share
+        one node, see ExpressionFactory. Without one (the default) every
+        expression gets its own nodes.
+     */
+    public void setExpressionFactory(ExpressionFactory expressionFactory) {
+        this.expressionFactory = expressionFactory;
+    }
+
+    public ExpressionFactory getExpressionFactory() {
+        return expressionFactory;
+    }
+
+    // Returns true if a DISPLAY statement was parsed.
+    public boolean hasDisplay() {
+        return hasDisplay;
+    }
+
+    public ProgramNode parseProgram(TokenType tokenType) throws Exception {
+        // Skip any leading newlines to find the start of the program, a wrong token after them is reported by parseCode()
+        while (matchToken(TokenType.NEWLINE))
+            nextToken();
+
+        // The program or block starts at its BEGIN token
+        int line = currentLine;
+        int column = currentColumn;
+
+        // The whole program never stops at an error, see parseCode()
+        if (tokenType == TokenType.CODE) {
+            List<StatementNode> statements = new ArrayList<>();
+            parseCode(statements::add);
+            return at(new ProgramNode(statements), line, column);
+        }
+
+        // Consume the BEGIN token and the tokenType token to mark the start of the block
+        consumeToken(TokenType.BEGIN);
+        consumeToken(tokenType);
+
+        // Skip any newlines after the block start to find the first statement
+        while (matchToken(TokenType.NEWLINE))
+            consumeToken(TokenType.NEWLINE);
+
+        // Parse all statements until the END token is encountered
+        List<StatementNode> statements = new ArrayList<>();
+        parseStatements(statements::add);
+
+        /*
+            Consume the END token and the tokenType token to mark the end of
+            the block. The END is only taken when it ends this block, so a
+            missing END IF does not take the END of END CODE with it.
+         */
+        if (peekToken().getTokenType() != tokenType)
+            throw syntaxError("Syntax Error: Unexpected token type '" + peekToken().getTokenType() + "'. Expected token type: '" + tokenType + "'.");
+        BlockEnd end = new BlockEnd(currentLine, currentStart);
+        consumeToken(TokenType.END);
+        consumeToken(tokenType);
+
+        // Skip any newlines after the block end to find the next statement
+        while (matchToken(TokenType.NEWLINE))
+            consumeToken(TokenType.NEWLINE);
+
+        // Return a new ProgramNode containing all parsed statements
+        ProgramNode block = at(new ProgramNode(statements), line, column);
+        if (blockEnds != null)
+            blockEnds.put(block, end);
+        return block;
+    }
+
+    /*
+        Parses the program like parseProgram(CODE) but into a FlatTree.
+        Each statement is put in the tree as soon as it is parsed, so only
+        the ASTNode objects of one statement are in memory at a time.
+     */
+    public FlatTree parseFlatProgram() {
+        FlatTree tree = new FlatTree(symbols);
+        parseProgram(tree::addStatement);
+        tree.trimToSize();
+        return tree;
+    }
+
+    /*
+        Parses the program like parseProgram(CODE) but gives each statement
+        of the program to statements as soon as it is parsed, instead of
+        keeping them. The statements inside an IF or WHILE come with it.
+     */
+    public void parseProgram(Consumer<StatementNode> statements) {
+        while (matchToken(TokenType.NEWLINE))
+            nextToken();
+        parseCode(statements);
+    }
+
+    /*
+        Parses a block that was skipped in lazy mode. Its errors are added
+        to the diagnostics like the ones of the program. The variables
+        declared in the program can be used in it, and the blocks inside it
+        are skipped again until they are needed.
+     */
+    public ProgramNode parseLazyBlock(LazyProgramNode block) {
+        if (source == null)
+            throw new IllegalStateException("Only a Parser in lazy mode has lazy blocks.");
+        Parser parser = blockParser(source.startingAt(block.getStart(), block.getLine()), diagnostics, true);
+        try {
+            return parser.parseProgram(block.getBlockType());
+        } catch (Exception e) {
+            parser.report(e);
+            return at(new ProgramNode(new ArrayList<>()), block.getLine(), block.getColumn());
+        }
+    }
+
+    /*
+        A Parser for the block that starts at the line of the code, to parse
+        it again after it was changed, see IncrementalFrontEnd. The errors
+        go to diagnostics.
+     */
+    Parser blockParser(CharSequence code, int start, int line, Diagnostics diagnostics) {
+        return blockParser(new Lexer(SourceBuffer.wrap(code), symbols, start, line), diagnostics, false);
+    }
+
+    /*
+        Keeps the END of each block in blockEnds, also for the Parsers of
+        blockParser(). The tokens have to come from a Lexer, to know where
+        they start.
+     */
+    void recordBlockEnds(Map<ProgramNode, BlockEnd> blockEnds) {
+        if (!(lexer instanceof Lexer))
+            throw new IllegalStateException("The block ends are only kept when the tokens come from a Lexer.");
+        this.blockEnds = blockEnds;
+        this.starts = (Lexer) lexer;
+    }
+
+    // A Parser for a block of this program, it knows the variables declared in this one.
+    private Parser blockParser(Lexer lexer, Diagnostics diagnostics, boolean lazy) {
+        Parser parser = new Parser(lexer, diagnostics, lazy ? lexer : null, variableNames, false);
+        parser.expressionFactory = expressionFactory;
+        if (blockEnds != null)
+            parser.recordBlockEnds(blockEnds);
+        return parser;
+    }
+
+    /*
+        Parses BEGIN CODE ... END CODE and the end of the file, and gives
+        each statement to statements. An error is added to the diagnostics
+        and the parsing goes on after it, so one run finds all the syntax
+        errors of the program. A stray END line like an END IF without its
+        IF is skipped and the statements after it are still parsed.
+     */
+    private void parseCode(Consumer<StatementNode> statements) {
+        try {
+            consumeToken(TokenType.BEGIN);
+            consumeToken(TokenType.CODE);
+        } catch (Exception e) {
+            report(e);
+            skipLine();
+        }
+
+        while (true) {
+            try {
+                while (matchToken(TokenType.NEWLINE))
+                    consumeToken(TokenType.NEWLINE);
+                parseStatements(statements);
+                consumeToken(TokenType.END);
+                consumeToken(TokenType.CODE);
+                break;
+            } catch (Exception e) {
+                report(e);
+                if (matchToken(TokenType.ENDOFFILE))
+                    return;
+                skipLine();
+            }
+        }
+
+        // Nothing but newlines can come after END CODE
+        try {
+            while (matchToken(TokenType.NEWLINE))
+                consumeToken(TokenType.NEWLINE);
+            consumeToken(TokenType.ENDOFFILE);
+        } catch (Exception e) {
+            report(e);
+        }
+    }
+
+    /*
+        This function parses statements in the code and gives them to
+        statementList as abstract syntax tree (AST) nodes, until the END token.
+        A statement with a syntax error is added to the diagnostics and left
+        out, and the parsing goes on with the statement after it, see
+        recover(). Only the end of the file stops it, since the blocks
+        around it cannot be closed anymore.
+     */
+    private void parseStatements(Consumer<StatementNode> statementList) throws Exception {
+
+        // Loop continues as long as the current token is not of type END (indicating the end of the program)
+        while (!matchToken(TokenType.END)) {
+            // Position of the first token of the statement
+            int line = currentLine;
+            int column = currentColumn;
+            TokenType statementType = currentToken.getTokenType();
+
+            // Throw an exception if the end of file is reached but a missing "End" statement is detected (based on current token's line and column)
+            if (matchToken(TokenType.ENDOFFILE))
+                throw syntaxError("Program should end with 'END CODE' line.");
+
+            try {
+                // Check for different data type keywords (int, float, char, bool)
+                if (matchToken(TokenType.INT) || matchToken(TokenType.FLOAT) ||
+                        matchToken(TokenType.CHAR) || matchToken(TokenType.BOOL)) {
+
+                    /*
+                        If variable declarations are not allowed at this point (based on canDeclare flag)
+                        the error is reported, but the declaration is still parsed so the variables
+                        in it are not reported as missing later on.
+                     */
+                    if (!canDeclare)
+                        report(syntaxError("Invalid syntax."));
+                    // Parse the variable declaration statement and add it to the list
+                    statementList.accept(at(parseVariableDeclarationStatement(), line, column));
+                } else if (matchToken(TokenType.IDENTIFIER)) {
+                    // Set canDeclare to false (since identifiers are typically used in assignments)
+                    canDeclare = false;
+                    // Parse the assignment statement and add it to the list
+                    statementList.accept(at(parseAssignmentStatement(), line, column));
+                } else if (matchToken(TokenType.DISPLAY)) {
+                    // Set canDeclare to false (since display statements don't allow variable declarations before)
+                    canDeclare = false;
+                    // Parse the display statement and add it to the list
+                    statementList.accept(at(parseDisplayStatement(), line, column));
+                } else if (matchToken(TokenType.SCAN)) {
+                    // Set canDeclare to false (similar to display statements)
+                    canDeclare = false;
+                    // Parse the scan statement and add it to the list
+                    statementList.accept(at(parseScanStatement(), line, column));
+                } else if (matchToken(TokenType.IF)) {
+                    // Set canDeclare to false (since if statements don't allow variable declarations before)
+                    canDeclare = false;
+                    // Parse the if statement and add it to the list
+                    statementList.accept(at(parseIfStatement(), line, column));
+                } else if (matchToken(TokenType.WHILE)) {
+                    // Set canDeclare to false (similar to if statements)
+                    canDeclare = false;
+                    // Parse the while statement and add it to the list
+                    statementList.accept(at(parseWhileStatement(), line, column));
+                } else {
+                    // If none of the expected tokens matched, throw an exception with the current token's information (line, column, and code)
+                    throw syntaxError("Invalid syntax \"" + currentToken.getCode() + "\".");
+                }
+
+                // Keep consuming newline tokens (ignoring empty lines) after a statement is parsed
+                while (matchToken(TokenType.NEWLINE))
+                    consumeToken(TokenType.NEWLINE);
+            } catch (Exception e) {
+                report(e);
+                recover(statementType);
+            }
+        }
+    }
+
+    /*
+        Panic mode recovery, skips the rest of a statement that has a syntax
+        error so the next statement can be parsed.
+        - An IF or WHILE is skipped up to its END IF or END WHILE, counting
+          the blocks inside it, and an IF also skips its ELSE parts. A stray
+          ELSE is skipped the same way. That way the lines of the block are
+          not read as statements of their own.
+        - Any other statement is skipped to the end of its line.
+        Errors inside the block of an IF or WHILE are recovered inside the
+        block, so only errors in its own lines get here.
+        Example below:
+        IF (a >)          <- error, skips to the END IF
+        BEGIN IF
+            a = 1
+        END IF
+        ELSE              <- skipped too
+        BEGIN IF
+            a = 2
+        END IF
+        DISPLAY: a        <- parsing goes on here
+     */
+    private void recover(TokenType statementType) {
+        if (statementType == TokenType.IF || statementType == TokenType.WHILE || statementType == TokenType.ELSE)
+            skipBlock();
+        else
+            skipLine();
+        while (matchToken(TokenType.NEWLINE))
+            nextToken();
+    }
+
+    // The block of an IF or WHILE, in lazy mode it is only skipped.
+    private ProgramNode parseBlock(TokenType tokenType) throws Exception {
+        return source == null ? parseProgram(tokenType) : skipProgram(tokenType);
+    }
+
+    /*
+        Lazy mode: checks that the block starts with BEGIN and ends with the
+        END that matches it, and skips the statements in between without
+        parsing them. Each BEGIN IF or BEGIN WHILE inside the block needs its
+        own END IF or END WHILE first.
+        Example below:
+        BEGIN WHILE       <- open: WHILE
+            IF (a > 1)
+            BEGIN IF      <- open: WHILE IF
+            END IF        <- open: WHILE
+        END WHILE         <- done
+     */
+    private ProgramNode skipProgram(TokenType tokenType) throws Exception {
+        while (matchToken(TokenType.NEWLINE))
+            consumeToken(TokenType.NEWLINE);
+
+        // The block is read again from the start of the line of its BEGIN
+        int line = currentLine;
+        int column = currentColumn;
+        int start = currentStart - (column - 1);
+        consumeToken(TokenType.BEGIN);
+        consumeToken(tokenType);
+
+        List<TokenType> open = new ArrayList<>();
+        open.add(tokenType);
+        while (true) {
+            if (matchToken(TokenType.ENDOFFILE))
+                throw syntaxError("Program should end with 'END CODE' line.");
+
+            TokenType next = peekToken().getTokenType();
+            if (matchToken(TokenType.DISPLAY)) {
+                hasDisplay = true;
+            } else if (matchToken(TokenType.BEGIN) && (next == TokenType.IF || next == TokenType.WHILE)) {
+                open.add(next);
+            } else if (matchToken(TokenType.END)) {
+                TokenType expected = open.remove(open.size() - 1);
+                if (next != expected)
+                    throw syntaxError("Syntax Error: Unexpected token type '" + next + "'. Expected token type: '" + expected + "'.");
+                if (open.isEmpty())
+                    break;
+                nextToken();
+            }
+            nextToken();
+        }
+        consumeToken(TokenType.END);
+        consumeToken(tokenType);
+
+        while (matchToken(TokenType.NEWLINE))
+            consumeToken(TokenType.NEWLINE);
+        return at(new LazyProgramNode(tokenType, start), line, column);
+    }
+
+    // Skips tokens up to the NEWLINE at the end of the line.
+    private void skipLine() {
+        while (!matchToken(TokenType.NEWLINE) && !matchToken(TokenType.ENDOFFILE))
+            nextToken();
+    }
+
+    // Skips tokens up to the END IF or END WHILE that closes the current block, and the ELSE parts after it.
+    private void skipBlock() {
+        int depth = 0;
+        while (!matchToken(TokenType.ENDOFFILE)) {
+            TokenType next = peekToken().getTokenType();
+            boolean block = next == TokenType.IF || next == TokenType.WHILE;
+            if (matchToken(TokenType.BEGIN) && block) {
+                depth++;
+            } else if (matchToken(TokenType.END) && next == TokenType.CODE) {
+                // The block is missing its END, the program ends here
+                return;
+            } else if (matchToken(TokenType.END) && block && --depth <= 0) {
+                nextToken();
+                nextToken();
+                while (matchToken(TokenType.NEWLINE))
+                    nextToken();
+                if (!matchToken(TokenType.ELSE))
+                    return;
+                depth = 0;
+            }
+            nextToken();
+        }
+    }
+
+    /*
+        Parses a declaration like INT a, b = 5. When one of the variables has
+        an error, the error is added to the diagnostics and the parsing goes
+        on with the next variable. The variables with errors are still
+        declared, so the lines after it do not report them as missing.
+     */
+    private StatementNode parseVariableDeclarationStatement() throws Exception {
+        // Get the data type token and consume it
+        Token dataTypeToken = currentToken;
+        consumeToken(dataTypeToken.getTokenType());
+
+        // Lists to store variables with their expressions in the order they are declared
+        List<String> identifiers = new ArrayList<>();
+        List<Integer> variableSymbols = new ArrayList<>();
+        List<ExpressionNode> values = new ArrayList<>();
+
+        // Get the first variable name and expression
+        addVariable(identifiers, variableSymbols, values, false);
+
+        // Process remaining variables separated by commas
+        while (matchToken(TokenType.COMMA))
+            addVariable(identifiers, variableSymbols, values, true);
+
+        // Create and return the VariableDeclarationNode
+        return new VariableDeclarationNode(dataTypeToken, identifiers, toArray(variableSymbols), values);
+    }
+
+    // Adds the next variable of a declaration, the variable is kept even when its value has an error.
+    private void addVariable(List<String> identifiers, List<Integer> variableSymbols, List<ExpressionNode> values, boolean afterComma) {
+        try {
+            if (afterComma)
+                consumeToken(TokenType.COMMA);
+            Token identifier = currentToken;
+            consumeToken(TokenType.IDENTIFIER);
+
+            identifiers.add(identifier.getCode());
+            variableSymbols.add(identifier.getSymbol());
+            values.add(null);
+            variableNames.set(identifier.getSymbol());
+
+            if (matchToken(TokenType.EQUAL)) {
+                consumeToken(TokenType.EQUAL);
+                values.set(values.size() - 1, parseExpression());
+            }
+        } catch (Exception e) {
+            report(e);
+            // Skips to the next variable, a value cannot have a comma in it
+            while (!matchToken(TokenType.COMMA) && !matchToken(TokenType.NEWLINE) && !matchToken(TokenType.ENDOFFILE))
+                nextToken();
+        }
+    }
+
+    private StatementNode parseAssignmentStatement() throws Exception {
+        List<String> identifiers = new ArrayList<>();
+        List<Integer> identifierSymbols = new ArrayList<>();
+        List<Token> equals = new ArrayList<>();
+
+        Token identifierToken = currentToken;
+        consumeToken(TokenType.IDENTIFIER);
+        Token equalToken = currentToken;
+        consumeToken(TokenType.EQUAL);
+
+        identifiers.add(identifierToken.getCode());
+        identifierSymbols.add(identifierToken.getSymbol());
+        equals.add(equalToken);
+
+        ExpressionNode expressionValue = parseExpression();
+
+        while (matchToken(TokenType.EQUAL)) {
+            IdentifierNode idenExpr = (IdentifierNode) expressionValue;
+            equalToken = currentToken;
+            consumeToken(TokenType.EQUAL);
+
+            identifiers.add(idenExpr.getName());
+            identifierSymbols.add(idenExpr.getSymbol());
+            equals.add(equalToken);
+
+            expressionValue = parseExpression();
+        }
+
+        return new AssignmentNode(identifiers, toArray(identifierSymbols), equals, expressionValue);
+    }
+
+private StatementNode parseDisplayStatement() throws Exception {
+    // Read and remove the current token
+    Token displayToken = currentToken;
+    consumeToken(TokenType.DISPLAY);
+    hasDisplay = true;
+    consumeToken(TokenType.COLON);
+
+    // List of expressions
+    List<ExpressionNode> expressions = new ArrayList<>();
+
+    // If display starts with '$'
+    // ex. DISPLAY: $ ....
+    if (matchToken(TokenType.DOLLAR)) {
+        expressions.add(literal(currentToken, "\n", currentLine, currentColumn));
+        consumeToken(TokenType.DOLLAR);
+
+        // While token is & iterate until no & token.
+        while (matchToken(TokenType.AMPERSAND)) {
+            consumeToken(TokenType.AMPERSAND);
+
+            // If newline is next to & throw an error
+            if (matchToken(TokenType.NEWLINE))
+                throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
+
+            // If $ is next to &, create a new Literal Expression with
+            // the value \n
+            if (matchToken(TokenType.DOLLAR)) {
+                expressions.add(literal(currentToken, "\n", currentLine, currentColumn));
+                consumeToken(TokenType.DOLLAR);
+            }
+            // Else get the expression
+            else
+                expressions.add(parseExpression());
+        }
+
+        // If the token is not newline then throw an error
+        if (!matchToken(TokenType.NEWLINE))
+            throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + TokenType.NEWLINE + "'.");
+
+        // Create the Display Statement
+        return new DisplayNode(displayToken, expressions);
+    }
+    // If display starts with expression
+    // ex. DISPLAY: 6 ....
+    else if (matchToken(TokenType.ESCAPE) || matchToken(TokenType.IDENTIFIER) || matchToken(TokenType.INTLITERAL) || matchToken(TokenType.FLOATLITERAL)
+            || matchToken(TokenType.CHARLITERAL) || matchToken(TokenType.BOOLLITERAL) || matchToken(TokenType.STRINGLITERAL)
+            || matchToken(TokenType.MINUS) || matchToken(TokenType.PLUS) || matchToken(TokenType.NOT)) {
+        expressions.add(parseExpression());
+
+        // While token is & iterate until no & token.
+        while (matchToken(TokenType.AMPERSAND)) {
+            consumeToken(TokenType.AMPERSAND);
+
+            // If newline is next to & throw an error
+            if (matchToken(TokenType.NEWLINE))
+                throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
+
+            // If $ is next to &, create a new Literal Expression with
+            // the value \n
+            if (matchToken(TokenType.DOLLAR)) {
+                expressions.add(literal(currentToken, "\n", currentLine, currentColumn));
+                consumeToken(TokenType.DOLLAR);
+            }
+            // Else get the expression
+            else
+                expressions.add(parseExpression());
+        }
+
+        // If the token is not newline then throw an error
+        if (!matchToken(TokenType.NEWLINE))
+            throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + TokenType.NEWLINE + "'.");
+
+        // Create the Display Statement
+        return new DisplayNode(displayToken, expressions);
+    }
+    // If display starts with '&'
+    // ex. DISPLAY: & ....
+    else
+    throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
+}
+
+    private StatementNode parseScanStatement() throws Exception {
+        Token scanToken = currentToken;
+        consumeToken(TokenType.SCAN);
+        consumeToken(TokenType.COLON);
+
+        List<String> identifiers = new ArrayList<>();
+        List<Integer> identifierSymbols = new ArrayList<>();
+        identifiers.add(currentToken.getCode());
+        identifierSymbols.add(currentToken.getSymbol());
+        consumeToken(TokenType.IDENTIFIER);
+
+        while (matchToken(TokenType.COMMA)) {
+            consumeToken(TokenType.COMMA);
+            identifiers.add(currentToken.getCode());
+            identifierSymbols.add(currentToken.getSymbol());
+            consumeToken(TokenType.IDENTIFIER);
+        }
+
+        return new ScanNode(scanToken, identifiers, toArray(identifierSymbols));
+    }
+
+    private StatementNode parseIfStatement() throws Exception {
+        boolean isElse = false;
+        List<ExpressionNode> conditions = new ArrayList<>();
+        List<ProgramNode> statementBlocks = new ArrayList<>();
+        List<Token> tokens = new ArrayList<>();
+
+        tokens.add(currentToken);
+        consumeToken(TokenType.IF);
+        conditions.add(parseConditionExpression());
+        statementBlocks.add(parseBlock(TokenType.IF));
+
+        while (matchToken(TokenType.ELSE)) {
+            if (isElse)
+                throw syntaxError("Invalid syntax: " + currentToken.getTokenType());
+
+            tokens.add(currentToken);
+            consumeToken(TokenType.ELSE);
+
+            if (matchToken(TokenType.IF)) {
+                consumeToken(TokenType.IF);
+                conditions.add(parseConditionExpression());
+            } else {
+                conditions.add(null);
+                isElse = true;
+            }
+
+            statementBlocks.add(parseBlock(TokenType.IF));
+        }
+
+        return new ConditionalNode(tokens, conditions, statementBlocks);
+    }
+
+    private StatementNode parseWhileStatement() throws Exception {
+        Token whileToken = currentToken;
+        consumeToken(TokenType.WHILE);
+
+        ExpressionNode condition = parseConditionExpression();
+        ProgramNode statementBlock = parseBlock(TokenType.WHILE);
+
+        return new LoopNode(whileToken, condition, statementBlock);
+    }
+
+    /*
+        Parses an expression without recursion, so an expression with
+        thousands of operands or parentheses inside each other cannot
+        overflow the stack. It keeps two stacks, the finished expressions
+        (operands) and the operators and open parentheses that still wait
+        for their right side. It builds the same trees as the recursive
+        parseBinaryExpression() did:
+        - Operators are left-associative while the next one does not bind
+          tighter, a * b + c is (a * b) + c.
+        - When the next operator binds tighter, everything after it up to
+          the end of the expression or the ")" is the right side, a - b * c
+          + d is a - ((b * c) + d).
+        - A unary operator (+ - NOT) or a "(" also takes everything up to
+          that end, -(a) + b is -((a) + b), except a unary operator right
+          before a variable or a literal, -a * b is (-a) * b.
+        Such an end is marked on the operator stack with GROUP, the
+        operators are only built past it when the expression or the
+        parentheses end.
+        Example below:
+        a * (b) + c
+        operands: a          operators: *
+        operands: a b        operators: * GROUP (
+        operands: a (b)      operators: * GROUP      after the ")"
+        operands: a (b) c    operators: * GROUP +
+        operands: a*((b)+c)                          at the end
+     */
+    private ExpressionNode parseExpression() throws Exception {
+        // An escape code like [#] is an expression on its own
+        if (matchToken(TokenType.ESCAPE))
+            return parseTerm();
+
+        List<ExpressionNode> operands = new ArrayList<>();
+        List<Operator> operators = new ArrayList<>();
+        int openParentheses = 0;
+
+        while (true) {
+            // Unary operators and open parentheses come before the operand
+            while (matchToken(TokenType.PLUS) || matchToken(TokenType.MINUS) || matchToken(TokenType.NOT)
+                    || matchToken(TokenType.OPENPARENTHESIS)) {
+                if (matchToken(TokenType.OPENPARENTHESIS))
+                    openParentheses++;
+                operators.add(GROUP);
+                operators.add(new Operator(currentToken, currentLine, currentColumn, 0));
+                consumeToken(currentToken.getTokenType());
+            }
+            // An escape code right after a "(" is all that is inside it
+            boolean alone = matchToken(TokenType.ESCAPE) && isOpenParenthesis(operators);
+            operands.add(parseTerm());
+            if (alone && !matchToken(TokenType.CLOSEPARENTHESIS))
+                throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + TokenType.CLOSEPARENTHESIS + "'.");
+            applyUnaryOperator(operands, operators);
+
+            // Close the parentheses that end here
+            while (matchToken(TokenType.CLOSEPARENTHESIS) && openParentheses > 0) {
+                reduce(operands, operators);
+                Operator open = pop(operators);
+                openParentheses--;
+                Token closeParenthesis = currentToken;
+                consumeToken(TokenType.CLOSEPARENTHESIS);
+                ExpressionNode expression = pop(operands);
+                operands.add(parenthesis(open.token, expression, closeParenthesis, open.line, open.column));
+            }
+
+            int precedence = Grammar.getBinaryPrecedence(currentToken.getTokenType());
+            if (precedence == 0)
+                break;
+            // The operator before it is built first, unless this one binds tighter
+            Operator previous = operators.isEmpty() ? null : operators.get(operators.size() - 1);
+            if (previous != null && previous.precedence > 0) {
+                if (precedence > previous.precedence)
+                    operators.add(GROUP);
+                else
+                    build(operands, pop(operators));
+            }
+            operators.add(new Operator(currentToken, currentLine, currentColumn, precedence));
+            consumeToken(currentToken.getTokenType());
+        }
+
+        reduce(operands, operators);
+        if (openParentheses > 0)
+            throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + TokenType.CLOSEPARENTHESIS + "'.");
+        return operands.get(0);
+    }
+
+    /*
+        Builds the operators on the stack back to the last open parenthesis,
+        or all of them at the end of the expression.
+     */
+    private void reduce(List<ExpressionNode> operands, List<Operator> operators) {
+        while (!operators.isEmpty() && !isOpenParenthesis(operators)) {
+            Operator operator = pop(operators);
+            if (operator != GROUP)
+                build(operands, operator);
+        }
+    }
+
+    private void build(List<ExpressionNode> operands, Operator operator) {
+        if (operator.precedence == 0) {
+            operands.add(unary(operator.token, pop(operands), operator.line, operator.column));
+        } else {
+            ExpressionNode right = pop(operands);
+            ExpressionNode left = pop(operands);
+            operands.add(binary(left, operator.token, right, operator.line, operator.column));
+        }
+    }
+
+    // A unary operator right before a variable or a literal applies to it alone.
+    private void applyUnaryOperator(List<ExpressionNode> operands, List<Operator> operators) {
+        if (operators.isEmpty())
+            return;
+        Operator operator = operators.get(operators.size() - 1);
+        if (operator != GROUP && operator.precedence == 0 && operator.token.getTokenType() != TokenType.OPENPARENTHESIS)
+            build(operands, pop(operators));
+    }
+
+    private static boolean isOpenParenthesis(List<Operator> operators) {
+        Operator operator = operators.get(operators.size() - 1);
+        return operator != GROUP && operator.token.getTokenType() == TokenType.OPENPARENTHESIS;
+    }
+
+    private static <T> T pop(List<T> stack) {
+        return stack.remove(stack.size() - 1);
+    }
+
+    private ExpressionNode parseConditionExpression() throws Exception {
+        Token openParenthesis = currentToken;
+        int line = currentLine;
+        int column = currentColumn;
+        consumeToken(TokenType.OPENPARENTHESIS);
+
+        ExpressionNode expression = parseExpression();
+
+        Token closeParenthesis = currentToken;
+        consumeToken(TokenType.CLOSEPARENTHESIS);
+
+        return parenthesis(openParenthesis, expression, closeParenthesis, line, column);
+    }
+
+    private ExpressionNode parseTerm() throws Exception {
+        if (matchToken(TokenType.IDENTIFIER)) {
+            Token identifierToken = currentToken;
+            int line = currentLine;
+            int column = currentColumn;
+            consumeToken(TokenType.IDENTIFIER);
+            return identifier(identifierToken, line, column);
+        } else if (matchToken(TokenType.INTLITERAL) || matchToken(TokenType.FLOATLITERAL) || matchToken(TokenType.CHARLITERAL)
+                || matchToken(TokenType.BOOLLITERAL) || matchToken(TokenType.STRINGLITERAL) || matchToken(TokenType.ESCAPE)) {
+            Token literalToken = currentToken;
+            int line = currentLine;
+            int column = currentColumn;
+            consumeToken(literalToken.getTokenType());
+            return literal(literalToken, literalToken.getValue(), line, column);
+        } else
+            throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'.");
+    }
+
+    // The expression nodes, from the ExpressionFactory when there is one.
+    private ExpressionNode binary(ExpressionNode left, Token operator, ExpressionNode right, int line, int column) {
+        if (expressionFactory != null)
+            return expressionFactory.binary(left, operator, right, line, column);
+        return at(new BinNode(left, operator, right), line, column);
+    }
+
+    private ExpressionNode unary(Token operator, ExpressionNode expression, int line, int column) {
+        if (expressionFactory != null)
+            return expressionFactory.unary(operator, expression, line, column);
+        return at(new UnaryNode(operator, expression), line, column);
+    }
+
+    private ExpressionNode parenthesis(Token open, ExpressionNode expression, Token close, int line, int column) {
+        if (expressionFactory != null)
+            return expressionFactory.parenthesis(open, expression, close, line, column);
+        return at(new ParenthesisNode(open, expression, close), line, column);
+    }
+
+    private ExpressionNode identifier(Token identifier, int line, int column) {
+        if (expressionFactory != null)
+            return expressionFactory.identifier(identifier, line, column);
+        return at(new IdentifierNode(identifier, identifier.getCode(), identifier.getSymbol()), line, column);
+    }
+
+    private ExpressionNode literal(Token literal, Object value, int line, int column) {
+        if (expressionFactory != null)
+            return expressionFactory.literal(literal, value, line, column);
+        return at(new LiteralNode(literal, value), line, column);
+    }
+
+    private void consumeToken(TokenType tokenType) throws Exception {
+        if (matchToken(tokenType)) {
+            Token prevToken = currentToken;
+            nextToken();
+            if (matchToken(TokenType.ERROR)) {
+                if (prevToken.getTokenType() == TokenType.INT || prevToken.getTokenType() == TokenType.FLOAT || prevToken.getTokenType() == TokenType.CHAR || prevToken.getTokenType() == TokenType.BOOL) {
+                    if (currentToken.getValue().toString().contains("Invalid keyword") || currentToken.getValue().toString().contains("Invalid Data Type")) {
+                        currentToken.setTokenType(TokenType.IDENTIFIER);
+                        currentToken.setValue(null);
+                    }
+                } else if (isVariableName(currentToken.getCode())) {
+                    currentToken.setTokenType(TokenType.IDENTIFIER);
+                    currentToken.setSymbol(symbols.lookup(currentToken.getCode()));
+                    currentToken.setValue(null);
+                } else
+                    throw syntaxError("" +currentToken.getValue() + "");
+            }
+        } else
+            throw syntaxError("Syntax Error: Unexpected token type '" + currentToken.getTokenType() + "'. Expected token type: '" + tokenType + "'.");
+    }
+
+    /*
+        Moves to the next token. A word the Lexer cannot read, like "int",
+        becomes an ERROR token with the message of the Lexer, so it is
+        reported like any other wrong token and the parsing can go on.
+     */
+    private void nextToken() {
+        if (peekedToken != null) {
+            currentToken = peekedToken;
+            currentLine = peekedLine;
+            currentColumn = peekedColumn;
+            currentStart = peekedStart;
+            peekedToken = null;
+            return;
+        }
+        currentToken = readToken();
+        currentLine = lexer.getLine();
+        currentColumn = lexer.getColumn();
+        if (starts != null)
+            currentStart = starts.getTokenStart();
+    }
+
+    // Returns the token after currentToken without moving to it.
+    private Token peekToken() {
+        if (peekedToken == null && !matchToken(TokenType.ENDOFFILE)) {
+            peekedToken = readToken();
+            peekedLine = lexer.getLine();
+            peekedColumn = lexer.getColumn();
+            if (starts != null)
+                peekedStart = starts.getTokenStart();
+        }
+        return peekedToken == null ? currentToken : peekedToken;
+    }
+
+    private Token readToken() {
+        try {
+            return lexer.getToken();
+        } catch (Exception e) {
+            return new Token(TokenType.ERROR, "", e.getMessage());
+        }
+    }
+
+    // Adds the error to the diagnostics.
+    private void report(Exception e) {
+        diagnostics.report(e, currentLine, currentColumn);
+    }
+
+    // Creates the exception with the position of the current token added to the message.
+    private Exception syntaxError(String message) {
+        return new CodeError(message, currentLine, currentColumn);
+    }
+
+    // Sets the position of the node and returns it.
+    private static <T extends ASTNode> T at(T node, int line, int column) {
+        if (node != null)
+            node.setPosition(line, column);
+        return node;
+    }
+
+    private boolean matchToken(TokenType tokenType) {
+        return currentToken.getTokenType() == tokenType;
+    }
+
+    private boolean isVariableName(String name) {
+        int symbol = symbols.lookup(name);
+        return symbol >= 0 && variableNames.get(symbol);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = values.get(i);
+        return array;
+    }
+
+    // Marks where a group of operators starts on the stack in parseExpression().
+    private static final Operator GROUP = new Operator(null, 0, 0, 0);
+
+    /*
+        An operator or open parenthesis waiting on the stack in
+        parseExpression(). precedence is 0 for unary operators and open
+        parentheses.
+     */
+    private static class Operator {
+        private final Token token;
+        private final int line;
+        private final int column;
+        private final int precedence;
+
+        Operator(Token token, int line, int column, int precedence) {
+            this.token = token;
+            this.line = line;
+            this.column = column;
+            this.precedence = precedence;
+        }
+    }
+
+    // The END token of a block: its line and where it starts in the code.
+    static class BlockEnd {
+        final int line;
+        final int start;
+
+        BlockEnd(int line, int start) {
+            this.line = line;
+            this.start = start;
+        }
+
+        // The same END after an edit that added lineDelta lines and startDelta characters before it.
+        BlockEnd moved(int lineDelta, int startDelta) {
+            return new BlockEnd(line + lineDelta, start + startDelta);
+        }
+    }
+
+    public class Pair<F, S> {
+        private final F first;
+        private final S second;
+    
+        public Pair(F first, S second) {
+            this.first = first;
+            this.second = second;
+        }
+    
+        public F getFirst() {
+            return first;
+        }
+    
+        public S getSecond() {
+            return second;
+        }
+    }
+    
+}
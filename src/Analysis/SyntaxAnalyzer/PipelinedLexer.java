@@ -0,0 +1,181 @@
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.TokenDataTypes.TokenType;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/*
+    A TokenStream that runs the Lexer on its own thread, so the code is
+    lexed while the Parser is still busy with the tokens before. The Lexer
+    puts its tokens in batches of a TokenRing and the Parser reads them
+    from there, in the same order and with the same positions and errors
+    as when it reads from the Lexer itself.
+    The Lexer stops when the ring is full and goes on when the Parser has
+    read a batch, so the tokens waiting in between never take more than
+    BATCH_COUNT * BATCH_SIZE entries.
+    This only helps when there is a second processor for the Lexer thread.
+    Call close() when the Parser stops before the end of the code, so the
+    Lexer thread does not wait for it forever.
+    Example below:
+        try (PipelinedLexer lexer = new PipelinedLexer(code)) {
+            ProgramNode program = new Parser(lexer).parseProgram(TokenType.CODE);
+        }
+ */
+public class PipelinedLexer implements TokenStream {
+    private static final int BATCH_COUNT = 16;
+    private static final int BATCH_SIZE = 1024;
+
+    private final Lexer lexer;
+    private final SharedSymbols symbols;
+    private final TokenRing ring;
+    private final Thread thread;
+
+    // Only used by the Parser thread
+    private TokenRing.Batch batch;
+    private int index;
+    private Token endOfFile;
+    private int line;
+    private int column;
+
+    public PipelinedLexer(CharSequence code) {
+        this(SourceBuffer.of(code));
+    }
+
+    public PipelinedLexer(Reader reader) {
+        this(SourceBuffer.of(reader));
+    }
+
+    public PipelinedLexer(FileChannel channel, long position, long size, Charset charset) throws IOException {
+        this(SourceBuffer.of(new MappedSourceReader(channel, position, size, charset)));
+    }
+
+    private PipelinedLexer(SourceBuffer code) {
+        this.symbols = new SharedSymbols();
+        this.lexer = new Lexer(code, symbols);
+        this.ring = new TokenRing(BATCH_COUNT, BATCH_SIZE);
+        this.thread = new Thread(this::run, "Lexer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public Token getToken() throws Exception {
+        if (endOfFile != null)
+            return endOfFile;
+
+        while (batch == null || index == batch.size) {
+            if (batch != null) {
+                if (batch.error != null) {
+                    // The error comes after the tokens of its batch, like it did in the Lexer
+                    Exception error = batch.error;
+                    batch.error = null;
+                    line = batch.errorLine;
+                    column = batch.errorColumn;
+                    throw error;
+                }
+                ring.release();
+            }
+            batch = ring.take();
+            index = 0;
+        }
+
+        Token token = batch.tokens[index];
+        line = batch.lines[index];
+        column = batch.columns[index];
+        batch.tokens[index++] = null;
+        if (token.getTokenType() == TokenType.ENDOFFILE) {
+            endOfFile = token;
+            close();
+        }
+        return token;
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    // Stops the Lexer thread if it is still running.
+    @Override
+    public void close() {
+        ring.close();
+    }
+
+    /*
+        The Lexer thread, it fills batches until the end of the code. An
+        error of the Lexer ends the batch so the Parser gets it in the right
+        place, then the Lexer goes on after the bad word.
+     */
+    private void run() {
+        try {
+            boolean done = false;
+            while (!done) {
+                TokenRing.Batch next = ring.claim();
+                if (next == null)
+                    return;
+
+                // The Parser can look up a name while the Lexer adds new ones, see SharedSymbols
+                synchronized (symbols) {
+                    while (next.size < next.tokens.length) {
+                        Token token;
+                        try {
+                            token = lexer.getToken();
+                        } catch (Exception e) {
+                            next.error = e;
+                            next.errorLine = lexer.getLine();
+                            next.errorColumn = lexer.getColumn();
+                            break;
+                        }
+                        next.tokens[next.size] = token;
+                        next.lines[next.size] = lexer.getLine();
+                        next.columns[next.size] = lexer.getColumn();
+                        next.size++;
+                        if (token.getTokenType() == TokenType.ENDOFFILE) {
+                            done = true;
+                            break;
+                        }
+                    }
+                }
+                ring.publish();
+            }
+        } catch (Throwable e) {
+            ring.fail(e);
+        }
+    }
+
+    /*
+        The SymbolInterner is not made to be read while another thread adds
+        to it. The Lexer thread holds the lock while it fills a batch, so
+        the few reads of the Parser during parsing, like the lookup of a
+        name that was lexed as an error, wait for the batch to be done.
+     */
+    private static class SharedSymbols extends SymbolInterner {
+        @Override
+        public synchronized int lookup(String name) {
+            return super.lookup(name);
+        }
+
+        @Override
+        public synchronized String getName(int symbol) {
+            return super.getName(symbol);
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.TokenDataTypes.TokenType;
+
+/*
+    Perfect hash table for the 11 keywords and 4 data types.
+    The hash only uses the length, the first character and the last
+    character of the word (upper cased), and for these 15 words it never
+    collides in a table of 32 slots. So a lookup is one hash, one array
+    read and one compare of the characters, straight from the source code
+    without creating a String.
+ */
+final class ReservedWords {
+    private static final int TABLE_SIZE = 32;
+
+    private static final String[] WORDS = new String[TABLE_SIZE];
+    private static final TokenType[] TYPES = new TokenType[TABLE_SIZE];
+
+    static {
+        add("BEGIN", TokenType.BEGIN);
+        add("END", TokenType.END);
+        add("CODE", TokenType.CODE);
+        add("IF", TokenType.IF);
+        add("ELSE", TokenType.ELSE);
+        add("WHILE", TokenType.WHILE);
+        add("DISPLAY", TokenType.DISPLAY);
+        add("SCAN", TokenType.SCAN);
+        add("AND", TokenType.AND);
+        add("OR", TokenType.OR);
+        add("NOT", TokenType.NOT);
+
+        add("INT", TokenType.INT);
+        add("FLOAT", TokenType.FLOAT);
+        add("CHAR", TokenType.CHAR);
+        add("BOOL", TokenType.BOOL);
+    }
+
+    private ReservedWords() {
+    }
+
+    private static void add(String word, TokenType tokenType) {
+        int index = hash(word, 0, word.length());
+        if (WORDS[index] != null)
+            throw new IllegalStateException("Reserved words '" + WORDS[index] + "' and '" + word + "' collide.");
+        WORDS[index] = word;
+        TYPES[index] = tokenType;
+    }
+
+    private static int hash(CharSequence code, int start, int end) {
+        return (end - start + upper(code.charAt(start)) + 6 * upper(code.charAt(end - 1))) & (TABLE_SIZE - 1);
+    }
+
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    /*
+        Returns the slot of the reserved word that code[start, end) spells
+        ignoring case, or -1 if it is not a reserved word. Use isExact()
+        to know if it was also written in upper case.
+     */
+    static int find(CharSequence code, int start, int end) {
+        int index = hash(code, start, end);
+        String word = WORDS[index];
+        if (word == null || word.length() != end - start)
+            return -1;
+        for (int i = 0; i < word.length(); i++) {
+            if (upper(code.charAt(start + i)) != word.charAt(i))
+                return -1;
+        }
+        return index;
+    }
+
+    static boolean isExact(int index, CharSequence code, int start) {
+        String word = WORDS[index];
+        for (int i = 0; i < word.length(); i++) {
+            if (code.charAt(start + i) != word.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    static boolean isReserved(TokenType tokenType) {
+        return tokenType.ordinal() <= TokenType.BOOL.ordinal();
+    }
+
+    static String getWord(int index) {
+        return WORDS[index];
+    }
+
+    static TokenType getType(int index) {
+        return TYPES[index];
+    }
+}
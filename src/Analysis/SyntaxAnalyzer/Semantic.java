@@ -1,343 +1,834 @@
-package Analysis.SyntaxAnalyzer;
-
-import Analysis.ParseTree.*;
-import Analysis.ParseTree.Expression.ExpressionNode;
-import Analysis.ParseTree.Expression.IdentifierNode;
-import Analysis.ParseTree.Expression.LiteralNode;
-import Analysis.ParseTree.Expression.ParenthesisNode;
-import Analysis.ParseTree.Expression.UnaryNode;
-import Analysis.ParseTree.Expression.BinNode;
-import Analysis.SymbolTable.VariableTable;
-import Analysis.ParseTree.Statement.*;
-import Analysis.TokenDataTypes.*;
-import java.util.List;
-
-public class Semantic {
-    private VariableTable variableTable;
-
-    public Semantic() {
-        variableTable = new VariableTable();
-    }
-
-    /*
-        This method checks what type of statement it is like
-        if it is of type LoopNode, etc.
-     */
-    public void analyze(ProgramNode program) {
-        /*
-            The List is getting what type of StatementNode is the program.
-         */
-        List<StatementNode> statements = program.getStatements();
-        for (StatementNode statement : statements) {
-            if (statement instanceof VariableDeclarationNode) {
-                analyzeVariableDeclaration((VariableDeclarationNode) statement);
-            } else if (statement instanceof AssignmentNode) {
-                analyzeAssignment((AssignmentNode) statement);
-            } else if (statement instanceof DisplayNode) {
-                analyzeDisplay((DisplayNode) statement);
-            } else if (statement instanceof ScanNode) {
-                analyzeScan((ScanNode) statement);
-            } else if (statement instanceof ConditionalNode) {
-                analyzeCondition((ConditionalNode) statement);
-            } else if (statement instanceof LoopNode) {
-                analyzeLoop((LoopNode) statement);
-            }
-        }
-    }
-
-    private void analyzeVariableDeclaration(VariableDeclarationNode statement) {
-        /*
-            This method 'statement.getDataTypeToken():' call on the VariableDeclarationNode
-            object statement retrieves the Token object representing the data type of the
-            variables being declared.
-            'getTokenType():' This method call on the Token object retrieves the TokenType
-            enum value which indicates the specific data type (such as INT, FLOAT, CHAR, etc.).
-         */
-        DataType dataType = Grammar.getDataType(statement.getDataTypeToken().getTokenType());
-        /*
-            This iterates over the set of variable identifiers (names) declared in the statement.
-            keySet() returns the set of variable names.
-         */
-        for (String identifier : statement.getVariables().keySet()) {
-            /*
-                For each variable identifier, the method checks if it already exists in the
-                variableTable (which presumably keeps track of all declared variables).
-                Basically it will iterate through each variable in the declaration and check
-                if it exists already or the data type does not match to the declared data type.
-
-             */
-            if (!variableTable.exists(identifier)) {
-                ExpressionNode value = statement.getVariables().get(identifier);
-                //Here it checks if the variable is initialized or not.
-                if (value != null) {
-                    /*
-                        It calls analyzeExpression(value) to determine the data type of the expression.
-                        Analyzes the type of the expression being assigned to the variable using analyzeExpression().
-                        This method determines the data type of the right-hand side expression of the assignment.
-                        Example: x = 5; statement.getExpression() retrieves the right-hand side of the assignment
-                        (5 in this example). The method analyzeExpression is then called to determine the data type
-                        of this expression.
-                     */
-                    DataType expressionType = analyzeExpression(value);
-                    /*
-                        Here it compares if the data type of the expression matches the declared data type
-                        of the variable.
-                     */
-                    if (!Grammar.matchDataType(dataType, expressionType)) {
-                        throw new RuntimeException("The Data Type of the variable does not match.");
-                    }
-                }
-                //Here it added the variable to the variableTable if it passes all checking.
-                variableTable.addIdentifier(identifier, dataType);
-            } else {
-                throw new RuntimeException("Variable is already declared.");
-            }
-        }
-    }
-
-    private void analyzeAssignment(AssignmentNode statement) {
-        /*
-            Iterates over each variable identifier in the assignment statement.
-            Since statement is of AssignmentNode it can use the getIdentifiers()
-            and use the size function to iterate until its size.
-         */
-        for (int i = 0; i < statement.getIdentifiers().size(); i++) {
-            //Retrieves the variable identifier at the current index 'i'.
-            String identifier = statement.getIdentifiers().get(i);
-            //Checks if the variable identified by identifier exists in the variableTable.
-            if (variableTable.exists(identifier)) {
-                //If the variable exists, retrieves its data type from the variableTable.
-                DataType dataType = variableTable.getType(identifier);
-                /*
-                    Analyzes the type of the expression being assigned to the variable using analyzeExpression().
-                    This method determines the data type of the right-hand side expression of the assignment.
-                    Example: x = 5; statement.getExpression() retrieves the right-hand side of the assignment (5 in this example).
-                    The method analyzeExpression is then called to determine the data type of this expression.
-                 */
-                DataType expressionType = analyzeExpression(statement.getExpression());
-                /*
-                    Checks if the data type of the expression (expressionType) matches the data type
-                    of the variable (dataType) using Grammar.matchDataType().
-                 */
-                if (!Grammar.matchDataType(dataType, expressionType)) {
-                    throw new RuntimeException(String.format("Cannot assign %s to \"%s\".",
-                            expressionType, identifier));
-                }
-            } else {
-                throw new RuntimeException(String.format("Variable \"%s\" does not exist.", identifier));
-            }
-        }
-    }
-
-    private void analyzeDisplay(DisplayNode statement) {
-        /*
-            We use for each for iteration purposes so that we can do multiple DISPLAY.
-            Example: DISPLAY: a & b & c
-         */
-        for (ExpressionNode expression : statement.getExpressions()) {
-            if (expression instanceof IdentifierNode) {
-                /*
-                    Here you typecast it to IdentifierNode if it is its instance.
-                    This is logical since when you use DISPLAY you used the variable name
-                    which is an identifier that is why you check if it is an instance of it.
-                 */
-                IdentifierNode identifierNode = (IdentifierNode) expression;
-                if (!variableTable.exists(identifierNode.getName())) {
-                    throw new RuntimeException(String.format("Variable \"%s\" does not exist.", identifierNode.getName()));
-                }
-            }
-        }
-    }
-
-    private void analyzeScan(ScanNode statement) {
-        /*
-            We use for each so that we can do multiple SCAN.
-            Example: SCAN: a & b
-         */
-        for (String identifier : statement.getIdentifiers()) {
-            //Check if the identifer/variable exist in the variableTable.
-            if (!variableTable.exists(identifier)) {
-                throw new RuntimeException(String.format("Variable \"%s\" does not exist.", identifier));
-            }
-        }
-    }
-
-    private void analyzeCondition(ConditionalNode statement) {
-    int index = 0;
-    /*
-        Iterates over a list of expressions obtained from the ConditionalNode instance.
-        These expressions correspond to the conditions in the conditional statement.
-     */
-    for (ExpressionNode expression : statement.getExpressions()) {
-        /*
-                Verifies whether the current expression is not null, which indicates
-                that the current statement is either an if or an else if statement.
-                This check ensures that the else block won't be analyzed for a null expression.
-                The else block doesn't have a condition associated with it, so there's no expression
-                to evaluate. Therefore, the expression being null signifies the presence of the else block.
-             */
-        if (expression != null) {
-            if (analyzeExpression(expression) != DataType.Bool) {
-                throw new RuntimeException("Incorrect Data Type. Data Type should be Bool.");
-            }
-        }
-
-        /*
-            Calls the analyzed method to analyze the statement block corresponding to the
-            current expression. This could be the body of an if, else if, or else block,
-            depending on the iteration. Each index is one analyzation for example,
-            at index = 0 the if block is analyzed and in index = 1 is the else if bock.
-        */
-        analyze(statement.getStmt().get(index));
-
-        //Increments the index to proceed to the next expression and its corresponding statement block.
-        index++;
-    }
-}
-    private void analyzeLoop(LoopNode statement) {
-        //Here it get the Data Type of the statement.
-        DataType expressionType = analyzeExpression(statement.getExpression());
-        if (expressionType != DataType.Bool) {
-            throw new RuntimeException("Incorrect Data Type. Data Type should be Bool.");
-        }
-        /*
-            Here you call the analyze() method to execute the statements
-            inside the loop.
-         */
-        analyze(statement.getStatement());
-    }
-
-    /*
-        This method checks the type of ExpressionNode is the expression
-        i.e. BinNode, UnaryNode, etc. Also you typecast it to his expression type.
-     */
-    private DataType analyzeExpression(ExpressionNode expression) {
-        if (expression instanceof BinNode) {
-            return analyzeBinaryExpression((BinNode) expression);
-        } else if (expression instanceof UnaryNode) {
-            return analyzeUnaryExpression((UnaryNode) expression);
-        } else if (expression instanceof ParenthesisNode) {
-            return analyzeExpression(((ParenthesisNode) expression).getExpression());
-        } else if (expression instanceof IdentifierNode) {
-            return analyzeIdentifierExpression((IdentifierNode) expression);
-        } else if (expression instanceof LiteralNode) {
-            return analyzeLiteralExpression((LiteralNode) expression);
-        } else {
-            throw new RuntimeException("Unknown expression.");
-        }
-    }
-
-    private DataType analyzeBinaryExpression(BinNode expression) {
-        //This get the operator
-        Token operatorToken = expression.getTokenOperator();
-        //This get the left side expression
-        DataType leftDataType = analyzeExpression(expression.getLeftHandSide());
-        //This get the right side expression
-        DataType rightDataType = analyzeExpression(expression.getRightHandSide());
-        //You check if the left side and right side has the same Data Type.
-        if (!matchExpressionDataType(leftDataType, rightDataType)) {
-            throw new RuntimeException(String.format("Left side expression is of type '%s' while right side expression " +
-                    "is '%s'; operator '%s' cannot be applied.", leftDataType, rightDataType, operatorToken.getCode()));
-            //left side expression and right side expression has different Data Type therefore operator '%s' cannot be applied.
-        }
-        /*
-            Here you check if the Data Type of left and right side expression is of type Char, Bool, and String.
-            Since you cannot apply arithmetic operations to this Data Type.
-         */
-        if (Grammar.isArithmeticOperator(operatorToken.getTokenType()) &&
-                ((leftDataType == DataType.Char || leftDataType == DataType.String || leftDataType == DataType.Bool) &&
-                        (rightDataType == DataType.Char || rightDataType == DataType.String || rightDataType == DataType.Bool))) {
-            throw new RuntimeException("Cannot apply arithmetic operations to data type 'CHAR', 'BOOL', and 'STRING'.");
-        /*
-            Here you check if left and right side expression is of the same type.
-            Since Comparison Operator can only be applied to the Data Type.
-         */
-        } else if (Grammar.isComparisonOperator(operatorToken.getTokenType()) &&
-                !matchExpressionDataType(leftDataType, rightDataType)) {
-            throw new RuntimeException(String.format("Left side expression is of type '%s' while right side expression is '%s'; " +
-                    "comparison operator '%s' cannot be applied.", leftDataType, rightDataType, operatorToken.getCode()));
-        }
-        /*
-            If the operator is a comparison operator, the result of the binary expression is a boolean (DataType.Bool).
-            Otherwise, the result of the binary expression is the data type of the left-hand side expression (leftDataType).
-            It does not matter if we return left or right side expression in the else block since we checked above if they
-            match Data Type.
-        */
-        return Grammar.isComparisonOperator(operatorToken.getTokenType()) ? DataType.Bool : leftDataType;
-    }
-
-    private DataType analyzeUnaryExpression(UnaryNode expression) {
-        //This will retrieve the token of the operator i.e. PLUS, MINUS, etc.
-        Token operatorToken = expression.getTokenOperator();
-        //This will retrieve the Data Type of the expression.
-        DataType expressionDataType = analyzeExpression(expression.getExpression());
-        /*
-            It checks if the operator is 'NOT' then it checks if the Data Type is 'BOOL'
-            If the data type is Bool, it returns 'DataType.Bool' because applying the 'NOT'
-            operator to a boolean expression results in a boolean value.
-            Ka gets nako since the 'NOT' here since it will invert the boolean value of it
-            like for example the 'true' becomes 'false' and vice versa that is why it should it
-            BOOL.
-         */
-        if (operatorToken.getTokenType() == TokenType.NOT) {
-            if (expressionDataType != DataType.Bool) {
-                throw new RuntimeException(String.format("Operator '%s' can only be applied to '%s'.",
-                        operatorToken.getCode(), expressionDataType));
-            }
-            return DataType.Bool;
-        }
-        //Returns the Data Type of the expression if the unary operator is not 'NOT'
-        return expressionDataType;
-    }
-
-    private DataType analyzeIdentifierExpression(IdentifierNode expression) {
-        /*
-            Here it check if the Name of the identifier exists in the variableTable
-            and if not it will return an exception.
-         */
-        if (!variableTable.exists(expression.getName())) {
-            throw new RuntimeException(String.format("Variable \"%s\" does not exist.", expression.getName()));
-        }
-        //Here it will return the Data Type of the identifier if it exists in the variableTable.
-        return variableTable.getType(expression.getName());
-    }
-
-    private DataType analyzeLiteralExpression(LiteralNode expression) {
-        //The method retrieves the actual value of the literal from the LiteralNode object.
-        Object value = expression.getLiteral();
-        /*
-            Here it checks on what instance is the value object.
-            By using instanceof we can ensure that only supported
-            types are processed correctly.
-         */
-        if (value instanceof Integer) {
-            return DataType.Int;
-        } else if (value instanceof Float || value instanceof Double) {
-            return DataType.Float;
-        } else if (value instanceof Character) {
-            return DataType.Char;
-        } else if (value instanceof Boolean) {
-            return DataType.Bool;
-        } else if (value instanceof String) {
-            return DataType.String;
-        } else {
-            throw new RuntimeException(String.format("Unknown Data Type %s", expression.getLiteral()));
-        }
-    }
-
-    private boolean matchExpressionDataType(DataType ldt, DataType rdt) {
-        /*
-            This line checks if one of the data type is 'DataType.Int' and the other one
-            is 'DataType.Float'. This method basically allows operations between integers
-            and floats.
-         */
-        if ((ldt == DataType.Int && rdt == DataType.Float) || (ldt == DataType.Float && rdt == DataType.Int))
-            return true;
-        /*
-            This check if the two expression has the same Data Type since we can only perform operations
-            to the same Data Type except 'Float' and 'Int'. If they have the same Data Type then this will
-            return true else false.
-         */
-        return ldt == rdt;
-    }
-}
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.ParseTree.*;
+import Analysis.ParseTree.Expression.ExpressionNode;
+import Analysis.ParseTree.Expression.ExpressionVisitor;
+import Analysis.ParseTree.Expression.IdentifierNode;
+import Analysis.ParseTree.Expression.LiteralNode;
+import Analysis.ParseTree.Expression.ParenthesisNode;
+import Analysis.ParseTree.Expression.UnaryNode;
+import Analysis.ParseTree.Expression.BinNode;
+import Analysis.SymbolTable.VariableTable;
+import Analysis.ParseTree.Statement.*;
+import Analysis.TokenDataTypes.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Semantic {
+    // A range of statements is split for analyze(ProgramNode, ForkJoinPool) until it has this many
+    private static final int PARALLEL_GRAIN = 512;
+
+    private VariableTable variableTable;
+    private final Diagnostics diagnostics;
+    /*
+        Each declared variable gets a slot, the numbers from 0 in the order
+        the variables are declared, so the Interpreter can keep the values in
+        an array. The slots are written in the nodes, see IdentifierNode and
+        the statements with variables, and the Data Type of each expression
+        is written in its ExpressionNode.
+        Example below:
+        INT a, b          <- a is slot 0, b is slot 1
+        FLOAT c = a       <- c is slot 2, the IdentifierNode a gets slot 0
+     */
+    private int[] symbolSlots;
+    private DataType[] slotTypes;
+    private int slotCount;
+
+    public Semantic() {
+        this(new Diagnostics());
+    }
+
+    /*
+        The errors are added to the Diagnostics, give it the one of the
+        Parser to get the syntax and semantic errors together.
+     */
+    public Semantic(Diagnostics diagnostics) {
+        variableTable = new VariableTable();
+        this.diagnostics = diagnostics;
+        symbolSlots = new int[0];
+        slotTypes = new DataType[16];
+    }
+
+    /*
+        Used by analyze(ProgramNode, ForkJoinPool), it checks statements
+        against the variables of the Semantic it comes from but adds its
+        errors to its own Diagnostics.
+     */
+    private Semantic(Semantic semantic, Diagnostics diagnostics) {
+        this.variableTable = semantic.variableTable;
+        this.diagnostics = diagnostics;
+        this.symbolSlots = semantic.symbolSlots;
+        this.slotTypes = semantic.slotTypes;
+        this.slotCount = semantic.slotCount;
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Number of variables declared so far, the slots go from 0 to getSlotCount() - 1.
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public DataType getSlotType(int slot) {
+        return slotTypes[slot];
+    }
+
+    // The slot of the variable with the symbol, -1 when it is not declared.
+    public int getSlot(int symbol) {
+        return symbol >= 0 && symbol < symbolSlots.length ? symbolSlots[symbol] : -1;
+    }
+
+    // Adds the variable to the variableTable and gives it the next slot.
+    private int declare(int symbol, DataType dataType) {
+        variableTable.addIdentifier(symbol, dataType);
+        if (symbol >= symbolSlots.length) {
+            int length = symbolSlots.length;
+            symbolSlots = Arrays.copyOf(symbolSlots, Math.max(symbol + 1, length * 2));
+            Arrays.fill(symbolSlots, length, symbolSlots.length, -1);
+        }
+        symbolSlots[symbol] = slotCount;
+        return addSlot(dataType);
+    }
+
+    /*
+        Gives a slot to a variable that an optimization adds to the program,
+        like the $t0 that keeps the value of an expression moved out of a
+        loop. It has no symbol, so it can not be found by its name.
+     */
+    public int addTemporary(DataType dataType) {
+        return addSlot(dataType);
+    }
+
+    /*
+        Gives the slots new numbers after an optimization took variables
+        out of the program, slots[i] is the new slot of slot i or -1 when
+        it is not used anymore, see SlotCompaction. The nodes get their new
+        slots from the optimization, this only moves the Data Types and the
+        slots of the symbols.
+     */
+    public void renumberSlots(int[] slots, int count) {
+        DataType[] types = new DataType[Math.max(count, 16)];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots[slot] >= 0)
+                types[slots[slot]] = slotTypes[slot];
+        }
+        for (int symbol = 0; symbol < symbolSlots.length; symbol++) {
+            if (symbolSlots[symbol] >= 0)
+                symbolSlots[symbol] = slots[symbolSlots[symbol]];
+        }
+        slotTypes = types;
+        slotCount = count;
+    }
+
+    private int addSlot(DataType dataType) {
+        if (slotCount == slotTypes.length)
+            slotTypes = Arrays.copyOf(slotTypes, slotCount * 2);
+        slotTypes[slotCount] = dataType;
+        return slotCount++;
+    }
+
+    // An array of -1 for the slots of a statement, the slots are filled in while it is checked.
+    private static int[] noSlots(int size) {
+        int[] slots = new int[size];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+
+    /*
+        This method checks what type of statement it is like
+        if it is of type LoopNode, etc.
+        A statement with an error is added to the diagnostics and the
+        checking goes on with the next statement, so all the errors are
+        found in one run.
+     */
+    public void analyze(ProgramNode program) {
+        /*
+            The List is getting what type of StatementNode is the program.
+         */
+        List<StatementNode> statements = program.getStatements();
+        for (StatementNode statement : statements)
+            analyze(statement);
+    }
+
+    /*
+        The same checks and errors as analyze(ProgramNode), but the
+        statements are checked by the threads of the pool. The declarations
+        come first in a program, so after them the variables do not change
+        anymore and each statement can be checked on its own, nested IF and
+        WHILE blocks included. The errors of each part are added in the
+        order of the statements at the end, so they come out the same as
+        with one thread.
+        A declaration after the first statements is a syntax error but the
+        variable is still declared, so a statement with a declaration in it
+        (also inside its blocks) is checked alone on this thread, and only
+        the statements between them are checked in parallel.
+        An expression that is shared by ExpressionFactory can get its Data
+        Type from two threads at once, both write the same one.
+        Example below:
+            semantic.analyze(program, ForkJoinPool.commonPool());
+     */
+    public void analyze(ProgramNode program, ForkJoinPool pool) {
+        List<StatementNode> statements = program.getStatements();
+        int start = 0;
+        for (int i = 0; i < statements.size(); i++) {
+            if (hasDeclaration(statements.get(i))) {
+                analyze(statements, start, i, pool);
+                analyze(statements.get(i));
+                start = i + 1;
+            }
+        }
+        analyze(statements, start, statements.size(), pool);
+    }
+
+    private void analyze(List<StatementNode> statements, int from, int to, ForkJoinPool pool) {
+        if (to - from <= PARALLEL_GRAIN) {
+            for (int i = from; i < to; i++)
+                analyze(statements.get(i));
+            return;
+        }
+        for (Diagnostics.Diagnostic error : pool.invoke(new CheckTask(statements, from, to)))
+            diagnostics.report(error);
+    }
+
+    private static boolean hasDeclaration(StatementNode statement) {
+        if (statement instanceof VariableDeclarationNode)
+            return true;
+        List<ProgramNode> blocks = statement instanceof ConditionalNode ? ((ConditionalNode) statement).getStmt()
+                : statement instanceof LoopNode ? List.of(((LoopNode) statement).getStatement()) : List.of();
+        for (ProgramNode block : blocks) {
+            for (StatementNode inner : block.getStatements()) {
+                if (hasDeclaration(inner))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+        Checks the statements from..to, a big range is split in two halves
+        that are checked at the same time. Returns the errors in the order
+        of the statements.
+     */
+    private final class CheckTask extends RecursiveTask<List<Diagnostics.Diagnostic>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<StatementNode> statements;
+        private final int from;
+        private final int to;
+
+        CheckTask(List<StatementNode> statements, int from, int to) {
+            this.statements = statements;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Diagnostics.Diagnostic> compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                Semantic semantic = new Semantic(Semantic.this, new Diagnostics());
+                for (int i = from; i < to; i++)
+                    semantic.analyze(statements.get(i));
+                return semantic.diagnostics.getErrors();
+            }
+            int middle = (from + to) >>> 1;
+            CheckTask first = new CheckTask(statements, from, middle);
+            first.fork();
+            List<Diagnostics.Diagnostic> second = new CheckTask(statements, middle, to).compute();
+            List<Diagnostics.Diagnostic> errors = new ArrayList<>(first.join());
+            errors.addAll(second);
+            return errors;
+        }
+    }
+
+    /*
+        Checks one statement against the variables declared before it, so
+        a program can also be checked one statement at a time while it is
+        parsed.
+     */
+    public void analyze(StatementNode statement) {
+        try {
+            statement.accept(statementAnalyzer);
+        } catch (RuntimeException e) {
+            diagnostics.report(e, statement.getLine(), statement.getColumn());
+        }
+    }
+
+    // Calls the analyze method of the kind of the statement, see StatementVisitor
+    private final StatementVisitor<Void> statementAnalyzer = new StatementVisitor<>() {
+        @Override
+        public Void visitVariableDeclaration(VariableDeclarationNode statement) {
+            analyzeVariableDeclaration(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(AssignmentNode statement) {
+            analyzeAssignment(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitDisplay(DisplayNode statement) {
+            analyzeDisplay(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitScan(ScanNode statement) {
+            analyzeScan(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitCondition(ConditionalNode statement) {
+            analyzeCondition(statement);
+            return null;
+        }
+
+        @Override
+        public Void visitLoop(LoopNode statement) {
+            analyzeLoop(statement);
+            return null;
+        }
+    };
+
+    private void analyzeVariableDeclaration(VariableDeclarationNode statement) {
+        /*
+            This method 'statement.getDataTypeToken():' call on the VariableDeclarationNode
+            object statement retrieves the Token object representing the data type of the
+            variables being declared.
+            'getTokenType():' This method call on the Token object retrieves the TokenType
+            enum value which indicates the specific data type (such as INT, FLOAT, CHAR, etc.).
+         */
+        DataType dataType = Grammar.getDataType(statement.getDataTypeToken().getTokenType());
+        int[] slots = noSlots(statement.getIdentifiers().size());
+        statement.setSlots(slots);
+        /*
+            This iterates over the variables declared in the statement in the order they are written.
+            The variableTable is checked using the symbol of the variable.
+         */
+        for (int i = 0; i < statement.getIdentifiers().size(); i++) {
+            int symbol = statement.getSymbols()[i];
+            /*
+                For each variable identifier, the method checks if it already exists in the
+                variableTable (which presumably keeps track of all declared variables).
+                Basically it will iterate through each variable in the declaration and check
+                if it exists already or the data type does not match to the declared data type.
+
+             */
+            if (!variableTable.exists(symbol)) {
+                ExpressionNode value = statement.getValues().get(i);
+                try {
+                    //Here it checks if the variable is initialized or not.
+                    if (value != null) {
+                        /*
+                            It calls analyzeExpression(value) to determine the data type of the expression.
+                            Analyzes the type of the expression being assigned to the variable using analyzeExpression().
+                            This method determines the data type of the right-hand side expression of the assignment.
+                            Example: x = 5; statement.getExpression() retrieves the right-hand side of the assignment
+                            (5 in this example). The method analyzeExpression is then called to determine the data type
+                            of this expression.
+                         */
+                        DataType expressionType = analyzeExpression(value);
+                        /*
+                            Here it compares if the data type of the expression matches the declared data type
+                            of the variable.
+                         */
+                        if (!Grammar.matchDataType(dataType, expressionType)) {
+                            throw new CodeError("The Data Type of the variable does not match.", statement.getLine(), statement.getColumn());
+                        }
+                    }
+                } finally {
+                    /*
+                        Here it added the variable to the variableTable, even if its value has an error
+                        so the lines that use the variable are not reported as errors too.
+                     */
+                    slots[i] = declare(symbol, dataType);
+                }
+            } else {
+                throw new CodeError("Variable is already declared.", statement.getLine(), statement.getColumn());
+            }
+        }
+    }
+
+    private void analyzeAssignment(AssignmentNode statement) {
+        /*
+            Iterates over each variable identifier in the assignment statement.
+            Since statement is of AssignmentNode it can use the getIdentifiers()
+            and use the size function to iterate until its size.
+         */
+        int[] slots = noSlots(statement.getIdentifiers().size());
+        statement.setSlots(slots);
+        // The expression is the same for all the variables of a = b = expr, so it is analyzed once
+        DataType expressionType = null;
+        for (int i = 0; i < statement.getIdentifiers().size(); i++) {
+            //Retrieves the variable identifier and its symbol at the current index 'i'.
+            String identifier = statement.getIdentifiers().get(i);
+            int symbol = statement.getSymbols()[i];
+            //Checks if the variable identified by identifier exists in the variableTable.
+            if (variableTable.exists(symbol)) {
+                //If the variable exists, retrieves its data type from the variableTable.
+                DataType dataType = variableTable.getType(symbol);
+                slots[i] = getSlot(symbol);
+                /*
+                    Analyzes the type of the expression being assigned to the variable using analyzeExpression().
+                    This method determines the data type of the right-hand side expression of the assignment.
+                    Example: x = 5; statement.getExpression() retrieves the right-hand side of the assignment (5 in this example).
+                    The method analyzeExpression is then called to determine the data type of this expression.
+                 */
+                if (expressionType == null)
+                    expressionType = analyzeExpression(statement.getExpression());
+                /*
+                    Checks if the data type of the expression (expressionType) matches the data type
+                    of the variable (dataType) using Grammar.matchDataType().
+                 */
+                if (!Grammar.matchDataType(dataType, expressionType)) {
+                    throw new CodeError(String.format("Cannot assign %s to \"%s\".",
+                            expressionType, identifier), statement.getLine(), statement.getColumn());
+                }
+            } else {
+                throw new CodeError(String.format("Variable \"%s\" does not exist.", identifier), statement.getLine(), statement.getColumn());
+            }
+        }
+    }
+
+    private void analyzeDisplay(DisplayNode statement) {
+        /*
+            We use for each for iteration purposes so that we can do multiple DISPLAY.
+            Example: DISPLAY: a & b & c
+         */
+        for (ExpressionNode expression : statement.getExpressions()) {
+            if (expression instanceof IdentifierNode) {
+                /*
+                    Here you typecast it to IdentifierNode if it is its instance.
+                    This is logical since when you use DISPLAY you used the variable name
+                    which is an identifier that is why you check if it is an instance of it.
+                 */
+                IdentifierNode identifierNode = (IdentifierNode) expression;
+                if (!variableTable.exists(identifierNode.getSymbol())) {
+                    throw new CodeError(String.format("Variable \"%s\" does not exist.", identifierNode.getName()), identifierNode.getLine(), identifierNode.getColumn());
+                }
+            }
+            resolve(expression);
+        }
+    }
+
+    /*
+        DISPLAY joins any values with &, so the types of its expressions are
+        not checked. They still get their Data Types where they can be found
+        and every variable in them gets its slot, without adding errors.
+     */
+    private void resolve(ExpressionNode expression) {
+        try {
+            analyzeExpression(expression);
+        } catch (RuntimeException e) {
+            resolveSlots(expression);
+        }
+    }
+
+    private void resolveSlots(ExpressionNode expression) {
+        if (expression instanceof BinNode) {
+            resolveSlots(((BinNode) expression).getLeftHandSide());
+            resolveSlots(((BinNode) expression).getRightHandSide());
+        } else if (expression instanceof UnaryNode) {
+            resolveSlots(((UnaryNode) expression).getExpression());
+        } else if (expression instanceof ParenthesisNode) {
+            resolveSlots(((ParenthesisNode) expression).getExpression());
+        } else if (expression instanceof IdentifierNode) {
+            IdentifierNode identifier = (IdentifierNode) expression;
+            identifier.setSlot(getSlot(identifier.getSymbol()));
+        }
+    }
+
+    private void analyzeScan(ScanNode statement) {
+        /*
+            We use for each so that we can do multiple SCAN.
+            Example: SCAN: a & b
+         */
+        int[] slots = noSlots(statement.getIdentifiers().size());
+        statement.setSlots(slots);
+        for (int i = 0; i < statement.getIdentifiers().size(); i++) {
+            //Check if the identifer/variable exist in the variableTable.
+            if (!variableTable.exists(statement.getSymbols()[i])) {
+                throw new CodeError(String.format("Variable \"%s\" does not exist.", statement.getIdentifiers().get(i)), statement.getLine(), statement.getColumn());
+            }
+            slots[i] = getSlot(statement.getSymbols()[i]);
+        }
+    }
+
+    private void analyzeCondition(ConditionalNode statement) {
+    int index = 0;
+    /*
+        Iterates over a list of expressions obtained from the ConditionalNode instance.
+        These expressions correspond to the conditions in the conditional statement.
+     */
+    for (ExpressionNode expression : statement.getExpressions()) {
+        /*
+                Verifies whether the current expression is not null, which indicates
+                that the current statement is either an if or an else if statement.
+                This check ensures that the else block won't be analyzed for a null expression.
+                The else block doesn't have a condition associated with it, so there's no expression
+                to evaluate. Therefore, the expression being null signifies the presence of the else block.
+             */
+        if (expression != null) {
+            // An error in the condition is reported here so the block below is still checked
+            try {
+                if (analyzeExpression(expression) != DataType.Bool) {
+                    throw new CodeError("Incorrect Data Type. Data Type should be Bool.", expression.getLine(), expression.getColumn());
+                }
+            } catch (RuntimeException e) {
+                diagnostics.report(e, expression.getLine(), expression.getColumn());
+            }
+        }
+
+        /*
+            Calls the analyzed method to analyze the statement block corresponding to the
+            current expression. This could be the body of an if, else if, or else block,
+            depending on the iteration. Each index is one analyzation for example,
+            at index = 0 the if block is analyzed and in index = 1 is the else if bock.
+        */
+        analyze(statement.getStmt().get(index));
+
+        //Increments the index to proceed to the next expression and its corresponding statement block.
+        index++;
+    }
+}
+    private void analyzeLoop(LoopNode statement) {
+        //Here it get the Data Type of the statement.
+        // An error in the condition is reported here so the block below is still checked
+        try {
+            DataType expressionType = analyzeExpression(statement.getExpression());
+            if (expressionType != DataType.Bool) {
+                throw new CodeError("Incorrect Data Type. Data Type should be Bool.", statement.getLine(), statement.getColumn());
+            }
+        } catch (RuntimeException e) {
+            diagnostics.report(e, statement.getLine(), statement.getColumn());
+        }
+        /*
+            Here you call the analyze() method to execute the statements
+            inside the loop.
+         */
+        analyze(statement.getStatement());
+    }
+
+    /*
+        This method checks the type of ExpressionNode is the expression
+        i.e. BinNode, UnaryNode, etc. through the expressionAnalyzer below.
+        The Data Type it finds is also kept in the node.
+     */
+    private DataType analyzeExpression(ExpressionNode expression) {
+        DataType dataType = expression.accept(expressionAnalyzer);
+        expression.setDataType(dataType);
+        return dataType;
+    }
+
+    // Calls the analyze method of the kind of the expression, see ExpressionVisitor
+    private final ExpressionVisitor<DataType> expressionAnalyzer = new ExpressionVisitor<>() {
+        @Override
+        public DataType visitBinary(BinNode expression) {
+            return analyzeBinaryExpression(expression);
+        }
+
+        @Override
+        public DataType visitUnary(UnaryNode expression) {
+            return analyzeUnaryExpression(expression);
+        }
+
+        @Override
+        public DataType visitParenthesis(ParenthesisNode expression) {
+            return analyzeExpression(expression.getExpression());
+        }
+
+        @Override
+        public DataType visitIdentifier(IdentifierNode expression) {
+            return analyzeIdentifierExpression(expression);
+        }
+
+        @Override
+        public DataType visitLiteral(LiteralNode expression) {
+            return analyzeLiteralExpression(expression);
+        }
+    };
+
+    private DataType analyzeBinaryExpression(BinNode expression) {
+        //This get the operator
+        Token operatorToken = expression.getTokenOperator();
+        //This get the left side expression
+        DataType leftDataType = analyzeExpression(expression.getLeftHandSide());
+        //This get the right side expression
+        DataType rightDataType = analyzeExpression(expression.getRightHandSide());
+        return getBinaryDataType(operatorToken.getTokenType(), operatorToken.getCode(), leftDataType, rightDataType,
+                expression.getLine(), expression.getColumn());
+    }
+
+    /*
+        Checks that the operator can be applied to the two sides and returns the Data Type of
+        the result. The line and column are only used in the error messages.
+     */
+    private DataType getBinaryDataType(TokenType operator, String operatorCode, DataType leftDataType, DataType rightDataType,
+                                       int line, int column) {
+        //You check if the left side and right side has the same Data Type.
+        if (!matchExpressionDataType(leftDataType, rightDataType)) {
+            throw new CodeError(String.format("Left side expression is of type '%s' while right side expression " +
+                    "is '%s'; operator '%s' cannot be applied.", leftDataType, rightDataType, operatorCode), line, column);
+            //left side expression and right side expression has different Data Type therefore operator '%s' cannot be applied.
+        }
+        /*
+            Here you check if the Data Type of left and right side expression is of type Char, Bool, and String.
+            Since you cannot apply arithmetic operations to this Data Type.
+         */
+        if (Grammar.isArithmeticOperator(operator) &&
+                ((leftDataType == DataType.Char || leftDataType == DataType.String || leftDataType == DataType.Bool) &&
+                        (rightDataType == DataType.Char || rightDataType == DataType.String || rightDataType == DataType.Bool))) {
+            throw new CodeError("Cannot apply arithmetic operations to data type 'CHAR', 'BOOL', and 'STRING'.", line, column);
+        /*
+            Here you check if left and right side expression is of the same type.
+            Since Comparison Operator can only be applied to the Data Type.
+         */
+        } else if (Grammar.isComparisonOperator(operator) &&
+                !matchExpressionDataType(leftDataType, rightDataType)) {
+            throw new CodeError(String.format("Left side expression is of type '%s' while right side expression is '%s'; " +
+                    "comparison operator '%s' cannot be applied.", leftDataType, rightDataType, operatorCode), line, column);
+        }
+        /*
+            If the operator is a comparison operator, the result of the binary expression is a boolean (DataType.Bool).
+            Otherwise, the result of the binary expression is the data type of the left-hand side expression (leftDataType).
+            It does not matter if we return left or right side expression in the else block since we checked above if they
+            match Data Type.
+        */
+        return Grammar.isComparisonOperator(operator) ? DataType.Bool : leftDataType;
+    }
+
+    private DataType analyzeUnaryExpression(UnaryNode expression) {
+        //This will retrieve the token of the operator i.e. PLUS, MINUS, etc.
+        Token operatorToken = expression.getTokenOperator();
+        //This will retrieve the Data Type of the expression.
+        DataType expressionDataType = analyzeExpression(expression.getExpression());
+        return getUnaryDataType(operatorToken.getTokenType(), operatorToken.getCode(), expressionDataType,
+                expression.getLine(), expression.getColumn());
+    }
+
+    private DataType getUnaryDataType(TokenType operator, String operatorCode, DataType expressionDataType, int line, int column) {
+        /*
+            It checks if the operator is 'NOT' then it checks if the Data Type is 'BOOL'
+            If the data type is Bool, it returns 'DataType.Bool' because applying the 'NOT'
+            operator to a boolean expression results in a boolean value.
+            Ka gets nako since the 'NOT' here since it will invert the boolean value of it
+            like for example the 'true' becomes 'false' and vice versa that is why it should it
+            BOOL.
+         */
+        if (operator == TokenType.NOT) {
+            if (expressionDataType != DataType.Bool) {
+                throw new CodeError(String.format("Operator '%s' can only be applied to '%s'.",
+                        operatorCode, expressionDataType), line, column);
+            }
+            return DataType.Bool;
+        }
+        //Returns the Data Type of the expression if the unary operator is not 'NOT'
+        return expressionDataType;
+    }
+
+    private DataType analyzeIdentifierExpression(IdentifierNode expression) {
+        /*
+            Here it check if the Name of the identifier exists in the variableTable
+            and if not it will return an exception.
+         */
+        if (!variableTable.exists(expression.getSymbol())) {
+            throw new CodeError(String.format("Variable \"%s\" does not exist.", expression.getName()), expression.getLine(), expression.getColumn());
+        }
+        //Here it will return the Data Type of the identifier if it exists in the variableTable.
+        expression.setSlot(getSlot(expression.getSymbol()));
+        return variableTable.getType(expression.getSymbol());
+    }
+
+    private DataType analyzeLiteralExpression(LiteralNode expression) {
+        //The method retrieves the actual value of the literal from the LiteralNode object.
+        return getLiteralDataType(expression.getLiteral(), expression.getLine(), expression.getColumn());
+    }
+
+    private DataType getLiteralDataType(Object value, int line, int column) {
+        /*
+            Here it checks on what instance is the value object.
+            By using instanceof we can ensure that only supported
+            types are processed correctly.
+         */
+        if (value instanceof Integer) {
+            return DataType.Int;
+        } else if (value instanceof Float || value instanceof Double) {
+            return DataType.Float;
+        } else if (value instanceof Character) {
+            return DataType.Char;
+        } else if (value instanceof Boolean) {
+            return DataType.Bool;
+        } else if (value instanceof String) {
+            return DataType.String;
+        } else {
+            throw new CodeError(String.format("Unknown Data Type %s", value), line, column);
+        }
+    }
+
+    private boolean matchExpressionDataType(DataType ldt, DataType rdt) {
+        /*
+            This line checks if one of the data type is 'DataType.Int' and the other one
+            is 'DataType.Float'. This method basically allows operations between integers
+            and floats.
+         */
+        if ((ldt == DataType.Int && rdt == DataType.Float) || (ldt == DataType.Float && rdt == DataType.Int))
+            return true;
+        /*
+            This check if the two expression has the same Data Type since we can only perform operations
+            to the same Data Type except 'Float' and 'Int'. If they have the same Data Type then this will
+            return true else false.
+         */
+        return ldt == rdt;
+    }
+
+    /*
+        The same checks as analyze(ProgramNode), with the same messages,
+        for a program kept in a FlatTree. The nodes are read with the
+        FlatTree methods instead of the getters of the ASTNode classes.
+        The variables get their slots the same way, but they are not
+        written in the FlatTree, that would make it bigger. The Interpreter
+        gets the slot of a symbol from getSlot() instead.
+     */
+    public void analyze(FlatTree tree) {
+        for (int i = 0; i < tree.getStatementCount(); i++)
+            analyzeStatement(tree, tree.getStatement(i));
+    }
+
+    private void analyzeBlock(FlatTree tree, int block) {
+        for (int i = 0; i < tree.getCount(block); i++)
+            analyzeStatement(tree, tree.getItem(block, i));
+    }
+
+    private void analyzeStatement(FlatTree tree, int statement) {
+        try {
+            switch (tree.getKind(statement)) {
+                case VARIABLE_DECLARATION:
+                    analyzeVariableDeclaration(tree, statement);
+                    break;
+                case ASSIGNMENT:
+                    analyzeAssignment(tree, statement);
+                    break;
+                case DISPLAY:
+                    analyzeDisplay(tree, statement);
+                    break;
+                case SCAN:
+                    analyzeScan(tree, statement);
+                    break;
+                case CONDITION:
+                    analyzeCondition(tree, statement);
+                    break;
+                case LOOP:
+                    analyzeLoop(tree, statement);
+                    break;
+                default:
+                    break;
+            }
+        } catch (RuntimeException e) {
+            diagnostics.report(e, tree.getLine(statement), tree.getColumn(statement));
+        }
+    }
+
+    private void analyzeVariableDeclaration(FlatTree tree, int statement) {
+        DataType dataType = Grammar.getDataType(tree.getOperator(statement));
+        for (int i = 0; i < tree.getCount(statement); i++) {
+            int symbol = tree.getItem(statement, i);
+            if (variableTable.exists(symbol))
+                throw new CodeError("Variable is already declared.", tree.getLine(statement), tree.getColumn(statement));
+
+            int value = tree.getValue(statement, i);
+            try {
+                if (value != FlatTree.NONE && !Grammar.matchDataType(dataType, analyzeExpression(tree, value)))
+                    throw new CodeError("The Data Type of the variable does not match.", tree.getLine(statement), tree.getColumn(statement));
+            } finally {
+                declare(symbol, dataType);
+            }
+        }
+    }
+
+    private void analyzeAssignment(FlatTree tree, int statement) {
+        DataType expressionType = null;
+        for (int i = 0; i < tree.getCount(statement); i++) {
+            int symbol = tree.getItem(statement, i);
+            if (!variableTable.exists(symbol))
+                throw new CodeError(String.format("Variable \"%s\" does not exist.", tree.getItemName(statement, i)), tree.getLine(statement), tree.getColumn(statement));
+
+            DataType dataType = variableTable.getType(symbol);
+            if (expressionType == null)
+                expressionType = analyzeExpression(tree, tree.getExpression(statement));
+            if (!Grammar.matchDataType(dataType, expressionType))
+                throw new CodeError(String.format("Cannot assign %s to \"%s\".",
+                        expressionType, tree.getItemName(statement, i)), tree.getLine(statement), tree.getColumn(statement));
+        }
+    }
+
+    private void analyzeDisplay(FlatTree tree, int statement) {
+        // Only the variables written on their own are checked, like in analyzeDisplay(DisplayNode)
+        for (int i = 0; i < tree.getCount(statement); i++) {
+            int expression = tree.getItem(statement, i);
+            if (tree.getKind(expression) == NodeKind.IDENTIFIER && !variableTable.exists(tree.getSymbol(expression)))
+                throw new CodeError(String.format("Variable \"%s\" does not exist.", tree.getName(expression)), tree.getLine(expression), tree.getColumn(expression));
+        }
+    }
+
+    private void analyzeScan(FlatTree tree, int statement) {
+        for (int i = 0; i < tree.getCount(statement); i++) {
+            if (!variableTable.exists(tree.getItem(statement, i)))
+                throw new CodeError(String.format("Variable \"%s\" does not exist.", tree.getItemName(statement, i)), tree.getLine(statement), tree.getColumn(statement));
+        }
+    }
+
+    private void analyzeCondition(FlatTree tree, int statement) {
+        for (int i = 0; i < tree.getCount(statement); i++) {
+            int condition = tree.getCondition(statement, i);
+            if (condition != FlatTree.NONE) {
+                try {
+                    if (analyzeExpression(tree, condition) != DataType.Bool)
+                        throw new CodeError("Incorrect Data Type. Data Type should be Bool.", tree.getLine(condition), tree.getColumn(condition));
+                } catch (RuntimeException e) {
+                    diagnostics.report(e, tree.getLine(condition), tree.getColumn(condition));
+                }
+            }
+            analyzeBlock(tree, tree.getBlock(statement, i));
+        }
+    }
+
+    private void analyzeLoop(FlatTree tree, int statement) {
+        try {
+            if (analyzeExpression(tree, tree.getCondition(statement)) != DataType.Bool)
+                throw new CodeError("Incorrect Data Type. Data Type should be Bool.", tree.getLine(statement), tree.getColumn(statement));
+        } catch (RuntimeException e) {
+            diagnostics.report(e, tree.getLine(statement), tree.getColumn(statement));
+        }
+        analyzeBlock(tree, tree.getBlock(statement));
+    }
+
+    private DataType analyzeExpression(FlatTree tree, int expression) {
+        switch (tree.getKind(expression)) {
+            case BINARY:
+                DataType leftDataType = analyzeExpression(tree, tree.getLeft(expression));
+                DataType rightDataType = analyzeExpression(tree, tree.getRight(expression));
+                return getBinaryDataType(tree.getOperator(expression), tree.getOperatorCode(expression), leftDataType, rightDataType,
+                        tree.getLine(expression), tree.getColumn(expression));
+            case UNARY:
+                return getUnaryDataType(tree.getOperator(expression), tree.getOperatorCode(expression),
+                        analyzeExpression(tree, tree.getOperand(expression)), tree.getLine(expression), tree.getColumn(expression));
+            case PARENTHESIS:
+                return analyzeExpression(tree, tree.getOperand(expression));
+            case IDENTIFIER:
+                if (!variableTable.exists(tree.getSymbol(expression)))
+                    throw new CodeError(String.format("Variable \"%s\" does not exist.", tree.getName(expression)), tree.getLine(expression), tree.getColumn(expression));
+                return variableTable.getType(tree.getSymbol(expression));
+            case LITERAL:
+                return getLiteralDataType(tree.getLiteral(expression), tree.getLine(expression), tree.getColumn(expression));
+            default:
+                throw new RuntimeException("Unknown expression.");
+        }
+    }
+}
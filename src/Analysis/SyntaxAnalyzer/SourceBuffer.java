@@ -0,0 +1,298 @@
+package Analysis.SyntaxAnalyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/*
+    The source code the Lexer reads from. Positions are always counted
+    from the start of the program, even when only part of the program is
+    in memory.
+    There are two kinds:
+    - of(CharSequence) uses a String or CharBuffer that is already in
+      memory directly, no copy is made.
+    - of(Reader) reads the program in fixed size windows. The Lexer calls
+      release() at the start of every token, so everything before that
+      can be thrown away and memory stays at about one window no matter
+      how big the program is.
+    Both kinds give the Lexer the code without any '\r', like App did with
+    replace("\r", ""). It is dropped while the window is filled, so a
+    "\r\n" is a "\n" and the positions are the same as if the code had no
+    '\r' in it. Code in memory that has a '\r' is read through a window
+    for this reason.
+    This implements CharSequence so Grammar and the SymbolInterner can
+    read a word straight from it, but charAt() only works for positions
+    that have not been released yet.
+ */
+abstract class SourceBuffer implements CharSequence {
+    static final int WINDOW_SIZE = 1 << 16;
+
+    static SourceBuffer of(CharSequence code) {
+        boolean hasNull = false;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\r')
+                return of(new CharSequenceReader(code));
+            if (c == '\0')
+                hasNull = true;
+        }
+        return new Whole(code, hasNull);
+    }
+
+    /*
+        Like of(code) but the whole code always stays in memory, so a Lexer
+        can start again at any position of it later. A '\r' is dropped in a
+        copy of the code instead of being read through a window.
+     */
+    static SourceBuffer inMemory(CharSequence code) {
+        SourceBuffer buffer = of(code);
+        if (buffer instanceof Whole)
+            return buffer;
+        return of(code.toString().replace("\r", ""));
+    }
+
+    // Uses the code as it is, it must not have any '\r'.
+    static SourceBuffer wrap(CharSequence code) {
+        return new Whole(code, true);
+    }
+
+    static SourceBuffer of(Reader reader) {
+        return of(reader, WINDOW_SIZE);
+    }
+
+    static SourceBuffer of(Reader reader, int windowSize) {
+        return new Windowed(reader, windowSize);
+    }
+
+    // Returns the character at the index or '\0' if the index is past the end of the code.
+    @Override
+    public abstract char charAt(int index);
+
+    abstract boolean isEnd(int index);
+
+    abstract String text(int start, int end);
+
+    /*
+        The Lexer uses these two to jump over spaces and comments, instead
+        of reading them one character at a time with charAt().
+        skipBlanks() returns the first index from the index on that is not
+        a ' ' or '\t', and skipComment() returns the first index that is a
+        '\n' or a '\0' (a '\0' also ends a comment) or the end of the code.
+     */
+    abstract int skipBlanks(int index);
+
+    abstract int skipComment(int index);
+
+    // Tells the buffer that the characters before the index will not be read again.
+    void release(int index) {
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text(start, end);
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isCommentEnd(char c) {
+        return c == '\n' || c == '\0';
+    }
+
+    private static final class Whole extends SourceBuffer {
+        private final CharSequence code;
+        /*
+            The code if it is a String without any '\0'. Then the end of a
+            comment is just the next '\n', and String.indexOf() finds it
+            many characters at a time.
+         */
+        private final String string;
+
+        Whole(CharSequence code, boolean hasNull) {
+            this.code = code;
+            this.string = code instanceof String && !hasNull ? (String) code : null;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return index < code.length() ? code.charAt(index) : '\0';
+        }
+
+        @Override
+        boolean isEnd(int index) {
+            return index >= code.length();
+        }
+
+        @Override
+        String text(int start, int end) {
+            return code.subSequence(start, Math.min(end, code.length())).toString();
+        }
+
+        @Override
+        int skipBlanks(int index) {
+            int length = code.length();
+            while (index < length && isBlank(code.charAt(index)))
+                index++;
+            return index;
+        }
+
+        @Override
+        int skipComment(int index) {
+            if (string != null) {
+                int end = string.indexOf('\n', index);
+                return end < 0 ? string.length() : end;
+            }
+            int length = code.length();
+            while (index < length && !isCommentEnd(code.charAt(index)))
+                index++;
+            return index;
+        }
+
+        @Override
+        public int length() {
+            return code.length();
+        }
+    }
+
+    private static final class Windowed extends SourceBuffer {
+        private final Reader reader;
+        private char[] window;
+        private int windowStart; // Position of window[0] in the program
+        private int windowEnd; // Position after the last character read so far
+        private int released;
+        private boolean exhausted;
+
+        Windowed(Reader reader, int windowSize) {
+            this.reader = reader;
+            this.window = new char[windowSize];
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= windowEnd && !fill(index))
+                return '\0';
+            return window[index - windowStart];
+        }
+
+        @Override
+        boolean isEnd(int index) {
+            return index >= windowEnd && !fill(index);
+        }
+
+        @Override
+        String text(int start, int end) {
+            if (end > windowEnd)
+                fill(end - 1);
+            end = Math.min(end, windowEnd);
+            return new String(window, start - windowStart, end - start);
+        }
+
+        @Override
+        void release(int index) {
+            released = Math.max(released, index);
+        }
+
+        @Override
+        int skipBlanks(int index) {
+            while (index < windowEnd || fill(index)) {
+                int end = windowEnd - windowStart;
+                int i = index - windowStart;
+                while (i < end && isBlank(window[i]))
+                    i++;
+                index = windowStart + i;
+                if (i < end)
+                    break;
+            }
+            return index;
+        }
+
+        @Override
+        int skipComment(int index) {
+            while (index < windowEnd || fill(index)) {
+                int end = windowEnd - windowStart;
+                int i = index - windowStart;
+                while (i < end && !isCommentEnd(window[i]))
+                    i++;
+                index = windowStart + i;
+                if (i < end)
+                    break;
+                // The comment is never read again, so a long one does not make the window grow
+                release(index);
+            }
+            return index;
+        }
+
+        @Override
+        public int length() {
+            return windowEnd;
+        }
+
+        /*
+            Reads more of the program until the index is in the window.
+            Released characters are dropped first, and the window only
+            grows if one token is longer than the whole window.
+            Returns false if the program ends before the index.
+         */
+        private boolean fill(int index) {
+            while (index >= windowEnd && !exhausted) {
+                int from = Math.min(released, windowEnd);
+                if (from > windowStart) {
+                    System.arraycopy(window, from - windowStart, window, 0, windowEnd - from);
+                    windowStart = from;
+                }
+                int used = windowEnd - windowStart;
+                if (used == window.length)
+                    window = Arrays.copyOf(window, window.length * 2);
+
+                int read;
+                try {
+                    read = reader.read(window, used, window.length - used);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (read < 0)
+                    exhausted = true;
+                else
+                    windowEnd = windowStart + dropCarriageReturns(used, used + read);
+            }
+            return index < windowEnd;
+        }
+
+        // Drops the '\r' in window[from, to) and returns where the characters now end.
+        private int dropCarriageReturns(int from, int to) {
+            int end = from;
+            for (int i = from; i < to; i++) {
+                if (window[i] != '\r')
+                    window[end++] = window[i];
+            }
+            return end;
+        }
+    }
+
+    private static final class CharSequenceReader extends Reader {
+        private final CharSequence code;
+        private int position;
+
+        CharSequenceReader(CharSequence code) {
+            this.code = code;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= code.length())
+                return -1;
+            int end = Math.min(code.length(), position + length);
+            for (int i = position; i < end; i++)
+                buffer[offset++] = code.charAt(i);
+            int read = end - position;
+            position = end;
+            return read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,54 +1,113 @@
-package Analysis.SyntaxAnalyzer;
-
-import Analysis.TokenDataTypes.*;
-
-public class Token {
-    private TokenType tokenType;
-    private String code;
-    private Object value;
-    private int line;
-    private int column;
-
-    public Token(TokenType tokenType, String code, Object value) {
-        this.tokenType = tokenType;
-        this.code = code;
-        this.value = value;
-    }
-
-    public Token(TokenType tokenType) {
-        this.tokenType = tokenType;
-    }
-
-    public TokenType getTokenType() {
-        return tokenType;
-    }
-
-    public void setTokenType(TokenType tokenType) {
-        this.tokenType = tokenType;
-    }
-
-    public String getCode() {
-        return code;
-    }
-
-    public Object getValue() {
-        return value;
-    }
-
-    public void setValue(Object value) {
-        this.value = value;
-    }
-
-    public int getLine() {
-        return line;
-    }
-
-    public int getColumn() {
-        return column;
-    }
-
-    @Override
-    public String toString() {
-        return "Token(" + tokenType + ", " + code + ", " + value + ")";
-    }
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.TokenDataTypes.*;
+
+public class Token {
+    /*
+        Tokens that always have the same text, like "+", "(" or a new line,
+        are only created once and shared (see of()). A shared token has no
+        line and column, the position of where it was read comes from the
+        Lexer or TokenBuffer instead.
+     */
+    private static final Token[] SHARED = new Token[TokenType.values().length];
+
+    static {
+        share(TokenType.STAR, "*");
+        share(TokenType.SLASH, "/");
+        share(TokenType.MODULO, "%");
+        share(TokenType.PLUS, "+");
+        share(TokenType.MINUS, "-");
+        share(TokenType.GREATERTHAN, ">");
+        share(TokenType.GREATEREQUAL, ">=");
+        share(TokenType.LESSTHAN, "<");
+        share(TokenType.LESSEQUAL, "<=");
+        share(TokenType.NOTEQUAL, "<>");
+        share(TokenType.EQUALTO, "==");
+        share(TokenType.EQUAL, "=");
+        share(TokenType.DOLLAR, "$");
+        share(TokenType.AMPERSAND, "&");
+        share(TokenType.OPENPARENTHESIS, "(");
+        share(TokenType.CLOSEPARENTHESIS, ")");
+        share(TokenType.COMMA, ",");
+        share(TokenType.COLON, ":");
+        share(TokenType.NEWLINE, "\n");
+        share(TokenType.ENDOFFILE, "\0");
+    }
+
+    private TokenType tokenType;
+    private String code;
+    private Object value;
+    private int line;
+    private int column;
+    // The SymbolInterner number of an IDENTIFIER token, -1 for other tokens
+    private int symbol = -1;
+
+    public Token(TokenType tokenType, String code, Object value) {
+        this.tokenType = tokenType;
+        this.code = code;
+        this.value = value;
+    }
+
+    public Token(TokenType tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    private static void share(TokenType tokenType, String code) {
+        SHARED[tokenType.ordinal()] = new Token(tokenType, code, null);
+    }
+
+    // Returns the shared token of the type, or null if tokens of this type are not shared.
+    public static Token of(TokenType tokenType) {
+        return SHARED[tokenType.ordinal()];
+    }
+
+    public boolean isShared() {
+        return SHARED[tokenType.ordinal()] == this;
+    }
+
+    public TokenType getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(TokenType tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public int getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(int symbol) {
+        this.symbol = symbol;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    void setPosition(int line, int column) {
+        this.line = line;
+        this.column = column;
+    }
+
+    @Override
+    public String toString() {
+        return "Token(" + tokenType + ", " + code + ", " + value + ")";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,502 @@
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.SymbolTable.SymbolInterner;
+import Analysis.TokenDataTypes.TokenType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    All the tokens of a program packed into arrays instead of one Token
+    object per token. Token i is described by kinds[i], starts[i],
+    lengths[i] and extras[i]. For an IDENTIFIER, extras[i] is its symbol,
+    for literals and errors it is the index of the Token kept in the pool,
+    for shared tokens like "+" it is SHARED and for keywords and data types
+    it is KEYWORD. A literal that is written the same way more than once,
+    like 1 or "Hello", is only kept in the pool once. Errors are always
+    kept since they can have the same text.
+    Example below:
+        x = x + 1
+    is 5 tokens, only "1" is kept in the pool, "x" is a symbol and "=" and
+    "+" are shared tokens.
+    The line and column of a token are not kept for each token, they come
+    from where it starts and lineStarts, where the lines after each NEWLINE
+    token start. That is also how the Lexer counts them.
+    Use reader() to give the tokens to the Parser, and edit() to update
+    the tokens after the code was changed.
+ */
+public class TokenBuffer {
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final byte NEWLINE = (byte) TokenType.NEWLINE.ordinal();
+    private static final int SHARED = -1;
+    private static final int KEYWORD = -2;
+    // A length that does not fit in a byte, see getLength()
+    private static final int LONG = 255;
+
+    private final SymbolInterner symbols;
+    private byte[] kinds;
+    private int[] starts;
+    private byte[] lengths;
+    private int[] extras;
+    private final List<Token> pool;
+    private final Map<String, Integer> poolIndex; // Pool index of each literal text
+    private final Map<Integer, Integer> errorLengths; // Length of each error of LONG characters or more, by pool index
+    private int size;
+
+    // The line of the first token and where that line starts, the lines after it come from the NEWLINE tokens
+    private int firstLine = 1;
+    private int firstLineStart;
+    // Where each line after a NEWLINE token starts, in order, with a gap at the NEWLINE tokens before gapStart
+    private int[] lineStarts;
+    private int lineCount;
+    private int lineGapStart;
+
+    /*
+        The arrays have a gap of unused slots at gapStart, so an edit only
+        moves the tokens between the gap and the edit instead of all the
+        tokens after the edit. Tokens after the gap keep their start
+        without startShift, that way an edit that adds or removes
+        characters changes startShift instead of every token after it.
+        lineStarts has its gap at the same place, after the NEWLINE tokens
+        before gapStart, and uses the same startShift.
+        Example below, with the gap at token 2:
+            starts = [0, 2, _, _, 4, 6]   startShift = 0
+        inserting 3 characters before token 2 only makes startShift 3,
+        and getStart(2) is then 4 + 3 = 7.
+     */
+    private int gapStart;
+    private int startShift;
+
+    public TokenBuffer(SymbolInterner symbols) {
+        this.symbols = symbols;
+        this.kinds = new byte[256];
+        this.starts = new int[256];
+        this.lengths = new byte[256];
+        this.extras = new int[256];
+        this.lineStarts = new int[64];
+        this.pool = new ArrayList<>();
+        this.poolIndex = new HashMap<>();
+        this.errorLengths = new HashMap<>();
+    }
+
+    /*
+        Adds a token at the end. The line and column have to be the ones
+        the Lexer gives, the ones of the first token are kept and the others
+        are worked out again from the NEWLINE tokens.
+     */
+    public void add(Token token, int start, int length, int line, int column) {
+        moveGap(size);
+        if (size == 0) {
+            firstLine = line;
+            firstLineStart = start - (column - 1);
+        } else if (line != firstLine + lineCount || column != start - lastLineStart() + 1) {
+            throw new IllegalArgumentException("Token at line " + line + ", column " + column + " does not follow the tokens before it.");
+        }
+        insert(token, start, length);
+    }
+
+    /*
+        Adds all the tokens of another buffer at the end. They have to
+        follow the tokens of this one in the same code. Their symbols are
+        interned again in this buffer's SymbolInterner, in the order of the
+        other buffer, so the symbols come out the same as if the tokens
+        were read here.
+     */
+    void append(TokenBuffer tokens) {
+        int[] symbolMap = new int[tokens.symbols.size()];
+        for (int i = 0; i < symbolMap.length; i++)
+            symbolMap[i] = symbols.intern(tokens.symbols.getName(i));
+        int[] poolMap = new int[tokens.pool.size()];
+        for (int i = 0; i < poolMap.length; i++)
+            poolMap[i] = addToPool(tokens.pool.get(i));
+        for (Map.Entry<Integer, Integer> error : tokens.errorLengths.entrySet())
+            errorLengths.put(poolMap[error.getKey()], error.getValue());
+
+        moveGap(size);
+        tokens.moveGap(tokens.size);
+        if (size == 0) {
+            firstLine = tokens.firstLine;
+            firstLineStart = tokens.firstLineStart;
+        }
+        for (int i = 0; i < tokens.size; i++) {
+            int extra = tokens.extras[i];
+            byte kind = tokens.kinds[i];
+            if (kind == TokenType.IDENTIFIER.ordinal() && extra >= 0)
+                extra = symbolMap[extra];
+            else if (extra >= 0)
+                extra = poolMap[extra];
+            put(kind, tokens.starts[i], tokens.lengths[i], extra);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType getTokenType(int index) {
+        return TOKEN_TYPES[kinds[slot(index)]];
+    }
+
+    public int getStart(int index) {
+        return index < gapStart ? starts[index] : starts[slot(index)] + startShift;
+    }
+
+    /*
+        A length of LONG characters or more is not kept, it is the length
+        of the text of the symbol or literal, and for an error it is kept
+        in errorLengths.
+     */
+    public int getLength(int index) {
+        int slot = slot(index);
+        int length = lengths[slot] & 0xFF;
+        if (length < LONG)
+            return length;
+        int extra = extras[slot];
+        if (kinds[slot] == TokenType.IDENTIFIER.ordinal())
+            return symbols.getName(extra).length();
+        if (kinds[slot] == TokenType.ERROR.ordinal())
+            return errorLengths.get(extra);
+        return pool.get(extra).getCode().length();
+    }
+
+    public int getLine(int index) {
+        return firstLine + linesBefore(getStart(index));
+    }
+
+    public int getColumn(int index) {
+        int start = getStart(index);
+        int lines = linesBefore(start);
+        return start - (lines == 0 ? firstLineStart : getLineStart(lines - 1)) + 1;
+    }
+
+    public SymbolInterner getSymbols() {
+        return symbols;
+    }
+
+    /*
+        Returns token i as a Token object. Shared tokens are returned as
+        they are, a keyword is made again from its TokenType (the names are
+        the same as the words), an IDENTIFIER from its symbol and a literal
+        is copied from the pool with the position of token i.
+     */
+    public Token getToken(int index) {
+        return getToken(index, getLine(index), getColumn(index));
+    }
+
+    private Token getToken(int index, int line, int column) {
+        int slot = slot(index);
+        TokenType tokenType = TOKEN_TYPES[kinds[slot]];
+        int extra = extras[slot];
+        if (extra == SHARED)
+            return Token.of(tokenType);
+
+        Token token;
+        if (tokenType != TokenType.IDENTIFIER && extra >= 0) {
+            Token literal = pool.get(extra);
+            token = new Token(tokenType, literal.getCode(), literal.getValue());
+        } else if (extra == KEYWORD)
+            token = new Token(tokenType, tokenType.name(), null);
+        else {
+            token = new Token(TokenType.IDENTIFIER, symbols.getName(extra), null);
+            token.setSymbol(extra);
+        }
+        token.setPosition(line, column);
+        return token;
+    }
+
+    /*
+        Reads the tokens from the start, one at a time. The line is counted
+        while reading, so the position of a token is not looked up in
+        lineStarts.
+     */
+    public TokenStream reader() {
+        return new TokenStream() {
+            private int index = -1;
+            private int line = firstLine;
+            private int lineStart = firstLineStart;
+
+            @Override
+            public Token getToken() {
+                // Keeps returning ENDOFFILE once the end is reached
+                if (index < size - 1) {
+                    if (index >= 0 && kinds[slot(index)] == NEWLINE) {
+                        line++;
+                        lineStart = getStart(index) + 1;
+                    }
+                    index++;
+                }
+                return TokenBuffer.this.getToken(index, line, getColumn());
+            }
+
+            @Override
+            public int getLine() {
+                return line;
+            }
+
+            @Override
+            public int getColumn() {
+                return getStart(index) - lineStart + 1;
+            }
+
+            @Override
+            public SymbolInterner getSymbols() {
+                return symbols;
+            }
+        };
+    }
+
+    /*
+        Updates the tokens after removedLength characters at offset were
+        replaced by insertedText. code is the whole code after the edit, it
+        has to use "\n" line endings like the positions in this buffer.
+        Only the tokens from the start of the line of the edit are read
+        again, until a token is found at the same place as before the edit
+        (same text after it and same column). The tokens after that one
+        are the same as before, only moved. So the time it takes depends on
+        the size of the edit and how far it is from the last edit, and not
+        on the size of the code.
+        A word that cannot be read is kept as an ERROR token, like in
+        Lexer.tokenize(), so the code can be edited through a state with
+        errors and back.
+        Returns the tokens that changed, see TokenRange.
+     */
+    public TokenRange edit(CharSequence code, int offset, int removedLength, CharSequence insertedText) {
+        for (int i = 0; i < insertedText.length(); i++) {
+            if (insertedText.charAt(i) == '\r')
+                throw new IllegalArgumentException("The inserted text has to use \"\\n\" line endings.");
+        }
+        int delta = insertedText.length() - removedLength;
+        int editEnd = offset + insertedText.length(); // End of the edit in the new code
+
+        /*
+            Starts again after the last NEWLINE before the edit. The tokens
+            before a NEWLINE never look past it, so they cannot change.
+         */
+        int first = startOfLine(offset);
+        int position = first == 0 ? firstLineStart : getStart(first - 1) + 1;
+        int line = first == 0 ? firstLine : getLine(first - 1) + 1;
+        Lexer lexer = new Lexer(SourceBuffer.wrap(code), symbols, position, line);
+
+        TokenBuffer changed = new TokenBuffer(symbols);
+        int old = first;
+        while (true) {
+            Token token = lexer.getTokenOrError();
+            int start = lexer.getTokenStart();
+            if (start >= editEnd) {
+                while (old < size && getStart(old) < start - delta)
+                    old++;
+                if (old < size && getStart(old) == start - delta && getColumn(old) == lexer.getColumn())
+                    break;
+            }
+            changed.add(token, start, lexer.getTokenLength(), lexer.getLine(), lexer.getColumn());
+            if (token.getTokenType() == TokenType.ENDOFFILE) {
+                old = size;
+                break;
+            }
+        }
+
+        replace(first, old, changed, delta);
+        return new TokenRange(first, first + changed.size(), old - first);
+    }
+
+    // Makes the arrays as small as the tokens in them, once they are all added.
+    public void trimToSize() {
+        moveGap(size);
+        kinds = Arrays.copyOf(kinds, size);
+        starts = Arrays.copyOf(starts, size);
+        lengths = Arrays.copyOf(lengths, size);
+        extras = Arrays.copyOf(extras, size);
+        lineStarts = Arrays.copyOf(lineStarts, lineCount);
+    }
+
+    // Index of the first token on the line of the offset.
+    private int startOfLine(int offset) {
+        // Binary search for the first token that starts at or after the offset
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getStart(middle) < offset)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        int index = low;
+        while (index > 0 && getTokenType(index - 1) != TokenType.NEWLINE)
+            index--;
+        return index;
+    }
+
+    // Number of lines that start at or before the offset, after the first line.
+    private int linesBefore(int offset) {
+        int low = 0;
+        int high = lineCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getLineStart(middle) <= offset)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    // Where line i after the first line starts.
+    private int getLineStart(int index) {
+        return index < lineGapStart ? lineStarts[index] : lineStarts[index + lineStarts.length - lineCount] + startShift;
+    }
+
+    // Where the line of the last token starts, the gap has to be at the end.
+    private int lastLineStart() {
+        return lineCount == 0 ? firstLineStart : lineStarts[lineCount - 1];
+    }
+
+    /*
+        Replaces tokens [from, to) with the tokens in changed, and moves
+        the tokens after them by delta characters.
+     */
+    private void replace(int from, int to, TokenBuffer changed, int delta) {
+        moveGap(to);
+        int lines = newlines(from, to);
+        lineGapStart -= lines;
+        lineCount -= lines;
+        gapStart = from;
+        size -= to - from;
+        startShift += delta;
+
+        for (int i = 0; i < changed.size(); i++)
+            insert(changed.getToken(i), changed.getStart(i), changed.getLength(i));
+    }
+
+    // Number of NEWLINE tokens in [from, to), which have to be before the gap.
+    private int newlines(int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (kinds[i] == NEWLINE)
+                count++;
+        }
+        return count;
+    }
+
+    // Puts the token at gapStart.
+    private void insert(Token token, int start, int length) {
+        int extra;
+        if (token.isShared())
+            extra = SHARED;
+        else if (ReservedWords.isReserved(token.getTokenType()))
+            extra = KEYWORD;
+        else if (token.getTokenType() == TokenType.IDENTIFIER && token.getSymbol() >= 0)
+            extra = token.getSymbol();
+        else
+            extra = addToPool(token);
+
+        if (length >= LONG && token.getTokenType() == TokenType.ERROR)
+            errorLengths.put(extra, length);
+        put((byte) token.getTokenType().ordinal(), start, (byte) Math.min(length, LONG), extra);
+    }
+
+    private void put(byte kind, int start, byte length, int extra) {
+        if (size == kinds.length)
+            grow(size + 1);
+        kinds[gapStart] = kind;
+        starts[gapStart] = start;
+        lengths[gapStart] = length;
+        extras[gapStart] = extra;
+        gapStart++;
+        size++;
+
+        if (kind == NEWLINE) {
+            if (lineCount == lineStarts.length)
+                growLines();
+            lineStarts[lineGapStart] = start + 1;
+            lineGapStart++;
+            lineCount++;
+        }
+    }
+
+    // Keeps the literal or error in the pool and returns its index.
+    private int addToPool(Token token) {
+        if (token.getTokenType() == TokenType.ERROR) {
+            pool.add(token);
+            return pool.size() - 1;
+        }
+
+        // The text of a literal decides its type and value
+        Integer index = poolIndex.get(token.getCode());
+        if (index == null) {
+            index = pool.size();
+            pool.add(token);
+            poolIndex.put(token.getCode(), index);
+        }
+        return index;
+    }
+
+    // Where token i is in the arrays.
+    private int slot(int index) {
+        return index < gapStart ? index : index + kinds.length - size;
+    }
+
+    // Moves the gap so it starts at the index, and the gap of lineStarts with it.
+    private void moveGap(int index) {
+        int gap = kinds.length - size;
+        int lineGap = lineStarts.length - lineCount;
+        if (index < gapStart) {
+            // Tokens [index, gapStart) go after the gap
+            int lines = newlines(index, gapStart);
+            for (int i = index; i < gapStart; i++)
+                starts[i] -= startShift;
+            for (int i = lineGapStart - lines; i < lineGapStart; i++)
+                lineStarts[i] -= startShift;
+            move(index, index + gap, gapStart - index);
+            System.arraycopy(lineStarts, lineGapStart - lines, lineStarts, lineGapStart - lines + lineGap, lines);
+            lineGapStart -= lines;
+        } else if (index > gapStart) {
+            // Tokens [gapStart, index) go before the gap
+            move(gapStart + gap, gapStart, index - gapStart);
+            int lines = newlines(gapStart, index);
+            System.arraycopy(lineStarts, lineGapStart + lineGap, lineStarts, lineGapStart, lines);
+            for (int i = gapStart; i < index; i++)
+                starts[i] += startShift;
+            for (int i = lineGapStart; i < lineGapStart + lines; i++)
+                lineStarts[i] += startShift;
+            lineGapStart += lines;
+        }
+        gapStart = index;
+    }
+
+    private void move(int from, int to, int count) {
+        System.arraycopy(kinds, from, kinds, to, count);
+        System.arraycopy(starts, from, starts, to, count);
+        System.arraycopy(lengths, from, lengths, to, count);
+        System.arraycopy(extras, from, extras, to, count);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(kinds.length * 2, minCapacity);
+        int after = size - gapStart; // The tokens after the gap stay at the end
+        kinds = grow(kinds, capacity, gapStart, after);
+        starts = grow(starts, capacity, gapStart, after);
+        lengths = grow(lengths, capacity, gapStart, after);
+        extras = grow(extras, capacity, gapStart, after);
+    }
+
+    private void growLines() {
+        lineStarts = grow(lineStarts, Math.max(lineStarts.length * 2, 64), lineGapStart, lineCount - lineGapStart);
+    }
+
+    private static int[] grow(int[] array, int capacity, int before, int after) {
+        int[] grown = new int[capacity];
+        System.arraycopy(array, 0, grown, 0, before);
+        System.arraycopy(array, array.length - after, grown, capacity - after, after);
+        return grown;
+    }
+
+    private static byte[] grow(byte[] array, int capacity, int before, int after) {
+        byte[] grown = new byte[capacity];
+        System.arraycopy(array, 0, grown, 0, before);
+        System.arraycopy(array, array.length - after, grown, capacity - after, after);
+        return grown;
+    }
+}
@@ -0,0 +1,36 @@
+package Analysis.SyntaxAnalyzer;
+
+/*
+    The tokens that changed after TokenBuffer.edit().
+    Tokens [start, end) are new, they took the place of removed tokens
+    that were at start before the edit. Tokens before start are the same
+    and tokens from end on are the same but can be at a new position.
+ */
+public class TokenRange {
+    private final int start;
+    private final int end;
+    private final int removed;
+
+    public TokenRange(int start, int end, int removed) {
+        this.start = start;
+        this.end = end;
+        this.removed = removed;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenRange(" + start + ", " + end + ", " + removed + ")";
+    }
+}
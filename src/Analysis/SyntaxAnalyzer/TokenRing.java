@@ -0,0 +1,144 @@
+package Analysis.SyntaxAnalyzer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/*
+    A fixed number of token batches that go around in a circle between
+    one thread that writes them (the Lexer) and one thread that reads them
+    (the Parser). The writer fills the batch at tail and publishes it, the
+    reader takes the batch at head and releases it when it is done, then
+    the writer can fill it again. The batches and their arrays are made
+    once, so nothing is allocated for the tokens going through.
+    When all the batches are full the writer waits for the reader, and
+    when all are empty the reader waits for the writer, so the Lexer is
+    never more than a few batches ahead of the Parser.
+    Example below, with 4 batches:
+        head = 5, tail = 8   batches 5, 6 and 7 are ready to be read
+        head = 5, tail = 9   full, the writer waits until 5 is released
+        head = 9, tail = 9   empty, the reader waits until 9 is published
+ */
+final class TokenRing {
+    // How many times to check again before parking the thread
+    private static final int SPINS = 64;
+    private static final long PARK_NANOS = 100_000;
+
+    static final class Batch {
+        final Token[] tokens;
+        final int[] lines;
+        final int[] columns;
+        int size;
+
+        // An error of the Lexer after the tokens of this batch, and where it was
+        Exception error;
+        int errorLine;
+        int errorColumn;
+
+        Batch(int capacity) {
+            tokens = new Token[capacity];
+            lines = new int[capacity];
+            columns = new int[capacity];
+        }
+    }
+
+    private final Batch[] batches;
+    private final int mask;
+
+    // Only the reader changes head and only the writer changes tail
+    private volatile long head;
+    private volatile long tail;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private volatile Thread waitingReader;
+    private volatile Thread waitingWriter;
+
+    // The number of batches has to be a power of 2
+    TokenRing(int batchCount, int batchSize) {
+        if (batchCount <= 0 || (batchCount & (batchCount - 1)) != 0)
+            throw new IllegalArgumentException("The number of batches has to be a power of 2, not " + batchCount + ".");
+        batches = new Batch[batchCount];
+        for (int i = 0; i < batchCount; i++)
+            batches[i] = new Batch(batchSize);
+        mask = batchCount - 1;
+    }
+
+    /*
+        Returns the next batch to fill, empty, waiting while all the batches
+        are full. Returns null when the ring was closed.
+     */
+    Batch claim() {
+        long position = tail;
+        if (position - head == batches.length) {
+            waitingWriter = Thread.currentThread();
+            for (int spins = 0; position - head == batches.length && !closed; spins++) {
+                if (spins < SPINS)
+                    Thread.onSpinWait();
+                else
+                    LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waitingWriter = null;
+        }
+        if (closed)
+            return null;
+        Batch batch = batches[(int) position & mask];
+        batch.size = 0;
+        batch.error = null;
+        return batch;
+    }
+
+    // Gives the batch from claim() to the reader.
+    void publish() {
+        tail = tail + 1;
+        Thread reader = waitingReader;
+        if (reader != null)
+            LockSupport.unpark(reader);
+    }
+
+    /*
+        Returns the next batch to read, waiting while there is none. The
+        batch stays the reader's until release().
+     */
+    Batch take() {
+        long position = head;
+        if (position == tail) {
+            waitingReader = Thread.currentThread();
+            for (int spins = 0; position == tail && !closed; spins++) {
+                if (spins < SPINS)
+                    Thread.onSpinWait();
+                else
+                    LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waitingReader = null;
+        }
+        if (position == tail) {
+            if (failure != null)
+                throw new IllegalStateException("The lexer thread stopped.", failure);
+            throw new IllegalStateException("The token ring is closed.");
+        }
+        return batches[(int) position & mask];
+    }
+
+    // Gives the batch from take() back to the writer.
+    void release() {
+        head = head + 1;
+        Thread writer = waitingWriter;
+        if (writer != null)
+            LockSupport.unpark(writer);
+    }
+
+    // Stops both sides, a thread waiting in claim() or take() returns.
+    void close() {
+        closed = true;
+        Thread reader = waitingReader;
+        if (reader != null)
+            LockSupport.unpark(reader);
+        Thread writer = waitingWriter;
+        if (writer != null)
+            LockSupport.unpark(writer);
+    }
+
+    // Closes the ring because the writer died, take() throws with the cause.
+    void fail(Throwable cause) {
+        failure = cause;
+        close();
+    }
+}
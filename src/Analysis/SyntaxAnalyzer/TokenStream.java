@@ -0,0 +1,26 @@
+package Analysis.SyntaxAnalyzer;
+
+import Analysis.SymbolTable.SymbolInterner;
+
+/*
+    Where the Parser gets its tokens from. This is the Lexer itself, or a
+    TokenBuffer that was filled by the Lexer before, or a PipelinedLexer
+    that runs the Lexer on another thread.
+    getLine() and getColumn() are the position of the last token returned
+    by getToken(), this also works for the shared tokens like "+" that do
+    not have a position of their own.
+ */
+public interface TokenStream extends AutoCloseable {
+    Token getToken() throws Exception;
+
+    int getLine();
+
+    int getColumn();
+
+    SymbolInterner getSymbols();
+
+    // Frees what the stream still holds when the Parser is done with it.
+    @Override
+    default void close() {
+    }
+}
@@ -1,9 +1,9 @@
-package Analysis.TokenDataTypes;
-
-public enum DataType {
-    Bool,
-    String,
-    Float,
-    Int,
-    Char
-}
+package Analysis.TokenDataTypes;
+
+public enum DataType {
+    Bool,
+    String,
+    Float,
+    Int,
+    Char
+}
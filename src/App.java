@@ -1,31 +1,58 @@
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import Analysis.Interpreter;
-
-public class App {
-    public static void main(String[] args) {
-        String codeFilePath = "D:\\BSCS-3\\BSCS3 - SECOND SEMESTER\\CS322 - PROGRAMMING LANGUAGES\\code.txt"; // Update this with the path to your text file
-
-        try {
-            // Read the code from the text file
-            String code = Files.readString(Paths.get(codeFilePath)).replace("\r", "");
-            System.out.println(code);
-
-            // Execute the interpreter
-            Interpreter program = new Interpreter(code);
-            program.execute(null);
-
-            boolean hasDisplay = code.contains("DISPLAY:");
-
-            if(!hasDisplay){
-                System.out.println("\nNo error");
-            }
-
-            // Check if the code contains DISPLAY tokens
-
-            // Print "No error" only if no DISPLAY token is found
-        } catch (Exception e) {
-        }
-    }
-}
+import java.io.BufferedReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import Analysis.Interpreter;
+import Analysis.Optimization.PassManager;
+import Analysis.SyntaxAnalyzer.Lexer;
+
+public class App {
+    public static void main(String[] args) {
+        String codeFilePath = "D:\\BSCS-3\\BSCS3 - SECOND SEMESTER\\CS322 - PROGRAMMING LANGUAGES\\code.txt"; // Update this with the path to your text file
+        Path codePath = Paths.get(codeFilePath);
+        /*
+            -O0, -O1 or -O2 picks how much the program is optimized before it
+            runs, -time-passes prints the time of each optimization after it.
+            Example below:
+                java App -O1 -time-passes
+         */
+        int level = PassManager.DEFAULT_LEVEL;
+        boolean timePasses = false;
+        for (String arg : args) {
+            if (arg.matches("-O[0-2]"))
+                level = arg.charAt(2) - '0';
+            else if (arg.equals("-time-passes"))
+                timePasses = true;
+        }
+        PassManager passes = PassManager.forLevel(level);
+
+        try {
+            // Print the code line by line so the whole file is never held in memory
+            try (BufferedReader reader = Files.newBufferedReader(codePath)) {
+                reader.lines().forEach(System.out::println);
+            }
+
+            // Execute the interpreter, the Lexer reads the file through memory mapping
+            Interpreter program;
+            try (FileChannel channel = FileChannel.open(codePath)) {
+                program = new Interpreter(new Lexer(channel, 0, channel.size(), StandardCharsets.UTF_8), false, passes);
+            }
+            if (timePasses)
+                System.err.print(passes.getReport());
+            program.execute(null);
+
+            boolean hasDisplay = program.hasDisplay();
+
+            if(!hasDisplay){
+                System.out.println("\nNo error");
+            }
+
+            // Check if the code contains DISPLAY tokens
+
+            // Print "No error" only if no DISPLAY token is found
+        } catch (Exception e) {
+        }
+    }
+}